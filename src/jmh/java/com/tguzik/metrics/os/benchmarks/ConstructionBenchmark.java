@@ -0,0 +1,51 @@
+package com.tguzik.metrics.os.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.Metric;
+import com.tguzik.metrics.os.OperatingEnvironmentGaugeSet;
+import org.openjdk.jmh.annotations.*;
+import oshi.SystemInfo;
+
+/**
+ * Cost of getting the gauges registered: creating {@link SystemInfo} and the gauge set from scratch, and building the
+ * metric map out of an existing gauge set. Cold construction is measured in single shot mode over many forks, since
+ * after the first iteration the JVM has already loaded and initialized everything.
+ */
+@State( Scope.Benchmark )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+public class ConstructionBenchmark {
+    private OperatingEnvironmentGaugeSet gaugeSet;
+
+    @Setup
+    public void setUp() {
+        this.gaugeSet = new OperatingEnvironmentGaugeSet();
+    }
+
+    @Benchmark
+    @BenchmarkMode( Mode.SingleShotTime )
+    @Fork( 20 )
+    @Warmup( iterations = 0 )
+    @Measurement( iterations = 1 )
+    public SystemInfo cold_system_info() {
+        return new SystemInfo();
+    }
+
+    @Benchmark
+    @BenchmarkMode( Mode.SingleShotTime )
+    @Fork( 20 )
+    @Warmup( iterations = 0 )
+    @Measurement( iterations = 1 )
+    public Map<String, Metric> cold_gauge_set() {
+        return new OperatingEnvironmentGaugeSet().getMetrics();
+    }
+
+    @Benchmark
+    @BenchmarkMode( Mode.AverageTime )
+    @Fork( 1 )
+    public Map<String, Metric> get_metrics() {
+        return gaugeSet.getMetrics();
+    }
+
+}
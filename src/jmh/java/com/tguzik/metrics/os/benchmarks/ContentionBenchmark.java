@@ -0,0 +1,54 @@
+package com.tguzik.metrics.os.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.codahale.metrics.Clock;
+import com.tguzik.metrics.os.CachedSnapshot;
+import com.tguzik.metrics.os.SupplierBasedCachedGauge;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Cost of many threads hammering a single expiring value - the classic {@link com.codahale.metrics.CachedGauge} based
+ * {@link SupplierBasedCachedGauge} against {@link CachedSnapshot}. The timeout is short enough for the threads to
+ * keep racing for the reload.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Fork( 1 )
+@Threads( 4 )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+public class ContentionBenchmark {
+    @Param( { "10", "1000" } )
+    public long timeoutMicros;
+
+    private SupplierBasedCachedGauge cachedGauge;
+    private CachedSnapshot<Long> snapshot;
+
+    @Setup
+    public void setUp() {
+        final AtomicLong source = new AtomicLong();
+
+        this.cachedGauge = new SupplierBasedCachedGauge( timeoutMicros,
+                                                         TimeUnit.MICROSECONDS,
+                                                         source::incrementAndGet );
+        this.snapshot = new CachedSnapshot<>( "benchmark",
+                                              Clock.defaultClock(),
+                                              timeoutMicros,
+                                              TimeUnit.MICROSECONDS,
+                                              source::incrementAndGet );
+    }
+
+    @Benchmark
+    public String cached_gauge() {
+        return cachedGauge.getValue();
+    }
+
+    @Benchmark
+    public Long cached_snapshot() {
+        return snapshot.get();
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.tguzik.metrics.os.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Gauge;
+import com.tguzik.metrics.os.OperatingEnvironmentGaugeSet;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Cost of reading a single gauge from each family, both when the value is cached and when every read has to go to the
+ * operating system.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Fork( 1 )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+public class GaugeReadBenchmark {
+    @Param( { "hw.cpu.interrupts",
+              "hw.cpu.freq.max",
+              "hw.mem.available",
+              "hw.mem.swap.used",
+              "hw.sensors.cpu.temperature",
+              "os.fs.fd.open",
+              "os.proc.process.count",
+              "os.uptime",
+              "os.net.hostname",
+              "os.net.ipv4.tcp.connections.established",
+              "os.net.ipv4.udp.datagrams.sent",
+              "os.net.ipv6.tcp.connections.established",
+              "os.net.ipv6.udp.datagrams.sent" } )
+    public String gauge;
+
+    @Param( { "PLATFORM", "OSHI" } )
+    public Probes probes;
+
+    private Gauge<?> cached;
+    private Gauge<?> uncached;
+
+    @Setup
+    public void setUp() {
+        this.cached = find( new OperatingEnvironmentGaugeSet( probes.create(),
+                                                              Clock.defaultClock(),
+                                                              1,
+                                                              TimeUnit.DAYS ) );
+        this.uncached = find( new OperatingEnvironmentGaugeSet( probes.create(),
+                                                                Clock.defaultClock(),
+                                                                0,
+                                                                TimeUnit.NANOSECONDS ) );
+        this.cached.getValue();
+    }
+
+    private Gauge<?> find( final OperatingEnvironmentGaugeSet gaugeSet ) {
+        return (Gauge<?>) gaugeSet.getMetrics().get( gauge );
+    }
+
+    @Benchmark
+    public Object cache_hit() {
+        return cached.getValue();
+    }
+
+    @Benchmark
+    public Object cache_miss() {
+        return uncached.getValue();
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.tguzik.metrics.os.benchmarks;
+
+import com.tguzik.metrics.os.OshiProbes;
+import com.tguzik.metrics.os.SystemProbes;
+import oshi.SystemInfo;
+
+/**
+ * Source of the values for the benchmarked gauge set, so that the fast path for the current platform can be compared
+ * against plain oshi.
+ */
+public enum Probes {
+    PLATFORM {
+        @Override
+        public SystemProbes create() {
+            return SystemProbes.forCurrentPlatform();
+        }
+    },
+    OSHI {
+        @Override
+        public SystemProbes create() {
+            return new OshiProbes( new SystemInfo() );
+        }
+    };
+
+    public abstract SystemProbes create();
+}
@@ -0,0 +1,49 @@
+package com.tguzik.metrics.os.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.tguzik.metrics.os.OperatingEnvironmentGaugeSet;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Cost of a reporter scrape - reading every registered gauge once, the way
+ * {@link com.codahale.metrics.ScheduledReporter} does it. With the zero timeout every scrape finds all the values
+ * expired.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Fork( 1 )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+public class ScrapeBenchmark {
+    @Param( { "86400000", "0" } )
+    public long cacheTimeoutMillis;
+
+    @Param( { "PLATFORM", "OSHI" } )
+    public Probes probes;
+
+    private MetricRegistry registry;
+
+    @Setup
+    public void setUp() {
+        this.registry = new MetricRegistry();
+        this.registry.registerAll( new OperatingEnvironmentGaugeSet( probes.create(),
+                                                                     Clock.defaultClock(),
+                                                                     cacheTimeoutMillis,
+                                                                     TimeUnit.MILLISECONDS ) );
+    }
+
+    @Benchmark
+    @SuppressWarnings( "rawtypes" )
+    public void scrape( final Blackhole blackhole ) {
+        for ( final Gauge gauge : registry.getGauges().values() ) {
+            blackhole.consume( gauge.getValue() );
+        }
+    }
+
+}
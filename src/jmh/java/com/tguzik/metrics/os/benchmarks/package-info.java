@@ -0,0 +1,8 @@
+/**
+ * JMH benchmarks, built and run only with the {@code benchmarks} maven profile. Every benchmark is run with the gc
+ * profiler by default, so that both the time and the allocation rate are reported.
+ */
+@ParametersAreNonnullByDefault
+package com.tguzik.metrics.os.benchmarks;
+
+import javax.annotation.ParametersAreNonnullByDefault;
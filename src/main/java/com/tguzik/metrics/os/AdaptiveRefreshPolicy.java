@@ -0,0 +1,98 @@
+package com.tguzik.metrics.os;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class is meant to keep the cost of reading a source proportional to the value it provides:
+ * <ul>
+ * <li>a source whose load takes more than {@code costBudget} of its timeout (say, walking all of {@code /proc} to count
+ * the processes) gets its timeout stretched until it fits the budget again,</li>
+ * <li>a source that fails or returns a null {@code backoffThreshold} times in a row gets its timeout doubled with
+ * each further miss,</li>
+ * <li>a source that misses {@code disableThreshold} times in a row (say, CPU temperature in a virtual machine) is not
+ * read again at all.</li>
+ * </ul>
+ * The timeout never drops below the base timeout, and - until the source gets disabled - never exceeds the maximum.
+ * A successful load resets the count of misses. Zero turns the respective rule off.
+ */
+public class AdaptiveRefreshPolicy implements RefreshPolicy {
+    private static final int MAX_SHIFT = Long.SIZE - 2;
+
+    private final AtomicInteger consecutiveMisses;
+    private final long maxTimeoutNanos;
+    private final int backoffThreshold;
+    private final int disableThreshold;
+    private final long timeoutNanos;
+    private final double costBudget;
+
+    /**
+     * @param timeoutNanos base timeout, used as long as the loads are cheap and successful
+     * @param maxTimeoutNanos upper bound of the stretched and backed off timeouts
+     * @param costBudget largest acceptable fraction of the timeout spent loading, like {@code 0.01}
+     * @param backoffThreshold number of misses in a row that starts the exponential backoff
+     * @param disableThreshold number of misses in a row after which the source is not read again
+     */
+    public AdaptiveRefreshPolicy( final long timeoutNanos,
+                                  final long maxTimeoutNanos,
+                                  final double costBudget,
+                                  final int backoffThreshold,
+                                  final int disableThreshold ) {
+        if ( timeoutNanos <= 0 || maxTimeoutNanos < timeoutNanos ) {
+            throw new IllegalArgumentException( "Expected 0 < timeout <= max timeout, got " + timeoutNanos + " and "
+                                                + maxTimeoutNanos );
+        }
+
+        if ( costBudget < 0 || backoffThreshold < 0 || disableThreshold < 0 ) {
+            throw new IllegalArgumentException( "Cost budget and thresholds cannot be negative" );
+        }
+
+        this.consecutiveMisses = new AtomicInteger();
+        this.maxTimeoutNanos = maxTimeoutNanos;
+        this.backoffThreshold = backoffThreshold;
+        this.disableThreshold = disableThreshold;
+        this.timeoutNanos = timeoutNanos;
+        this.costBudget = costBudget;
+    }
+
+    /** Number of failed or null loads since the last successful one */
+    public int getConsecutiveMisses() {
+        return consecutiveMisses.get();
+    }
+
+    @Override
+    public long nextTimeoutNanos( final LoadListener.Outcome outcome, final long loadNanos ) {
+        if ( outcome == LoadListener.Outcome.LOADED ) {
+            consecutiveMisses.set( 0 );
+            return stretched( loadNanos );
+        }
+
+        final int misses = consecutiveMisses.incrementAndGet();
+
+        if ( disableThreshold > 0 && misses >= disableThreshold ) {
+            return NEVER;
+        }
+
+        if ( backoffThreshold > 0 && misses >= backoffThreshold ) {
+            return backedOff( stretched( loadNanos ), misses - backoffThreshold + 1 );
+        }
+
+        return stretched( loadNanos );
+    }
+
+    private long stretched( final long loadNanos ) {
+        if ( costBudget <= 0 ) {
+            return timeoutNanos;
+        }
+
+        final double affordable = loadNanos / costBudget;
+
+        return affordable >= maxTimeoutNanos ? maxTimeoutNanos : Math.max( timeoutNanos, (long) affordable );
+    }
+
+    private long backedOff( final long timeout, final int doublings ) {
+        final int shift = Math.min( doublings, MAX_SHIFT );
+
+        return timeout > maxTimeoutNanos >> shift ? maxTimeoutNanos : timeout << shift;
+    }
+
+}
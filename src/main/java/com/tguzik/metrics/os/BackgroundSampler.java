@@ -0,0 +1,105 @@
+package com.tguzik.metrics.os;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Refreshes a set of snapshots on a dedicated executor, so that threads reading the gauges (usually reporters) never
+ * pay for the JNA calls or {@code /proc} parsing - they only get the last published value.
+ * <p>
+ * The executor is provided by the user, so it's up to them whether it's a single platform thread, a shared scheduler
+ * or something backed by virtual threads. This class never shuts the executor down.
+ * <p>
+ * While the sampler is running, the snapshots are marked as refreshed in background. Closing the sampler reverts them
+ * to refreshing on read.
+ * <p>
+ * Only the snapshots that have been read or have a listener are refreshed (see {@link CachedSnapshot#isUsed()}), so
+ * sampling the snapshots of all source groups does not read the ones no gauge uses - like the enumeration of all
+ * processes. A snapshot read for the first time gets its value on the next sample.
+ */
+@SuppressWarnings( "PMD.DoNotUseThreads" ) // Samples on the executor given by the user, never starts threads of its own
+public class BackgroundSampler implements Closeable {
+    private final AtomicReference<ScheduledFuture<?>> scheduled;
+    private final Object lock;
+    private final List<CachedSnapshot<?>> snapshots;
+    private final ScheduledExecutorService executor;
+    private final TimeUnit periodUnit;
+    private final long period;
+
+    public BackgroundSampler( final Collection<? extends CachedSnapshot<?>> snapshots,
+                              final ScheduledExecutorService executor,
+                              final long period,
+                              final TimeUnit periodUnit ) {
+        this.snapshots = new ArrayList<>( snapshots );
+        this.executor = Objects.requireNonNull( executor );
+        this.periodUnit = Objects.requireNonNull( periodUnit );
+        this.scheduled = new AtomicReference<>();
+        this.lock = new Object();
+        this.period = period;
+    }
+
+    /**
+     * Marks the snapshots as refreshed in background and schedules the sampling. The first sample is taken right away.
+     * Calling this method on an already started sampler does nothing.
+     *
+     * @return this instance, for convenience
+     */
+    public BackgroundSampler start() {
+        synchronized ( lock ) {
+            if ( scheduled.get() == null ) {
+                snapshots.forEach( snapshot -> snapshot.setRefreshedInBackground( true ) );
+                scheduled.set( executor.scheduleWithFixedDelay( this::sample, 0, period, periodUnit ) );
+            }
+        }
+
+        return this;
+    }
+
+    public boolean isRunning() {
+        return scheduled.get() != null;
+    }
+
+    /**
+     * Refreshes every used snapshot that has expired since the last sample. Snapshots swallow exceptions thrown while
+     * loading and while notifying their listeners, and whatever else a snapshot throws is swallowed here, so a single
+     * misbehaving source or listener can't cancel the whole schedule.
+     */
+    public void sample() {
+        for ( final CachedSnapshot<?> snapshot : snapshots ) {
+            if ( snapshot.isUsed() ) {
+                refresh( snapshot );
+            }
+        }
+    }
+
+    private static boolean refresh( final CachedSnapshot<?> snapshot ) {
+        try {
+            return snapshot.refreshIfExpired();
+        }
+        catch ( RuntimeException e ) {
+            // An exception escaping the scheduled task would silently cancel it, freezing every gauge for good
+            return false;
+        }
+    }
+
+    /** Stops the sampling and reverts the snapshots to refreshing on read. Does not shut down the executor. */
+    @Override
+    public void close() {
+        synchronized ( lock ) {
+            final ScheduledFuture<?> future = scheduled.getAndSet( null );
+
+            if ( future != null ) {
+                future.cancel( false );
+                snapshots.forEach( snapshot -> snapshot.setRefreshedInBackground( false ) );
+            }
+        }
+    }
+
+}
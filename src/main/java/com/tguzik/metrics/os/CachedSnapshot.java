@@ -0,0 +1,205 @@
+package com.tguzik.metrics.os;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import com.codahale.metrics.Clock;
+
+/**
+ * This class is meant to hold the result of a single, possibly expensive, read of a group of related values - like
+ * TCP statistics or memory details - so that every gauge derived from that group shares one read per cache timeout.
+ * <p>
+ * The refresh follows the same rules as {@link com.codahale.metrics.CachedGauge}: the first caller to notice that the
+ * value has expired reloads it, everybody else keeps getting the previous value in the meantime.
+ * <p>
+ * When a {@link BackgroundSampler} takes over the refreshes, reading this snapshot never triggers a reload - callers
+ * always get the last published value, even if it has already expired, while the sampler fetches the next one. The
+ * sampler only refreshes the snapshots that are {@link #isUsed() used}, so a snapshot nobody reads stays unread.
+ * <p>
+ * When the retrieval throws an exception or returns a null, this snapshot will hold a null until the next refresh.
+ * Listeners are notified only about the successful refreshes, while the {@link LoadListener} - if any - learns about
+ * every load. A listener that throws an exception does not stop the other listeners nor the refresh, the failure is
+ * only passed on to the {@link LoadListener}.
+ * <p>
+ * By default the value stays fresh for the timeout given on construction. A {@link RefreshPolicy} can change that
+ * after every load - stretching the timeout of an expensive source, or backing off from one that keeps failing.
+ */
+public class CachedSnapshot<T> implements Supplier<T> {
+    private final List<SnapshotListener<? super T>> listeners;
+    private final Supplier<? extends T> uncachedSupplier;
+    private final AtomicReference<RefreshPolicy> refreshPolicy;
+    private final AtomicReference<LoadListener> loadListener;
+    private final AtomicBoolean refreshedInBackground;
+    private final AtomicBoolean used;
+    private final AtomicReference<T> value;
+    private final AtomicLong reloadAt;
+    private final long timeoutNanos;
+    private final String name;
+    private final Clock clock;
+
+    public CachedSnapshot( final String name,
+                           final Clock clock,
+                           final long timeout,
+                           final TimeUnit timeoutUnit,
+                           final Supplier<? extends T> uncachedSupplier ) {
+        this.uncachedSupplier = Objects.requireNonNull( uncachedSupplier );
+        this.timeoutNanos = timeoutUnit.toNanos( timeout );
+        this.name = Objects.requireNonNull( name );
+        this.clock = Objects.requireNonNull( clock );
+        this.value = new AtomicReference<>();
+        this.reloadAt = new AtomicLong( clock.getTick() );
+        this.refreshedInBackground = new AtomicBoolean();
+        this.used = new AtomicBoolean();
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.loadListener = new AtomicReference<>( LoadListener.NONE );
+        this.refreshPolicy = new AtomicReference<>( RefreshPolicy.fixed( timeoutNanos ) );
+    }
+
+    /** Name of the source group, like {@code net.ipv4.tcp} */
+    public String getName() {
+        return name;
+    }
+
+    /** Timeout given on construction, which may be overridden by the {@link RefreshPolicy} */
+    public long getTimeoutNanos() {
+        return timeoutNanos;
+    }
+
+    @Override
+    public T get() {
+        // Checked first, so that the reads do not keep writing the same flag
+        if ( !used.get() ) {
+            used.set( true );
+        }
+
+        if ( !refreshedInBackground.get() && shouldLoad() ) {
+            reload();
+        }
+
+        return value.get();
+    }
+
+    /**
+     * Reloads the value if it has expired, regardless of whether the refreshes are done in background or not.
+     *
+     * @return true if the value was reloaded
+     */
+    public boolean refreshIfExpired() {
+        if ( shouldLoad() ) {
+            reload();
+            return true;
+        }
+
+        return false;
+    }
+
+    /** True once the value has been read or a listener has been registered */
+    public boolean isUsed() {
+        return used.get();
+    }
+
+    public boolean isRefreshedInBackground() {
+        return refreshedInBackground.get();
+    }
+
+    /** When set, reading the value will never trigger a reload - someone else is expected to call the refresh */
+    public void setRefreshedInBackground( final boolean refreshedInBackground ) {
+        this.refreshedInBackground.set( refreshedInBackground );
+    }
+
+    /** Registers a listener to be notified after each successful refresh, starting with the next one */
+    public void addListener( final SnapshotListener<? super T> listener ) {
+        listeners.add( Objects.requireNonNull( listener ) );
+        used.set( true );
+    }
+
+    public void removeListener( final SnapshotListener<? super T> listener ) {
+        listeners.remove( listener );
+    }
+
+    /** Number of registered listeners - one that keeps growing means gauge sets are created over and over */
+    public int getListenerCount() {
+        return listeners.size();
+    }
+
+    /** Replaces the listener to be notified about the outcome of every load, null stops the notifications */
+    public void setLoadListener( final LoadListener loadListener ) {
+        this.loadListener.set( loadListener == null ? LoadListener.NONE : loadListener );
+    }
+
+    /** Replaces the policy deciding the timeout after each load, null goes back to the timeout given on construction */
+    public void setRefreshPolicy( final RefreshPolicy refreshPolicy ) {
+        this.refreshPolicy.set( refreshPolicy == null ? RefreshPolicy.fixed( timeoutNanos ) : refreshPolicy );
+    }
+
+    private T loadValue( final long startTick ) {
+        try {
+            final T loaded = uncachedSupplier.get();
+
+            loaded( loaded == null ? LoadListener.Outcome.NULL : LoadListener.Outcome.LOADED, startTick );
+            return loaded;
+        }
+        catch ( Exception e ) {
+            // Same reasoning as in SupplierBasedCachedGauge - the gauges derived from this snapshot will deal with it
+            loaded( LoadListener.Outcome.FAILED, startTick );
+            return null;
+        }
+    }
+
+    private void loaded( final LoadListener.Outcome outcome, final long startTick ) {
+        final long endTick = clock.getTick();
+        final long timeout = refreshPolicy.get().nextTimeoutNanos( outcome, endTick - startTick );
+
+        // The policy may both shorten and stretch the timeout that was assumed when this load got claimed. Huge timeouts
+        // like NEVER wrap the sum around, which is fine as long as the ticks are only compared by their difference.
+        reloadAt.set( startTick + timeout );
+        loadListener.get().onLoad( outcome, startTick, endTick );
+    }
+
+    private void reload() {
+        final long tick = clock.getTick();
+        final T loaded = loadValue( tick );
+
+        value.set( loaded );
+
+        if ( loaded != null ) {
+            for ( final SnapshotListener<? super T> listener : listeners ) {
+                notifyListener( listener, loaded, tick );
+            }
+        }
+    }
+
+    private void notifyListener( final SnapshotListener<? super T> listener, final T loaded, final long tick ) {
+        try {
+            listener.onRefresh( loaded, tick );
+        }
+        catch ( RuntimeException e ) {
+            // Let's not blow up the refreshing thread - be it a reporter or the background sampler - nor the other
+            // listeners because of a single broken one
+            loadListener.get().onListenerFailure( e );
+        }
+    }
+
+    private boolean shouldLoad() {
+        for ( ; ; ) {
+            final long time = clock.getTick();
+            final long current = reloadAt.get();
+
+            // The ticks may be negative and may wrap around, only their difference is meaningful
+            if ( current - time > 0 ) {
+                return false;
+            }
+
+            if ( reloadAt.compareAndSet( current, time + timeoutNanos ) ) {
+                return true;
+            }
+        }
+    }
+
+}
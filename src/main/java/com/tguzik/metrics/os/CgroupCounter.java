@@ -0,0 +1,44 @@
+package com.tguzik.metrics.os;
+
+/**
+ * Limits, usage and cumulative counters of the control group this library runs in. Sizes are in bytes, times in
+ * microseconds - including the pressure stall totals, which count the time some (or all) of the tasks were stalled.
+ * Counters marked as monotonic get per-second rates as well.
+ */
+public enum CgroupCounter {
+    MEMORY_LIMIT( "memory.limit", false ),
+    MEMORY_USAGE( "memory.usage", false ),
+    MEMORY_WORKING_SET( "memory.working-set", false ),
+    OOM_EVENTS( "memory.oom.events", true ),
+    OOM_KILLS( "memory.oom.kills", true ),
+    CPU_QUOTA( "cpu.quota", false ),
+    CPU_PERIOD( "cpu.period", false ),
+    CPU_PERIODS( "cpu.periods", true ),
+    CPU_THROTTLED_PERIODS( "cpu.throttled.periods", true ),
+    CPU_THROTTLED_TIME( "cpu.throttled.time", true ),
+    CPU_PRESSURE_SOME( "pressure.cpu.some", true ),
+    CPU_PRESSURE_FULL( "pressure.cpu.full", true ),
+    MEMORY_PRESSURE_SOME( "pressure.memory.some", true ),
+    MEMORY_PRESSURE_FULL( "pressure.memory.full", true ),
+    IO_PRESSURE_SOME( "pressure.io.some", true ),
+    IO_PRESSURE_FULL( "pressure.io.full", true );
+
+    private final String name;
+    private final boolean monotonic;
+
+    CgroupCounter( final String name, final boolean monotonic ) {
+        this.name = name;
+        this.monotonic = monotonic;
+    }
+
+    /** Part of the gauge name */
+    public String getName() {
+        return name;
+    }
+
+    /** Whether the counter only ever grows, so that its rate makes sense */
+    public boolean isMonotonic() {
+        return monotonic;
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.tguzik.metrics.os;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+
+/**
+ * Gauges of the control group this library runs in, as listed in {@code /proc/self/cgroup}, named
+ * {@code cgroup.<counter>}: memory limit, usage and working set, OOM events, CPU quota and throttling, and pressure
+ * stall totals (see {@link CgroupCounter}). Inside a container or a systemd service these are the limits that actually
+ * apply, as opposed to the resources of the whole node reported by {@code hw.mem.total} or
+ * {@code hw.cpu.logical.count}.
+ * <p>
+ * Each monotonic counter gets its per-second rates too (see {@link RateGaugeSet#rateGauges}) - the rate of
+ * {@code cgroup.cpu.throttled.time} or of a pressure total is the number of microseconds per second the group was
+ * throttled or stalled. {@code cgroup.cpu.limit} is the quota divided by the period, that is the number of processors
+ * the group may keep busy. All gauges are unavailable where no cgroup filesystem is mounted, and so are the counters
+ * the kernel does not provide for the root group - like the limits - when the process runs in it.
+ * <p>
+ * All of them are fed by a single snapshot, and the rates are updated by the listeners this set attaches to it on
+ * construction - the gauge sets of a {@link SamplingEngine} share one through {@link SharedGaugeSets#getCgroup()}.
+ */
+public class CgroupGaugeSet implements MetricSet {
+    public static final String PREFIX = "cgroup";
+
+    private final Map<String, Metric> gauges;
+
+    public CgroupGaugeSet( final CachedSnapshot<CgroupReading> snapshot ) {
+        Objects.requireNonNull( snapshot );
+
+        this.gauges = new ConcurrentHashMap<>();
+
+        for ( final CgroupCounter counter : CgroupCounter.values() ) {
+            addCounter( snapshot, counter );
+        }
+
+        gauges.put( name( PREFIX, "version" ), new DerivedLongGauge<>( snapshot, CgroupReading::getVersion ) );
+        gauges.put( name( PREFIX, "cpu.limit" ), new DerivedDoubleGauge<>( snapshot, CgroupReading::getCpuLimit ) );
+    }
+
+    private void addCounter( final CachedSnapshot<CgroupReading> snapshot, final CgroupCounter counter ) {
+        final String counterName = name( PREFIX, counter.getName() );
+
+        gauges.put( counterName, counterGauge( snapshot, counter ) );
+
+        if ( counter.isMonotonic() ) {
+            final CounterRate<CgroupReading> rate = new CounterRate<>( reading -> reading.get( counter ) );
+
+            snapshot.addListener( rate );
+            gauges.putAll( RateGaugeSet.rateGauges( counterName, snapshot, rate ) );
+        }
+    }
+
+    private static Gauge<Long> counterGauge( final CachedSnapshot<CgroupReading> snapshot,
+                                             final CgroupCounter counter ) {
+        return new DerivedLongGauge<>( snapshot, reading -> reading.get( counter ) );
+    }
+
+    @Override
+    public Map<String, Metric> getMetrics() {
+        return new ConcurrentHashMap<>( gauges );
+    }
+
+}
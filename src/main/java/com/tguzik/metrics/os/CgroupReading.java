@@ -0,0 +1,43 @@
+package com.tguzik.metrics.os;
+
+import java.util.Arrays;
+
+/**
+ * Point-in-time copy of the {@link CgroupCounter counters} of a control group, all of them taken from the same read.
+ * The probes fill the reading in before it gets published, after that it is not modified.
+ */
+public final class CgroupReading {
+    public static final long UNAVAILABLE = -1L;
+
+    private final long[] counters;
+    private final int version;
+
+    /** @param version of the cgroup hierarchy the counters were read from, 1 or 2 */
+    public CgroupReading( final int version ) {
+        this.counters = new long[CgroupCounter.values().length];
+        this.version = version;
+
+        Arrays.fill( counters, UNAVAILABLE );
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public long get( final CgroupCounter counter ) {
+        return counters[counter.ordinal()];
+    }
+
+    public void set( final CgroupCounter counter, final long value ) {
+        counters[counter.ordinal()] = value;
+    }
+
+    /** Number of processors the quota is worth, or {@link DerivedDoubleGauge#UNAVAILABLE} when there is no quota */
+    public double getCpuLimit() {
+        final long quota = get( CgroupCounter.CPU_QUOTA );
+        final long period = get( CgroupCounter.CPU_PERIOD );
+
+        return quota > 0 && period > 0 ? (double) quota / period : DerivedDoubleGauge.UNAVAILABLE;
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.tguzik.metrics.os;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+
+/**
+ * Metrics about the collection itself, for each source group {@code <group>}:
+ * <ul>
+ * <li>{@code metrics-os.collector.<group>.load} - timer of each load of the group</li>
+ * <li>{@code metrics-os.collector.<group>.failures} - counter of the loads that threw an exception</li>
+ * <li>{@code metrics-os.collector.<group>.nulls} - counter of the loads that returned a null</li>
+ * <li>{@code metrics-os.collector.<group>.age} - milliseconds since the last successful load, -1 if none yet</li>
+ * <li>{@code metrics-os.collector.<group>.listener.failures} - counter of the snapshot listeners that threw an
+ * exception</li>
+ * </ul>
+ * This tells which probe is burning CPU or silently failing on given system. Creating this set attaches a
+ * {@link LoadListener} to each of the snapshots (see {@link CollectorStatistics}), replacing whatever was there.
+ */
+public class CollectorGaugeSet implements MetricSet {
+    public static final String PREFIX = "metrics-os.collector";
+
+    private final Map<String, CollectorStatistics> statistics;
+
+    public CollectorGaugeSet( final Collection<? extends CachedSnapshot<?>> snapshots, final Clock clock ) {
+        Objects.requireNonNull( clock );
+
+        this.statistics = new ConcurrentHashMap<>();
+
+        final Function<String, CollectorStatistics> perGroup = group -> new CollectorStatistics( clock );
+
+        for ( final CachedSnapshot<?> snapshot : snapshots ) {
+            snapshot.setLoadListener( statistics.computeIfAbsent( snapshot.getName(), perGroup ) );
+        }
+    }
+
+    /** Statistics of given source group, or null if there is no such group */
+    public CollectorStatistics getStatistics( final String group ) {
+        return statistics.get( group );
+    }
+
+    @Override
+    public Map<String, Metric> getMetrics() {
+        final Map<String, Metric> product = new ConcurrentHashMap<>();
+
+        statistics.forEach( ( group, stats ) -> {
+            product.put( name( PREFIX, group, "load" ), stats.getLoadTime() );
+            product.put( name( PREFIX, group, "failures" ), stats.getFailures() );
+            product.put( name( PREFIX, group, "nulls" ), stats.getNulls() );
+            product.put( name( PREFIX, group, "age" ), stats.getAge() );
+            product.put( name( PREFIX, group, "listener.failures" ), stats.getListenerFailures() );
+        } );
+
+        return product;
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.tguzik.metrics.os;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Timer;
+
+/**
+ * This class is meant to account the cost and the failures of the loads of a single source group, like
+ * {@code net.ipv4.tcp}: how long each load took, how many of them failed or came back empty, how long ago the last
+ * successful one finished, and how many times the listeners of the group failed. The counters are striped (every
+ * {@link Counter} is backed by a {@code LongAdder}), and the loads happen at most once per cache timeout, so the
+ * accounting can be left on permanently.
+ */
+public class CollectorStatistics implements LoadListener {
+    /** Age of a source that has not been loaded successfully yet */
+    public static final long UNAVAILABLE = -1L;
+
+    private final AtomicLong lastSuccessTick;
+    private final Counter listenerFailures;
+    private final Counter failures;
+    private final Counter nulls;
+    private final Timer loadTime;
+    private final Clock clock;
+
+    public CollectorStatistics( final Clock clock ) {
+        this.clock = Objects.requireNonNull( clock );
+        this.lastSuccessTick = new AtomicLong( Long.MIN_VALUE );
+        this.listenerFailures = new Counter();
+        this.failures = new Counter();
+        this.nulls = new Counter();
+        this.loadTime = new Timer();
+    }
+
+    @Override
+    public void onLoad( final Outcome outcome, final long startTick, final long endTick ) {
+        loadTime.update( endTick - startTick, TimeUnit.NANOSECONDS );
+
+        if ( outcome == Outcome.LOADED ) {
+            lastSuccessTick.set( endTick );
+        }
+        else if ( outcome == Outcome.NULL ) {
+            nulls.inc();
+        }
+        else {
+            failures.inc();
+        }
+    }
+
+    @Override
+    public void onListenerFailure( final RuntimeException failure ) {
+        listenerFailures.inc();
+    }
+
+    /** Duration of each load */
+    public Timer getLoadTime() {
+        return loadTime;
+    }
+
+    /** Loads that threw an exception */
+    public Counter getFailures() {
+        return failures;
+    }
+
+    /** Loads that returned a null */
+    public Counter getNulls() {
+        return nulls;
+    }
+
+    /** Snapshot listeners that threw an exception, like a threshold callback or a discovery clashing in a registry */
+    public Counter getListenerFailures() {
+        return listenerFailures;
+    }
+
+    /** Milliseconds since the last successful load finished, or {@link #UNAVAILABLE} if there was none yet */
+    public Gauge<Long> getAge() {
+        return () -> {
+            final long tick = lastSuccessTick.get();
+
+            return tick == Long.MIN_VALUE ? UNAVAILABLE : TimeUnit.NANOSECONDS.toMillis( clock.getTick() - tick );
+        };
+    }
+
+}
@@ -0,0 +1,104 @@
+package com.tguzik.metrics.os;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+import io.vavr.Lazy;
+
+/**
+ * Basic operational gauges - {@code hw.cpu.*} (frequency, interrupts, load average and utilization), {@code hw.mem.*},
+ * {@code os.uptime} and {@code os.proc.*}. This is what most services want to keep an eye on.
+ * <p>
+ * The gauges of each logical processor are included once they get discovered, see {@link ProcessorGaugeSet}.
+ */
+public class CoreGaugeSet implements MetricSet {
+    private final Supplier<ProcessorGaugeSet> processors;
+    private final SharedSnapshots snapshots;
+
+    public CoreGaugeSet( final SharedSnapshots snapshots ) {
+        this( snapshots, Lazy.of( () -> new ProcessorGaugeSet( snapshots.getCpu() ) ) );
+    }
+
+    /** @param processors called on first use of the processor gauges, and on every subsequent one */
+    public CoreGaugeSet( final SharedSnapshots snapshots, final Supplier<ProcessorGaugeSet> processors ) {
+        this.snapshots = Objects.requireNonNull( snapshots );
+        this.processors = Objects.requireNonNull( processors );
+    }
+
+    /** Gauges of each logical processor, created on first call and shared by all subsequent calls */
+    public ProcessorGaugeSet getProcessors() {
+        return processors.get();
+    }
+
+    private static <T> Gauge<Long> longGauge( final Supplier<T> snapshot, final ToLongFunction<? super T> extractor ) {
+        return new DerivedLongGauge<>( snapshot, extractor );
+    }
+
+    private static <T> Gauge<Double> doubleGauge( final Supplier<T> snapshot,
+                                                  final ToDoubleFunction<? super T> extractor ) {
+        return new DerivedDoubleGauge<>( snapshot, extractor );
+    }
+
+    @Override
+    public Map<String, Metric> getMetrics() {
+        final Map<String, Metric> product = new ConcurrentHashMap<>();
+
+        product.put( "os.uptime", longGauge( snapshots.getUptime(), Long::longValue ) );
+        product.put( "os.proc.process.count",
+                     longGauge( snapshots.getProcessCounts(), ProcessCountsReading::getProcessCount ) );
+        product.put( "os.proc.thread.count",
+                     longGauge( snapshots.getProcessCounts(), ProcessCountsReading::getThreadCount ) );
+
+        product.put( "hw.mem.total", longGauge( snapshots.getMemory(), MemoryReading::getTotal ) );
+        product.put( "hw.mem.available", longGauge( snapshots.getMemory(), MemoryReading::getAvailable ) );
+        product.put( "hw.mem.page.size", longGauge( snapshots.getMemory(), MemoryReading::getPageSize ) );
+        product.put( "hw.mem.swap.used",
+                     longGauge( snapshots.getVirtualMemory(), VirtualMemoryReading::getSwapUsed ) );
+        product.put( "hw.mem.swap.total",
+                     longGauge( snapshots.getVirtualMemory(), VirtualMemoryReading::getSwapTotal ) );
+        product.put( "hw.mem.virtual.used",
+                     longGauge( snapshots.getVirtualMemory(), VirtualMemoryReading::getVirtualInUse ) );
+        product.put( "hw.mem.virtual.total",
+                     longGauge( snapshots.getVirtualMemory(), VirtualMemoryReading::getVirtualMax ) );
+
+        cpuGauges().forEach( ( key, gauge ) -> product.put( name( "hw.cpu", key ), gauge ) );
+        product.putAll( getProcessors().getMetrics() );
+
+        return product;
+    }
+
+    /**
+     * Gauges for the whole system - all of them fed by a single read per cache timeout, shared with the gauges of each
+     * logical processor.
+     */
+    public Map<String, Gauge<?>> cpuGauges() {
+        final Map<String, Gauge<?>> product = new ConcurrentHashMap<>();
+        final CpuSnapshots cpu = snapshots.getCpu();
+
+        product.put( "freq.max", longGauge( cpu.getMaxFrequency(), Long::longValue ) );
+
+        product.put( "interrupts", longGauge( cpu.getCounters(), CpuCountersReading::getInterrupts ) );
+        product.put( "context-switches", longGauge( cpu.getCounters(), CpuCountersReading::getContextSwitches ) );
+
+        product.put( "load-average.1m", doubleGauge( cpu.getLoadAverage(), LoadAverageReading::getOneMinute ) );
+        product.put( "load-average.5m", doubleGauge( cpu.getLoadAverage(), LoadAverageReading::getFiveMinutes ) );
+        product.put( "load-average.15m", doubleGauge( cpu.getLoadAverage(), LoadAverageReading::getFifteenMinutes ) );
+
+        for ( final CpuTime time : CpuTime.values() ) {
+            product.put( name( "utilization", time.getName() ),
+                         doubleGauge( cpu.getUtilization(), reading -> reading.getSystem( time ) ) );
+        }
+
+        return product;
+    }
+
+}
@@ -0,0 +1,142 @@
+package com.tguzik.metrics.os;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.ToLongFunction;
+
+/**
+ * This class is meant to turn a cumulative OS counter - like interrupts or retransmitted segments - into a per-second
+ * rate. It listens to the refreshes of the snapshot holding the counter, so the rate is computed from successive cached
+ * samples and their clock ticks, at the cost of a few arithmetic operations per refresh.
+ * <p>
+ * Next to the instant rate (between the last two samples) it keeps the 1, 5 and 15 minute exponentially weighted
+ * moving averages, like {@link com.codahale.metrics.Meter} does. Unlike the meter, the smoothing takes the actual time
+ * between samples into account, so it works with any cache timeout.
+ * <p>
+ * When the counter goes backwards, it is assumed to have been reset to zero. Counters declared as 32-bit (see
+ * {@link #of32BitCounter}) are assumed to have wrapped around instead, if the previous value was in the upper half of
+ * the 32-bit range. Negative (unavailable) values are skipped.
+ * <p>
+ * All rates are {@link #UNAVAILABLE} until there are two samples to compare.
+ */
+public class CounterRate<T> implements SnapshotListener<T> {
+    public static final double UNAVAILABLE = DerivedDoubleGauge.UNAVAILABLE;
+
+    private static final long WRAPAROUND_THRESHOLD = 1L << 31;
+    private static final long WRAPAROUND_LIMIT = 1L << 32;
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos( 1 );
+
+    private static final int INSTANT = 0;
+    private static final int ONE_MINUTE = 1;
+    private static final int FIVE_MINUTES = 2;
+    private static final int FIFTEEN_MINUTES = 3;
+    private static final double[] WINDOW_NANOS = { 0,
+                                                   TimeUnit.MINUTES.toNanos( 1 ),
+                                                   TimeUnit.MINUTES.toNanos( 5 ),
+                                                   TimeUnit.MINUTES.toNanos( 15 ) };
+
+    private final ToLongFunction<? super T> counter;
+    private final AtomicLongArray rates;
+    private final boolean wraps32Bit;
+    private final Object lock;
+    private long previousValue;
+    private long previousTick;
+
+    public CounterRate( final ToLongFunction<? super T> counter ) {
+        this( counter, false );
+    }
+
+    private CounterRate( final ToLongFunction<? super T> counter, final boolean wraps32Bit ) {
+        this.counter = Objects.requireNonNull( counter );
+        this.wraps32Bit = wraps32Bit;
+        this.rates = new AtomicLongArray( WINDOW_NANOS.length );
+        this.lock = new Object();
+        this.previousValue = -1L;
+
+        for ( int i = 0; i < WINDOW_NANOS.length; i++ ) {
+            rates.set( i, Double.doubleToRawLongBits( UNAVAILABLE ) );
+        }
+    }
+
+    /** Rate of a counter declared as 32-bit, which wraps around to zero after {@code 2^32 - 1} */
+    public static <T> CounterRate<T> of32BitCounter( final ToLongFunction<? super T> counter ) {
+        return new CounterRate<>( counter, true );
+    }
+
+    /** Per-second rate between the last two samples */
+    public double getInstantRate() {
+        return getRate( INSTANT );
+    }
+
+    public double getOneMinuteRate() {
+        return getRate( ONE_MINUTE );
+    }
+
+    public double getFiveMinuteRate() {
+        return getRate( FIVE_MINUTES );
+    }
+
+    public double getFifteenMinuteRate() {
+        return getRate( FIFTEEN_MINUTES );
+    }
+
+    @Override
+    public void onRefresh( final T value, final long tick ) {
+        final long current;
+
+        try {
+            current = counter.applyAsLong( value );
+        }
+        catch ( Exception e ) {
+            // Same reasoning as in SupplierBasedCachedGauge - missing sample, the next one will cover the gap
+            return;
+        }
+
+        if ( current < 0 ) {
+            return;
+        }
+
+        synchronized ( lock ) {
+            // The ticks may be negative and may wrap around, only their difference is meaningful
+            if ( previousValue >= 0 && tick - previousTick > 0 ) {
+                update( getDelta( previousValue, current ), tick - previousTick );
+            }
+
+            previousValue = current;
+            previousTick = tick;
+        }
+    }
+
+    private void update( final long delta, final long elapsedNanos ) {
+        final double instant = delta * NANOS_PER_SECOND / elapsedNanos;
+        final boolean first = getRate( INSTANT ) < 0;
+
+        rates.set( INSTANT, Double.doubleToRawLongBits( instant ) );
+
+        for ( int i = ONE_MINUTE; i < WINDOW_NANOS.length; i++ ) {
+            final double previous = getRate( i );
+            final double alpha = 1.0 - Math.exp( -elapsedNanos / WINDOW_NANOS[i] );
+            final double smoothed = first ? instant : previous + alpha * ( instant - previous );
+
+            rates.set( i, Double.doubleToRawLongBits( smoothed ) );
+        }
+    }
+
+    private double getRate( final int index ) {
+        return Double.longBitsToDouble( rates.get( index ) );
+    }
+
+    private long getDelta( final long previous, final long current ) {
+        if ( current >= previous ) {
+            return current - previous;
+        }
+
+        if ( wraps32Bit && previous >= WRAPAROUND_THRESHOLD && previous < WRAPAROUND_LIMIT ) {
+            return current + WRAPAROUND_LIMIT - previous;
+        }
+
+        return current;
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.tguzik.metrics.os;
+
+/**
+ * Point-in-time copy of the cumulative CPU counters, since boot.
+ */
+public final class CpuCountersReading {
+    private final long interrupts;
+    private final long contextSwitches;
+
+    public CpuCountersReading( final long interrupts, final long contextSwitches ) {
+        this.interrupts = interrupts;
+        this.contextSwitches = contextSwitches;
+    }
+
+    public long getInterrupts() {
+        return interrupts;
+    }
+
+    public long getContextSwitches() {
+        return contextSwitches;
+    }
+
+}
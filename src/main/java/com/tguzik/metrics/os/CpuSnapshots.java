@@ -0,0 +1,74 @@
+package com.tguzik.metrics.os;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.codahale.metrics.Clock;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * Groups the snapshots of processor related values. Same rules as in {@link SharedSnapshots} apply - one OS read per
+ * source group per cache timeout, no matter how many processors there are.
+ */
+@SuppressWarnings( "PMD.DataClass" ) // Nothing but a holder of the snapshots of a source group
+@SuppressFBWarnings( value = "EI_EXPOSE_REP",
+                     justification = "Handing out the snapshots shared by the gauges is the whole point" )
+public class CpuSnapshots {
+    private final CachedSnapshot<CpuCountersReading> counters;
+    private final CachedSnapshot<CpuUtilizationReading> utilization;
+    private final CachedSnapshot<LoadAverageReading> loadAverage;
+    private final CachedSnapshot<long[]> currentFrequencies;
+    private final CachedSnapshot<Long> maxFrequency;
+    private final long cacheTimeoutNanos;
+    private final Clock clock;
+
+    public CpuSnapshots( final SystemProbes probes,
+                         final Clock clock,
+                         final long cacheTimeout,
+                         final TimeUnit cacheTimeoutUnit ) {
+        Objects.requireNonNull( probes );
+
+        this.cacheTimeoutNanos = cacheTimeoutUnit.toNanos( cacheTimeout );
+        this.clock = Objects.requireNonNull( clock );
+
+        this.counters = snapshot( "cpu.counters", probes::getCpuCounters );
+        this.utilization = snapshot( "cpu.utilization", new CpuUtilization( probes ) );
+        this.loadAverage = snapshot( "cpu.load-average", probes::getLoadAverage );
+        this.currentFrequencies = snapshot( "cpu.freq.current", probes::getCurrentFrequencies );
+        this.maxFrequency = snapshot( "cpu.freq.max", probes::getCpuMaxFrequency );
+    }
+
+    public CachedSnapshot<CpuCountersReading> getCounters() {
+        return counters;
+    }
+
+    public CachedSnapshot<CpuUtilizationReading> getUtilization() {
+        return utilization;
+    }
+
+    public CachedSnapshot<LoadAverageReading> getLoadAverage() {
+        return loadAverage;
+    }
+
+    /** Current frequency of each logical processor, in Hz */
+    public CachedSnapshot<long[]> getCurrentFrequencies() {
+        return currentFrequencies;
+    }
+
+    public CachedSnapshot<Long> getMaxFrequency() {
+        return maxFrequency;
+    }
+
+    /** All snapshots held by this instance, in no particular order */
+    public List<CachedSnapshot<?>> getAll() {
+        return Arrays.asList( counters, utilization, loadAverage, currentFrequencies, maxFrequency );
+    }
+
+    private <T> CachedSnapshot<T> snapshot( final String name, final Supplier<? extends T> uncachedSupplier ) {
+        return new CachedSnapshot<>( name, clock, cacheTimeoutNanos, TimeUnit.NANOSECONDS, uncachedSupplier );
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.tguzik.metrics.os;
+
+import java.util.Locale;
+
+import oshi.hardware.CentralProcessor.TickType;
+
+/**
+ * States the CPU time is broken down into by the utilization gauges. Some of them combine multiple kinds of ticks - for
+ * example {@link #USER} includes the time spent on niced processes.
+ */
+public enum CpuTime {
+    USER( TickType.USER, TickType.NICE ),
+    SYSTEM( TickType.SYSTEM ),
+    IOWAIT( TickType.IOWAIT ),
+    IRQ( TickType.IRQ, TickType.SOFTIRQ ),
+    STEAL( TickType.STEAL ),
+    IDLE( TickType.IDLE );
+
+    private final int firstTick;
+    private final int secondTick;
+
+    CpuTime( final TickType tick ) {
+        this( tick, tick );
+    }
+
+    CpuTime( final TickType firstTick, final TickType secondTick ) {
+        this.firstTick = firstTick.getIndex();
+        this.secondTick = firstTick == secondTick ? -1 : secondTick.getIndex();
+    }
+
+    /** Part of the gauge name */
+    public String getName() {
+        return name().toLowerCase( Locale.ROOT );
+    }
+
+    /** Ticks spent in this state between two readings, laid out as in {@link SystemProbes#readCpuTicks} */
+    @SuppressWarnings( "PMD.UseVarargs" ) // Two rows of ticks, not a list of values
+    public long getTicksBetween( final long[] previous, final long[] current ) {
+        final long first = current[firstTick] - previous[firstTick];
+
+        return secondTick < 0 ? first : first + current[secondTick] - previous[secondTick];
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.tguzik.metrics.os;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import oshi.hardware.CentralProcessor.TickType;
+
+/**
+ * This class is meant to turn the cumulative CPU ticks into utilization. Every refresh reads the ticks of the whole
+ * system and all logical processors once, into arrays allocated up front, and compares them with the previous
+ * refresh.
+ * <p>
+ * Two readings are used in turns, so refreshing does not allocate either. The consequence is that a reading handed
+ * out by this class gets overwritten by the next-but-one refresh.
+ */
+public class CpuUtilization implements Supplier<CpuUtilizationReading> {
+    private static final int TICK_TYPES = TickType.values().length;
+
+    private final SystemProbes probes;
+    private final Object lock;
+    private long[][] previousTicks;
+    private long[][] currentTicks;
+    private CpuUtilizationReading published;
+    private CpuUtilizationReading spare;
+
+    public CpuUtilization( final SystemProbes probes ) {
+        this.probes = Objects.requireNonNull( probes );
+        this.lock = new Object();
+    }
+
+    /** Reads the ticks and recomputes the utilization since the previous call */
+    @Override
+    public CpuUtilizationReading get() {
+        synchronized ( lock ) {
+            if ( currentTicks == null ) {
+                allocate( Math.max( 0, probes.getLogicalProcessorCount() ) );
+            }
+
+            final long[][] ticks = previousTicks;
+            previousTicks = currentTicks;
+            currentTicks = ticks;
+
+            try {
+                probes.readCpuTicks( currentTicks );
+            }
+            catch ( RuntimeException e ) {
+                markUnavailable( currentTicks );
+                throw e;
+            }
+
+            final CpuUtilizationReading reading = spare;
+            reading.update( previousTicks, currentTicks );
+            spare = published;
+            published = reading;
+
+            return reading;
+        }
+    }
+
+    private void allocate( final int processorCount ) {
+        this.previousTicks = new long[processorCount + 1][TICK_TYPES];
+        this.currentTicks = new long[processorCount + 1][TICK_TYPES];
+        this.published = new CpuUtilizationReading( processorCount );
+        this.spare = new CpuUtilizationReading( processorCount );
+
+        markUnavailable( previousTicks );
+        markUnavailable( currentTicks );
+    }
+
+    @SuppressWarnings( "PMD.UseVarargs" ) // Fills the tick buffer allocated up front
+    private static void markUnavailable( final long[][] ticks ) {
+        for ( final long[] row : ticks ) {
+            Arrays.fill( row, -1L );
+        }
+    }
+
+}
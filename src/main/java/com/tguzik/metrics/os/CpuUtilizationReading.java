@@ -0,0 +1,89 @@
+package com.tguzik.metrics.os;
+
+import java.util.Arrays;
+
+import oshi.hardware.CentralProcessor.TickType;
+
+/**
+ * Share of the CPU time spent in each {@link CpuTime state} between two successive tick readings, as a fraction
+ * between 0 and 1 - both for the whole system and for each logical processor. Values are -1 until there are two
+ * readings to compare, or when the counters went backwards in between.
+ * <p>
+ * Unlike other readings, this one is recomputed in place by {@link CpuUtilization}, so that refreshing utilization of
+ * a few hundred processors does not allocate.
+ */
+public final class CpuUtilizationReading {
+    public static final double UNAVAILABLE = -1.0;
+
+    private static final CpuTime[] TIMES = CpuTime.values();
+
+    private final double[][] utilization;
+    private final long[] systemTicks;
+
+    public CpuUtilizationReading( final int processorCount ) {
+        this.utilization = new double[processorCount + 1][TIMES.length];
+        this.systemTicks = new long[TickType.values().length];
+
+        Arrays.fill( systemTicks, -1L );
+
+        for ( final double[] row : utilization ) {
+            Arrays.fill( row, UNAVAILABLE );
+        }
+    }
+
+    public int getProcessorCount() {
+        return utilization.length - 1;
+    }
+
+    public double getSystem( final CpuTime time ) {
+        return utilization[0][time.ordinal()];
+    }
+
+    public double getProcessor( final int processor, final CpuTime time ) {
+        if ( processor < 0 || processor + 1 >= utilization.length ) {
+            return UNAVAILABLE;
+        }
+
+        return utilization[processor + 1][time.ordinal()];
+    }
+
+    /** Cumulative ticks of the whole system spent in given state as of the later reading, -1 if missing */
+    public long getSystemTicks( final TickType type ) {
+        return systemTicks[type.ordinal()];
+    }
+
+    /**
+     * Recomputes the utilization from two tick readings, laid out as in {@link SystemProbes#readCpuTicks}.
+     */
+    @SuppressWarnings( "PMD.UseVarargs" ) // Two tick readings, not a list of rows
+    public void update( final long[][] previous, final long[][] current ) {
+        System.arraycopy( current[0], 0, systemTicks, 0, systemTicks.length );
+
+        for ( int row = 0; row < utilization.length; row++ ) {
+            final long total = getTotalTicksBetween( previous[row], current[row] );
+
+            for ( final CpuTime time : TIMES ) {
+                utilization[row][time.ordinal()] = total > 0
+                                                   ? (double) time.getTicksBetween( previous[row], current[row] ) / total
+                                                   : UNAVAILABLE;
+            }
+        }
+    }
+
+    /** @return total ticks between readings, or -1 if any of them is missing or went backwards */
+    @SuppressWarnings( "PMD.UseVarargs" ) // Two rows of ticks, not a list of values
+    private static long getTotalTicksBetween( final long[] previous, final long[] current ) {
+        long total = 0;
+
+        for ( int i = 0; i < current.length; i++ ) {
+            if ( previous[i] < 0 || current[i] < previous[i] ) {
+                return -1;
+            }
+
+            total += current[i] - previous[i];
+        }
+
+        return total;
+    }
+
+}
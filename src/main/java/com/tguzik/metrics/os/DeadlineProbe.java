@@ -0,0 +1,153 @@
+package com.tguzik.metrics.os;
+
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * This class is meant to keep a probe that can hang - like reading the usage of a dead network mount - from hanging
+ * its caller as well. The probe runs on given executor, and the caller waits for it no longer than the deadline. A
+ * probe that misses the deadline is left running: until it completes, every following call returns null right away
+ * instead of starting another probe, so each instance keeps at most one probe on the executor. Once it does complete,
+ * the next call picks up its result and the probe is back to normal.
+ * <p>
+ * A probe that missed the deadline while running is {@link #isStale() stale} - hung, most likely. A probe that missed
+ * it without even starting is not: it waits for a thread of the executor, all of them busy with other probes, and is
+ * reported as {@link #isSaturated() saturated} instead.
+ * <p>
+ * Blocking system calls cannot be interrupted, hence the hung probes are not cancelled. The executor should be bounded
+ * and dedicated to such probes, so that the hung ones cannot starve anything else - with a thread for each instance,
+ * the hung probes cannot keep the healthy ones waiting either.
+ */
+@SuppressWarnings( "PMD.DoNotUseThreads" ) // Probes run on the dedicated executor given by the user
+public final class DeadlineProbe<T> implements Supplier<T> {
+    private final AtomicReference<ProbeTask<T>> pending;
+    private final ExecutorService executor;
+    private final Supplier<? extends T> probe;
+    private final AtomicBoolean saturated;
+    private final AtomicBoolean stale;
+    private final long deadlineNanos;
+
+    public DeadlineProbe( final Supplier<? extends T> probe,
+                          final ExecutorService executor,
+                          final long deadline,
+                          final TimeUnit deadlineUnit ) {
+        this.probe = Objects.requireNonNull( probe );
+        this.executor = Objects.requireNonNull( executor );
+        this.deadlineNanos = deadlineUnit.toNanos( deadline );
+        this.pending = new AtomicReference<>();
+        this.saturated = new AtomicBoolean();
+        this.stale = new AtomicBoolean();
+    }
+
+    /**
+     * @return result of the probe, or null if it missed the deadline or an earlier probe is still running
+     * @throws IllegalStateException when the probe failed
+     * @throws RejectedExecutionException when the executor refused to run the probe
+     */
+    @Override
+    public T get() {
+        final ProbeTask<T> current = pending.get();
+
+        if ( current == null ) {
+            final ProbeTask<T> task = new ProbeTask<>( probe );
+
+            // Somebody else got to start a probe first - do not wait on it, they are already doing that
+            if ( !pending.compareAndSet( null, task ) ) {
+                return null;
+            }
+
+            submit( task );
+            return await( task );
+        }
+
+        if ( current.isDone() ) {
+            return await( current );
+        }
+
+        missed( current );
+        return null;
+    }
+
+    /** True while a probe that missed the deadline is running */
+    public boolean isStale() {
+        return stale.get();
+    }
+
+    /** True while a probe that missed the deadline is still waiting for a thread of the executor */
+    public boolean isSaturated() {
+        return saturated.get();
+    }
+
+    private void submit( final ProbeTask<T> task ) {
+        try {
+            executor.execute( task );
+        }
+        catch ( RejectedExecutionException e ) {
+            pending.compareAndSet( task, null );
+            throw e;
+        }
+    }
+
+    private T await( final ProbeTask<T> task ) {
+        try {
+            final T value = task.get( deadlineNanos, TimeUnit.NANOSECONDS );
+
+            completed( task );
+            return value;
+        }
+        catch ( TimeoutException e ) {
+            missed( task );
+            return null;
+        }
+        catch ( ExecutionException e ) {
+            completed( task );
+            throw new IllegalStateException( "Probe failed", e );
+        }
+        catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private void missed( final ProbeTask<T> task ) {
+        final boolean started = task.isStarted();
+
+        saturated.set( !started );
+        stale.set( started );
+    }
+
+    private void completed( final ProbeTask<T> task ) {
+        pending.compareAndSet( task, null );
+        saturated.set( false );
+        stale.set( false );
+    }
+
+    /** Single run of the probe, which knows when it got a thread */
+    private static final class ProbeTask<T> extends FutureTask<T> {
+        private final AtomicBoolean started;
+
+        public ProbeTask( final Supplier<? extends T> probe ) {
+            super( probe::get );
+            this.started = new AtomicBoolean();
+        }
+
+        @Override
+        public void run() {
+            started.set( true );
+            super.run();
+        }
+
+        public boolean isStarted() {
+            return started.get();
+        }
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.tguzik.metrics.os;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+import com.codahale.metrics.Gauge;
+
+/**
+ * This class is meant to package floating point metric values that are extracted from a snapshot shared with other
+ * gauges, like CPU temperature. The caching is left to the snapshot supplier (see {@link CachedSnapshot}).
+ * <p>
+ * Works exactly like {@link DerivedLongGauge} - reading this gauge while the snapshot is still cached does not
+ * allocate.
+ * <p>
+ * When the snapshot is not available or the extraction throws an exception, this gauge will return
+ * {@link #UNAVAILABLE}.
+ */
+public class DerivedDoubleGauge<T> implements Gauge<Double> {
+    /** Following oshi's convention for values that could not be retrieved */
+    public static final double UNAVAILABLE = -1.0;
+
+    protected final ToDoubleFunction<? super T> extractor;
+    protected final Supplier<? extends T> snapshot;
+
+    // Double is immutable, so a racy publication can at worst cause another thread to box the same value again
+    private Double lastReturned;
+
+    public DerivedDoubleGauge( final Supplier<? extends T> snapshot, final ToDoubleFunction<? super T> extractor ) {
+        this.extractor = Objects.requireNonNull( extractor );
+        this.snapshot = Objects.requireNonNull( snapshot );
+        this.lastReturned = UNAVAILABLE;
+    }
+
+    public double getDoubleValue() {
+        try {
+            final T current = snapshot.get();
+
+            return current == null ? UNAVAILABLE : extractor.applyAsDouble( current );
+        }
+        catch ( Exception e ) {
+            // Same reasoning as in SupplierBasedCachedGauge
+            return UNAVAILABLE;
+        }
+    }
+
+    @Override
+    public Double getValue() {
+        final double value = getDoubleValue();
+        final Double previous = lastReturned;
+
+        // Compare bit patterns, so that a NaN does not get boxed on every read
+        if ( Double.doubleToLongBits( previous ) == Double.doubleToLongBits( value ) ) {
+            return previous;
+        }
+
+        final Double boxed = value;
+        lastReturned = boxed;
+        return boxed;
+    }
+
+}
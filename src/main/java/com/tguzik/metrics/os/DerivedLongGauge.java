@@ -0,0 +1,63 @@
+package com.tguzik.metrics.os;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import com.codahale.metrics.Gauge;
+
+/**
+ * This class is meant to package numeric metric values that are extracted from a snapshot shared with other gauges,
+ * like a single counter of the TCP statistics. The caching is left to the snapshot supplier (see
+ * {@link CachedSnapshot}).
+ * <p>
+ * The value is extracted as a primitive and boxed only when it differs from the previously returned one, so reading
+ * this gauge while the snapshot is still cached does not allocate. Use {@link #getLongValue()} to skip boxing
+ * altogether.
+ * <p>
+ * When the snapshot is not available or the extraction throws an exception, this gauge will return
+ * {@link #UNAVAILABLE}.
+ */
+public class DerivedLongGauge<T> implements Gauge<Long> {
+    /** Following oshi's convention for values that could not be retrieved */
+    public static final long UNAVAILABLE = -1L;
+
+    protected final ToLongFunction<? super T> extractor;
+    protected final Supplier<? extends T> snapshot;
+
+    // Long is immutable, so a racy publication can at worst cause another thread to box the same value again
+    private Long lastReturned;
+
+    public DerivedLongGauge( final Supplier<? extends T> snapshot, final ToLongFunction<? super T> extractor ) {
+        this.extractor = Objects.requireNonNull( extractor );
+        this.snapshot = Objects.requireNonNull( snapshot );
+        this.lastReturned = UNAVAILABLE;
+    }
+
+    public long getLongValue() {
+        try {
+            final T current = snapshot.get();
+
+            return current == null ? UNAVAILABLE : extractor.applyAsLong( current );
+        }
+        catch ( Exception e ) {
+            // Same reasoning as in SupplierBasedCachedGauge
+            return UNAVAILABLE;
+        }
+    }
+
+    @Override
+    public Long getValue() {
+        final long value = getLongValue();
+        final Long previous = lastReturned;
+
+        if ( previous == value ) {
+            return previous;
+        }
+
+        final Long boxed = value;
+        lastReturned = boxed;
+        return boxed;
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.tguzik.metrics.os;
+
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.codahale.metrics.Gauge;
+
+/**
+ * This class is meant to package textual metric values that are extracted from a snapshot shared with other gauges,
+ * like the host name. The caching is left to the snapshot supplier (see {@link CachedSnapshot}).
+ * <p>
+ * When the snapshot is not available, or the extraction throws an exception or returns a null, this gauge will return
+ * an empty string.
+ */
+public class DerivedStringGauge<T> implements Gauge<String> {
+    protected final Function<? super T, String> extractor;
+    protected final Supplier<? extends T> snapshot;
+
+    public DerivedStringGauge( final Supplier<? extends T> snapshot, final Function<? super T, String> extractor ) {
+        this.extractor = Objects.requireNonNull( extractor );
+        this.snapshot = Objects.requireNonNull( snapshot );
+    }
+
+    @Override
+    public String getValue() {
+        try {
+            final T current = snapshot.get();
+            final String value = current == null ? null : extractor.apply( current );
+
+            return value == null ? SupplierBasedCachedGauge.EMPTY_STRING : value;
+        }
+        catch ( Exception e ) {
+            // Same reasoning as in SupplierBasedCachedGauge
+            return SupplierBasedCachedGauge.EMPTY_STRING;
+        }
+    }
+
+}
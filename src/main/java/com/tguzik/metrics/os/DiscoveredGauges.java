@@ -0,0 +1,105 @@
+package com.tguzik.metrics.os;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+
+/**
+ * This class is meant to hold the gauges whose names are only known once a snapshot has been read - like the gauges
+ * of each disk or each logical processor - so that creating them does not have to read the operating system. The
+ * gauges are added as they get discovered, and registered right away in every registry that follows the discovery,
+ * under the prefix given along with the registry.
+ * <p>
+ * Gauges are only ever added, a gauge of something that went away is expected to return -1.
+ */
+public final class DiscoveredGauges {
+    private final Map<String, Gauge<?>> gauges;
+    private final List<Target> targets;
+    private final Object lock;
+
+    public DiscoveredGauges() {
+        this.gauges = new ConcurrentHashMap<>();
+        this.targets = new CopyOnWriteArrayList<>();
+        this.lock = new Object();
+    }
+
+    /** Gauges discovered so far */
+    public Map<String, Metric> getMetrics() {
+        return new ConcurrentHashMap<>( gauges );
+    }
+
+    /** Adds the gauges of given names that have not been discovered yet, and registers them where followed */
+    public void addAll( final Map<String, ? extends Gauge<?>> discovered ) {
+        synchronized ( lock ) {
+            discovered.forEach( ( gaugeName, gauge ) -> {
+                if ( gauges.putIfAbsent( gaugeName, gauge ) == null ) {
+                    for ( final Target target : targets ) {
+                        target.register( gaugeName, gauge );
+                    }
+                }
+            } );
+        }
+    }
+
+    /**
+     * Registers the gauges discovered so far in given registry, then keeps registering the ones discovered later -
+     * until {@link #stopDiscovery}.
+     *
+     * @param prefix of the registered names, or an empty string for none
+     */
+    public void startDiscovery( final MetricRegistry registry, final String prefix ) {
+        final Target target = new Target( registry, prefix );
+
+        synchronized ( lock ) {
+            targets.add( target );
+            gauges.forEach( target::register );
+        }
+    }
+
+    /** Stops following the discovery in given registry and removes all gauges registered there under given prefix */
+    public void stopDiscovery( final MetricRegistry registry, final String prefix ) {
+        synchronized ( lock ) {
+            targets.removeIf( target -> target.isFor( registry, prefix ) );
+
+            final Map<String, Metric> registered = registry.getMetrics();
+
+            gauges.forEach( ( gaugeName, gauge ) -> {
+                final String registeredName = name( prefix, gaugeName );
+
+                // Whatever else might be registered under the same name is left alone
+                if ( registered.get( registeredName ) == gauge ) {
+                    registry.remove( registeredName );
+                }
+            } );
+        }
+    }
+
+    /** Registry following the discovery, along with the prefix of the names */
+    private static final class Target {
+        private final MetricRegistry registry;
+        private final String prefix;
+
+        public Target( final MetricRegistry registry, final String prefix ) {
+            this.registry = Objects.requireNonNull( registry );
+            this.prefix = Objects.requireNonNull( prefix );
+        }
+
+        public boolean isFor( final MetricRegistry registry, final String prefix ) {
+            return this.registry == registry && this.prefix.equals( prefix );
+        }
+
+        /** Leaves alone the names that are already taken, be it by this set or by somebody else */
+        public void register( final String gaugeName, final Gauge<?> gauge ) {
+            registry.gauge( name( prefix, gaugeName ), () -> gauge );
+        }
+    }
+
+}
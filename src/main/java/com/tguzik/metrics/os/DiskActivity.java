@@ -0,0 +1,78 @@
+package com.tguzik.metrics.os;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * This class is meant to turn successive refreshes of the disk snapshot into {@link DiskActivityReading counters and
+ * rates}, at the cost of one comparison of the primitive arrays per refresh. Supplies null until the first refresh.
+ * <p>
+ * Each disk gets a slot when it is first seen - on refresh, or when a gauge asks for it with {@link #slotOf} - and
+ * keeps it for good, so the gauges can bind the slot once instead of looking the disk up on every read. A disk that
+ * goes away leaves its slot empty until it comes back.
+ * <p>
+ * Every refresh publishes a reading of its own, which is never modified afterwards - so a reader gets the counters and
+ * rates of a single refresh, no matter how long it holds on to the reading. That costs a few small arrays per refresh,
+ * which happens at most once per cache timeout.
+ */
+public class DiskActivity implements SnapshotListener<DiskStoresReading>, Supplier<DiskActivityReading> {
+    private final AtomicReference<DiskActivityReading> activity;
+    private final Map<String, Integer> slots;
+    private final Object lock;
+    private DiskActivityReading previous;
+    private long previousTick;
+
+    public DiskActivity() {
+        this.activity = new AtomicReference<>();
+        this.previous = new DiskActivityReading( 0 );
+        this.slots = new HashMap<>();
+        this.lock = new Object();
+    }
+
+    @Override
+    public DiskActivityReading get() {
+        return activity.get();
+    }
+
+    /** Slot of given disk, assigned right away if the disk has not been seen yet */
+    public int slotOf( final String diskName ) {
+        synchronized ( lock ) {
+            return assignSlot( diskName );
+        }
+    }
+
+    @Override
+    public void onRefresh( final DiskStoresReading value, final long tick ) {
+        synchronized ( lock ) {
+            for ( int disk = 0; disk < value.getDiskCount(); disk++ ) {
+                assignSlot( value.getName( disk ) );
+            }
+
+            final DiskActivityReading reading = new DiskActivityReading( slots.size() );
+            final long elapsedNanos = activity.get() == null ? 0 : tick - previousTick;
+
+            for ( int disk = 0; disk < value.getDiskCount(); disk++ ) {
+                reading.update( slots.get( value.getName( disk ) ), value, disk, previous, elapsedNanos );
+            }
+
+            previous = reading;
+            previousTick = tick;
+            activity.set( reading );
+        }
+    }
+
+    private int assignSlot( final String diskName ) {
+        final Integer slot = slots.get( diskName );
+
+        if ( slot != null ) {
+            return slot;
+        }
+
+        final int assigned = slots.size();
+        slots.put( diskName, assigned );
+        return assigned;
+    }
+
+}
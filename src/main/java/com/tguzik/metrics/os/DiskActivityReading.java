@@ -0,0 +1,101 @@
+package com.tguzik.metrics.os;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link DiskCounter Counters} of each disk as of the latest refresh, and the {@link DiskRate rates} between that
+ * refresh and the previous one, held in primitive arrays indexed by the slot {@link DiskActivity} keeps for each disk.
+ * Values are -1 for the disks that were not present in the latest reading, and the rates are -1 as well for the disks
+ * that were not present in both readings, or whose counters went backwards in between.
+ * <p>
+ * A reading is filled in before it gets published, and never modified afterwards (see {@link DiskActivity}).
+ */
+public final class DiskActivityReading {
+    public static final double UNAVAILABLE = -1.0;
+
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos( 1 );
+    private static final double NANOS_PER_MILLISECOND = TimeUnit.MILLISECONDS.toNanos( 1 );
+    private static final DiskCounter[] COUNTERS = DiskCounter.values();
+
+    private final long[][] counters;
+    private final double[][] rates;
+
+    /** Reading of given number of slots, with every value unavailable */
+    public DiskActivityReading( final int slots ) {
+        this.counters = new long[COUNTERS.length][slots];
+        this.rates = new double[DiskRate.values().length][slots];
+
+        for ( final long[] row : counters ) {
+            Arrays.fill( row, DiskStoresReading.UNAVAILABLE );
+        }
+
+        for ( final double[] row : rates ) {
+            Arrays.fill( row, UNAVAILABLE );
+        }
+    }
+
+    public long get( final int slot, final DiskCounter counter ) {
+        final long[] row = counters[counter.ordinal()];
+
+        return slot < row.length ? row[slot] : DiskStoresReading.UNAVAILABLE;
+    }
+
+    public double get( final int slot, final DiskRate rate ) {
+        final double[] row = rates[rate.ordinal()];
+
+        return slot < row.length ? row[slot] : UNAVAILABLE;
+    }
+
+    /**
+     * Copies the counters of given disk into given slot, and derives its rates from the counters the previous reading
+     * holds in the same slot - unless no time has passed in between.
+     */
+    public void update( final int slot,
+                        final DiskStoresReading current,
+                        final int disk,
+                        final DiskActivityReading previous,
+                        final long elapsedNanos ) {
+        for ( final DiskCounter counter : COUNTERS ) {
+            counters[counter.ordinal()][slot] = current.get( disk, counter );
+        }
+
+        if ( elapsedNanos > 0 ) {
+            updateRates( slot, previous, elapsedNanos );
+        }
+    }
+
+    private void updateRates( final int slot, final DiskActivityReading previous, final long elapsedNanos ) {
+        final long reads = getDelta( previous, slot, DiskCounter.READS );
+        final long writes = getDelta( previous, slot, DiskCounter.WRITES );
+        final long readBytes = getDelta( previous, slot, DiskCounter.READ_BYTES );
+        final long writeBytes = getDelta( previous, slot, DiskCounter.WRITE_BYTES );
+        final long busyMillis = getDelta( previous, slot, DiskCounter.TRANSFER_TIME );
+
+        if ( Math.min( Math.min( reads, writes ), Math.min( Math.min( readBytes, writeBytes ), busyMillis ) ) < 0 ) {
+            return;
+        }
+
+        final double seconds = elapsedNanos / NANOS_PER_SECOND;
+        final long operations = reads + writes;
+
+        set( DiskRate.IOPS, slot, operations / seconds );
+        set( DiskRate.READ_THROUGHPUT, slot, readBytes / seconds );
+        set( DiskRate.WRITE_THROUGHPUT, slot, writeBytes / seconds );
+        set( DiskRate.LATENCY, slot, operations > 0 ? (double) busyMillis / operations : 0.0 );
+        set( DiskRate.UTILIZATION, slot, Math.min( 1.0, busyMillis * NANOS_PER_MILLISECOND / elapsedNanos ) );
+    }
+
+    private void set( final DiskRate rate, final int slot, final double value ) {
+        rates[rate.ordinal()][slot] = value;
+    }
+
+    /** Difference between the readings, or -1 if the counter is missing or went backwards */
+    private long getDelta( final DiskActivityReading previous, final int slot, final DiskCounter counter ) {
+        final long then = previous.get( slot, counter );
+        final long now = get( slot, counter );
+
+        return then < 0 || now < then ? -1 : now - then;
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.tguzik.metrics.os;
+
+/**
+ * Cumulative counters and point-in-time values read for each disk. Byte counts are in bytes, the transfer time - time
+ * the disk spent serving requests - in milliseconds.
+ */
+public enum DiskCounter {
+    SIZE( "size" ),
+    PARTITIONS( "partitions" ),
+    READS( "reads" ),
+    READ_BYTES( "bytes.read" ),
+    WRITES( "writes" ),
+    WRITE_BYTES( "bytes.written" ),
+    TRANSFER_TIME( "transfer-time" ),
+    QUEUE_LENGTH( "queue.length" );
+
+    private final String name;
+
+    DiskCounter( final String name ) {
+        this.name = name;
+    }
+
+    /** Part of the gauge name */
+    public String getName() {
+        return name;
+    }
+
+}
@@ -0,0 +1,131 @@
+package com.tguzik.metrics.os;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.MetricSet;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * Gauges for each disk, named {@code hw.disk.<disk>.<value>}: the {@link DiskCounter counters} as read, and the
+ * {@link DiskRate rates} derived from the difference between two successive refreshes - IOPS, throughput, average
+ * latency and utilization. All of them are fed by a single snapshot, so the disks are read in one pass per cache
+ * timeout regardless of how many of them there are. Along with them, {@code hw.disk.count} is the number of disks.
+ * <p>
+ * Listing the disks reads them, so the gauges of each disk are discovered on refresh rather than when the set is
+ * created - reading {@code hw.disk.count} is enough to trigger it. {@link #getMetrics()} returns the gauges of the
+ * disks discovered so far, while {@link #startDiscovery} registers the gauges of each disk as soon as it is
+ * discovered. Each gauge is bound to the slot of its disk in {@link DiskActivity} when created, so reading it is an
+ * array access. Gauges of a disk that goes away return -1.
+ * <p>
+ * The rates are computed by a listener attached to the snapshot on construction, so there should be a single set per
+ * snapshot - {@link SharedGaugeSets#getDisks()} is the one shared by the gauge sets of a {@link SamplingEngine}.
+ */
+public class DiskGaugeSet implements MetricSet, SnapshotListener<DiskStoresReading> {
+    public static final String PREFIX = "hw.disk";
+
+    private final CachedSnapshot<DiskStoresReading> snapshot;
+    private final Supplier<DiskActivityReading> activity;
+    private final DiscoveredGauges disks;
+    private final DiskActivity slots;
+    private final Set<String> known;
+
+    @SuppressFBWarnings( value = "EI_EXPOSE_REP2",
+                         justification = "The snapshot is shared with the other gauges of its source group" )
+    public DiskGaugeSet( final CachedSnapshot<DiskStoresReading> snapshot ) {
+        this.snapshot = Objects.requireNonNull( snapshot );
+        this.disks = new DiscoveredGauges();
+        this.slots = new DiskActivity();
+        this.known = ConcurrentHashMap.newKeySet();
+
+        snapshot.addListener( this );
+
+        // Reading the snapshot first keeps the values fresh when nothing else reads it
+        this.activity = () -> {
+            snapshot.get();
+            return slots.get();
+        };
+    }
+
+    @Override
+    public Map<String, Metric> getMetrics() {
+        final Map<String, Metric> product = disks.getMetrics();
+
+        product.put( name( PREFIX, "count" ), longGauge( snapshot, DiskStoresReading::getDiskCount ) );
+
+        return product;
+    }
+
+    /**
+     * Registers the gauges of the disks discovered so far in given registry, then keeps registering the gauges of the
+     * disks discovered later - until {@link #stopDiscovery}. Does not read the disks by itself.
+     *
+     * @param prefix of the registered names, or an empty string for none
+     */
+    public void startDiscovery( final MetricRegistry registry, final String prefix ) {
+        disks.startDiscovery( registry, prefix );
+    }
+
+    /** Stops following the disks in given registry and removes the gauges of the disks registered there */
+    public void stopDiscovery( final MetricRegistry registry, final String prefix ) {
+        disks.stopDiscovery( registry, prefix );
+    }
+
+    @Override
+    public void onRefresh( final DiskStoresReading value, final long tick ) {
+        slots.onRefresh( value, tick );
+
+        for ( int disk = 0; disk < value.getDiskCount(); disk++ ) {
+            final String diskName = value.getName( disk );
+
+            if ( known.add( diskName ) ) {
+                disks.addAll( diskGauges( diskName ) );
+            }
+        }
+    }
+
+    /** Disks are named after their device - {@code /dev/sda} becomes {@code sda} */
+    public static String getGaugeName( final String diskName ) {
+        final int separator = Math.max( diskName.lastIndexOf( '/' ), diskName.lastIndexOf( '\\' ) );
+
+        return diskName.substring( separator + 1 );
+    }
+
+    private Map<String, Gauge<?>> diskGauges( final String diskName ) {
+        final Map<String, Gauge<?>> product = new ConcurrentHashMap<>();
+        final String prefix = name( PREFIX, getGaugeName( diskName ) );
+        final int slot = slots.slotOf( diskName );
+
+        for ( final DiskCounter counter : DiskCounter.values() ) {
+            product.put( name( prefix, counter.getName() ),
+                         longGauge( activity, reading -> reading.get( slot, counter ) ) );
+        }
+
+        for ( final DiskRate rate : DiskRate.values() ) {
+            product.put( name( prefix, rate.getName() ),
+                         doubleGauge( activity, reading -> reading.get( slot, rate ) ) );
+        }
+
+        return product;
+    }
+
+    private static <T> Gauge<Long> longGauge( final Supplier<T> snapshot, final ToLongFunction<? super T> extractor ) {
+        return new DerivedLongGauge<>( snapshot, extractor );
+    }
+
+    private static <T> Gauge<Double> doubleGauge( final Supplier<T> snapshot,
+                                                  final ToDoubleFunction<? super T> extractor ) {
+        return new DerivedDoubleGauge<>( snapshot, extractor );
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.tguzik.metrics.os;
+
+/**
+ * Values derived from the difference between two successive disk readings (see {@link DiskActivityReading}).
+ */
+public enum DiskRate {
+    /** Reads and writes per second */
+    IOPS( "iops" ),
+    /** Bytes read per second */
+    READ_THROUGHPUT( "throughput.read" ),
+    /** Bytes written per second */
+    WRITE_THROUGHPUT( "throughput.write" ),
+    /** Average time the disk was busy per read or write, in milliseconds */
+    LATENCY( "latency" ),
+    /** Fraction of the time the disk was busy, between 0 and 1 */
+    UTILIZATION( "utilization" );
+
+    private final String name;
+
+    DiskRate( final String name ) {
+        this.name = name;
+    }
+
+    /** Part of the gauge name */
+    public String getName() {
+        return name;
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.tguzik.metrics.os;
+
+import java.util.Arrays;
+
+/**
+ * Point-in-time copy of the {@link DiskCounter counters} of all disks, read in a single pass and held in primitive
+ * arrays indexed by disk. The probes fill the reading in before it gets published, after that it is not modified.
+ */
+public final class DiskStoresReading {
+    public static final long UNAVAILABLE = -1L;
+
+    private final String[] names;
+    private final long[][] counters;
+
+    public DiskStoresReading( final int diskCount ) {
+        this.names = new String[diskCount];
+        this.counters = new long[DiskCounter.values().length][diskCount];
+
+        for ( final long[] row : counters ) {
+            Arrays.fill( row, UNAVAILABLE );
+        }
+    }
+
+    public int getDiskCount() {
+        return names.length;
+    }
+
+    public String getName( final int disk ) {
+        return names[disk];
+    }
+
+    public void setName( final int disk, final String name ) {
+        names[disk] = name;
+    }
+
+    public long get( final int disk, final DiskCounter counter ) {
+        return counters[counter.ordinal()][disk];
+    }
+
+    public void set( final int disk, final DiskCounter counter, final long value ) {
+        counters[counter.ordinal()][disk] = value;
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.tguzik.metrics.os;
+
+/**
+ * Point-in-time copy of the system-wide file descriptor usage.
+ */
+public final class FileDescriptorsReading {
+    private final long open;
+    private final long max;
+
+    public FileDescriptorsReading( final long open, final long max ) {
+        this.open = open;
+        this.max = max;
+    }
+
+    public long getOpen() {
+        return open;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.tguzik.metrics.os;
+
+/**
+ * Space and inode usage of a single mounted file system. Space is in bytes - the usable space is the part of the free
+ * space available to unprivileged users.
+ */
+public enum FileSystemCounter {
+    SPACE_TOTAL( "space.total" ),
+    SPACE_FREE( "space.free" ),
+    SPACE_USABLE( "space.usable" ),
+    INODES_TOTAL( "inodes.total" ),
+    INODES_FREE( "inodes.free" );
+
+    private final String name;
+
+    FileSystemCounter( final String name ) {
+        this.name = name;
+    }
+
+    /** Part of the gauge name */
+    public String getName() {
+        return name;
+    }
+
+}
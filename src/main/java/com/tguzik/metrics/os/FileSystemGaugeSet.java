@@ -0,0 +1,244 @@
+package com.tguzik.metrics.os;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.MetricSet;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * Gauges for each mounted file system, named {@code os.fs.mount.<mount>.<counter>}: total, free and usable space,
+ * total and free inodes, {@code stale} - 1 while the probe of the mount is hung, 0 otherwise - and {@code saturated} -
+ * 1 while the probe waits for a thread of the executor, 0 otherwise. Mounts are named after their mount points, with
+ * the slashes replaced by dashes - {@code root} for {@code /}, {@code var-lib-docker} for {@code /var/lib/docker}.
+ * <p>
+ * Unlike every other source, each mount gets a snapshot of its own, read on given executor within given deadline (see
+ * {@link DeadlineProbe}). A mount that misses the deadline - say, one served by a dead NFS server - is marked stale and
+ * its gauges become unavailable, while the other mounts and everything else carry on. The mount is skipped until its
+ * probe returns, so a hung mount costs the thread reading the gauges at most one deadline. Each mount keeps at most one
+ * probe on the executor, so with a thread for each mount the hung mounts cannot keep the healthy ones waiting - with
+ * fewer threads, the mounts left waiting are reported as saturated rather than stale.
+ * <p>
+ * The set follows the mount points as they come and go, the same way {@link NetworkInterfaceGaugeSet} follows the
+ * network interfaces: every refresh of the mount point snapshot creates the gauges of the new mounts and drops the
+ * gauges of the unmounted ones, and {@link #startDiscovery(MetricRegistry)} keeps a registry in sync with the mounts.
+ * Mounts that stay mounted keep their snapshots and gauges.
+ * <p>
+ * Each set keeps the snapshots of its own mounts, all read on its own executor, so there is usually one per
+ * application rather than one per registry - register the same set wherever the mounts are needed.
+ */
+@SuppressWarnings( "PMD.DoNotUseThreads" ) // Mounts are read on the executor given by the user
+public class FileSystemGaugeSet implements MetricSet, SnapshotListener<List<String>> {
+    public static final String PREFIX = "os.fs.mount";
+
+    private final CachedSnapshot<List<String>> mountPoints;
+    private final List<MetricRegistry> registries;
+    private final Map<String, MountGauges> mounts;
+    private final ExecutorService executor;
+    private final SystemProbes probes;
+    private final long cacheTimeoutNanos;
+    private final long deadlineNanos;
+    private final Object lock;
+    private final Clock clock;
+
+    /**
+     * @param cacheTimeout of the snapshot of each mount
+     * @param executor runs the probes of the mounts, ideally with a thread for each - see {@link DeadlineProbe}
+     * @param deadline for the probe of each mount
+     */
+    @SuppressFBWarnings( value = "EI_EXPOSE_REP2",
+                         justification = "The mount points are the snapshot shared with StorageSnapshots" )
+    public FileSystemGaugeSet( final CachedSnapshot<List<String>> mountPoints,
+                               final SystemProbes probes,
+                               final Clock clock,
+                               final long cacheTimeout,
+                               final TimeUnit cacheTimeoutUnit,
+                               final ExecutorService executor,
+                               final long deadline,
+                               final TimeUnit deadlineUnit ) {
+        this.mountPoints = Objects.requireNonNull( mountPoints );
+        this.probes = Objects.requireNonNull( probes );
+        this.clock = Objects.requireNonNull( clock );
+        this.executor = Objects.requireNonNull( executor );
+        this.cacheTimeoutNanos = cacheTimeoutUnit.toNanos( cacheTimeout );
+        this.deadlineNanos = deadlineUnit.toNanos( deadline );
+        this.registries = new CopyOnWriteArrayList<>();
+        this.mounts = new HashMap<>();
+        this.lock = new Object();
+
+        mountPoints.addListener( this );
+    }
+
+    @Override
+    public Map<String, Metric> getMetrics() {
+        discoverCurrent();
+
+        final Map<String, Metric> product = new ConcurrentHashMap<>();
+
+        synchronized ( lock ) {
+            for ( final MountGauges gauges : mounts.values() ) {
+                product.putAll( gauges.getGauges() );
+            }
+        }
+
+        return product;
+    }
+
+    /**
+     * Registers the gauges of the known mounts in given registry, then keeps registering the gauges of the new mounts
+     * and removing the gauges of the unmounted ones - until {@link #stopDiscovery}.
+     */
+    public void startDiscovery( final MetricRegistry registry ) {
+        registries.add( Objects.requireNonNull( registry ) );
+        discoverCurrent();
+
+        synchronized ( lock ) {
+            for ( final MountGauges gauges : mounts.values() ) {
+                gauges.registerInto( registry );
+            }
+        }
+    }
+
+    /** Stops following the mounts in given registry and removes all gauges this set has registered there */
+    public void stopDiscovery( final MetricRegistry registry ) {
+        registries.remove( registry );
+
+        synchronized ( lock ) {
+            for ( final MountGauges gauges : mounts.values() ) {
+                gauges.removeFrom( registry );
+            }
+        }
+    }
+
+    @Override
+    public void onRefresh( final List<String> reading, final long tick ) {
+        discover( reading );
+    }
+
+    /** Covers the mount points that were read before this set started listening to the snapshot */
+    private void discoverCurrent() {
+        final List<String> current = mountPoints.get();
+
+        if ( current != null ) {
+            discover( current );
+        }
+    }
+
+    private void discover( final List<String> reading ) {
+        final Set<String> present = new HashSet<>( reading );
+
+        synchronized ( lock ) {
+            removeMissing( present );
+
+            for ( final String mountPoint : present ) {
+                if ( !mounts.containsKey( mountPoint ) ) {
+                    addMount( mountPoint );
+                }
+            }
+        }
+    }
+
+    private void removeMissing( final Set<String> present ) {
+        final Iterator<Map.Entry<String, MountGauges>> known = mounts.entrySet().iterator();
+
+        while ( known.hasNext() ) {
+            final Map.Entry<String, MountGauges> entry = known.next();
+
+            if ( !present.contains( entry.getKey() ) ) {
+                known.remove();
+
+                for ( final MetricRegistry registry : registries ) {
+                    entry.getValue().removeFrom( registry );
+                }
+            }
+        }
+    }
+
+    private void addMount( final String mountPoint ) {
+        final String mountName = mountName( mountPoint );
+        final DeadlineProbe<FileSystemReading> probe = new DeadlineProbe<>( () -> probes.getFileSystem( mountPoint ),
+                                                                            executor,
+                                                                            deadlineNanos,
+                                                                            TimeUnit.NANOSECONDS );
+        final CachedSnapshot<FileSystemReading> snapshot = new CachedSnapshot<>( name( "fs.mount", mountName ),
+                                                                                 clock,
+                                                                                 cacheTimeoutNanos,
+                                                                                 TimeUnit.NANOSECONDS,
+                                                                                 probe );
+        final MountGauges gauges = new MountGauges( name( PREFIX, mountName ), snapshot, probe );
+        mounts.put( mountPoint, gauges );
+
+        for ( final MetricRegistry registry : registries ) {
+            gauges.registerInto( registry );
+        }
+    }
+
+    private static String mountName( final String mountPoint ) {
+        final String trimmed = mountPoint.replaceAll( "^[/\\\\]+|[/\\\\]+$", "" );
+
+        return trimmed.isEmpty() ? "root" : trimmed.replaceAll( "[/\\\\.\\s]+", "-" );
+    }
+
+    /** Gauges of a single mount */
+    private static final class MountGauges {
+        private final Map<String, Gauge<?>> gauges;
+
+        public MountGauges( final String prefix,
+                            final CachedSnapshot<FileSystemReading> snapshot,
+                            final DeadlineProbe<?> probe ) {
+            this.gauges = new ConcurrentHashMap<>();
+
+            for ( final FileSystemCounter counter : FileSystemCounter.values() ) {
+                gauges.put( name( prefix, counter.getName() ), counterGauge( snapshot, counter ) );
+            }
+
+            gauges.put( name( prefix, "stale" ), flagGauge( snapshot, probe::isStale ) );
+            gauges.put( name( prefix, "saturated" ), flagGauge( snapshot, probe::isSaturated ) );
+        }
+
+        /** Refreshes first, so that the gauge does not lag behind the values it describes */
+        private static Gauge<Long> flagGauge( final CachedSnapshot<FileSystemReading> snapshot,
+                                              final BooleanSupplier flag ) {
+            return () -> {
+                snapshot.get();
+                return flag.getAsBoolean() ? 1L : 0L;
+            };
+        }
+
+        private static Gauge<Long> counterGauge( final CachedSnapshot<FileSystemReading> snapshot,
+                                                 final FileSystemCounter counter ) {
+            return new DerivedLongGauge<>( snapshot, reading -> reading.get( counter ) );
+        }
+
+        public Map<String, Gauge<?>> getGauges() {
+            return gauges;
+        }
+
+        /** Leaves alone the names that are already taken, be it by this set or by somebody else */
+        public void registerInto( final MetricRegistry registry ) {
+            gauges.forEach( ( name, gauge ) -> registry.gauge( name, () -> gauge ) );
+        }
+
+        /** Removes only the gauges of this mount, not whatever else might be registered under the same names */
+        public void removeFrom( final MetricRegistry registry ) {
+            registry.removeMatching( ( name, metric ) -> metric.equals( gauges.get( name ) ) );
+        }
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.tguzik.metrics.os;
+
+import java.util.Arrays;
+
+/**
+ * Point-in-time copy of the {@link FileSystemCounter counters} of a single mounted file system. The probes fill the
+ * reading in before it gets published, after that it is not modified.
+ */
+public final class FileSystemReading {
+    public static final long UNAVAILABLE = -1L;
+
+    private final long[] counters;
+
+    public FileSystemReading() {
+        this.counters = new long[FileSystemCounter.values().length];
+
+        Arrays.fill( counters, UNAVAILABLE );
+    }
+
+    public long get( final FileSystemCounter counter ) {
+        return counters[counter.ordinal()];
+    }
+
+    public void set( final FileSystemCounter counter, final long value ) {
+        counters[counter.ordinal()] = value;
+    }
+
+}
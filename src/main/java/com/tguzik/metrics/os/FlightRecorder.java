@@ -0,0 +1,206 @@
+package com.tguzik.metrics.os;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.ToDoubleFunction;
+
+import com.codahale.metrics.Clock;
+import oshi.hardware.CentralProcessor.TickType;
+import oshi.software.os.InternetProtocolStats.TcpStats;
+import oshi.software.os.InternetProtocolStats.UdpStats;
+
+/**
+ * This class is meant to keep the recent history of the OS readings on disk, so that it can be looked at after the
+ * fact - say, after the process got killed by the OOM killer, or when the metrics backend was not reachable. It listens
+ * to the {@link SharedSnapshots} and appends every value of the {@link RecordedChannel channels} read by a refresh as a
+ * fixed-width record into a memory-mapped file of bounded size. Once the file is full the oldest records get
+ * overwritten.
+ * <p>
+ * Appending writes straight into the mapped memory - it allocates nothing and costs no system call, the OS flushes
+ * the pages in its own time. The file survives the process, though not necessarily a crash of the whole machine.
+ * <p>
+ * File layout, all numbers big-endian: a header of {@link #HEADER_SIZE} bytes - magic, format version, record size and
+ * capacity (ints), then the number of records ever appended and the creation time (longs) - followed by the ring of
+ * {@link #RECORD_SIZE}-byte records: wall clock time in milliseconds (long), channel identifier (int), low bits of the
+ * record number (int) and the value (double). The recording is read back by {@link FlightRecording}.
+ */
+public final class FlightRecorder implements Closeable {
+    public static final int MAGIC = 0x4d4f5346;
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 32;
+    public static final int RECORD_SIZE = 24;
+    public static final int MAX_CAPACITY = ( Integer.MAX_VALUE - HEADER_SIZE ) / RECORD_SIZE;
+    private static final int APPENDED_OFFSET = 16;
+
+    private final List<Runnable> detachments;
+    private final MappedByteBuffer buffer;
+    private final AtomicBoolean closed;
+    private final Object lock;
+    private final Clock clock;
+    private final int capacity;
+    private long appended;
+
+    private FlightRecorder( final MappedByteBuffer buffer, final int capacity, final Clock clock ) {
+        this.detachments = new CopyOnWriteArrayList<>();
+        this.closed = new AtomicBoolean();
+        this.lock = new Object();
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.clock = clock;
+    }
+
+    /**
+     * Creates the file, or truncates it if it exists - the recording of a previous run should be moved out of the way
+     * first if it is still needed.
+     *
+     * @param capacity number of records kept in the file
+     */
+    public static FlightRecorder create( final Path file, final int capacity, final Clock clock ) throws IOException {
+        if ( capacity <= 0 || capacity > MAX_CAPACITY ) {
+            throw new IllegalArgumentException( "Capacity has to be between 1 and " + MAX_CAPACITY + ": " + capacity );
+        }
+
+        Objects.requireNonNull( clock );
+
+        final MappedByteBuffer buffer;
+
+        try ( FileChannel channel = FileChannel.open( file,
+                                                      StandardOpenOption.CREATE,
+                                                      StandardOpenOption.TRUNCATE_EXISTING,
+                                                      StandardOpenOption.READ,
+                                                      StandardOpenOption.WRITE ) ) {
+            // The mapping stays valid after the channel gets closed
+            buffer = channel.map( FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * RECORD_SIZE );
+        }
+
+        buffer.putInt( MAGIC ).putInt( VERSION ).putInt( RECORD_SIZE ).putInt( capacity );
+        buffer.putLong( 0L ).putLong( clock.getTime() );
+
+        return new FlightRecorder( buffer, capacity, clock );
+    }
+
+    /** Records every following refresh of the snapshots, until the recorder gets closed */
+    public void attachTo( final SharedSnapshots snapshots ) {
+        record( snapshots.getUptime(), RecordedChannel.UPTIME, Long::doubleValue );
+        record( snapshots.getCpuTemperature(), RecordedChannel.CPU_TEMPERATURE, Double::doubleValue );
+
+        record( snapshots.getProcessCounts(), RecordedChannel.PROCESS_COUNT, ProcessCountsReading::getProcessCount );
+        record( snapshots.getProcessCounts(), RecordedChannel.THREAD_COUNT, ProcessCountsReading::getThreadCount );
+
+        record( snapshots.getFileDescriptors(), RecordedChannel.FD_OPEN, FileDescriptorsReading::getOpen );
+        record( snapshots.getFileDescriptors(), RecordedChannel.FD_MAX, FileDescriptorsReading::getMax );
+
+        attachToMemory( snapshots );
+        attachToCpu( snapshots.getCpu() );
+        attachToNetwork( snapshots.getNetwork() );
+    }
+
+    private void attachToMemory( final SharedSnapshots snapshots ) {
+        final CachedSnapshot<MemoryReading> memory = snapshots.getMemory();
+        final CachedSnapshot<VirtualMemoryReading> virtualMemory = snapshots.getVirtualMemory();
+
+        record( memory, RecordedChannel.MEMORY_TOTAL, MemoryReading::getTotal );
+        record( memory, RecordedChannel.MEMORY_AVAILABLE, MemoryReading::getAvailable );
+        record( virtualMemory, RecordedChannel.SWAP_TOTAL, VirtualMemoryReading::getSwapTotal );
+        record( virtualMemory, RecordedChannel.SWAP_USED, VirtualMemoryReading::getSwapUsed );
+        record( virtualMemory, RecordedChannel.VIRTUAL_TOTAL, VirtualMemoryReading::getVirtualMax );
+        record( virtualMemory, RecordedChannel.VIRTUAL_USED, VirtualMemoryReading::getVirtualInUse );
+    }
+
+    private void attachToCpu( final CpuSnapshots cpu ) {
+        record( cpu.getCounters(), RecordedChannel.CPU_INTERRUPTS, CpuCountersReading::getInterrupts );
+        record( cpu.getCounters(), RecordedChannel.CPU_CONTEXT_SWITCHES, CpuCountersReading::getContextSwitches );
+        record( cpu.getLoadAverage(), RecordedChannel.LOAD_AVERAGE_1M, LoadAverageReading::getOneMinute );
+        record( cpu.getLoadAverage(), RecordedChannel.LOAD_AVERAGE_5M, LoadAverageReading::getFiveMinutes );
+        record( cpu.getLoadAverage(), RecordedChannel.LOAD_AVERAGE_15M, LoadAverageReading::getFifteenMinutes );
+
+        final CachedSnapshot<CpuUtilizationReading> utilization = cpu.getUtilization();
+        record( utilization, RecordedChannel.LOGICAL_PROCESSOR_COUNT, CpuUtilizationReading::getProcessorCount );
+
+        // Only the row of the whole system - the channels are fixed, while the number of processors is not
+        for ( final TickType type : TickType.values() ) {
+            record( utilization, RecordedChannel.ofCpuTicks( type ), reading -> reading.getSystemTicks( type ) );
+        }
+    }
+
+    private void attachToNetwork( final NetworkSnapshots network ) {
+        final CachedSnapshot<TcpStats> tcp = network.getTcpV4();
+        final CachedSnapshot<UdpStats> udp = network.getUdpV4();
+
+        record( tcp, RecordedChannel.TCP_V4_ESTABLISHED, TcpStats::getConnectionsEstablished );
+        record( tcp, RecordedChannel.TCP_V4_ACTIVE, TcpStats::getConnectionsActive );
+        record( tcp, RecordedChannel.TCP_V4_PASSIVE, TcpStats::getConnectionsPassive );
+        record( tcp, RecordedChannel.TCP_V4_FAILURES, TcpStats::getConnectionFailures );
+        record( tcp, RecordedChannel.TCP_V4_RESET, TcpStats::getConnectionsReset );
+        record( tcp, RecordedChannel.TCP_V4_SEGMENTS_SENT, TcpStats::getSegmentsSent );
+        record( tcp, RecordedChannel.TCP_V4_SEGMENTS_RECEIVED, TcpStats::getSegmentsReceived );
+        record( tcp, RecordedChannel.TCP_V4_SEGMENTS_RETRANSMITTED, TcpStats::getSegmentsRetransmitted );
+        record( udp, RecordedChannel.UDP_V4_SENT, UdpStats::getDatagramsSent );
+        record( udp, RecordedChannel.UDP_V4_RECEIVED, UdpStats::getDatagramsReceived );
+        record( udp, RecordedChannel.UDP_V4_NO_PORT, UdpStats::getDatagramsNoPort );
+        record( udp, RecordedChannel.UDP_V4_RECEIVED_ERRORS, UdpStats::getDatagramsReceivedErrors );
+    }
+
+    private <T> void record( final CachedSnapshot<T> snapshot,
+                             final RecordedChannel channel,
+                             final ToDoubleFunction<? super T> extractor ) {
+        final SnapshotListener<T> listener = ( value, tick ) -> append( channel, extractor.applyAsDouble( value ) );
+
+        snapshot.addListener( listener );
+        detachments.add( () -> snapshot.removeListener( listener ) );
+    }
+
+    /** Appends a record stamped with the current time. Does nothing once the recorder is closed. */
+    public void append( final RecordedChannel channel, final double value ) {
+        final long time = clock.getTime();
+
+        synchronized ( lock ) {
+            if ( closed.get() ) {
+                return;
+            }
+
+            final int offset = HEADER_SIZE + (int) ( appended % capacity ) * RECORD_SIZE;
+
+            buffer.putLong( offset, time );
+            buffer.putInt( offset + 8, channel.getId() );
+            buffer.putInt( offset + 12, (int) appended );
+            buffer.putDouble( offset + 16, value );
+
+            appended++;
+            buffer.putLong( APPENDED_OFFSET, appended );
+        }
+    }
+
+    /** Number of records appended so far, including the ones already overwritten */
+    public long getAppended() {
+        synchronized ( lock ) {
+            return appended;
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /** Stops listening to the snapshots and flushes the file. The recording stays on disk. */
+    @Override
+    public void close() {
+        detachments.forEach( Runnable::run );
+        detachments.clear();
+
+        synchronized ( lock ) {
+            if ( closed.compareAndSet( false, true ) ) {
+                buffer.force();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,206 @@
+package com.tguzik.metrics.os;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class is meant to read back the file written by the {@link FlightRecorder} - either to look at what the system
+ * was doing during given time window, or to replay the recording through the {@link ReplayProbes}. The records are
+ * copied out of the file when it is read, so the recording does not change afterwards even if the recorder keeps
+ * appending to the file.
+ * <p>
+ * Records of channels not known to this version, and records overwritten while the file was being read, are skipped.
+ * The records are kept in the order of appending, which is assumed to be the order of time - a wall clock going back
+ * makes the lookups by time unreliable.
+ * <p>
+ * Can also be run from the command line, to print a time window of the recording as CSV:
+ * {@code java com.tguzik.metrics.os.FlightRecording <file> [<from> [<to>]]}, with the times given either as ISO-8601
+ * instants or as milliseconds since the epoch.
+ */
+public final class FlightRecording {
+    public static final double UNAVAILABLE = -1.0;
+
+    private final RecordedChannel[] channels;
+    private final double[] values;
+    private final long[] times;
+    private final long created;
+
+    @SuppressWarnings( "PMD.UseVarargs" ) // Takes over the arrays of the recorder, there is nothing variadic here
+    private FlightRecording( final long created,
+                             final long[] times,
+                             final RecordedChannel[] channels,
+                             final double[] values ) {
+        this.created = created;
+        this.times = times;
+        this.channels = channels;
+        this.values = values;
+    }
+
+    public static FlightRecording read( final Path file ) throws IOException {
+        final ByteBuffer buffer;
+
+        try ( FileChannel channel = FileChannel.open( file, StandardOpenOption.READ ) ) {
+            buffer = channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() );
+        }
+
+        if ( buffer.remaining() < FlightRecorder.HEADER_SIZE
+             || buffer.getInt() != FlightRecorder.MAGIC
+             || buffer.getInt() != FlightRecorder.VERSION
+             || buffer.getInt() != FlightRecorder.RECORD_SIZE ) {
+            throw new IOException( "Not a flight recording, or written by an incompatible version: " + file );
+        }
+
+        final int capacity = buffer.getInt();
+        final long size = FlightRecorder.HEADER_SIZE + (long) capacity * FlightRecorder.RECORD_SIZE;
+
+        if ( capacity <= 0 || buffer.limit() < size ) {
+            throw new IOException( "Flight recording is truncated: " + file );
+        }
+
+        final long appended = buffer.getLong();
+        final long created = buffer.getLong();
+
+        return readRecords( buffer, capacity, appended, created );
+    }
+
+    private static FlightRecording readRecords( final ByteBuffer buffer,
+                                                final int capacity,
+                                                final long appended,
+                                                final long created ) {
+        final long first = Math.max( 0L, appended - capacity );
+        final int count = (int) ( appended - first );
+
+        final RecordedChannel[] channels = new RecordedChannel[count];
+        final double[] values = new double[count];
+        final long[] times = new long[count];
+        int size = 0;
+
+        for ( long index = first; index < appended; index++ ) {
+            buffer.position( FlightRecorder.HEADER_SIZE + (int) ( index % capacity ) * FlightRecorder.RECORD_SIZE );
+
+            final long time = buffer.getLong();
+            final RecordedChannel channel = RecordedChannel.byId( buffer.getInt() );
+            final int sequence = buffer.getInt();
+            final double value = buffer.getDouble();
+
+            if ( channel != null && sequence == (int) index ) {
+                times[size] = time;
+                channels[size] = channel;
+                values[size] = value;
+                size++;
+            }
+        }
+
+        return new FlightRecording( created,
+                                    Arrays.copyOf( times, size ),
+                                    Arrays.copyOf( channels, size ),
+                                    Arrays.copyOf( values, size ) );
+    }
+
+    /** Wall clock time at which the recorder created the file, in milliseconds */
+    public long getCreated() {
+        return created;
+    }
+
+    /** Number of records in the recording */
+    public int size() {
+        return times.length;
+    }
+
+    /** Records of given time window, both ends inclusive, in the order of appending */
+    public List<RecordedSample> getSamples( final long fromTime, final long toTime ) {
+        final List<RecordedSample> product = new ArrayList<>();
+
+        for ( int i = firstAtOrAfter( fromTime ); i < times.length && times[i] <= toTime; i++ ) {
+            product.add( sample( i ) );
+        }
+
+        return product;
+    }
+
+    private RecordedSample sample( final int index ) {
+        return new RecordedSample( times[index], channels[index], values[index] );
+    }
+
+    /** Value of the channel recorded last at or before given time, or {@link #UNAVAILABLE} */
+    public double getValue( final RecordedChannel channel, final long time ) {
+        final int end = time == Long.MAX_VALUE ? times.length : firstAtOrAfter( time + 1 );
+
+        for ( int i = end - 1; i >= 0; i-- ) {
+            if ( channels[i] == channel ) {
+                return values[i];
+            }
+        }
+
+        return UNAVAILABLE;
+    }
+
+    private int firstAtOrAfter( final long time ) {
+        int low = 0;
+        int high = times.length;
+
+        while ( low < high ) {
+            final int middle = ( low + high ) >>> 1;
+
+            if ( times[middle] < time ) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    /** Writes the records of given time window as CSV, one record per line */
+    public void dump( final long fromTime, final long toTime, final Appendable out ) throws IOException {
+        out.append( "time,channel,value" ).append( System.lineSeparator() );
+
+        for ( final RecordedSample sample : getSamples( fromTime, toTime ) ) {
+            out.append( Instant.ofEpochMilli( sample.getTime() ).toString() )
+               .append( ',' )
+               .append( sample.getChannel().getName() )
+               .append( ',' )
+               .append( format( sample.getValue() ) )
+               .append( System.lineSeparator() );
+        }
+    }
+
+    /** Most of the values are counters, which read better without the exponent */
+    private static String format( final double value ) {
+        if ( value == Math.rint( value ) && Math.abs( value ) < 0x1p53 ) {
+            return Long.toString( (long) value );
+        }
+
+        return Double.toString( value );
+    }
+
+    public static void main( final String[] args ) throws IOException {
+        if ( args.length == 0 || args.length > 3 ) {
+            throw new IllegalArgumentException( "Usage: FlightRecording <file> [<from> [<to>]]" );
+        }
+
+        final FlightRecording recording = read( Paths.get( args[0] ) );
+        final long fromTime = args.length > 1 ? parseTime( args[1] ) : Long.MIN_VALUE;
+        final long toTime = args.length > 2 ? parseTime( args[2] ) : Long.MAX_VALUE;
+
+        recording.dump( fromTime, toTime, System.out );
+        System.out.flush();
+    }
+
+    private static long parseTime( final String value ) {
+        return value.chars().allMatch( Character::isDigit )
+               ? Long.parseLong( value )
+               : Instant.parse( value ).toEpochMilli();
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.tguzik.metrics.os;
+
+/**
+ * Families of gauges that {@link OperatingEnvironmentGaugeSet} is composed of, and which can be selected with its
+ * {@link OperatingEnvironmentGaugeSet.Builder builder}.
+ */
+public enum GaugeFamily {
+    /** CPU, load, memory, uptime and process counts - see {@link CoreGaugeSet} */
+    CORE,
+    /** Hostname, gateways and TCP/UDP statistics - see {@link NetworkGaugeSet} */
+    NETWORK,
+    /** File descriptors and disks - see {@link StorageGaugeSet} */
+    STORAGE,
+    /** Identity of the process, OS and processor, and sensors - see {@link MiscGaugeSet} */
+    MISC,
+    /** Resources used by the process this library runs in - see {@link SelfGaugeSet} */
+    SELF,
+    /** Limits, throttling and pressure of the container this library runs in - see {@link CgroupGaugeSet} */
+    CGROUP
+}
@@ -0,0 +1,201 @@
+package com.tguzik.metrics.os;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.DoubleSupplier;
+import java.util.function.ToDoubleFunction;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+
+/**
+ * Samples a few cheap sources many times per reporting interval - say, every 100 milliseconds - so that the spikes
+ * that come and go between two scrapes are not lost. For each source {@code <name>} it provides gauges of the
+ * reporting interval:
+ * <ul>
+ * <li>{@code <name>.sampled.max} - exact maximum</li>
+ * <li>{@code <name>.sampled.p99} - 99th percentile, with about 3% precision</li>
+ * <li>{@code <name>.sampled.mean} - mean</li>
+ * </ul>
+ * The gauges of a source share a single summary of the interval. The first read that comes at least half a reporting
+ * interval after the previous one closes the interval and starts the next one, so each report covers exactly the
+ * samples taken since the previous report - even when the reporter fires a little early or late - while the gauges
+ * read within the same report get the same summary.
+ * <p>
+ * The samples are recorded into {@link IntervalHistogram}s, which is lock-free and does not allocate, so the sampling
+ * is safe to leave on in production. Whether reading a source allocates is up to the source - the CPU ticks behind
+ * {@link SampledSource#CPU_BUSY} are read into arrays allocated up front, but opening {@code /proc/stat} (or going
+ * through oshi) still allocates on every read.
+ * <p>
+ * As with {@link BackgroundSampler}, the executor is provided by the user and never shut down by this class.
+ */
+public class HighFrequencySampler implements MetricSet, Closeable {
+    private final AtomicReference<ScheduledFuture<?>> scheduled;
+    private final AtomicReference<Source[]> sources;
+    private final long reportingIntervalNanos;
+    private final Object lock;
+    private final Clock clock;
+
+    public HighFrequencySampler( final Clock clock, final long reportingInterval, final TimeUnit reportingIntervalUnit ) {
+        this.reportingIntervalNanos = reportingIntervalUnit.toNanos( reportingInterval );
+        this.clock = Objects.requireNonNull( clock );
+        this.scheduled = new AtomicReference<>();
+        this.sources = new AtomicReference<>( new Source[0] );
+        this.lock = new Object();
+    }
+
+    /** Adds given sources, read straight from the probes */
+    public HighFrequencySampler addSources( final SystemProbes probes, final SampledSource... sampledSources ) {
+        for ( final SampledSource source : sampledSources ) {
+            addSource( source.getName(), source.supplierFor( probes ) );
+        }
+
+        return this;
+    }
+
+    /**
+     * Adds a source of values, which should be cheap to read and should return a negative number when the value is not
+     * available. Sources added after the metrics are obtained do not show up in them.
+     */
+    public HighFrequencySampler addSource( final String name, final DoubleSupplier source ) {
+        final Source added = new Source( name, source, reportingIntervalNanos, clock );
+
+        synchronized ( lock ) {
+            final Source[] current = sources.get();
+            final Source[] extended = Arrays.copyOf( current, current.length + 1 );
+
+            extended[current.length] = added;
+            sources.set( extended );
+        }
+
+        return this;
+    }
+
+    /**
+     * Schedules the sampling. Calling this method on an already started sampler does nothing.
+     *
+     * @return this instance, for convenience
+     */
+    @SuppressWarnings( "PMD.DoNotUseThreads" ) // Scheduled on the executor given by the caller
+    public HighFrequencySampler start( final ScheduledExecutorService executor,
+                                       final long period,
+                                       final TimeUnit periodUnit ) {
+        synchronized ( lock ) {
+            if ( scheduled.get() == null ) {
+                scheduled.set( executor.scheduleAtFixedRate( this::sample, 0, period, periodUnit ) );
+            }
+        }
+
+        return this;
+    }
+
+    public boolean isRunning() {
+        return scheduled.get() != null;
+    }
+
+    /**
+     * Reads every source once and records the values. A source that throws an exception is skipped, so it can't cancel
+     * the whole schedule.
+     */
+    public void sample() {
+        for ( final Source source : sources.get() ) {
+            source.sample();
+        }
+    }
+
+    /** Stops the sampling. Does not shut down the executor. */
+    @Override
+    public void close() {
+        final ScheduledFuture<?> future = scheduled.getAndSet( null );
+
+        if ( future != null ) {
+            future.cancel( false );
+        }
+    }
+
+    @Override
+    public Map<String, Metric> getMetrics() {
+        final Map<String, Metric> product = new ConcurrentHashMap<>();
+
+        for ( final Source source : sources.get() ) {
+            product.putAll( source.getGauges() );
+        }
+
+        return product;
+    }
+
+    /** Single source along with its histogram and the summary of the last closed interval */
+    private static final class Source {
+        private final AtomicReference<IntervalStatistics> interval;
+        private final IntervalHistogram histogram;
+        private final DoubleSupplier supplier;
+        private final AtomicLong rolledAt;
+        private final long spacingNanos;
+        private final String name;
+        private final Clock clock;
+
+        public Source( final String name,
+                       final DoubleSupplier supplier,
+                       final long reportingIntervalNanos,
+                       final Clock clock ) {
+            this.name = Objects.requireNonNull( name );
+            this.supplier = Objects.requireNonNull( supplier );
+            this.clock = Objects.requireNonNull( clock );
+            this.histogram = new IntervalHistogram();
+            this.interval = new AtomicReference<>();
+            this.spacingNanos = reportingIntervalNanos / 2;
+            this.rolledAt = new AtomicLong( clock.getTick() - spacingNanos );
+        }
+
+        /**
+         * Closes the interval on the first read of a report. Unlike a cached snapshot expiring after the reporting
+         * interval, this does not hand a report that fires a bit early the interval it has already reported.
+         */
+        public IntervalStatistics getInterval() {
+            final long tick = clock.getTick();
+            final long previous = rolledAt.get();
+
+            if ( tick - previous >= spacingNanos && rolledAt.compareAndSet( previous, tick ) ) {
+                interval.set( histogram.roll() );
+            }
+
+            return interval.get();
+        }
+
+        public void sample() {
+            try {
+                histogram.record( supplier.getAsDouble() );
+            }
+            catch ( RuntimeException e ) {
+                // Same reasoning as in SupplierBasedCachedGauge - a missing sample is reported as a smaller count
+                return;
+            }
+        }
+
+        public Map<String, Metric> getGauges() {
+            final Map<String, Metric> product = new ConcurrentHashMap<>();
+
+            product.put( name( name, "sampled.max" ), statisticGauge( IntervalStatistics::getMax ) );
+            product.put( name( name, "sampled.p99" ), statisticGauge( IntervalStatistics::getP99 ) );
+            product.put( name( name, "sampled.mean" ), statisticGauge( IntervalStatistics::getMean ) );
+
+            return product;
+        }
+
+        private Metric statisticGauge( final ToDoubleFunction<IntervalStatistics> statistic ) {
+            return new DerivedDoubleGauge<>( this::getInterval, statistic );
+        }
+    }
+
+}
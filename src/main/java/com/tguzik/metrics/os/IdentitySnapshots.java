@@ -0,0 +1,93 @@
+package com.tguzik.metrics.os;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.codahale.metrics.Clock;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * Groups the snapshots of values that never change during the lifetime of the process - identity of the process,
+ * operating system and processor. Each value is read at most once, on first use, and never refreshed.
+ * <p>
+ * Every value has a snapshot of its own, so that a probe which fails (or initializes oshi) does not take the others
+ * with it. They all share the {@code identity} group name, so they are accounted together by the
+ * {@link CollectorGaugeSet} and configured together by the {@link RefreshPolicies} - none of which can make them
+ * reload, since any policy derived from the {@link RefreshPolicy#NEVER} timeout keeps it.
+ */
+@SuppressWarnings( "PMD.DataClass" ) // Nothing but a holder of the snapshots of a source group
+@SuppressFBWarnings( value = "EI_EXPOSE_REP",
+                     justification = "Handing out the snapshots shared by the gauges is the whole point" )
+public class IdentitySnapshots {
+    public static final String GROUP = "identity";
+
+    private final CachedSnapshot<Integer> processId;
+    private final CachedSnapshot<Integer> bitness;
+    private final CachedSnapshot<String> family;
+    private final CachedSnapshot<String> processorIdentifier;
+    private final CachedSnapshot<Integer> logicalProcessorCount;
+    private final CachedSnapshot<Integer> physicalProcessorCount;
+    private final CachedSnapshot<Integer> physicalPackageCount;
+    private final Clock clock;
+
+    public IdentitySnapshots( final SystemProbes probes, final Clock clock ) {
+        Objects.requireNonNull( probes );
+
+        this.clock = Objects.requireNonNull( clock );
+
+        this.processId = snapshot( probes::getProcessId );
+        this.bitness = snapshot( probes::getBitness );
+        this.family = snapshot( probes::getFamily );
+        this.processorIdentifier = snapshot( probes::getProcessorIdentifier );
+        this.logicalProcessorCount = snapshot( probes::getLogicalProcessorCount );
+        this.physicalProcessorCount = snapshot( probes::getPhysicalProcessorCount );
+        this.physicalPackageCount = snapshot( probes::getPhysicalPackageCount );
+    }
+
+    public CachedSnapshot<Integer> getProcessId() {
+        return processId;
+    }
+
+    public CachedSnapshot<Integer> getBitness() {
+        return bitness;
+    }
+
+    public CachedSnapshot<String> getFamily() {
+        return family;
+    }
+
+    public CachedSnapshot<String> getProcessorIdentifier() {
+        return processorIdentifier;
+    }
+
+    public CachedSnapshot<Integer> getLogicalProcessorCount() {
+        return logicalProcessorCount;
+    }
+
+    public CachedSnapshot<Integer> getPhysicalProcessorCount() {
+        return physicalProcessorCount;
+    }
+
+    public CachedSnapshot<Integer> getPhysicalPackageCount() {
+        return physicalPackageCount;
+    }
+
+    /** All snapshots held by this instance, in no particular order */
+    public List<CachedSnapshot<?>> getAll() {
+        return Arrays.asList( processId,
+                              bitness,
+                              family,
+                              processorIdentifier,
+                              logicalProcessorCount,
+                              physicalProcessorCount,
+                              physicalPackageCount );
+    }
+
+    private <T> CachedSnapshot<T> snapshot( final Supplier<? extends T> uncachedSupplier ) {
+        return new CachedSnapshot<>( GROUP, clock, RefreshPolicy.NEVER, TimeUnit.NANOSECONDS, uncachedSupplier );
+    }
+
+}
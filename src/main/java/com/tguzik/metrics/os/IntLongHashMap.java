@@ -0,0 +1,107 @@
+package com.tguzik.metrics.os;
+
+import java.util.Arrays;
+
+/**
+ * This class is meant to map primitive {@code int} keys - like process IDs - to {@code long} values without boxing
+ * either of them. Open addressing with linear probing, so a lookup touches two arrays and nothing else.
+ * <p>
+ * {@link #clear()} keeps the capacity, so a map that gets refilled over and over settles at the size of its largest
+ * fill and stops allocating. Not thread safe.
+ */
+public final class IntLongHashMap {
+    private static final int EMPTY = Integer.MIN_VALUE;
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] keys;
+    private long[] values;
+    private int count;
+
+    public IntLongHashMap() {
+        this.keys = emptyKeys( MIN_CAPACITY );
+        this.values = new long[MIN_CAPACITY];
+    }
+
+    private static int[] emptyKeys( final int capacity ) {
+        final int[] product = new int[capacity];
+
+        Arrays.fill( product, EMPTY );
+        return product;
+    }
+
+    /** Spreads sequential keys, like process IDs, over the whole table */
+    private static int slotOf( final int key, final int mask ) {
+        final int hash = key * 0x9E3779B9;
+
+        return ( hash ^ hash >>> 16 ) & mask;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /** Value of given key, or {@code defaultValue} if there is none */
+    public long get( final int key, final long defaultValue ) {
+        final int slot = find( key );
+
+        return keys[slot] == key ? values[slot] : defaultValue;
+    }
+
+    /**
+     * Associates the value with the key, replacing the previous one.
+     *
+     * @param key anything but {@link Integer#MIN_VALUE}
+     */
+    public void put( final int key, final long value ) {
+        if ( key == EMPTY ) {
+            throw new IllegalArgumentException( "Integer.MIN_VALUE is reserved for empty slots" );
+        }
+
+        final int slot = find( key );
+
+        if ( keys[slot] != key ) {
+            keys[slot] = key;
+            count++;
+        }
+
+        values[slot] = value;
+
+        // Keeping the table at most half full keeps the probe sequences short
+        if ( count > keys.length >> 1 ) {
+            grow();
+        }
+    }
+
+    public void clear() {
+        Arrays.fill( keys, EMPTY );
+        count = 0;
+    }
+
+    /** Slot holding given key, or the empty slot where it would go */
+    private int find( final int key ) {
+        final int mask = keys.length - 1;
+        int slot = slotOf( key, mask );
+
+        while ( keys[slot] != EMPTY && keys[slot] != key ) {
+            slot = slot + 1 & mask;
+        }
+
+        return slot;
+    }
+
+    private void grow() {
+        final int[] oldKeys = keys;
+        final long[] oldValues = values;
+
+        this.keys = emptyKeys( oldKeys.length << 1 );
+        this.values = new long[oldKeys.length << 1];
+        this.count = 0;
+
+        for ( int i = 0; i < oldKeys.length; i++ ) {
+            if ( oldKeys[i] != EMPTY ) {
+                put( oldKeys[i], oldValues[i] );
+            }
+        }
+    }
+
+}
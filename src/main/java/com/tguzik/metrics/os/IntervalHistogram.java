@@ -0,0 +1,126 @@
+package com.tguzik.metrics.os;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class is meant to record samples taken many times per reporting interval - say, every 100 milliseconds - and
+ * summarize each interval as its mean, 99th percentile and maximum (see {@link IntervalStatistics}).
+ * <p>
+ * Recording is lock-free and does not allocate: the samples are counted in log-linear buckets held in a primitive
+ * array, HDR histogram style, with about 3% precision between {@code 2^-16} and {@code 2^48} - which covers fractions
+ * of CPU time as well as bytes of memory. Smaller values land in the lowest bucket, larger ones in the highest. The
+ * mean and the maximum are exact. Negative values and NaNs - the unavailable markers - are ignored.
+ * <p>
+ * The buckets are never reset. Instead, {@link #roll()} remembers the counts it has seen and reports the difference,
+ * so a sample recorded concurrently with a roll simply falls into one of the two intervals.
+ */
+public final class IntervalHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SHIFT = 52 - SUB_BUCKET_BITS;
+    private static final long LOWEST_INDEX = Double.doubleToRawLongBits( 0x1p-16 ) >>> SHIFT;
+    private static final long HIGHEST_INDEX = Double.doubleToRawLongBits( 0x1p48 ) >>> SHIFT;
+    private static final int BUCKETS = (int) ( HIGHEST_INDEX - LOWEST_INDEX ) + 1;
+    private static final long NO_MAX = Double.doubleToRawLongBits( IntervalStatistics.UNAVAILABLE );
+    private static final double PERCENTILE = 0.99;
+
+    private final AtomicLongArray buckets;
+    private final AtomicLong sumBits;
+    private final AtomicLong maxBits;
+    private final AtomicLong count;
+    private final long[] intervalBuckets;
+    private final long[] rolledBuckets;
+    private final Object lock;
+    private double rolledSum;
+    private long rolledCount;
+
+    public IntervalHistogram() {
+        this.buckets = new AtomicLongArray( BUCKETS );
+        this.sumBits = new AtomicLong();
+        this.maxBits = new AtomicLong( NO_MAX );
+        this.count = new AtomicLong();
+        this.intervalBuckets = new long[BUCKETS];
+        this.rolledBuckets = new long[BUCKETS];
+        this.lock = new Object();
+    }
+
+    /** Positive doubles sort the same way as their bit patterns, so the top bits of the mantissa pick the bucket */
+    private static int bucketOf( final double value ) {
+        final long index = Double.doubleToRawLongBits( value ) >>> SHIFT;
+
+        return (int) ( Math.min( Math.max( index, LOWEST_INDEX ), HIGHEST_INDEX ) - LOWEST_INDEX );
+    }
+
+    /** Middle of given bucket */
+    private static double valueOf( final int bucket ) {
+        final long lowestBits = ( bucket + LOWEST_INDEX ) << SHIFT;
+
+        return Double.longBitsToDouble( lowestBits | ( 1L << ( SHIFT - 1 ) ) );
+    }
+
+    public void record( final double value ) {
+        if ( value < 0 || Double.isNaN( value ) ) {
+            return;
+        }
+
+        buckets.incrementAndGet( bucketOf( value ) );
+        count.incrementAndGet();
+
+        long sum = sumBits.get();
+        while ( !sumBits.compareAndSet( sum, Double.doubleToRawLongBits( Double.longBitsToDouble( sum ) + value ) ) ) {
+            sum = sumBits.get();
+        }
+
+        long max = maxBits.get();
+        while ( Double.longBitsToDouble( max ) < value
+                && !maxBits.compareAndSet( max, Double.doubleToRawLongBits( value ) ) ) {
+            max = maxBits.get();
+        }
+    }
+
+    /** Summarizes the samples recorded since the previous roll, and starts a new interval */
+    public IntervalStatistics roll() {
+        synchronized ( lock ) {
+            final double max = Double.longBitsToDouble( maxBits.getAndSet( NO_MAX ) );
+            final long totalCount = count.get();
+            final double totalSum = Double.longBitsToDouble( sumBits.get() );
+            final long intervalCount = totalCount - rolledCount;
+            final double intervalSum = totalSum - rolledSum;
+            final double p99 = rollBuckets();
+
+            rolledCount = totalCount;
+            rolledSum = totalSum;
+
+            return intervalCount <= 0
+                   ? new IntervalStatistics( 0, IntervalStatistics.UNAVAILABLE, IntervalStatistics.UNAVAILABLE, max )
+                   : new IntervalStatistics( intervalCount, intervalSum / intervalCount, Math.min( p99, max ), max );
+        }
+    }
+
+    /** Moves the rolled counts forward, and finds the percentile among the counts added since the previous roll */
+    private double rollBuckets() {
+        long intervalCount = 0;
+
+        for ( int i = 0; i < BUCKETS; i++ ) {
+            final long current = buckets.get( i );
+
+            intervalBuckets[i] = current - rolledBuckets[i];
+            rolledBuckets[i] = current;
+            intervalCount += intervalBuckets[i];
+        }
+
+        final long rank = (long) Math.ceil( intervalCount * PERCENTILE );
+        long seen = 0;
+
+        for ( int i = 0; i < BUCKETS; i++ ) {
+            seen += intervalBuckets[i];
+
+            if ( seen >= rank && intervalBuckets[i] > 0 ) {
+                return valueOf( i );
+            }
+        }
+
+        return IntervalStatistics.UNAVAILABLE;
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.tguzik.metrics.os;
+
+/**
+ * Summary of the samples recorded by an {@link IntervalHistogram} during a single reporting interval. All values are
+ * {@link #UNAVAILABLE} when nothing was recorded.
+ */
+@SuppressWarnings( "PMD.DataClass" ) // Immutable summary of an interval, there is nothing to do with it but read it
+public final class IntervalStatistics {
+    public static final double UNAVAILABLE = -1.0;
+
+    private final long count;
+    private final double mean;
+    private final double p99;
+    private final double max;
+
+    public IntervalStatistics( final long count, final double mean, final double p99, final double max ) {
+        this.count = count;
+        this.mean = mean;
+        this.p99 = p99;
+        this.max = max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    /** 99th percentile, with the precision of the histogram buckets */
+    public double getP99() {
+        return p99;
+    }
+
+    /** Exact maximum */
+    public double getMax() {
+        return max;
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.tguzik.metrics.os;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import com.codahale.metrics.Gauge;
+import io.vavr.Lazy;
+import io.vavr.control.Try;
+
+/**
+ * This class is meant to package numeric metric values that should never ever change during the lifetime of the
+ * process, like the number of logical processors.
+ * <p>
+ * This gauge will call the supplier at most once and box the value at most once.
+ * <p>
+ * When the retrieval throws an exception or returns a null, this gauge will keep returning
+ * {@link DerivedLongGauge#UNAVAILABLE}.
+ */
+public class LazyLongGauge implements Gauge<Long> {
+
+    protected final Lazy<Long> lazy;
+
+    public LazyLongGauge( final Supplier<? extends Number> valueSupplier ) {
+        this.lazy = Lazy.of( () -> Try.ofSupplier( valueSupplier )
+                                      .filter( Objects::nonNull )
+                                      .map( Number::longValue )
+                                      .getOrElse( DerivedLongGauge.UNAVAILABLE ) );
+    }
+
+    @Override
+    public Long getValue() {
+        return lazy.get();
+    }
+
+}
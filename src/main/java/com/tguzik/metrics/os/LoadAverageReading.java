@@ -0,0 +1,29 @@
+package com.tguzik.metrics.os;
+
+/**
+ * Point-in-time copy of the system load averages, negative when not available.
+ */
+public final class LoadAverageReading {
+    private final double oneMinute;
+    private final double fiveMinutes;
+    private final double fifteenMinutes;
+
+    public LoadAverageReading( final double oneMinute, final double fiveMinutes, final double fifteenMinutes ) {
+        this.oneMinute = oneMinute;
+        this.fiveMinutes = fiveMinutes;
+        this.fifteenMinutes = fifteenMinutes;
+    }
+
+    public double getOneMinute() {
+        return oneMinute;
+    }
+
+    public double getFiveMinutes() {
+        return fiveMinutes;
+    }
+
+    public double getFifteenMinutes() {
+        return fifteenMinutes;
+    }
+
+}
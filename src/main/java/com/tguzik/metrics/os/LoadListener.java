@@ -0,0 +1,37 @@
+package com.tguzik.metrics.os;
+
+/**
+ * Gets notified about the outcome of every load of a {@link CachedSnapshot} - successful or not - on the thread that
+ * did the load, and about the failures of the snapshot listeners. Meant for accounting the cost of the OS probes, so
+ * implementations should be quick.
+ */
+@FunctionalInterface
+public interface LoadListener {
+
+    /** Listener that ignores everything */
+    LoadListener NONE = ( outcome, startTick, endTick ) -> {
+    };
+
+    /**
+     * Called after every load, successful or not.
+     *
+     * @param outcome how the load went
+     * @param startTick {@link com.codahale.metrics.Clock#getTick() clock tick} at which the load started
+     * @param endTick clock tick at which the load finished
+     */
+    void onLoad( Outcome outcome, long startTick, long endTick );
+
+    /** Called when a {@link SnapshotListener} of the snapshot threw an exception, after the value got published */
+    default void onListenerFailure( final RuntimeException failure ) {
+    }
+
+    enum Outcome {
+        /** The probe returned a value */
+        LOADED,
+        /** The probe returned a null */
+        NULL,
+        /** The probe threw an exception */
+        FAILED
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.tguzik.metrics.os;
+
+/**
+ * Point-in-time copy of the physical memory details, all values in bytes.
+ */
+public final class MemoryReading {
+    private final long total;
+    private final long available;
+    private final long pageSize;
+
+    public MemoryReading( final long total, final long available, final long pageSize ) {
+        this.total = total;
+        this.available = available;
+        this.pageSize = pageSize;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getAvailable() {
+        return available;
+    }
+
+    public long getPageSize() {
+        return pageSize;
+    }
+
+}
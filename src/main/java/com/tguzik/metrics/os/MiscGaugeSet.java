@@ -0,0 +1,53 @@
+package com.tguzik.metrics.os;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+
+/**
+ * Everything else - identity of the process, operating system and processor ({@code self.pid}, {@code os.bits},
+ * {@code os.family}, {@code hw.cpu.id} and the processor counts), which is read once per process (see
+ * {@link IdentitySnapshots}), and the sensors.
+ */
+public class MiscGaugeSet implements MetricSet {
+    private final SharedSnapshots snapshots;
+
+    public MiscGaugeSet( final SharedSnapshots snapshots ) {
+        this.snapshots = Objects.requireNonNull( snapshots );
+    }
+
+    private static Gauge<String> oneShotGauge( final CachedSnapshot<String> snapshot ) {
+        return new DerivedStringGauge<>( snapshot, Function.identity() );
+    }
+
+    private static Gauge<Long> oneShotLongGauge( final CachedSnapshot<Integer> snapshot ) {
+        return new DerivedLongGauge<>( snapshot, Integer::longValue );
+    }
+
+    @Override
+    public Map<String, Metric> getMetrics() {
+        final Map<String, Metric> product = new ConcurrentHashMap<>();
+        final IdentitySnapshots identity = snapshots.getIdentity();
+
+        product.put( "self.pid", oneShotLongGauge( identity.getProcessId() ) );
+
+        product.put( "os.bits", oneShotLongGauge( identity.getBitness() ) );
+        product.put( "os.family", oneShotGauge( identity.getFamily() ) );
+
+        product.put( "hw.cpu.id", oneShotGauge( identity.getProcessorIdentifier() ) );
+        product.put( "hw.cpu.logical.count", oneShotLongGauge( identity.getLogicalProcessorCount() ) );
+        product.put( "hw.cpu.physical.count", oneShotLongGauge( identity.getPhysicalProcessorCount() ) );
+        product.put( "hw.cpu.physical.packages", oneShotLongGauge( identity.getPhysicalPackageCount() ) );
+
+        product.put( "hw.sensors.cpu.temperature",
+                     new DerivedDoubleGauge<>( snapshots.getCpuTemperature(), Double::doubleValue ) );
+
+        return product;
+    }
+
+}
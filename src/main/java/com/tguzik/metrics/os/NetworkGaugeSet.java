@@ -0,0 +1,103 @@
+package com.tguzik.metrics.os;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+import io.vavr.Lazy;
+import oshi.software.os.InternetProtocolStats.TcpStats;
+import oshi.software.os.InternetProtocolStats.UdpStats;
+
+/**
+ * Network gauges - {@code os.net.*}: hostname, domain name, DNS servers, default gateways and TCP/UDP statistics of
+ * both IPv4 and IPv6. The gauges of each network interface are kept apart, in {@link #getInterfaces()}.
+ */
+public class NetworkGaugeSet implements MetricSet {
+    private final Supplier<NetworkInterfaceGaugeSet> interfaces;
+    private final NetworkSnapshots snapshots;
+
+    public NetworkGaugeSet( final NetworkSnapshots snapshots ) {
+        this( snapshots, Lazy.of( () -> new NetworkInterfaceGaugeSet( snapshots.getInterfaces() ) ) );
+    }
+
+    /**
+     * Shares the gauges of the network interfaces with other sets of the same snapshots, see
+     * {@link SharedGaugeSets#getNetworkInterfaces()}.
+     *
+     * @param interfaces called on each call to {@link #getInterfaces()}
+     */
+    public NetworkGaugeSet( final NetworkSnapshots snapshots, final Supplier<NetworkInterfaceGaugeSet> interfaces ) {
+        this.snapshots = Objects.requireNonNull( snapshots );
+        this.interfaces = Objects.requireNonNull( interfaces );
+    }
+
+    private static <T> Gauge<String> stringGauge( final Supplier<T> snapshot,
+                                                  final Function<? super T, String> extractor ) {
+        return new DerivedStringGauge<>( snapshot, extractor );
+    }
+
+    private static <T> Gauge<Long> longGauge( final Supplier<T> snapshot, final ToLongFunction<? super T> extractor ) {
+        return new DerivedLongGauge<>( snapshot, extractor );
+    }
+
+    /**
+     * Gauges of each network interface. Since the interfaces come and go, the set is not included in
+     * {@link #getMetrics()} - register it separately, or let it follow the interfaces in a registry with
+     * {@link NetworkInterfaceGaugeSet#startDiscovery}. The set is created on first call and shared by all subsequent
+     * calls.
+     */
+    public NetworkInterfaceGaugeSet getInterfaces() {
+        return interfaces.get();
+    }
+
+    @Override
+    public Map<String, Metric> getMetrics() {
+        final Map<String, Metric> product = new ConcurrentHashMap<>();
+
+        product.put( "os.net.hostname", stringGauge( snapshots.getParams(), NetworkParamsReading::getHostName ) );
+        product.put( "os.net.domainname", stringGauge( snapshots.getParams(), NetworkParamsReading::getDomainName ) );
+        product.put( "os.net.dnsservers", stringGauge( snapshots.getParams(), NetworkParamsReading::getDnsServers ) );
+
+        this.ipGaugeSet( NetworkParamsReading::getIpv4DefaultGateway, snapshots.getTcpV4(), snapshots.getUdpV4() )
+            .forEach( ( key, gauge ) -> product.put( name( "os.net.ipv4", key ), gauge ) );
+
+        this.ipGaugeSet( NetworkParamsReading::getIpv6DefaultGateway, snapshots.getTcpV6(), snapshots.getUdpV6() )
+            .forEach( ( key, gauge ) -> product.put( name( "os.net.ipv6", key ), gauge ) );
+
+        return product;
+    }
+
+    protected Map<String, Gauge<?>> ipGaugeSet( final Function<NetworkParamsReading, String> defaultGateway,
+                                                final Supplier<TcpStats> tcp,
+                                                final Supplier<UdpStats> udp ) {
+        final Map<String, Gauge<?>> product = new ConcurrentHashMap<>();
+
+        product.put( "gateway.default", stringGauge( snapshots.getParams(), defaultGateway ) );
+
+        product.put( "tcp.connections.active", longGauge( tcp, TcpStats::getConnectionsActive ) );
+        product.put( "tcp.connections.established", longGauge( tcp, TcpStats::getConnectionsEstablished ) );
+        product.put( "tcp.connections.passive", longGauge( tcp, TcpStats::getConnectionsPassive ) );
+        product.put( "tcp.connections.reset", longGauge( tcp, TcpStats::getConnectionsReset ) );
+        product.put( "tcp.connections.failures", longGauge( tcp, TcpStats::getConnectionFailures ) );
+
+        product.put( "tcp.segments.sent", longGauge( tcp, TcpStats::getSegmentsSent ) );
+        product.put( "tcp.segments.received", longGauge( tcp, TcpStats::getSegmentsReceived ) );
+        product.put( "tcp.segments.retransmitted", longGauge( tcp, TcpStats::getSegmentsRetransmitted ) );
+
+        product.put( "udp.datagrams.sent", longGauge( udp, UdpStats::getDatagramsSent ) );
+        product.put( "udp.datagrams.received", longGauge( udp, UdpStats::getDatagramsReceived ) );
+        product.put( "udp.datagrams.received.errors", longGauge( udp, UdpStats::getDatagramsReceivedErrors ) );
+        product.put( "udp.datagrams.received.no-port", longGauge( udp, UdpStats::getDatagramsNoPort ) );
+
+        return product;
+    }
+
+}
@@ -0,0 +1,245 @@
+package com.tguzik.metrics.os;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.MetricSet;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * Gauges for each network interface, named {@code hw.net.<interface>.<counter>}: bytes, packets, errors and drops,
+ * speed, and per-second rates of the received and sent bytes (see {@link RateGaugeSet}). All of them are fed by a
+ * single snapshot, so the interfaces are read once per cache timeout regardless of how many of them there are.
+ * <p>
+ * The set follows the interfaces as they come and go - every refresh of the snapshot creates the gauges of the
+ * interfaces that appeared and drops the gauges of the ones that disappeared. {@link #getMetrics()} returns the gauges
+ * of the interfaces known at the time of the call, while {@link #startDiscovery(MetricRegistry)} keeps a registry in
+ * sync with the interfaces, touching only the gauges of the interfaces that changed.
+ * <p>
+ * The set tracks the interfaces through a listener attached to the snapshot on construction, and the gauge sets of a
+ * {@link SamplingEngine} share the one from {@link SharedGaugeSets#getNetworkInterfaces()}.
+ */
+public class NetworkInterfaceGaugeSet implements MetricSet, SnapshotListener<NetworkInterfacesReading> {
+    public static final String PREFIX = "hw.net";
+
+    private final CachedSnapshot<NetworkInterfacesReading> snapshot;
+    private final Map<String, InterfaceGauges> interfaces;
+    private final List<MetricRegistry> registries;
+    private final Object lock;
+
+    @SuppressFBWarnings( value = "EI_EXPOSE_REP2",
+                         justification = "The snapshot is shared with the other gauges of its source group" )
+    public NetworkInterfaceGaugeSet( final CachedSnapshot<NetworkInterfacesReading> snapshot ) {
+        this.snapshot = Objects.requireNonNull( snapshot );
+        this.interfaces = new HashMap<>();
+        this.registries = new CopyOnWriteArrayList<>();
+        this.lock = new Object();
+
+        snapshot.addListener( this );
+    }
+
+    @Override
+    public Map<String, Metric> getMetrics() {
+        discoverCurrent();
+
+        final Map<String, Metric> product = new ConcurrentHashMap<>();
+
+        synchronized ( lock ) {
+            for ( final InterfaceGauges gauges : interfaces.values() ) {
+                product.putAll( gauges.getGauges() );
+            }
+        }
+
+        return product;
+    }
+
+    /**
+     * Registers the gauges of the known interfaces in given registry, then keeps registering the gauges of the
+     * interfaces that appear and removing the gauges of the ones that disappear - until {@link #stopDiscovery}.
+     */
+    public void startDiscovery( final MetricRegistry registry ) {
+        registries.add( Objects.requireNonNull( registry ) );
+        discoverCurrent();
+
+        synchronized ( lock ) {
+            for ( final InterfaceGauges gauges : interfaces.values() ) {
+                gauges.registerInto( registry );
+            }
+        }
+    }
+
+    /** Stops following the interfaces in given registry and removes all gauges this set has registered there */
+    public void stopDiscovery( final MetricRegistry registry ) {
+        registries.remove( registry );
+
+        synchronized ( lock ) {
+            for ( final InterfaceGauges gauges : interfaces.values() ) {
+                gauges.removeFrom( registry );
+            }
+        }
+    }
+
+    @Override
+    public void onRefresh( final NetworkInterfacesReading reading, final long tick ) {
+        // The rates of the new interfaces were not listening to this refresh yet, it is going to be their first sample
+        for ( final InterfaceGauges added : discover( reading ) ) {
+            added.sample( reading, tick );
+        }
+    }
+
+    /** Covers the interfaces that were read before this set started listening to the snapshot */
+    private void discoverCurrent() {
+        final NetworkInterfacesReading current = snapshot.get();
+
+        if ( current != null ) {
+            discover( current );
+        }
+    }
+
+    private List<InterfaceGauges> discover( final NetworkInterfacesReading reading ) {
+        synchronized ( lock ) {
+            removeMissing( reading );
+            return addMissing( reading );
+        }
+    }
+
+    private void removeMissing( final NetworkInterfacesReading reading ) {
+        final Iterator<Map.Entry<String, InterfaceGauges>> known = interfaces.entrySet().iterator();
+
+        while ( known.hasNext() ) {
+            final Map.Entry<String, InterfaceGauges> entry = known.next();
+
+            if ( reading.getInterface( entry.getKey() ) == null ) {
+                known.remove();
+                entry.getValue().detachFrom( snapshot );
+
+                for ( final MetricRegistry registry : registries ) {
+                    entry.getValue().removeFrom( registry );
+                }
+            }
+        }
+    }
+
+    private List<InterfaceGauges> addMissing( final NetworkInterfacesReading reading ) {
+        List<InterfaceGauges> added = Collections.emptyList();
+
+        for ( final String interfaceName : reading.getNames() ) {
+            if ( !interfaces.containsKey( interfaceName ) ) {
+                added = append( added, addInterface( interfaceName ) );
+            }
+        }
+
+        return added;
+    }
+
+    private InterfaceGauges addInterface( final String interfaceName ) {
+        final InterfaceGauges gauges = new InterfaceGauges( interfaceName, snapshot );
+        interfaces.put( interfaceName, gauges );
+
+        for ( final MetricRegistry registry : registries ) {
+            gauges.registerInto( registry );
+        }
+
+        return gauges;
+    }
+
+    /** Most refreshes do not discover anything, so they should not pay for a list */
+    private static List<InterfaceGauges> append( final List<InterfaceGauges> list, final InterfaceGauges gauges ) {
+        final List<InterfaceGauges> product = list.isEmpty() ? new ArrayList<>() : list;
+
+        product.add( gauges );
+        return product;
+    }
+
+    /** Gauges and rates of a single interface */
+    private static final class InterfaceGauges {
+        private final List<CounterRate<NetworkInterfacesReading>> rates;
+        private final Map<String, Gauge<?>> gauges;
+
+        public InterfaceGauges( final String interfaceName, final CachedSnapshot<NetworkInterfacesReading> snapshot ) {
+            final String prefix = name( PREFIX, interfaceName );
+            final Supplier<NetworkInterfaceReading> reading = () -> {
+                final NetworkInterfacesReading current = snapshot.get();
+                return current == null ? null : current.getInterface( interfaceName );
+            };
+
+            this.rates = new ArrayList<>();
+            this.gauges = new ConcurrentHashMap<>();
+
+            gauges.put( name( prefix, "bytes.received" ),
+                        new DerivedLongGauge<>( reading, NetworkInterfaceReading::getBytesReceived ) );
+            gauges.put( name( prefix, "bytes.sent" ),
+                        new DerivedLongGauge<>( reading, NetworkInterfaceReading::getBytesSent ) );
+            gauges.put( name( prefix, "packets.received" ),
+                        new DerivedLongGauge<>( reading, NetworkInterfaceReading::getPacketsReceived ) );
+            gauges.put( name( prefix, "packets.sent" ),
+                        new DerivedLongGauge<>( reading, NetworkInterfaceReading::getPacketsSent ) );
+            gauges.put( name( prefix, "errors.received" ),
+                        new DerivedLongGauge<>( reading, NetworkInterfaceReading::getErrorsReceived ) );
+            gauges.put( name( prefix, "errors.sent" ),
+                        new DerivedLongGauge<>( reading, NetworkInterfaceReading::getErrorsSent ) );
+            gauges.put( name( prefix, "drops.received" ),
+                        new DerivedLongGauge<>( reading, NetworkInterfaceReading::getDropsReceived ) );
+            gauges.put( name( prefix, "speed" ), new DerivedLongGauge<>( reading, NetworkInterfaceReading::getSpeed ) );
+
+            addRates( name( prefix, "bytes.received" ), snapshot, interfaceName,
+                      NetworkInterfaceReading::getBytesReceived );
+            addRates( name( prefix, "bytes.sent" ), snapshot, interfaceName, NetworkInterfaceReading::getBytesSent );
+        }
+
+        private void addRates( final String counterName,
+                               final CachedSnapshot<NetworkInterfacesReading> snapshot,
+                               final String interfaceName,
+                               final ToLongFunction<NetworkInterfaceReading> counter ) {
+            final CounterRate<NetworkInterfacesReading> rate = new CounterRate<>( current -> {
+                final NetworkInterfaceReading reading = current.getInterface( interfaceName );
+                return reading == null ? DerivedLongGauge.UNAVAILABLE : counter.applyAsLong( reading );
+            } );
+
+            snapshot.addListener( rate );
+            rates.add( rate );
+            gauges.putAll( RateGaugeSet.rateGauges( counterName, snapshot, rate ) );
+        }
+
+        public Map<String, Gauge<?>> getGauges() {
+            return gauges;
+        }
+
+        public void sample( final NetworkInterfacesReading reading, final long tick ) {
+            for ( final CounterRate<NetworkInterfacesReading> rate : rates ) {
+                rate.onRefresh( reading, tick );
+            }
+        }
+
+        public void detachFrom( final CachedSnapshot<NetworkInterfacesReading> snapshot ) {
+            for ( final CounterRate<NetworkInterfacesReading> rate : rates ) {
+                snapshot.removeListener( rate );
+            }
+        }
+
+        /** Leaves alone the names that are already taken, be it by this set or by somebody else */
+        public void registerInto( final MetricRegistry registry ) {
+            gauges.forEach( ( name, gauge ) -> registry.gauge( name, () -> gauge ) );
+        }
+
+        /** Removes only the gauges of this interface, not whatever else might be registered under the same names */
+        public void removeFrom( final MetricRegistry registry ) {
+            registry.removeMatching( ( name, metric ) -> metric.equals( gauges.get( name ) ) );
+        }
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.tguzik.metrics.os;
+
+import java.util.Objects;
+
+/**
+ * Point-in-time copy of the counters of a single network interface. Counters are cumulative since the interface came
+ * up, speed is in bits per second.
+ */
+@SuppressWarnings( "PMD.DataClass" ) // Point-in-time reading, a plain value holder by design
+public final class NetworkInterfaceReading {
+    private final String name;
+    private final long bytesReceived;
+    private final long bytesSent;
+    private final long packetsReceived;
+    private final long packetsSent;
+    private final long errorsReceived;
+    private final long errorsSent;
+    private final long dropsReceived;
+    private final long speed;
+
+    public NetworkInterfaceReading( final String name,
+                                    final long bytesReceived,
+                                    final long bytesSent,
+                                    final long packetsReceived,
+                                    final long packetsSent,
+                                    final long errorsReceived,
+                                    final long errorsSent,
+                                    final long dropsReceived,
+                                    final long speed ) {
+        this.name = Objects.requireNonNull( name );
+        this.bytesReceived = bytesReceived;
+        this.bytesSent = bytesSent;
+        this.packetsReceived = packetsReceived;
+        this.packetsSent = packetsSent;
+        this.errorsReceived = errorsReceived;
+        this.errorsSent = errorsSent;
+        this.dropsReceived = dropsReceived;
+        this.speed = speed;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    public long getPacketsReceived() {
+        return packetsReceived;
+    }
+
+    public long getPacketsSent() {
+        return packetsSent;
+    }
+
+    public long getErrorsReceived() {
+        return errorsReceived;
+    }
+
+    public long getErrorsSent() {
+        return errorsSent;
+    }
+
+    public long getDropsReceived() {
+        return dropsReceived;
+    }
+
+    public long getSpeed() {
+        return speed;
+    }
+
+}
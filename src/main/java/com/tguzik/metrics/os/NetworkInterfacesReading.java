@@ -0,0 +1,34 @@
+package com.tguzik.metrics.os;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Point-in-time copy of the counters of all network interfaces present at the time of the read, keyed by the
+ * interface name.
+ */
+public final class NetworkInterfacesReading {
+    private final Map<String, NetworkInterfaceReading> interfaces;
+
+    public NetworkInterfacesReading( final Collection<NetworkInterfaceReading> interfaces ) {
+        this.interfaces = new HashMap<>();
+
+        for ( final NetworkInterfaceReading reading : interfaces ) {
+            this.interfaces.put( reading.getName(), reading );
+        }
+    }
+
+    /** Names of the interfaces present at the time of the read */
+    public Set<String> getNames() {
+        return Collections.unmodifiableSet( interfaces.keySet() );
+    }
+
+    /** Reading of given interface, or null if it was not present at the time of the read */
+    public NetworkInterfaceReading getInterface( final String name ) {
+        return interfaces.get( name );
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.tguzik.metrics.os;
+
+/**
+ * Point-in-time copy of the network parameters of the host.
+ */
+@SuppressWarnings( "PMD.DataClass" ) // Point-in-time reading, a plain value holder by design
+public final class NetworkParamsReading {
+    private final String hostName;
+    private final String domainName;
+    private final String dnsServers;
+    private final String ipv4DefaultGateway;
+    private final String ipv6DefaultGateway;
+
+    public NetworkParamsReading( final String hostName,
+                                 final String domainName,
+                                 final String dnsServers,
+                                 final String ipv4DefaultGateway,
+                                 final String ipv6DefaultGateway ) {
+        this.hostName = hostName;
+        this.domainName = domainName;
+        this.dnsServers = dnsServers;
+        this.ipv4DefaultGateway = ipv4DefaultGateway;
+        this.ipv6DefaultGateway = ipv6DefaultGateway;
+    }
+
+    public String getHostName() {
+        return hostName;
+    }
+
+    public String getDomainName() {
+        return domainName;
+    }
+
+    /** DNS servers joined with a semicolon */
+    public String getDnsServers() {
+        return dnsServers;
+    }
+
+    public String getIpv4DefaultGateway() {
+        return ipv4DefaultGateway;
+    }
+
+    public String getIpv6DefaultGateway() {
+        return ipv6DefaultGateway;
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.tguzik.metrics.os;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.codahale.metrics.Clock;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import oshi.software.os.InternetProtocolStats.TcpStats;
+import oshi.software.os.InternetProtocolStats.UdpStats;
+
+/**
+ * Groups the snapshots of network related values. Same rules as in {@link SharedSnapshots} apply - one OS read per
+ * source group per cache timeout, no matter how many interfaces there are.
+ */
+@SuppressWarnings( "PMD.DataClass" ) // Nothing but a holder of the snapshots of a source group
+@SuppressFBWarnings( value = "EI_EXPOSE_REP",
+                     justification = "Handing out the snapshots shared by the gauges is the whole point" )
+public class NetworkSnapshots {
+    private final CachedSnapshot<TcpStats> tcpV4;
+    private final CachedSnapshot<TcpStats> tcpV6;
+    private final CachedSnapshot<UdpStats> udpV4;
+    private final CachedSnapshot<UdpStats> udpV6;
+    private final CachedSnapshot<NetworkParamsReading> params;
+    private final CachedSnapshot<NetworkInterfacesReading> interfaces;
+    private final long cacheTimeoutNanos;
+    private final Clock clock;
+
+    public NetworkSnapshots( final SystemProbes probes,
+                             final Clock clock,
+                             final long cacheTimeout,
+                             final TimeUnit cacheTimeoutUnit ) {
+        Objects.requireNonNull( probes );
+
+        this.cacheTimeoutNanos = cacheTimeoutUnit.toNanos( cacheTimeout );
+        this.clock = Objects.requireNonNull( clock );
+
+        this.tcpV4 = snapshot( "net.ipv4.tcp", probes::getTcpV4Stats );
+        this.tcpV6 = snapshot( "net.ipv6.tcp", probes::getTcpV6Stats );
+        this.udpV4 = snapshot( "net.ipv4.udp", probes::getUdpV4Stats );
+        this.udpV6 = snapshot( "net.ipv6.udp", probes::getUdpV6Stats );
+        this.params = snapshot( "net.params", probes::getNetworkParams );
+        this.interfaces = snapshot( "net.interfaces", probes::getNetworkInterfaces );
+    }
+
+    public CachedSnapshot<TcpStats> getTcpV4() {
+        return tcpV4;
+    }
+
+    public CachedSnapshot<TcpStats> getTcpV6() {
+        return tcpV6;
+    }
+
+    public CachedSnapshot<UdpStats> getUdpV4() {
+        return udpV4;
+    }
+
+    public CachedSnapshot<UdpStats> getUdpV6() {
+        return udpV6;
+    }
+
+    public CachedSnapshot<NetworkParamsReading> getParams() {
+        return params;
+    }
+
+    public CachedSnapshot<NetworkInterfacesReading> getInterfaces() {
+        return interfaces;
+    }
+
+    /** All snapshots held by this instance, in no particular order */
+    public List<CachedSnapshot<?>> getAll() {
+        return Arrays.asList( tcpV4, tcpV6, udpV4, udpV6, params, interfaces );
+    }
+
+    private <T> CachedSnapshot<T> snapshot( final String name, final Supplier<? extends T> uncachedSupplier ) {
+        return new CachedSnapshot<>( name, clock, cacheTimeoutNanos, TimeUnit.NANOSECONDS, uncachedSupplier );
+    }
+
+}
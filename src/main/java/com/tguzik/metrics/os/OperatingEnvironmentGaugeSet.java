@@ -2,161 +2,407 @@ package com.tguzik.metrics.os;
 
 import static com.codahale.metrics.MetricRegistry.name;
 
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Supplier;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import com.codahale.metrics.*;
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.MetricSet;
+import io.vavr.Lazy;
 import oshi.SystemInfo;
-import oshi.hardware.CentralProcessor;
-import oshi.hardware.HardwareAbstractionLayer;
-import oshi.software.os.InternetProtocolStats;
-import oshi.software.os.OperatingSystem;
-
-/*
- * TODO: Split this into multiple gauge set classes - say, one with basic operational metrics (cpu, memory, load),
- * one with network activity, one with disk details, and one with the rest.
- *
- * It's a breaking change, but we're still before 1.0
+
+/**
+ * All gauges provided by this library, composed of the {@link GaugeFamily families} selected on construction. Each
+ * family is a separate {@link MetricSet} that is created on first use, and all of them share the same snapshots - so
+ * a family that was not selected costs nothing, and the selected ones read the operating system once per cache
+ * timeout regardless of how they are registered.
+ * <p>
+ * The constructors select all families, use {@link #builder()} to pick some of them.
+ * <p>
+ * Each instance reads the operating system on its own, unless it was created from a {@link SamplingEngine.Lease} -
+ * then the snapshots are shared with every other instance of the same engine and cache timeout, while the prefix and
+ * the selected families remain its own. So are the gauge sets that listen to the snapshots, like the rates or the top
+ * processes, so their work is done once per refresh regardless of the number of instances. Closing an instance closes
+ * its lease.
  */
-public class OperatingEnvironmentGaugeSet implements MetricSet {
-    private final TimeUnit cacheTimeoutUnit;
-    private final SystemInfo systemInfo;
-    private final long cacheTimeout;
-    private final Clock clock;
+@SuppressWarnings( "PMD.CouplingBetweenObjects" ) // Composing all the other gauge sets is the whole point
+public class OperatingEnvironmentGaugeSet implements MetricSet, Closeable {
+    public static final int TOP_PROCESS_RANKS = 5;
+
+    private final Lazy<NetworkGaugeSet> network;
+    private final Lazy<StorageGaugeSet> storage;
+    private final Set<GaugeFamily> families;
+    private final Lazy<CoreGaugeSet> core;
+    private final Lazy<MiscGaugeSet> misc;
+    private final SharedGaugeSets gaugeSets;
+    private final SharedSnapshots snapshots;
+    private final AtomicBoolean ratesIncluded;
+    private final SamplingEngine.Lease snapshotsLease;
+    private final String prefix;
 
     public OperatingEnvironmentGaugeSet() {
         this( 1, TimeUnit.SECONDS );
     }
 
     public OperatingEnvironmentGaugeSet( final long cacheTimeout, final TimeUnit cacheTimeoutUnit ) {
-        this( new SystemInfo(), Clock.defaultClock(), cacheTimeout, cacheTimeoutUnit );
+        this( SystemProbes.forCurrentPlatform(), Clock.defaultClock(), cacheTimeout, cacheTimeoutUnit );
     }
 
+    /** Reads everything through oshi, regardless of the platform */
     public OperatingEnvironmentGaugeSet( final SystemInfo systemInfo,
                                          final Clock clock,
                                          final long cacheTimeout,
                                          final TimeUnit cacheTimeoutUnit ) {
-        this.cacheTimeoutUnit = Objects.requireNonNull( cacheTimeoutUnit );
-        this.systemInfo = Objects.requireNonNull( systemInfo );
-        this.clock = Objects.requireNonNull( clock );
-        this.cacheTimeout = cacheTimeout;
+        this( new OshiProbes( systemInfo ), clock, cacheTimeout, cacheTimeoutUnit );
     }
 
-    private Gauge<String> oneShotGauge( final Supplier<?> uncachedSupplier ) {
-        return new SupplierBasedLazyGauge( uncachedSupplier );
+    public OperatingEnvironmentGaugeSet( final SystemProbes probes,
+                                         final Clock clock,
+                                         final long cacheTimeout,
+                                         final TimeUnit cacheTimeoutUnit ) {
+        this( probes, clock, cacheTimeout, cacheTimeoutUnit, EnumSet.allOf( GaugeFamily.class ) );
     }
 
-    private CachedGauge<String> cachedGauge( final Supplier<?> uncachedSupplier ) {
-        return new SupplierBasedCachedGauge( clock, cacheTimeout, cacheTimeoutUnit, uncachedSupplier );
+    /** @param families included in {@link #getMetrics()}, the other ones are still available through the getters */
+    public OperatingEnvironmentGaugeSet( final SystemProbes probes,
+                                         final Clock clock,
+                                         final long cacheTimeout,
+                                         final TimeUnit cacheTimeoutUnit,
+                                         final Collection<GaugeFamily> families ) {
+        this( new SamplingEngine( () -> probes, clock ).acquire( cacheTimeout, cacheTimeoutUnit ), families, "" );
     }
 
-    @Override
-    public Map<String, Metric> getMetrics() {
-        final Map<String, Metric> product = new ConcurrentHashMap<>();
+    /**
+     * Reads through the snapshots shared by the engine of given lease.
+     *
+     * @param prefix of the names returned by {@link #getMetrics()}, or an empty string for none
+     */
+    public OperatingEnvironmentGaugeSet( final SamplingEngine.Lease lease,
+                                         final Collection<GaugeFamily> families,
+                                         final String prefix ) {
+        this.snapshots = lease.getSnapshots();
+        this.gaugeSets = lease.getGaugeSets();
+        this.families = EnumSet.copyOf( families );
+        this.prefix = Objects.requireNonNull( prefix );
+        this.snapshotsLease = lease;
+        this.ratesIncluded = new AtomicBoolean();
+
+        this.core = Lazy.of( () -> new CoreGaugeSet( snapshots, gaugeSets::getProcessors ) );
+        this.network = Lazy.of( () -> new NetworkGaugeSet( snapshots.getNetwork(), gaugeSets::getNetworkInterfaces ) );
+        this.storage = Lazy.of( () -> new StorageGaugeSet( snapshots, gaugeSets::getDisks ) );
+        this.misc = Lazy.of( () -> new MiscGaugeSet( snapshots ) );
+    }
 
-        product.put( "self.pid", oneShotGauge( () -> systemInfo.getOperatingSystem().getProcessId() ) );
+    public static Builder builder() {
+        return new Builder();
+    }
 
-        operatingSystemGauges().forEach( ( key, gauge ) -> product.put( name( "os", key ), gauge ) );
-        hardwareGauges().forEach( ( key, gauge ) -> product.put( name( "hw", key ), gauge ) );
+    /** Snapshots shared by the gauges created by this instance */
+    public SharedSnapshots getSnapshots() {
+        return snapshots;
+    }
 
-        return product;
+    /** Families included in {@link #getMetrics()} */
+    public Set<GaugeFamily> getFamilies() {
+        return Collections.unmodifiableSet( families );
     }
 
-    public Map<String, Gauge<?>> operatingSystemGauges() {
-        final Map<String, Gauge<?>> product = new ConcurrentHashMap<>();
-        final Supplier<OperatingSystem> os = systemInfo::getOperatingSystem;
+    /** Gauges of given family, whether it was selected or not. Each family is created once, on first use. */
+    public MetricSet getFamily( final GaugeFamily family ) {
+        switch ( family ) {
+            case CORE:
+                return getCore();
+            case NETWORK:
+                return getNetwork();
+            case STORAGE:
+                return getStorage();
+            case SELF:
+                return getSelf();
+            case CGROUP:
+                return getCgroup();
+            default:
+                return getMisc();
+        }
+    }
 
-        product.put( "bits", oneShotGauge( () -> os.get().getBitness() ) );
-        product.put( "family", oneShotGauge( () -> os.get().getFamily() ) );
-        product.put( "uptime", cachedGauge( () -> os.get().getSystemUptime() ) );
+    public CoreGaugeSet getCore() {
+        return core.get();
+    }
 
-        product.put( "proc.process.count", cachedGauge( () -> os.get().getProcessCount() ) );
-        product.put( "proc.thread.count", cachedGauge( () -> os.get().getThreadCount() ) );
+    public NetworkGaugeSet getNetwork() {
+        return network.get();
+    }
 
-        product.put( "fs.fd.open", cachedGauge( () -> os.get().getFileSystem().getOpenFileDescriptors() ) );
-        product.put( "fs.fd.max", cachedGauge( () -> os.get().getFileSystem().getMaxFileDescriptors() ) );
+    public StorageGaugeSet getStorage() {
+        return storage.get();
+    }
 
-        product.put( "net.hostname", cachedGauge( () -> os.get().getNetworkParams().getHostName() ) );
-        product.put( "net.domainname", cachedGauge( () -> os.get().getNetworkParams().getDomainName() ) );
-        product.put( "net.dnsservers",
-                     cachedGauge( () -> String.join( "; ", os.get().getNetworkParams().getDnsServers() ) ) );
+    public MiscGaugeSet getMisc() {
+        return misc.get();
+    }
 
-        this.ipGaugeSet( () -> os.get().getNetworkParams().getIpv4DefaultGateway(),
-                         () -> os.get().getInternetProtocolStats().getTCPv4Stats(),
-                         () -> os.get().getInternetProtocolStats().getUDPv4Stats() )
-            .forEach( ( key, gauge ) -> product.put( name( "net.ipv4", key ), gauge ) );
+    public SelfGaugeSet getSelf() {
+        return gaugeSets.getSelf();
+    }
 
-        this.ipGaugeSet( () -> os.get().getNetworkParams().getIpv6DefaultGateway(),
-                         () -> os.get().getInternetProtocolStats().getTCPv6Stats(),
-                         () -> os.get().getInternetProtocolStats().getUDPv6Stats() )
-            .forEach( ( key, gauge ) -> product.put( name( "net.ipv6", key ), gauge ) );
+    public CgroupGaugeSet getCgroup() {
+        return gaugeSets.getCgroup();
+    }
 
-        return product;
+    /**
+     * Per-second rates of the monotonic counters, like interrupts or retransmitted TCP segments. The set is created on
+     * first call and shared by all instances reading the same snapshots - the rates are not computed until someone asks
+     * for them, and then only once per refresh.
+     */
+    public RateGaugeSet getRates() {
+        return gaugeSets.getRates();
     }
 
-    protected Map<String, Gauge<?>> ipGaugeSet( final Supplier<String> defaultGatewaySupplier,
-                                                final Supplier<InternetProtocolStats.TcpStats> tcp,
-                                                final Supplier<InternetProtocolStats.UdpStats> udp ) {
-        final Map<String, Gauge<?>> product = new ConcurrentHashMap<>();
+    /**
+     * Gauges of each network interface. Since the interfaces come and go, the set is not included in
+     * {@link #getMetrics()} - register it separately, or let it follow the interfaces in a registry with
+     * {@link NetworkInterfaceGaugeSet#startDiscovery}. The set is created on first call and shared by all instances
+     * reading the same snapshots.
+     */
+    public NetworkInterfaceGaugeSet getNetworkInterfaces() {
+        return getNetwork().getInterfaces();
+    }
 
-        product.put( "gateway.default", cachedGauge( defaultGatewaySupplier ) );
+    /**
+     * Gauges of each disk, included in {@link #getMetrics()} along with the {@link GaugeFamily#STORAGE storage}
+     * family once discovered (see {@link #startDiscovery}). The set is created on first call and shared by all
+     * instances reading the same snapshots, so that the rates derived from the disk counters are computed once.
+     */
+    public DiskGaugeSet getDisks() {
+        return getStorage().getDisks();
+    }
 
-        product.put( "tcp.connections.active", cachedGauge( () -> tcp.get().getConnectionsActive() ) );
-        product.put( "tcp.connections.established", cachedGauge( () -> tcp.get().getConnectionsEstablished() ) );
-        product.put( "tcp.connections.passive", cachedGauge( () -> tcp.get().getConnectionsPassive() ) );
-        product.put( "tcp.connections.reset", cachedGauge( () -> tcp.get().getConnectionsReset() ) );
-        product.put( "tcp.connections.failures", cachedGauge( () -> tcp.get().getConnectionFailures() ) );
+    /**
+     * Gauges of each mounted file system, each mount read on given executor within given deadline, so that a hung
+     * mount cannot hold up anything else (see {@link FileSystemGaugeSet}). Since the mounts come and go, the set is not
+     * included in {@link #getMetrics()} - register it separately, or let it follow the mounts in a registry with
+     * {@link FileSystemGaugeSet#startDiscovery}. Every call creates a new set, so this method is meant to be called
+     * once.
+     */
+    @SuppressWarnings( "PMD.DoNotUseThreads" ) // Only passes the executor of the caller on
+    public FileSystemGaugeSet createFileSystems( final ExecutorService executor,
+                                                 final long deadline,
+                                                 final TimeUnit deadlineUnit ) {
+        final SamplingEngine engine = snapshotsLease.getEngine();
+
+        return new FileSystemGaugeSet( snapshots.getStorage().getMountPoints(),
+                                       engine.getProbes(),
+                                       engine.getClock(),
+                                       snapshots.getCacheTimeoutNanos(),
+                                       TimeUnit.NANOSECONDS,
+                                       executor,
+                                       deadline,
+                                       deadlineUnit );
+    }
 
-        product.put( "tcp.segments.sent", cachedGauge( () -> tcp.get().getSegmentsSent() ) );
-        product.put( "tcp.segments.received", cachedGauge( () -> tcp.get().getSegmentsReceived() ) );
-        product.put( "tcp.segments.retransmitted", cachedGauge( () -> tcp.get().getSegmentsRetransmitted() ) );
+    /**
+     * Top {@value #TOP_PROCESS_RANKS} consumers of CPU and memory among all processes, named {@code proc.top.*}. Not
+     * included in {@link #getMetrics()}, since it is the only set that enumerates all processes. The set is created on
+     * first call and shared by all instances reading the same snapshots - for a different number of ranks create a
+     * {@link TopProcessGaugeSet} with {@link SharedSnapshots#getProcesses()} directly.
+     */
+    public TopProcessGaugeSet getTopProcesses() {
+        return gaugeSets.getTopProcesses();
+    }
 
-        product.put( "udp.datagrams.sent", cachedGauge( () -> udp.get().getDatagramsSent() ) );
-        product.put( "udp.datagrams.received", cachedGauge( () -> udp.get().getDatagramsReceived() ) );
-        product.put( "udp.datagrams.received.errors", cachedGauge( () -> udp.get().getDatagramsReceivedErrors() ) );
-        product.put( "udp.datagrams.received.no-port", cachedGauge( () -> udp.get().getDatagramsNoPort() ) );
+    /**
+     * Timers, counters and gauges describing the cost and the failures of reading each source group, named
+     * {@code metrics-os.collector.*}. Not included in {@link #getMetrics()} - the accounting starts on first call to
+     * this method, and the set is shared by all instances reading the same snapshots.
+     */
+    public CollectorGaugeSet getCollectorMetrics() {
+        return gaugeSets.getCollectorMetrics();
+    }
 
-        return product;
+    /** When set, {@link #getMetrics()} includes the gauges from {@link #getRates()} as well */
+    public void setRatesIncluded( final boolean ratesIncluded ) {
+        this.ratesIncluded.set( ratesIncluded );
     }
 
-    private Map<String, Gauge<?>> hardwareGauges() {
-        final Map<String, Gauge<?>> product = new ConcurrentHashMap<>();
-        final Supplier<HardwareAbstractionLayer> hw = systemInfo::getHardware;
-        final Supplier<CentralProcessor> cpu = () -> hw.get().getProcessor();
+    /**
+     * Opts into refreshing all snapshots of this instance on given executor, instead of on the thread that happens to
+     * read an expired gauge. From now on the gauges only return the last published value, so the cost of reading them
+     * does not depend on how expensive the OS probes are. The sampling period is equal to the cache timeout.
+     * <p>
+     * The instances sharing the snapshots share the sampler as well, see {@link SamplingEngine#sampleInBackground}.
+     *
+     * @return lease of the sampling - the snapshots go back to refreshing on read once every instance sharing them has
+     *     closed its lease
+     */
+    @SuppressWarnings( "PMD.DoNotUseThreads" ) // Only passes the executor of the caller on
+    public SamplingEngine.Lease sampleInBackground( final ScheduledExecutorService executor ) {
+        return snapshotsLease.getEngine().sampleInBackground( snapshotsLease, executor );
+    }
 
-        product.put( "cpu.id", oneShotGauge( () -> cpu.get().getProcessorIdentifier().toString() ) );
-        product.put( "cpu.logical.count", oneShotGauge( () -> cpu.get().getLogicalProcessorCount() ) );
-        product.put( "cpu.physical.count", oneShotGauge( () -> cpu.get().getPhysicalProcessorCount() ) );
-        product.put( "cpu.physical.packages", oneShotGauge( () -> cpu.get().getPhysicalPackageCount() ) );
+    /**
+     * Registers the gauges of {@link #getMetrics()} in given registry - just like {@link MetricRegistry#registerAll}
+     * - then keeps registering the gauges of the logical processors and the disks as they get discovered, until
+     * {@link #stopDiscovery}. Their names are only known once the operating system has been read, and the gauges
+     * created before that - including those of this instance - do not read it, so registering the gauge set this way
+     * is what picks them up without {@link #getMetrics()} being called again.
+     */
+    public void startDiscovery( final MetricRegistry registry ) {
+        registry.registerAll( this );
+
+        if ( families.contains( GaugeFamily.CORE ) ) {
+            getCore().getProcessors().startDiscovery( registry, prefix );
+        }
+
+        if ( families.contains( GaugeFamily.STORAGE ) ) {
+            getDisks().startDiscovery( registry, prefix );
+        }
+    }
 
-        // TODO: create a metric for each CPU
-        //product.put( "cpu.freq.current", cachedGauge( () -> cpu.get().getCurrentFreq() ) );
+    /** Stops following the processors and the disks in given registry, and removes their gauges registered there */
+    public void stopDiscovery( final MetricRegistry registry ) {
+        getCore().getProcessors().stopDiscovery( registry, prefix );
+        getDisks().stopDiscovery( registry, prefix );
+    }
 
-        // TODO: Implement support for CPU load, disks and network interfaces
-        //hw.getProcessor().getSystemCpuLoadTicks();
-        //hw.getProcessor().getSystemLoadAverage();
+    /** Prefix of the names returned by {@link #getMetrics()}, empty when there is none */
+    public String getPrefix() {
+        return prefix;
+    }
 
-        product.put( "cpu.freq.max", cachedGauge( () -> cpu.get().getMaxFreq() ) );
+    /** Gives the snapshots back to the {@link SamplingEngine}, so that they are dropped once nobody else uses them */
+    @Override
+    public void close() {
+        snapshotsLease.close();
+    }
 
-        product.put( "cpu.interrupts", cachedGauge( () -> cpu.get().getInterrupts() ) );
-        product.put( "cpu.context-switches", cachedGauge( () -> cpu.get().getContextSwitches() ) );
+    @Override
+    public Map<String, Metric> getMetrics() {
+        final Map<String, Metric> product = new ConcurrentHashMap<>();
 
-        product.put( "mem.total", cachedGauge( () -> hw.get().getMemory().getTotal() ) );
-        product.put( "mem.available", cachedGauge( () -> hw.get().getMemory().getAvailable() ) );
-        product.put( "mem.page.size", cachedGauge( () -> hw.get().getMemory().getPageSize() ) );
-        product.put( "mem.swap.used", cachedGauge( () -> hw.get().getMemory().getVirtualMemory().getSwapUsed() ) );
-        product.put( "mem.swap.total", cachedGauge( () -> hw.get().getMemory().getVirtualMemory().getSwapTotal() ) );
-        product.put( "mem.virtual.used",
-                     cachedGauge( () -> hw.get().getMemory().getVirtualMemory().getVirtualInUse() ) );
-        product.put( "mem.virtual.total",
-                     cachedGauge( () -> hw.get().getMemory().getVirtualMemory().getVirtualMax() ) );
+        for ( final GaugeFamily family : families ) {
+            putPrefixed( product, getFamily( family ) );
+        }
 
-        product.put( "sensors.cpu.temperature", cachedGauge( () -> hw.get().getSensors().getCpuTemperature() ) );
+        if ( ratesIncluded.get() ) {
+            putPrefixed( product, getRates() );
+        }
 
         return product;
     }
 
+    private void putPrefixed( final Map<String, Metric> product, final MetricSet metrics ) {
+        metrics.getMetrics().forEach( ( metricName, metric ) -> product.put( name( prefix, metricName ), metric ) );
+    }
+
+    /**
+     * This class is meant to pick the gauge families and the way they are read, with the same defaults as the no-arg
+     * constructor of {@link OperatingEnvironmentGaugeSet}: all families, the fastest probes for the current platform,
+     * default clock and one second of cache timeout.
+     */
+    public static final class Builder {
+        private final Set<GaugeFamily> families;
+        private RefreshPolicies refreshPolicies;
+        private SamplingEngine engine;
+        private TimeUnit cacheTimeoutUnit;
+        private boolean ratesIncluded;
+        private SystemProbes probes;
+        private long cacheTimeout;
+        private String prefix;
+        private Clock clock;
+
+        public Builder() {
+            this.families = EnumSet.noneOf( GaugeFamily.class );
+            this.cacheTimeoutUnit = TimeUnit.SECONDS;
+            this.clock = Clock.defaultClock();
+            this.cacheTimeout = 1;
+            this.prefix = "";
+        }
+
+        /** Adds given families to the selected ones. When none get selected, all of them are. */
+        public Builder withFamilies( final GaugeFamily... families ) {
+            this.families.addAll( Arrays.asList( families ) );
+            return this;
+        }
+
+        public Builder withProbes( final SystemProbes probes ) {
+            this.probes = Objects.requireNonNull( probes );
+            return this;
+        }
+
+        public Builder withClock( final Clock clock ) {
+            this.clock = Objects.requireNonNull( clock );
+            return this;
+        }
+
+        public Builder withCacheTimeout( final long cacheTimeout, final TimeUnit cacheTimeoutUnit ) {
+            this.cacheTimeoutUnit = Objects.requireNonNull( cacheTimeoutUnit );
+            this.cacheTimeout = cacheTimeout;
+            return this;
+        }
+
+        /**
+         * Overrides the cache timeout of chosen source groups, or lets the timeouts adapt to the cost and the failures
+         * of the loads. The cache timeout given to {@link #withCacheTimeout} remains the default, and the period of
+         * {@link OperatingEnvironmentGaugeSet#sampleInBackground background sampling}.
+         */
+        public Builder withRefreshPolicies( final RefreshPolicies refreshPolicies ) {
+            this.refreshPolicies = Objects.requireNonNull( refreshPolicies );
+            return this;
+        }
+
+        /**
+         * Shares the snapshots with every other gauge set built with the same engine and cache timeout, instead of
+         * reading the operating system on its own. The probes and the clock given to this builder are ignored in favor
+         * of the ones of the engine, and the {@link #withRefreshPolicies refresh policies} apply to the shared
+         * snapshots - that is, to all gauge sets sharing them.
+         */
+        public Builder withEngine( final SamplingEngine engine ) {
+            this.engine = Objects.requireNonNull( engine );
+            return this;
+        }
+
+        /** Prefixes the names returned by {@link OperatingEnvironmentGaugeSet#getMetrics()} */
+        public Builder withPrefix( final String prefix ) {
+            this.prefix = Objects.requireNonNull( prefix );
+            return this;
+        }
+
+        /** See {@link OperatingEnvironmentGaugeSet#setRatesIncluded(boolean)} */
+        public Builder withRates( final boolean ratesIncluded ) {
+            this.ratesIncluded = ratesIncluded;
+            return this;
+        }
+
+        public OperatingEnvironmentGaugeSet build() {
+            final Set<GaugeFamily> selected = families.isEmpty() ? EnumSet.allOf( GaugeFamily.class ) : families;
+            final SamplingEngine source = engine == null ? new SamplingEngine( this::resolveProbes, clock ) : engine;
+            final OperatingEnvironmentGaugeSet product =
+                new OperatingEnvironmentGaugeSet( source.acquire( cacheTimeout, cacheTimeoutUnit ), selected, prefix );
+
+            product.setRatesIncluded( ratesIncluded );
+
+            if ( refreshPolicies != null ) {
+                refreshPolicies.applyTo( product.getSnapshots().getAll() );
+            }
+
+            return product;
+        }
+
+        private SystemProbes resolveProbes() {
+            return probes == null ? SystemProbes.forCurrentPlatform() : probes;
+        }
+    }
+
 }
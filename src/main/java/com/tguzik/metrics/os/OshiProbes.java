@@ -0,0 +1,332 @@
+package com.tguzik.metrics.os;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import io.vavr.Lazy;
+import oshi.SystemInfo;
+import oshi.hardware.CentralProcessor;
+import oshi.hardware.CentralProcessor.ProcessorIdentifier;
+import oshi.hardware.GlobalMemory;
+import oshi.hardware.HWDiskStore;
+import oshi.hardware.HardwareAbstractionLayer;
+import oshi.hardware.NetworkIF;
+import oshi.hardware.VirtualMemory;
+import oshi.software.os.FileSystem;
+import oshi.software.os.InternetProtocolStats.TcpStats;
+import oshi.software.os.InternetProtocolStats.UdpStats;
+import oshi.software.os.NetworkParams;
+import oshi.software.os.OSProcess;
+import oshi.software.os.OperatingSystem;
+
+/**
+ * Acquires all values through the oshi library, which works on every platform supported by oshi.
+ * <p>
+ * The {@link SystemInfo} is obtained on first read, and oshi initializes the hardware and operating system layers (and
+ * JNA along with them) only when they are first used - so creating the probes costs nothing until a gauge is read.
+ */
+@SuppressWarnings( { "PMD.CouplingBetweenObjects", "PMD.GodClass" } ) // Adapting all of oshi is the whole point
+public class OshiProbes implements SystemProbes {
+    private static final long[][] NO_PROCESSOR_TICKS = new long[0][];
+    private static final long[] NO_TICKS = new long[0];
+
+    private final Lazy<OSProcess> currentProcess;
+    private final Lazy<SystemInfo> systemInfo;
+
+    public OshiProbes( final SystemInfo systemInfo ) {
+        this( constant( Objects.requireNonNull( systemInfo ) ) );
+    }
+
+    /** @param systemInfo called at most once, on first read */
+    public OshiProbes( final Supplier<SystemInfo> systemInfo ) {
+        this.systemInfo = Lazy.of( Objects.requireNonNull( systemInfo ) );
+        this.currentProcess = Lazy.of( () -> getOperatingSystem().getProcess( getProcessId() ) );
+    }
+
+    private static Supplier<SystemInfo> constant( final SystemInfo systemInfo ) {
+        return () -> systemInfo;
+    }
+
+    protected SystemInfo getSystemInfo() {
+        return systemInfo.get();
+    }
+
+    protected HardwareAbstractionLayer getHardware() {
+        return getSystemInfo().getHardware();
+    }
+
+    protected OperatingSystem getOperatingSystem() {
+        return getSystemInfo().getOperatingSystem();
+    }
+
+    protected CentralProcessor getProcessor() {
+        return getHardware().getProcessor();
+    }
+
+    @Override
+    public int getProcessId() {
+        return getOperatingSystem().getProcessId();
+    }
+
+    @Override
+    public int getBitness() {
+        return getOperatingSystem().getBitness();
+    }
+
+    @Override
+    public String getFamily() {
+        return getOperatingSystem().getFamily();
+    }
+
+    @Override
+    public String getProcessorIdentifier() {
+        final ProcessorIdentifier identifier = getProcessor().getProcessorIdentifier();
+
+        return identifier.toString();
+    }
+
+    @Override
+    public int getLogicalProcessorCount() {
+        return getProcessor().getLogicalProcessorCount();
+    }
+
+    @Override
+    public int getPhysicalProcessorCount() {
+        return getProcessor().getPhysicalProcessorCount();
+    }
+
+    @Override
+    public int getPhysicalPackageCount() {
+        return getProcessor().getPhysicalPackageCount();
+    }
+
+    @Override
+    public TcpStats getTcpV4Stats() {
+        return getOperatingSystem().getInternetProtocolStats().getTCPv4Stats();
+    }
+
+    @Override
+    public TcpStats getTcpV6Stats() {
+        return getOperatingSystem().getInternetProtocolStats().getTCPv6Stats();
+    }
+
+    @Override
+    public UdpStats getUdpV4Stats() {
+        return getOperatingSystem().getInternetProtocolStats().getUDPv4Stats();
+    }
+
+    @Override
+    public UdpStats getUdpV6Stats() {
+        return getOperatingSystem().getInternetProtocolStats().getUDPv6Stats();
+    }
+
+    @Override
+    public MemoryReading getMemory() {
+        final GlobalMemory memory = getHardware().getMemory();
+
+        return new MemoryReading( memory.getTotal(), memory.getAvailable(), memory.getPageSize() );
+    }
+
+    @Override
+    public VirtualMemoryReading getVirtualMemory() {
+        final VirtualMemory memory = getHardware().getMemory().getVirtualMemory();
+
+        return new VirtualMemoryReading( memory.getSwapTotal(),
+                                         memory.getSwapUsed(),
+                                         memory.getVirtualMax(),
+                                         memory.getVirtualInUse() );
+    }
+
+    @Override
+    public CpuCountersReading getCpuCounters() {
+        final CentralProcessor cpu = getProcessor();
+
+        return new CpuCountersReading( cpu.getInterrupts(), cpu.getContextSwitches() );
+    }
+
+    @Override
+    public void readCpuTicks( final long[][] into ) {
+        final CentralProcessor cpu = getProcessor();
+
+        final long[][] processors = into.length > 1 ? cpu.getProcessorCpuLoadTicks() : NO_PROCESSOR_TICKS;
+
+        copyTicks( cpu.getSystemCpuLoadTicks(), into[0] );
+
+        for ( int i = 1; i < into.length; i++ ) {
+            copyTicks( i <= processors.length ? processors[i - 1] : NO_TICKS, into[i] );
+        }
+    }
+
+    @Override
+    public LoadAverageReading getLoadAverage() {
+        final double[] loadAverage = getProcessor().getSystemLoadAverage( 3 );
+
+        return new LoadAverageReading( loadAverage[0], loadAverage[1], loadAverage[2] );
+    }
+
+    @Override
+    public long[] getCurrentFrequencies() {
+        return getProcessor().getCurrentFreq();
+    }
+
+    @Override
+    public FileDescriptorsReading getFileDescriptors() {
+        final FileSystem fileSystem = getOperatingSystem().getFileSystem();
+
+        return new FileDescriptorsReading( fileSystem.getOpenFileDescriptors(), fileSystem.getMaxFileDescriptors() );
+    }
+
+    /**
+     * Oshi creates a fresh {@link HWDiskStore} for every disk on each call, enumerating the devices only once - calling
+     * {@link HWDiskStore#updateAttributes()} on each of the known disks instead would enumerate them once per disk.
+     */
+    @Override
+    public DiskStoresReading getDiskStores() {
+        final List<HWDiskStore> disks = getHardware().getDiskStores();
+        final DiskStoresReading reading = new DiskStoresReading( disks.size() );
+
+        for ( int i = 0; i < disks.size(); i++ ) {
+            copyDisk( disks.get( i ), i, reading );
+        }
+
+        return reading;
+    }
+
+    @Override
+    public ProcessCountsReading getProcessCounts() {
+        final OperatingSystem os = getOperatingSystem();
+
+        return new ProcessCountsReading( os.getProcessCount(), os.getThreadCount() );
+    }
+
+    @Override
+    public ProcessesReading getProcesses() {
+        final List<OSProcess> processes = getOperatingSystem().getProcesses();
+        final ProcessesReading reading = new ProcessesReading( processes.size() );
+
+        for ( final OSProcess process : processes ) {
+            reading.add( process.getProcessID(),
+                         process.getName(),
+                         process.getUserTime() + process.getKernelTime(),
+                         process.getResidentSetSize() );
+        }
+
+        return reading;
+    }
+
+    /**
+     * Refreshes the same {@link OSProcess} on every call - a single {@link OSProcess#updateAttributes()} reads all
+     * counters at once.
+     */
+    @Override
+    public ProcessReading getCurrentProcess() {
+        final OSProcess process = currentProcess.get();
+
+        if ( process == null ) {
+            return null;
+        }
+
+        synchronized ( process ) {
+            return process.updateAttributes() ? toReading( process ) : null;
+        }
+    }
+
+    @Override
+    public NetworkParamsReading getNetworkParams() {
+        final NetworkParams params = getOperatingSystem().getNetworkParams();
+
+        return new NetworkParamsReading( params.getHostName(),
+                                         params.getDomainName(),
+                                         String.join( "; ", params.getDnsServers() ),
+                                         params.getIpv4DefaultGateway(),
+                                         params.getIpv6DefaultGateway() );
+    }
+
+    /**
+     * Oshi creates a fresh {@link NetworkIF} for every interface on each call and fills it with a single
+     * {@link NetworkIF#updateAttributes()}, so the list of interfaces is rediscovered for the same price as refreshing
+     * the known ones.
+     */
+    @Override
+    public NetworkInterfacesReading getNetworkInterfaces() {
+        final List<NetworkIF> networkIFs = getHardware().getNetworkIFs();
+        final List<NetworkInterfaceReading> readings = new ArrayList<>( networkIFs.size() );
+
+        for ( final NetworkIF networkIF : networkIFs ) {
+            readings.add( toReading( networkIF ) );
+        }
+
+        return new NetworkInterfacesReading( readings );
+    }
+
+    @Override
+    public long getUptime() {
+        return getOperatingSystem().getSystemUptime();
+    }
+
+    @Override
+    public long getCpuMaxFrequency() {
+        return getProcessor().getMaxFreq();
+    }
+
+    /** oshi reports a sensor it cannot read as zero or NaN, which is not a temperature a running CPU could have */
+    @Override
+    public Double getCpuTemperature() {
+        final double temperature = getHardware().getSensors().getCpuTemperature();
+
+        return temperature == 0.0 || Double.isNaN( temperature ) ? null : temperature;
+    }
+
+    private static ProcessReading toReading( final OSProcess process ) {
+        final ProcessReading reading = new ProcessReading();
+
+        reading.set( ProcessCounter.RESIDENT_SIZE, process.getResidentSetSize() );
+        reading.set( ProcessCounter.VIRTUAL_SIZE, process.getVirtualSize() );
+        reading.set( ProcessCounter.USER_TIME, process.getUserTime() );
+        reading.set( ProcessCounter.KERNEL_TIME, process.getKernelTime() );
+        reading.set( ProcessCounter.UP_TIME, process.getUpTime() );
+        reading.set( ProcessCounter.MAJOR_FAULTS, process.getMajorFaults() );
+        reading.set( ProcessCounter.MINOR_FAULTS, process.getMinorFaults() );
+        reading.set( ProcessCounter.BYTES_READ, process.getBytesRead() );
+        reading.set( ProcessCounter.BYTES_WRITTEN, process.getBytesWritten() );
+        reading.set( ProcessCounter.OPEN_FILES, process.getOpenFiles() );
+        reading.set( ProcessCounter.THREADS, process.getThreadCount() );
+        reading.set( ProcessCounter.CONTEXT_SWITCHES, process.getContextSwitches() );
+
+        return reading;
+    }
+
+    private static void copyDisk( final HWDiskStore disk, final int index, final DiskStoresReading into ) {
+        into.setName( index, disk.getName() );
+        into.set( index, DiskCounter.SIZE, disk.getSize() );
+        into.set( index, DiskCounter.PARTITIONS, disk.getPartitions().size() );
+        into.set( index, DiskCounter.READS, disk.getReads() );
+        into.set( index, DiskCounter.READ_BYTES, disk.getReadBytes() );
+        into.set( index, DiskCounter.WRITES, disk.getWrites() );
+        into.set( index, DiskCounter.WRITE_BYTES, disk.getWriteBytes() );
+        into.set( index, DiskCounter.TRANSFER_TIME, disk.getTransferTime() );
+        into.set( index, DiskCounter.QUEUE_LENGTH, disk.getCurrentQueueLength() );
+    }
+
+    private static NetworkInterfaceReading toReading( final NetworkIF networkIF ) {
+        return new NetworkInterfaceReading( networkIF.getName(),
+                                            networkIF.getBytesRecv(),
+                                            networkIF.getBytesSent(),
+                                            networkIF.getPacketsRecv(),
+                                            networkIF.getPacketsSent(),
+                                            networkIF.getInErrors(),
+                                            networkIF.getOutErrors(),
+                                            networkIF.getInDrops(),
+                                            networkIF.getSpeed() );
+    }
+
+    @SuppressWarnings( "PMD.UseVarargs" ) // Fills the buffer of the caller
+    private static void copyTicks( final long[] from, final long[] into ) {
+        Arrays.fill( into, -1L );
+        System.arraycopy( from, 0, into, 0, Math.min( from.length, into.length ) );
+    }
+
+}
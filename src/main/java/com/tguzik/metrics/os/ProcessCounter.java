@@ -0,0 +1,32 @@
+package com.tguzik.metrics.os;
+
+/**
+ * Cumulative counters and point-in-time values read for a single process. Sizes and byte counts are in bytes, times in
+ * milliseconds.
+ */
+public enum ProcessCounter {
+    RESIDENT_SIZE( "memory.resident" ),
+    VIRTUAL_SIZE( "memory.virtual" ),
+    USER_TIME( "cpu.time.user" ),
+    KERNEL_TIME( "cpu.time.kernel" ),
+    UP_TIME( "uptime" ),
+    MAJOR_FAULTS( "faults.major" ),
+    MINOR_FAULTS( "faults.minor" ),
+    BYTES_READ( "io.bytes.read" ),
+    BYTES_WRITTEN( "io.bytes.written" ),
+    OPEN_FILES( "fd.open" ),
+    THREADS( "thread.count" ),
+    CONTEXT_SWITCHES( "context-switches" );
+
+    private final String name;
+
+    ProcessCounter( final String name ) {
+        this.name = name;
+    }
+
+    /** Part of the gauge name */
+    public String getName() {
+        return name;
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.tguzik.metrics.os;
+
+/**
+ * Point-in-time copy of the number of processes and threads running on the system.
+ */
+public final class ProcessCountsReading {
+    private final long processCount;
+    private final long threadCount;
+
+    public ProcessCountsReading( final long processCount, final long threadCount ) {
+        this.processCount = processCount;
+        this.threadCount = threadCount;
+    }
+
+    public long getProcessCount() {
+        return processCount;
+    }
+
+    public long getThreadCount() {
+        return threadCount;
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.tguzik.metrics.os;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * This class is meant to turn successive refreshes of a process snapshot into the CPU utilization of that process -
+ * CPU time spent between the refreshes divided by the time that has passed, as measured by the process uptime. One
+ * means a single processor kept busy, so the value of a multithreaded process may exceed one.
+ * <p>
+ * The utilization is computed once per refresh, reading it does not allocate. It is {@link #UNAVAILABLE} until there
+ * are two readings to compare, and whenever the counters go backwards.
+ */
+public class ProcessCpuUtilization implements SnapshotListener<ProcessReading> {
+    public static final double UNAVAILABLE = -1.0;
+
+    private final AtomicLong utilizationBits;
+    private final Object lock;
+    private ProcessReading previous;
+
+    public ProcessCpuUtilization() {
+        this.utilizationBits = new AtomicLong( Double.doubleToLongBits( UNAVAILABLE ) );
+        this.lock = new Object();
+    }
+
+    public double getUtilization() {
+        return Double.longBitsToDouble( utilizationBits.get() );
+    }
+
+    @Override
+    @SuppressFBWarnings( value = "EI_EXPOSE_REP2",
+                         justification = "Published readings are never modified, so keeping the previous one is safe" )
+    public void onRefresh( final ProcessReading value, final long tick ) {
+        synchronized ( lock ) {
+            if ( previous != null ) {
+                utilizationBits.set( Double.doubleToLongBits( between( previous, value ) ) );
+            }
+
+            previous = value;
+        }
+    }
+
+    private static double between( final ProcessReading previous, final ProcessReading current ) {
+        final long cpuTime = current.getCpuTime() - previous.getCpuTime();
+        final long upTime = current.get( ProcessCounter.UP_TIME ) - previous.get( ProcessCounter.UP_TIME );
+
+        return cpuTime < 0 || upTime <= 0 ? UNAVAILABLE : (double) cpuTime / upTime;
+    }
+
+}
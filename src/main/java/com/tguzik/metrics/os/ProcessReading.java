@@ -0,0 +1,33 @@
+package com.tguzik.metrics.os;
+
+import java.util.Arrays;
+
+/**
+ * Point-in-time copy of the {@link ProcessCounter counters} of a single process, all of them taken from the same
+ * read. The probes fill the reading in before it gets published, after that it is not modified.
+ */
+public final class ProcessReading {
+    public static final long UNAVAILABLE = -1L;
+
+    private final long[] counters;
+
+    public ProcessReading() {
+        this.counters = new long[ProcessCounter.values().length];
+
+        Arrays.fill( counters, UNAVAILABLE );
+    }
+
+    public long get( final ProcessCounter counter ) {
+        return counters[counter.ordinal()];
+    }
+
+    public void set( final ProcessCounter counter, final long value ) {
+        counters[counter.ordinal()] = value;
+    }
+
+    /** Sum of the user and kernel time, in milliseconds */
+    public long getCpuTime() {
+        return get( ProcessCounter.USER_TIME ) + get( ProcessCounter.KERNEL_TIME );
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.tguzik.metrics.os;
+
+/**
+ * Point-in-time copy of a few counters of every process, read in a single enumeration and held in primitive arrays
+ * indexed by the position of the process in the enumeration. The probes fill the reading in before it gets published,
+ * after that it is not modified.
+ */
+public final class ProcessesReading {
+    private final String[] names;
+    private final long[] residentSizes;
+    private final long[] cpuTimes;
+    private final int[] pids;
+    private int count;
+
+    /** @param capacity upper bound of the number of processes */
+    public ProcessesReading( final int capacity ) {
+        this.names = new String[capacity];
+        this.residentSizes = new long[capacity];
+        this.cpuTimes = new long[capacity];
+        this.pids = new int[capacity];
+    }
+
+    /**
+     * Appends a process to the reading.
+     *
+     * @param cpuTime sum of the user and kernel time, in milliseconds
+     * @param residentSize in bytes
+     */
+    public void add( final int pid, final String name, final long cpuTime, final long residentSize ) {
+        names[count] = name;
+        residentSizes[count] = residentSize;
+        cpuTimes[count] = cpuTime;
+        pids[count] = pid;
+        count++;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getPid( final int process ) {
+        return pids[process];
+    }
+
+    public String getName( final int process ) {
+        return names[process];
+    }
+
+    /** Sum of the user and kernel time, in milliseconds */
+    public long getCpuTime( final int process ) {
+        return cpuTimes[process];
+    }
+
+    /** Resident set size, in bytes */
+    public long getResidentSize( final int process ) {
+        return residentSizes[process];
+    }
+
+}
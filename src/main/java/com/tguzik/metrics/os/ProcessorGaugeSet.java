@@ -0,0 +1,103 @@
+package com.tguzik.metrics.os;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.MetricSet;
+
+/**
+ * Gauges for each logical processor, named {@code hw.cpu.<processor>.<value>}: current frequency and utilization. All
+ * of them are fed by the same reads as the system-wide {@code hw.cpu.*} gauges (see {@link CoreGaugeSet}).
+ * <p>
+ * Counting the processors may initialize oshi, so the processors are discovered on the first refresh of the
+ * utilization snapshot - reading any of the system-wide {@code hw.cpu.utilization.*} gauges triggers it - rather than
+ * when the set is created. {@link #getMetrics()} returns the gauges of the processors discovered so far, while
+ * {@link #startDiscovery} registers them as soon as they are discovered.
+ * <p>
+ * The processors are discovered by a listener attached to the utilization snapshot on construction - the gauge sets
+ * of a {@link SamplingEngine} share the one from {@link SharedGaugeSets#getProcessors()}.
+ */
+public class ProcessorGaugeSet implements MetricSet, SnapshotListener<CpuUtilizationReading> {
+    public static final String PREFIX = "hw.cpu";
+
+    private final DiscoveredGauges processors;
+    private final CpuSnapshots snapshots;
+    private final Object lock;
+    private int discovered;
+
+    public ProcessorGaugeSet( final CpuSnapshots snapshots ) {
+        this.snapshots = Objects.requireNonNull( snapshots );
+        this.processors = new DiscoveredGauges();
+        this.lock = new Object();
+
+        snapshots.getUtilization().addListener( this );
+    }
+
+    @Override
+    public Map<String, Metric> getMetrics() {
+        return processors.getMetrics();
+    }
+
+    /**
+     * Registers the gauges of the processors discovered so far in given registry, then keeps registering the gauges
+     * of the processors discovered later - until {@link #stopDiscovery}. Does not read the processors by itself.
+     *
+     * @param prefix of the registered names, or an empty string for none
+     */
+    public void startDiscovery( final MetricRegistry registry, final String prefix ) {
+        processors.startDiscovery( registry, prefix );
+    }
+
+    /** Stops following the processors in given registry and removes their gauges registered there */
+    public void stopDiscovery( final MetricRegistry registry, final String prefix ) {
+        processors.stopDiscovery( registry, prefix );
+    }
+
+    @Override
+    public void onRefresh( final CpuUtilizationReading value, final long tick ) {
+        synchronized ( lock ) {
+            while ( discovered < value.getProcessorCount() ) {
+                processors.addAll( processorGauges( discovered ) );
+                discovered++;
+            }
+        }
+    }
+
+    private static <T> Gauge<Long> longGauge( final Supplier<T> snapshot, final ToLongFunction<? super T> extractor ) {
+        return new DerivedLongGauge<>( snapshot, extractor );
+    }
+
+    private static <T> Gauge<Double> doubleGauge( final Supplier<T> snapshot,
+                                                  final ToDoubleFunction<? super T> extractor ) {
+        return new DerivedDoubleGauge<>( snapshot, extractor );
+    }
+
+    private Map<String, Gauge<?>> processorGauges( final int processor ) {
+        final Map<String, Gauge<?>> product = new ConcurrentHashMap<>();
+        final String prefix = name( PREFIX, String.valueOf( processor ) );
+        final CachedSnapshot<CpuUtilizationReading> utilization = snapshots.getUtilization();
+
+        product.put( name( prefix, "freq.current" ),
+                     longGauge( snapshots.getCurrentFrequencies(),
+                                frequencies -> processor < frequencies.length
+                                               ? frequencies[processor]
+                                               : DerivedLongGauge.UNAVAILABLE ) );
+
+        for ( final CpuTime time : CpuTime.values() ) {
+            product.put( name( prefix, "utilization", time.getName() ),
+                         doubleGauge( utilization, reading -> reading.getProcessor( processor, time ) ) );
+        }
+
+        return product;
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.tguzik.metrics.os;
+
+import java.util.Arrays;
+
+/**
+ * Processes ranked by a single value - like CPU time consumed between two enumerations, or resident set size - with the
+ * largest value at rank 1. Ranks without a process report an empty name and {@link #UNAVAILABLE} values.
+ */
+public final class RankedProcesses {
+    public static final long UNAVAILABLE = -1L;
+
+    private final String[] names;
+    private final long[] values;
+    private final int[] pids;
+    private final long elapsedMillis;
+
+    /** @param elapsedMillis time between the enumerations the values were derived from, -1 if not applicable */
+    public RankedProcesses( final int ranks, final long elapsedMillis ) {
+        this.names = new String[ranks];
+        this.values = new long[ranks];
+        this.pids = new int[ranks];
+        this.elapsedMillis = elapsedMillis;
+
+        Arrays.fill( names, SupplierBasedCachedGauge.EMPTY_STRING );
+        Arrays.fill( values, UNAVAILABLE );
+        Arrays.fill( pids, (int) UNAVAILABLE );
+    }
+
+    /**
+     * Puts the process at given position of the ranking.
+     *
+     * @param rank starting from 1
+     */
+    public void set( final int rank, final int pid, final String name, final long value ) {
+        names[rank - 1] = name == null ? SupplierBasedCachedGauge.EMPTY_STRING : name;
+        values[rank - 1] = value;
+        pids[rank - 1] = pid;
+    }
+
+    public int getRanks() {
+        return names.length;
+    }
+
+    public String getName( final int rank ) {
+        return names[rank - 1];
+    }
+
+    public int getPid( final int rank ) {
+        return pids[rank - 1];
+    }
+
+    public long getValue( final int rank ) {
+        return values[rank - 1];
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+}
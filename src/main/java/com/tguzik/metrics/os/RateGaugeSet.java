@@ -0,0 +1,117 @@
+package com.tguzik.metrics.os;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+import oshi.software.os.InternetProtocolStats.TcpStats;
+import oshi.software.os.InternetProtocolStats.UdpStats;
+
+/**
+ * Per-second rates of the monotonic counters exposed by {@link OperatingEnvironmentGaugeSet}. Every counter gets four
+ * gauges: {@code <counter>.rate} with the instant rate, and {@code <counter>.rate.1m}, {@code .rate.5m} and
+ * {@code .rate.15m} with the moving averages (see {@link CounterRate}).
+ * <p>
+ * The TCP and UDP counters are declared as 32-bit by MIB-II (RFC 1213), which is where the OS statistics come from, so
+ * their rates allow for a wrap around (see {@link CounterRate#of32BitCounter}).
+ * <p>
+ * The rates are updated whenever the underlying snapshot is refreshed, so they follow the cache timeout of the
+ * snapshots. Creating this set attaches listeners to the snapshots, hence it is meant to be created once per
+ * {@link SharedSnapshots} instance.
+ */
+public class RateGaugeSet implements MetricSet {
+    private final Map<String, Metric> gauges;
+
+    public RateGaugeSet( final SharedSnapshots snapshots ) {
+        Objects.requireNonNull( snapshots );
+
+        this.gauges = new ConcurrentHashMap<>();
+
+        final CpuSnapshots cpu = snapshots.getCpu();
+        addRates( "hw.cpu.interrupts", cpu.getCounters(), CpuCountersReading::getInterrupts );
+        addRates( "hw.cpu.context-switches", cpu.getCounters(), CpuCountersReading::getContextSwitches );
+
+        final NetworkSnapshots network = snapshots.getNetwork();
+        addIpRates( "os.net.ipv4", network.getTcpV4(), network.getUdpV4() );
+        addIpRates( "os.net.ipv6", network.getTcpV6(), network.getUdpV6() );
+    }
+
+    @Override
+    public Map<String, Metric> getMetrics() {
+        return new ConcurrentHashMap<>( gauges );
+    }
+
+    private void addIpRates( final String prefix,
+                             final CachedSnapshot<TcpStats> tcp,
+                             final CachedSnapshot<UdpStats> udp ) {
+        add32BitRates( name( prefix, "tcp.connections.active" ), tcp, TcpStats::getConnectionsActive );
+        add32BitRates( name( prefix, "tcp.connections.passive" ), tcp, TcpStats::getConnectionsPassive );
+        add32BitRates( name( prefix, "tcp.connections.reset" ), tcp, TcpStats::getConnectionsReset );
+        add32BitRates( name( prefix, "tcp.connections.failures" ), tcp, TcpStats::getConnectionFailures );
+
+        add32BitRates( name( prefix, "tcp.segments.sent" ), tcp, TcpStats::getSegmentsSent );
+        add32BitRates( name( prefix, "tcp.segments.received" ), tcp, TcpStats::getSegmentsReceived );
+        add32BitRates( name( prefix, "tcp.segments.retransmitted" ), tcp, TcpStats::getSegmentsRetransmitted );
+
+        add32BitRates( name( prefix, "udp.datagrams.sent" ), udp, UdpStats::getDatagramsSent );
+        add32BitRates( name( prefix, "udp.datagrams.received" ), udp, UdpStats::getDatagramsReceived );
+        add32BitRates( name( prefix, "udp.datagrams.received.errors" ), udp, UdpStats::getDatagramsReceivedErrors );
+        add32BitRates( name( prefix, "udp.datagrams.received.no-port" ), udp, UdpStats::getDatagramsNoPort );
+    }
+
+    private <T> void addRates( final String counterName,
+                               final CachedSnapshot<T> snapshot,
+                               final ToLongFunction<? super T> counter ) {
+        attachRates( counterName, snapshot, new CounterRate<>( counter ) );
+    }
+
+    private <T> void add32BitRates( final String counterName,
+                                    final CachedSnapshot<T> snapshot,
+                                    final ToLongFunction<? super T> counter ) {
+        attachRates( counterName, snapshot, CounterRate.of32BitCounter( counter ) );
+    }
+
+    private <T> void attachRates( final String counterName,
+                                  final CachedSnapshot<T> snapshot,
+                                  final CounterRate<T> rate ) {
+        snapshot.addListener( rate );
+        gauges.putAll( rateGauges( counterName, snapshot, rate ) );
+    }
+
+    /**
+     * The four gauges of given rate, named after the counter. The rate is expected to be already listening to the
+     * snapshot.
+     */
+    public static <T> Map<String, Gauge<?>> rateGauges( final String counterName,
+                                                        final CachedSnapshot<T> snapshot,
+                                                        final CounterRate<T> rate ) {
+        final Map<String, Gauge<?>> product = new ConcurrentHashMap<>();
+
+        // Reading the snapshot first keeps the rates fresh when nothing else reads it
+        final Supplier<CounterRate<T>> refreshed = () -> {
+            snapshot.get();
+            return rate;
+        };
+
+        product.put( name( counterName, "rate" ), rateGauge( refreshed, CounterRate::getInstantRate ) );
+        product.put( name( counterName, "rate.1m" ), rateGauge( refreshed, CounterRate::getOneMinuteRate ) );
+        product.put( name( counterName, "rate.5m" ), rateGauge( refreshed, CounterRate::getFiveMinuteRate ) );
+        product.put( name( counterName, "rate.15m" ), rateGauge( refreshed, CounterRate::getFifteenMinuteRate ) );
+
+        return product;
+    }
+
+    private static <T> Gauge<Double> rateGauge( final Supplier<CounterRate<T>> rate,
+                                                final ToDoubleFunction<? super CounterRate<T>> extractor ) {
+        return new DerivedDoubleGauge<>( rate, extractor );
+    }
+
+}
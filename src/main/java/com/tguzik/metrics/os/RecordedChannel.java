@@ -0,0 +1,103 @@
+package com.tguzik.metrics.os;
+
+import java.util.Arrays;
+
+import oshi.hardware.CentralProcessor.TickType;
+
+/**
+ * Values kept by the {@link FlightRecorder}, named after the gauges showing them - or, for the CPU ticks behind the
+ * utilization gauges, after the ticks. The identifiers are written into the recording, so they must never change or be
+ * reused - new channels get new identifiers.
+ */
+public enum RecordedChannel {
+    UPTIME( 1, "os.uptime" ),
+    PROCESS_COUNT( 2, "os.proc.process.count" ),
+    THREAD_COUNT( 3, "os.proc.thread.count" ),
+    MEMORY_TOTAL( 4, "hw.mem.total" ),
+    MEMORY_AVAILABLE( 5, "hw.mem.available" ),
+    SWAP_TOTAL( 6, "hw.mem.swap.total" ),
+    SWAP_USED( 7, "hw.mem.swap.used" ),
+    VIRTUAL_TOTAL( 8, "hw.mem.virtual.total" ),
+    VIRTUAL_USED( 9, "hw.mem.virtual.used" ),
+    CPU_INTERRUPTS( 10, "hw.cpu.interrupts" ),
+    CPU_CONTEXT_SWITCHES( 11, "hw.cpu.context-switches" ),
+    LOAD_AVERAGE_1M( 12, "hw.cpu.load-average.1m" ),
+    LOAD_AVERAGE_5M( 13, "hw.cpu.load-average.5m" ),
+    LOAD_AVERAGE_15M( 14, "hw.cpu.load-average.15m" ),
+    CPU_TEMPERATURE( 15, "hw.sensors.cpu.temperature" ),
+    FD_OPEN( 16, "os.fs.fd.open" ),
+    FD_MAX( 17, "os.fs.fd.max" ),
+    TCP_V4_ESTABLISHED( 18, "os.net.ipv4.tcp.connections.established" ),
+    TCP_V4_ACTIVE( 19, "os.net.ipv4.tcp.connections.active" ),
+    TCP_V4_PASSIVE( 20, "os.net.ipv4.tcp.connections.passive" ),
+    TCP_V4_FAILURES( 21, "os.net.ipv4.tcp.connections.failures" ),
+    TCP_V4_RESET( 22, "os.net.ipv4.tcp.connections.reset" ),
+    TCP_V4_SEGMENTS_SENT( 23, "os.net.ipv4.tcp.segments.sent" ),
+    TCP_V4_SEGMENTS_RECEIVED( 24, "os.net.ipv4.tcp.segments.received" ),
+    TCP_V4_SEGMENTS_RETRANSMITTED( 25, "os.net.ipv4.tcp.segments.retransmitted" ),
+    UDP_V4_SENT( 26, "os.net.ipv4.udp.datagrams.sent" ),
+    UDP_V4_RECEIVED( 27, "os.net.ipv4.udp.datagrams.received" ),
+    UDP_V4_NO_PORT( 28, "os.net.ipv4.udp.datagrams.received.no-port" ),
+    UDP_V4_RECEIVED_ERRORS( 29, "os.net.ipv4.udp.datagrams.received.errors" ),
+    LOGICAL_PROCESSOR_COUNT( 30, "hw.cpu.logical.count" ),
+    CPU_TICKS_USER( 31, "hw.cpu.ticks.user" ),
+    CPU_TICKS_NICE( 32, "hw.cpu.ticks.nice" ),
+    CPU_TICKS_SYSTEM( 33, "hw.cpu.ticks.system" ),
+    CPU_TICKS_IDLE( 34, "hw.cpu.ticks.idle" ),
+    CPU_TICKS_IOWAIT( 35, "hw.cpu.ticks.iowait" ),
+    CPU_TICKS_IRQ( 36, "hw.cpu.ticks.irq" ),
+    CPU_TICKS_SOFTIRQ( 37, "hw.cpu.ticks.softirq" ),
+    CPU_TICKS_STEAL( 38, "hw.cpu.ticks.steal" );
+
+    private static final RecordedChannel[] BY_ID = indexById();
+
+    /** In order of {@link TickType} */
+    private static final RecordedChannel[] CPU_TICKS = { CPU_TICKS_USER,
+                                                         CPU_TICKS_NICE,
+                                                         CPU_TICKS_SYSTEM,
+                                                         CPU_TICKS_IDLE,
+                                                         CPU_TICKS_IOWAIT,
+                                                         CPU_TICKS_IRQ,
+                                                         CPU_TICKS_SOFTIRQ,
+                                                         CPU_TICKS_STEAL };
+
+    private final String name;
+    private final int id;
+
+    RecordedChannel( final int id, final String name ) {
+        this.name = name;
+        this.id = id;
+    }
+
+    private static RecordedChannel[] indexById() {
+        final RecordedChannel[] channels = values();
+        final int maxId = Arrays.stream( channels ).mapToInt( RecordedChannel::getId ).max().orElse( 0 );
+        final RecordedChannel[] product = new RecordedChannel[maxId + 1];
+
+        for ( final RecordedChannel channel : channels ) {
+            product[channel.id] = channel;
+        }
+
+        return product;
+    }
+
+    /** Channel of given identifier, or null if it is not known - e.g. written by a newer version */
+    public static RecordedChannel byId( final int id ) {
+        return id > 0 && id < BY_ID.length ? BY_ID[id] : null;
+    }
+
+    /** Channel of the cumulative ticks of the whole system spent in given state */
+    public static RecordedChannel ofCpuTicks( final TickType type ) {
+        return CPU_TICKS[type.ordinal()];
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    /** Name of the gauge showing the value */
+    public String getName() {
+        return name;
+    }
+
+}
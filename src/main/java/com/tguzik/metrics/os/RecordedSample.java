@@ -0,0 +1,33 @@
+package com.tguzik.metrics.os;
+
+import java.util.Objects;
+
+/**
+ * Single record read back from a {@link FlightRecording}.
+ */
+public final class RecordedSample {
+    private final RecordedChannel channel;
+    private final double value;
+    private final long time;
+
+    /** @param time wall clock time in milliseconds */
+    public RecordedSample( final long time, final RecordedChannel channel, final double value ) {
+        this.channel = Objects.requireNonNull( channel );
+        this.value = value;
+        this.time = time;
+    }
+
+    /** Wall clock time of the refresh that read the value, in milliseconds */
+    public long getTime() {
+        return time;
+    }
+
+    public RecordedChannel getChannel() {
+        return channel;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+}
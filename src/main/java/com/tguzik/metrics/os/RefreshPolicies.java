@@ -0,0 +1,90 @@
+package com.tguzik.metrics.os;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is meant to configure the {@link RefreshPolicy} of each source group, by the name of the group (like
+ * {@code proc} or {@code sensors.cpu.temperature}, see {@link CachedSnapshot#getName()}):
+ * <ul>
+ * <li>{@link #withTimeout} overrides the cache timeout of a single group,</li>
+ * <li>{@link #withCostBudget} stretches the timeouts of the groups that are expensive to load,</li>
+ * <li>{@link #withFailureBackoff} backs off and eventually stops reading the groups that keep failing.</li>
+ * </ul>
+ * Without any of these the groups keep their own timeouts. See {@link AdaptiveRefreshPolicy} for the details.
+ * <p>
+ * Meant to be configured once, on a single thread, before the policies get applied.
+ */
+public class RefreshPolicies {
+    private static final long DEFAULT_MAX_TIMEOUT_NANOS = TimeUnit.MINUTES.toNanos( 5 );
+
+    private final Map<String, Long> timeouts;
+    private long maxTimeoutNanos;
+    private int backoffThreshold;
+    private int disableThreshold;
+    private double costBudget;
+
+    public RefreshPolicies() {
+        this.timeouts = new ConcurrentHashMap<>();
+        this.maxTimeoutNanos = DEFAULT_MAX_TIMEOUT_NANOS;
+    }
+
+    public RefreshPolicies withTimeout( final String group, final long timeout, final TimeUnit timeoutUnit ) {
+        timeouts.put( group, timeoutUnit.toNanos( timeout ) );
+        return this;
+    }
+
+    /**
+     * Stretches the timeout of every group whose loads take more than given fraction of it.
+     *
+     * @param costBudget largest acceptable fraction of the timeout spent loading, like {@code 0.01}
+     * @param maxTimeout upper bound of the stretched timeouts, and of the backed off ones
+     */
+    public RefreshPolicies withCostBudget( final double costBudget, final long maxTimeout, final TimeUnit unit ) {
+        this.maxTimeoutNanos = unit.toNanos( maxTimeout );
+        this.costBudget = costBudget;
+        return this;
+    }
+
+    /**
+     * Doubles the timeout of every group that keeps failing, and optionally stops reading it altogether.
+     *
+     * @param backoffThreshold number of failed or null loads in a row after which the timeout starts doubling
+     * @param disableThreshold number of failed or null loads in a row after which the group is not read again, or
+     *     zero to keep retrying every {@code maxTimeout}
+     */
+    public RefreshPolicies withFailureBackoff( final int backoffThreshold, final int disableThreshold ) {
+        this.backoffThreshold = backoffThreshold;
+        this.disableThreshold = disableThreshold;
+        return this;
+    }
+
+    /**
+     * Policy of given group, according to the configuration so far.
+     *
+     * @param defaultTimeoutNanos timeout of the group, unless overridden with {@link #withTimeout}
+     */
+    public RefreshPolicy forGroup( final String group, final long defaultTimeoutNanos ) {
+        final long timeout = timeouts.getOrDefault( group, defaultTimeoutNanos );
+
+        if ( costBudget <= 0 && backoffThreshold == 0 && disableThreshold == 0 ) {
+            return RefreshPolicy.fixed( timeout );
+        }
+
+        return new AdaptiveRefreshPolicy( timeout,
+                                          Math.max( timeout, maxTimeoutNanos ),
+                                          costBudget,
+                                          backoffThreshold,
+                                          disableThreshold );
+    }
+
+    /** Gives each of the snapshots a policy of its own, replacing whatever was there */
+    public void applyTo( final Collection<? extends CachedSnapshot<?>> snapshots ) {
+        for ( final CachedSnapshot<?> snapshot : snapshots ) {
+            snapshot.setRefreshPolicy( forGroup( snapshot.getName(), snapshot.getTimeoutNanos() ) );
+        }
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.tguzik.metrics.os;
+
+/**
+ * Decides how long the value of a {@link CachedSnapshot} stays fresh, based on the outcome and the cost of the load
+ * that produced it. Consulted on the thread that did the load, right after it, so implementations should be quick.
+ * <p>
+ * Implementations may keep state - like the number of failed loads in a row - hence each snapshot needs its own
+ * instance.
+ */
+@FunctionalInterface
+public interface RefreshPolicy {
+
+    /** Timeout that keeps the current value forever, so that the source is never read again */
+    long NEVER = Long.MAX_VALUE;
+
+    /**
+     * Decides the timeout of the value that has just been loaded.
+     *
+     * @param outcome how the load went
+     * @param loadNanos how long the load took
+     * @return nanoseconds between the start of this load and the start of the next one, or {@link #NEVER}
+     */
+    long nextTimeoutNanos( LoadListener.Outcome outcome, long loadNanos );
+
+    /** Policy that uses the same timeout regardless of how the loads go */
+    static RefreshPolicy fixed( final long timeoutNanos ) {
+        return ( outcome, loadNanos ) -> timeoutNanos;
+    }
+
+}
@@ -0,0 +1,217 @@
+package com.tguzik.metrics.os;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import com.codahale.metrics.Clock;
+import oshi.hardware.CentralProcessor.TickType;
+import oshi.software.os.InternetProtocolStats.TcpStats;
+import oshi.software.os.InternetProtocolStats.UdpStats;
+
+/**
+ * Plays a {@link FlightRecording} back in place of the operating system: every read returns the values recorded last
+ * at or before the current time of the clock. Paired with a clock controlled by the test, a recording taken on a real
+ * machine becomes a deterministic fixture for everything built on top of the probes - the snapshots, gauges and
+ * listeners.
+ * <p>
+ * Values not recorded yet at the current time are -1. Of the processors, only the logical processor count and the CPU
+ * ticks of the whole system are recorded - the ticks of each logical processor read as -1. Sources the recorder does
+ * not keep at all (the rest of the processor topology, disks, mounted file systems, network interfaces, processes,
+ * control groups) are not available.
+ */
+public class ReplayProbes implements SystemProbes {
+    private static final long[] NO_FREQUENCIES = new long[0];
+
+    private final FlightRecording recording;
+    private final Clock clock;
+
+    public ReplayProbes( final FlightRecording recording, final Clock clock ) {
+        this.recording = Objects.requireNonNull( recording );
+        this.clock = Objects.requireNonNull( clock );
+    }
+
+    private double value( final RecordedChannel channel ) {
+        return recording.getValue( channel, clock.getTime() );
+    }
+
+    private long count( final RecordedChannel channel ) {
+        return (long) value( channel );
+    }
+
+    @Override
+    public int getProcessId() {
+        return -1;
+    }
+
+    @Override
+    public int getBitness() {
+        return -1;
+    }
+
+    @Override
+    public String getFamily() {
+        return null;
+    }
+
+    @Override
+    public String getProcessorIdentifier() {
+        return null;
+    }
+
+    @Override
+    public int getLogicalProcessorCount() {
+        return (int) count( RecordedChannel.LOGICAL_PROCESSOR_COUNT );
+    }
+
+    @Override
+    public int getPhysicalProcessorCount() {
+        return 0;
+    }
+
+    @Override
+    public int getPhysicalPackageCount() {
+        return 0;
+    }
+
+    @Override
+    public TcpStats getTcpV4Stats() {
+        return new TcpStats( count( RecordedChannel.TCP_V4_ESTABLISHED ),
+                             count( RecordedChannel.TCP_V4_ACTIVE ),
+                             count( RecordedChannel.TCP_V4_PASSIVE ),
+                             count( RecordedChannel.TCP_V4_FAILURES ),
+                             count( RecordedChannel.TCP_V4_RESET ),
+                             count( RecordedChannel.TCP_V4_SEGMENTS_SENT ),
+                             count( RecordedChannel.TCP_V4_SEGMENTS_RECEIVED ),
+                             count( RecordedChannel.TCP_V4_SEGMENTS_RETRANSMITTED ),
+                             -1L,
+                             -1L );
+    }
+
+    @Override
+    public TcpStats getTcpV6Stats() {
+        return null;
+    }
+
+    @Override
+    public UdpStats getUdpV4Stats() {
+        return new UdpStats( count( RecordedChannel.UDP_V4_SENT ),
+                             count( RecordedChannel.UDP_V4_RECEIVED ),
+                             count( RecordedChannel.UDP_V4_NO_PORT ),
+                             count( RecordedChannel.UDP_V4_RECEIVED_ERRORS ) );
+    }
+
+    @Override
+    public UdpStats getUdpV6Stats() {
+        return null;
+    }
+
+    @Override
+    public MemoryReading getMemory() {
+        return new MemoryReading( count( RecordedChannel.MEMORY_TOTAL ),
+                                  count( RecordedChannel.MEMORY_AVAILABLE ),
+                                  -1L );
+    }
+
+    @Override
+    public VirtualMemoryReading getVirtualMemory() {
+        return new VirtualMemoryReading( count( RecordedChannel.SWAP_TOTAL ),
+                                         count( RecordedChannel.SWAP_USED ),
+                                         count( RecordedChannel.VIRTUAL_TOTAL ),
+                                         count( RecordedChannel.VIRTUAL_USED ) );
+    }
+
+    @Override
+    public CpuCountersReading getCpuCounters() {
+        return new CpuCountersReading( count( RecordedChannel.CPU_INTERRUPTS ),
+                                       count( RecordedChannel.CPU_CONTEXT_SWITCHES ) );
+    }
+
+    @Override
+    public void readCpuTicks( final long[][] into ) {
+        for ( final long[] row : into ) {
+            Arrays.fill( row, -1L );
+        }
+
+        if ( into.length > 0 ) {
+            for ( final TickType type : TickType.values() ) {
+                into[0][type.ordinal()] = count( RecordedChannel.ofCpuTicks( type ) );
+            }
+        }
+    }
+
+    @Override
+    public LoadAverageReading getLoadAverage() {
+        return new LoadAverageReading( value( RecordedChannel.LOAD_AVERAGE_1M ),
+                                       value( RecordedChannel.LOAD_AVERAGE_5M ),
+                                       value( RecordedChannel.LOAD_AVERAGE_15M ) );
+    }
+
+    @Override
+    public long[] getCurrentFrequencies() {
+        return NO_FREQUENCIES;
+    }
+
+    @Override
+    public FileDescriptorsReading getFileDescriptors() {
+        return new FileDescriptorsReading( count( RecordedChannel.FD_OPEN ), count( RecordedChannel.FD_MAX ) );
+    }
+
+    @Override
+    public DiskStoresReading getDiskStores() {
+        return null;
+    }
+
+    @Override
+    public ProcessCountsReading getProcessCounts() {
+        return new ProcessCountsReading( count( RecordedChannel.PROCESS_COUNT ),
+                                         count( RecordedChannel.THREAD_COUNT ) );
+    }
+
+    @Override
+    public ProcessesReading getProcesses() {
+        return null;
+    }
+
+    @Override
+    public ProcessReading getCurrentProcess() {
+        return null;
+    }
+
+    @Override
+    public List<String> getMountPoints() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public FileSystemReading getFileSystem( final String mountPoint ) {
+        return null;
+    }
+
+    @Override
+    public NetworkParamsReading getNetworkParams() {
+        return null;
+    }
+
+    @Override
+    public NetworkInterfacesReading getNetworkInterfaces() {
+        return null;
+    }
+
+    @Override
+    public long getUptime() {
+        return count( RecordedChannel.UPTIME );
+    }
+
+    @Override
+    public long getCpuMaxFrequency() {
+        return -1L;
+    }
+
+    @Override
+    public Double getCpuTemperature() {
+        return value( RecordedChannel.CPU_TEMPERATURE );
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.tguzik.metrics.os;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * Sources cheap enough to be read by the {@link HighFrequencySampler} many times per second. The name of each source
+ * is the name of the regular gauge it corresponds to.
+ */
+public enum SampledSource {
+    /**
+     * Fraction of CPU time not spent idle, across all processors. The ticks are read into arrays allocated up front,
+     * but each read still allocates a little - the file channel of {@code /proc/stat} on Linux, or whatever oshi
+     * creates on the other platforms.
+     */
+    CPU_BUSY( "hw.cpu.busy" ) {
+        @Override
+        public DoubleSupplier supplierFor( final SystemProbes probes ) {
+            final CpuUtilization utilization = new CpuUtilization( probes );
+
+            return () -> {
+                final double idle = utilization.get().getSystem( CpuTime.IDLE );
+
+                return idle < 0 ? CpuUtilizationReading.UNAVAILABLE : 1.0 - idle;
+            };
+        }
+    },
+    LOAD_AVERAGE( "hw.cpu.load-average.1m" ) {
+        @Override
+        public DoubleSupplier supplierFor( final SystemProbes probes ) {
+            return () -> probes.getLoadAverage().getOneMinute();
+        }
+    },
+    MEMORY_AVAILABLE( "hw.mem.available" ) {
+        @Override
+        public DoubleSupplier supplierFor( final SystemProbes probes ) {
+            return () -> probes.getMemory().getAvailable();
+        }
+    };
+
+    private final String name;
+
+    SampledSource( final String name ) {
+        this.name = name;
+    }
+
+    /** Part of the gauge name */
+    public String getName() {
+        return name;
+    }
+
+    /** Creates a supplier that reads this source straight from the probes, bypassing any caching */
+    public abstract DoubleSupplier supplierFor( SystemProbes probes );
+
+}
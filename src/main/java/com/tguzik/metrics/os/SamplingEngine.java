@@ -0,0 +1,265 @@
+package com.tguzik.metrics.os;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import com.codahale.metrics.Clock;
+import io.vavr.Lazy;
+
+/**
+ * This class is meant to share the snapshots - and thus the OS reads - between gauge sets that would otherwise read
+ * the same sources on their own, like an {@link OperatingEnvironmentGaugeSet} registered in each of a few
+ * {@link com.codahale.metrics.MetricRegistry registries}. Gauge sets using the same cache timeout get the same
+ * {@link SharedSnapshots}, so each source group is read once per timeout no matter how many of them are scraped.
+ * <p>
+ * The snapshots are reference counted: each {@link #acquire} returns a {@link Lease}, and once the last lease of given
+ * cache timeout is closed the engine forgets the snapshots, so that they can be garbage collected along with the
+ * listeners attached to them. The next lease starts with fresh snapshots.
+ * <p>
+ * Along with the snapshots the engine shares the gauge sets that attach listeners to them (see
+ * {@link SharedGaugeSets}), and their background sampling: {@link #sampleInBackground} starts a single sampler
+ * per cache timeout, which keeps running until the last lease of the sampling is closed.
+ * <p>
+ * {@link #jvmWide()} is the instance shared by the whole JVM. Separate instances can be created for tests, or to read
+ * through different probes.
+ */
+public final class SamplingEngine {
+    private static final Lazy<SamplingEngine> JVM_WIDE =
+        Lazy.of( () -> new SamplingEngine( SystemProbes::forCurrentPlatform, Clock.defaultClock() ) );
+
+    private final Map<Long, Entry> entries;
+    private final Lazy<SystemProbes> probes;
+    private final Object lock;
+    private final Clock clock;
+
+    /** @param probes called once, when the first lease is acquired */
+    public SamplingEngine( final Supplier<SystemProbes> probes, final Clock clock ) {
+        this.probes = Lazy.of( probes );
+        this.clock = Objects.requireNonNull( clock );
+        this.entries = new HashMap<>();
+        this.lock = new Object();
+    }
+
+    /** Engine shared by the whole JVM, reading through the fastest probes for the current platform */
+    public static SamplingEngine jvmWide() {
+        return JVM_WIDE.get();
+    }
+
+    /** Snapshots refreshed every given cache timeout, shared with all other leases of the same timeout */
+    public Lease acquire( final long cacheTimeout, final TimeUnit cacheTimeoutUnit ) {
+        final long cacheTimeoutNanos = cacheTimeoutUnit.toNanos( cacheTimeout );
+
+        synchronized ( lock ) {
+            final Entry entry = entries.computeIfAbsent( cacheTimeoutNanos, this::createEntry );
+
+            final SharedSnapshots snapshots = entry.retain();
+            return new Lease( this, snapshots, entry.getGaugeSets(), () -> release( cacheTimeoutNanos, snapshots ) );
+        }
+    }
+
+    /** Number of open leases of given cache timeout */
+    public int getReferences( final long cacheTimeout, final TimeUnit cacheTimeoutUnit ) {
+        synchronized ( lock ) {
+            final Entry entry = entries.get( cacheTimeoutUnit.toNanos( cacheTimeout ) );
+
+            return entry == null ? 0 : entry.getReferences();
+        }
+    }
+
+    /** Whether the snapshots of given cache timeout are currently refreshed by a background sampler */
+    public boolean isSampledInBackground( final long cacheTimeout, final TimeUnit cacheTimeoutUnit ) {
+        synchronized ( lock ) {
+            final Entry entry = entries.get( cacheTimeoutUnit.toNanos( cacheTimeout ) );
+
+            return entry != null && entry.isSampledInBackground();
+        }
+    }
+
+    public SystemProbes getProbes() {
+        return probes.get();
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    private Entry createEntry( final long cacheTimeoutNanos ) {
+        final SharedSnapshots snapshots =
+            new SharedSnapshots( probes.get(), clock, cacheTimeoutNanos, TimeUnit.NANOSECONDS );
+
+        return new Entry( snapshots, new SharedGaugeSets( snapshots, clock ) );
+    }
+
+    /**
+     * Refreshes the snapshots of given lease on given executor, instead of on the thread that happens to read an
+     * expired gauge. The sampler is shared along with the snapshots: the first call starts it, the subsequent ones -
+     * even with other leases of the same snapshots - reuse it, along with the executor given to the first call.
+     *
+     * @return lease of the sampling - the snapshots are sampled in background until all such leases get closed
+     * @throws IllegalStateException when given lease has been closed and nobody else holds on to its snapshots
+     */
+    @SuppressWarnings( "PMD.DoNotUseThreads" ) // Only passes the executor of the caller on
+    public Lease sampleInBackground( final Lease lease, final ScheduledExecutorService executor ) {
+        Objects.requireNonNull( executor );
+
+        final SharedSnapshots snapshots = lease.getSnapshots();
+        final long cacheTimeoutNanos = snapshots.getCacheTimeoutNanos();
+
+        synchronized ( lock ) {
+            final Entry entry = entries.get( cacheTimeoutNanos );
+
+            if ( entry == null || entry.getSnapshots() != snapshots ) {
+                throw new IllegalStateException( "The snapshots of this lease have already been dropped" );
+            }
+
+            entry.retain();
+            entry.startSampling( executor );
+
+            return new Lease( this,
+                              snapshots,
+                              entry.getGaugeSets(),
+                              () -> stopSampling( cacheTimeoutNanos, snapshots ) );
+        }
+    }
+
+    private void stopSampling( final long cacheTimeoutNanos, final SharedSnapshots snapshots ) {
+        synchronized ( lock ) {
+            final Entry entry = entries.get( cacheTimeoutNanos );
+
+            if ( entry != null && entry.getSnapshots() == snapshots ) {
+                entry.stopSampling();
+            }
+        }
+
+        release( cacheTimeoutNanos, snapshots );
+    }
+
+    /** Ignores the leases of snapshots the engine has already forgotten */
+    private void release( final long cacheTimeoutNanos, final SharedSnapshots snapshots ) {
+        synchronized ( lock ) {
+            final Entry entry = entries.get( cacheTimeoutNanos );
+
+            if ( entry != null && entry.getSnapshots() == snapshots && entry.release() <= 0 ) {
+                entries.remove( cacheTimeoutNanos );
+            }
+        }
+    }
+
+    /**
+     * Snapshots of a single cache timeout, along with their gauge sets, their background sampler and the number of
+     * leases using them. Guarded by the engine lock.
+     */
+    private static final class Entry {
+        private final SharedSnapshots snapshots;
+        private final SharedGaugeSets gaugeSets;
+        private BackgroundSampler sampler;
+        private int samplers;
+        private int references;
+
+        public Entry( final SharedSnapshots snapshots, final SharedGaugeSets gaugeSets ) {
+            this.snapshots = snapshots;
+            this.gaugeSets = gaugeSets;
+        }
+
+        public SharedSnapshots getSnapshots() {
+            return snapshots;
+        }
+
+        public SharedGaugeSets getGaugeSets() {
+            return gaugeSets;
+        }
+
+        public boolean isSampledInBackground() {
+            return samplers > 0;
+        }
+
+        /** Starts the sampler on first call, the subsequent calls share it - along with the first executor */
+        @SuppressWarnings( "PMD.DoNotUseThreads" ) // The sampler runs on the first executor given, see above
+        public void startSampling( final ScheduledExecutorService executor ) {
+            if ( samplers == 0 ) {
+                sampler = new BackgroundSampler( snapshots.getAll(),
+                                                 executor,
+                                                 snapshots.getCacheTimeoutNanos(),
+                                                 TimeUnit.NANOSECONDS ).start();
+            }
+
+            samplers++;
+        }
+
+        /** Stops the sampler once every call to {@link #startSampling} has been matched by a call to this method */
+        public void stopSampling() {
+            samplers--;
+
+            if ( samplers == 0 ) {
+                sampler.close();
+            }
+        }
+
+        public int getReferences() {
+            return references;
+        }
+
+        public SharedSnapshots retain() {
+            references++;
+            return snapshots;
+        }
+
+        /** Drops a single reference, returning the number of references left */
+        public int release() {
+            references--;
+            return references;
+        }
+    }
+
+    /**
+     * This class is meant to hold on to the snapshots shared by the engine, until it gets closed. Closing the same lease
+     * more than once has no further effect.
+     */
+    public static final class Lease implements Closeable {
+        private final SharedGaugeSets gaugeSets;
+        private final SharedSnapshots snapshots;
+        private final SamplingEngine engine;
+        private final AtomicBoolean closed;
+        private final Runnable release;
+
+        /** @param release called once, on first {@link #close()} */
+        public Lease( final SamplingEngine engine,
+                      final SharedSnapshots snapshots,
+                      final SharedGaugeSets gaugeSets,
+                      final Runnable release ) {
+            this.engine = Objects.requireNonNull( engine );
+            this.snapshots = Objects.requireNonNull( snapshots );
+            this.gaugeSets = Objects.requireNonNull( gaugeSets );
+            this.release = Objects.requireNonNull( release );
+            this.closed = new AtomicBoolean();
+        }
+
+        public SharedSnapshots getSnapshots() {
+            return snapshots;
+        }
+
+        /** Gauge sets attaching listeners to the snapshots, shared along with them */
+        public SharedGaugeSets getGaugeSets() {
+            return gaugeSets;
+        }
+
+
+        public SamplingEngine getEngine() {
+            return engine;
+        }
+
+        @Override
+        public void close() {
+            if ( closed.compareAndSet( false, true ) ) {
+                release.run();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.tguzik.metrics.os;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * Gauges of the process this library runs in, named {@code self.<counter>}: memory, CPU time and utilization, page
+ * faults, I/O, open files, threads and context switches (see {@link ProcessCounter}). All of them are fed by a single
+ * snapshot, so the process is read once per cache timeout regardless of how many gauges get scraped.
+ * <p>
+ * The CPU utilization is derived by a listener this set attaches to the snapshot on construction. The gauge sets of a
+ * {@link SamplingEngine} share a single set, see {@link SharedGaugeSets#getSelf()}.
+ */
+public class SelfGaugeSet implements MetricSet {
+    public static final String PREFIX = "self";
+
+    private final CachedSnapshot<ProcessReading> snapshot;
+    private final ProcessCpuUtilization utilization;
+
+    @SuppressFBWarnings( value = "EI_EXPOSE_REP2",
+                         justification = "The snapshot is shared with the other gauges of its source group" )
+    public SelfGaugeSet( final CachedSnapshot<ProcessReading> snapshot ) {
+        this.snapshot = Objects.requireNonNull( snapshot );
+        this.utilization = new ProcessCpuUtilization();
+
+        snapshot.addListener( utilization );
+    }
+
+    private Gauge<Long> counterGauge( final ProcessCounter counter ) {
+        return new DerivedLongGauge<>( snapshot, reading -> reading.get( counter ) );
+    }
+
+    @Override
+    public Map<String, Metric> getMetrics() {
+        final Map<String, Metric> product = new ConcurrentHashMap<>();
+
+        for ( final ProcessCounter counter : ProcessCounter.values() ) {
+            product.put( name( PREFIX, counter.getName() ), counterGauge( counter ) );
+        }
+
+        // Reading the snapshot first is what triggers the refresh that updates the utilization
+        final Supplier<ProcessCpuUtilization> refreshed = () -> snapshot.get() == null ? null : utilization;
+
+        product.put( name( PREFIX, "cpu.utilization" ),
+                     new DerivedDoubleGauge<>( refreshed, ProcessCpuUtilization::getUtilization ) );
+
+        return product;
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.tguzik.metrics.os;
+
+import java.util.Objects;
+
+import com.codahale.metrics.Clock;
+import io.vavr.Lazy;
+
+/**
+ * The gauge sets that attach listeners to the snapshots - and thus must not be created more than once per
+ * {@link SharedSnapshots} - created on first use and shared by every {@link OperatingEnvironmentGaugeSet} reading the
+ * same snapshots. Were they created by each gauge set, every rate and ranking would be computed once per gauge set on
+ * each refresh, and the listeners of the closed gauge sets would stay attached for as long as the snapshots live.
+ * <p>
+ * The {@link SamplingEngine} keeps one instance along with each {@link SharedSnapshots}, see
+ * {@link SamplingEngine.Lease#getGaugeSets()}.
+ */
+@SuppressWarnings( "PMD.DataClass" ) // Nothing but a holder of the gauge sets built on the shared snapshots
+public final class SharedGaugeSets {
+    private final Lazy<NetworkInterfaceGaugeSet> networkInterfaces;
+    private final Lazy<TopProcessGaugeSet> topProcesses;
+    private final Lazy<CollectorGaugeSet> collector;
+    private final Lazy<ProcessorGaugeSet> processors;
+    private final Lazy<CgroupGaugeSet> cgroup;
+    private final Lazy<RateGaugeSet> rates;
+    private final Lazy<DiskGaugeSet> disks;
+    private final Lazy<SelfGaugeSet> self;
+
+    public SharedGaugeSets( final SharedSnapshots snapshots, final Clock clock ) {
+        Objects.requireNonNull( snapshots );
+        Objects.requireNonNull( clock );
+
+        this.rates = Lazy.of( () -> new RateGaugeSet( snapshots ) );
+        this.disks = Lazy.of( () -> new DiskGaugeSet( snapshots.getStorage().getDisks() ) );
+        this.processors = Lazy.of( () -> new ProcessorGaugeSet( snapshots.getCpu() ) );
+        this.networkInterfaces = Lazy.of( () -> new NetworkInterfaceGaugeSet( snapshots.getNetwork()
+                                                                                       .getInterfaces() ) );
+        this.self = Lazy.of( () -> new SelfGaugeSet( snapshots.getCurrentProcess() ) );
+        this.cgroup = Lazy.of( () -> new CgroupGaugeSet( snapshots.getCgroup() ) );
+        this.collector = Lazy.of( () -> new CollectorGaugeSet( snapshots.getAll(), clock ) );
+        this.topProcesses = Lazy.of( () -> new TopProcessGaugeSet( snapshots.getProcesses(),
+                                                                   OperatingEnvironmentGaugeSet.TOP_PROCESS_RANKS ) );
+    }
+
+    public RateGaugeSet getRates() {
+        return rates.get();
+    }
+
+    public DiskGaugeSet getDisks() {
+        return disks.get();
+    }
+
+    public ProcessorGaugeSet getProcessors() {
+        return processors.get();
+    }
+
+    public NetworkInterfaceGaugeSet getNetworkInterfaces() {
+        return networkInterfaces.get();
+    }
+
+    public SelfGaugeSet getSelf() {
+        return self.get();
+    }
+
+    public CgroupGaugeSet getCgroup() {
+        return cgroup.get();
+    }
+
+    public TopProcessGaugeSet getTopProcesses() {
+        return topProcesses.get();
+    }
+
+    /** The accounting starts on first call, see {@link CollectorGaugeSet} */
+    public CollectorGaugeSet getCollectorMetrics() {
+        return collector.get();
+    }
+
+}
@@ -0,0 +1,140 @@
+package com.tguzik.metrics.os;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.codahale.metrics.Clock;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * Groups the snapshots of related values, so that every gauge derived from the same source group (say, TCPv4
+ * statistics) shares a single OS read per cache timeout. Without this a single reporter scrape would parse the same
+ * {@code /proc} file once per gauge.
+ */
+@SuppressWarnings( "PMD.DataClass" ) // Nothing but a holder of the snapshots of a source group
+@SuppressFBWarnings( value = "EI_EXPOSE_REP",
+                     justification = "Handing out the snapshots shared by the gauges is the whole point" )
+public class SharedSnapshots {
+    private final CachedSnapshot<MemoryReading> memory;
+    private final CachedSnapshot<VirtualMemoryReading> virtualMemory;
+    private final CpuSnapshots cpu;
+    private final NetworkSnapshots network;
+    private final StorageSnapshots storage;
+    private final CachedSnapshot<FileDescriptorsReading> fileDescriptors;
+    private final CachedSnapshot<ProcessCountsReading> processCounts;
+    private final CachedSnapshot<ProcessReading> currentProcess;
+    private final CachedSnapshot<ProcessesReading> processes;
+    private final CachedSnapshot<CgroupReading> cgroup;
+    private final CachedSnapshot<Long> uptime;
+    private final CachedSnapshot<Double> cpuTemperature;
+    private final IdentitySnapshots identity;
+    private final long cacheTimeoutNanos;
+    private final Clock clock;
+
+    public SharedSnapshots( final SystemProbes probes,
+                            final Clock clock,
+                            final long cacheTimeout,
+                            final TimeUnit cacheTimeoutUnit ) {
+        Objects.requireNonNull( probes );
+
+        this.cacheTimeoutNanos = cacheTimeoutUnit.toNanos( cacheTimeout );
+        this.clock = Objects.requireNonNull( clock );
+
+        this.memory = snapshot( "mem", probes::getMemory );
+        this.virtualMemory = snapshot( "mem.virtual", probes::getVirtualMemory );
+        this.cpu = new CpuSnapshots( probes, clock, cacheTimeout, cacheTimeoutUnit );
+        this.network = new NetworkSnapshots( probes, clock, cacheTimeout, cacheTimeoutUnit );
+        this.storage = new StorageSnapshots( probes, clock, cacheTimeout, cacheTimeoutUnit );
+        this.fileDescriptors = snapshot( "fs.fd", probes::getFileDescriptors );
+        this.processCounts = snapshot( "proc", probes::getProcessCounts );
+        this.currentProcess = snapshot( "self", probes::getCurrentProcess );
+        this.processes = snapshot( "proc.all", probes::getProcesses );
+        this.cgroup = snapshot( "cgroup", probes::getCgroup );
+        this.uptime = snapshot( "uptime", probes::getUptime );
+        this.cpuTemperature = snapshot( "sensors.cpu.temperature", probes::getCpuTemperature );
+        this.identity = new IdentitySnapshots( probes, clock );
+    }
+
+    /** Default cache timeout of the snapshots, before any {@link RefreshPolicy} is applied */
+    public long getCacheTimeoutNanos() {
+        return cacheTimeoutNanos;
+    }
+
+    public CachedSnapshot<MemoryReading> getMemory() {
+        return memory;
+    }
+
+    public CachedSnapshot<VirtualMemoryReading> getVirtualMemory() {
+        return virtualMemory;
+    }
+
+    public CpuSnapshots getCpu() {
+        return cpu;
+    }
+
+    public NetworkSnapshots getNetwork() {
+        return network;
+    }
+
+    public StorageSnapshots getStorage() {
+        return storage;
+    }
+
+    public CachedSnapshot<FileDescriptorsReading> getFileDescriptors() {
+        return fileDescriptors;
+    }
+
+    public CachedSnapshot<ProcessCountsReading> getProcessCounts() {
+        return processCounts;
+    }
+
+    /** Counters of the process this library runs in */
+    public CachedSnapshot<ProcessReading> getCurrentProcess() {
+        return currentProcess;
+    }
+
+    /** Counters of all processes, the most expensive read of all - no gauges read it unless asked to */
+    public CachedSnapshot<ProcessesReading> getProcesses() {
+        return processes;
+    }
+
+    /** Counters of the control group this library runs in, read as null outside of Linux control groups */
+    public CachedSnapshot<CgroupReading> getCgroup() {
+        return cgroup;
+    }
+
+    public CachedSnapshot<Long> getUptime() {
+        return uptime;
+    }
+
+    public CachedSnapshot<Double> getCpuTemperature() {
+        return cpuTemperature;
+    }
+
+    /** Values read once per process, like the process id or the processor counts */
+    public IdentitySnapshots getIdentity() {
+        return identity;
+    }
+
+    /** All snapshots held by this instance, in no particular order */
+    public List<CachedSnapshot<?>> getAll() {
+        final List<CachedSnapshot<?>> product = new ArrayList<>( cpu.getAll() );
+
+        product.addAll( network.getAll() );
+        product.addAll( storage.getAll() );
+        product.addAll( identity.getAll() );
+        product.addAll( Arrays.asList( memory, virtualMemory, fileDescriptors, processCounts, uptime, cpuTemperature ) );
+        product.addAll( Arrays.asList( currentProcess, processes, cgroup ) );
+
+        return product;
+    }
+
+    private <T> CachedSnapshot<T> snapshot( final String name, final Supplier<? extends T> uncachedSupplier ) {
+        return new CachedSnapshot<>( name, clock, cacheTimeoutNanos, TimeUnit.NANOSECONDS, uncachedSupplier );
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.tguzik.metrics.os;
+
+/**
+ * Gets notified about every successful refresh of a {@link CachedSnapshot}, on the thread that did the refresh, right
+ * after the value got published. Implementations should be quick - while they run, the refreshing thread (a reporter
+ * or the background sampler) and the listeners after them wait.
+ */
+@FunctionalInterface
+public interface SnapshotListener<T> {
+
+    /**
+     * Called once per successful refresh.
+     *
+     * @param value freshly loaded value, never null
+     * @param tick {@link com.codahale.metrics.Clock#getTick() clock tick} at which the load started
+     */
+    void onRefresh( T value, long tick );
+
+}
@@ -0,0 +1,51 @@
+package com.tguzik.metrics.os;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+import io.vavr.Lazy;
+
+/**
+ * Storage gauges - {@code os.fs.fd.*} with the system-wide file descriptor usage, and {@code hw.disk.*} with the
+ * counters and rates of each disk (see {@link DiskGaugeSet}).
+ * <p>
+ * The disk gauges attach a listener to the disk snapshot when they are first used. Creating this set from the
+ * snapshots alone creates its own disk gauges, so to create more than one set per {@link SharedSnapshots} pass the
+ * shared ones instead (see {@link SharedGaugeSets#getDisks()}).
+ */
+public class StorageGaugeSet implements MetricSet {
+    private final SharedSnapshots snapshots;
+    private final Supplier<DiskGaugeSet> disks;
+
+    public StorageGaugeSet( final SharedSnapshots snapshots ) {
+        this( snapshots, Lazy.of( () -> new DiskGaugeSet( snapshots.getStorage().getDisks() ) ) );
+    }
+
+    /** @param disks called on first use of the disk gauges, and on every subsequent one */
+    public StorageGaugeSet( final SharedSnapshots snapshots, final Supplier<DiskGaugeSet> disks ) {
+        this.snapshots = Objects.requireNonNull( snapshots );
+        this.disks = Objects.requireNonNull( disks );
+    }
+
+    /** Created on first call and shared by all subsequent calls, so that the rates are computed once */
+    public DiskGaugeSet getDisks() {
+        return disks.get();
+    }
+
+    @Override
+    public Map<String, Metric> getMetrics() {
+        final Map<String, Metric> product = new ConcurrentHashMap<>( getDisks().getMetrics() );
+
+        product.put( "os.fs.fd.open",
+                     new DerivedLongGauge<>( snapshots.getFileDescriptors(), FileDescriptorsReading::getOpen ) );
+        product.put( "os.fs.fd.max",
+                     new DerivedLongGauge<>( snapshots.getFileDescriptors(), FileDescriptorsReading::getMax ) );
+
+        return product;
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.tguzik.metrics.os;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.codahale.metrics.Clock;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * Groups the snapshots of storage related values. Same rules as in {@link SharedSnapshots} apply - one OS read per
+ * source group per cache timeout, no matter how many disks there are.
+ * <p>
+ * Usage of the mounted file systems is not part of this group - a hung mount must not hold up the other sources, so
+ * each mount gets a snapshot of its own (see {@link FileSystemGaugeSet}). Only the list of mount points is read here.
+ */
+@SuppressFBWarnings( value = "EI_EXPOSE_REP",
+                     justification = "Handing out the snapshots shared by the gauges is the whole point" )
+public class StorageSnapshots {
+    private final CachedSnapshot<DiskStoresReading> disks;
+    private final CachedSnapshot<List<String>> mountPoints;
+    private final long cacheTimeoutNanos;
+    private final Clock clock;
+
+    public StorageSnapshots( final SystemProbes probes,
+                             final Clock clock,
+                             final long cacheTimeout,
+                             final TimeUnit cacheTimeoutUnit ) {
+        Objects.requireNonNull( probes );
+
+        this.cacheTimeoutNanos = cacheTimeoutUnit.toNanos( cacheTimeout );
+        this.clock = Objects.requireNonNull( clock );
+
+        this.disks = snapshot( "disks", probes::getDiskStores );
+        this.mountPoints = snapshot( "fs.mounts", probes::getMountPoints );
+    }
+
+    public CachedSnapshot<DiskStoresReading> getDisks() {
+        return disks;
+    }
+
+    public CachedSnapshot<List<String>> getMountPoints() {
+        return mountPoints;
+    }
+
+    /** All snapshots held by this instance, in no particular order */
+    public List<CachedSnapshot<?>> getAll() {
+        return Arrays.asList( disks, mountPoints );
+    }
+
+    private <T> CachedSnapshot<T> snapshot( final String name, final Supplier<? extends T> uncachedSupplier ) {
+        return new CachedSnapshot<>( name, clock, cacheTimeoutNanos, TimeUnit.NANOSECONDS, uncachedSupplier );
+    }
+
+}
@@ -0,0 +1,151 @@
+package com.tguzik.metrics.os;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileStore;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import oshi.PlatformEnum;
+import oshi.SystemInfo;
+import oshi.software.os.InternetProtocolStats.TcpStats;
+import oshi.software.os.InternetProtocolStats.UdpStats;
+
+import com.tguzik.metrics.os.linux.LinuxProbes;
+
+/**
+ * Single place through which the gauges talk to the operating system. Each method performs one read of one source
+ * group - the caching is left to {@link SharedSnapshots}.
+ * <p>
+ * Implementations are free to throw exceptions or return nulls when a value is not available, the snapshots and
+ * gauges will deal with it.
+ */
+public interface SystemProbes {
+
+    /**
+     * Picks the fastest implementation available on the current platform - reading {@code /proc} directly on Linux
+     * and falling back to oshi everywhere else. Oshi is not initialized until it is needed for the first time.
+     */
+    static SystemProbes forCurrentPlatform() {
+        final Supplier<SystemInfo> systemInfo = SystemInfo::new;
+
+        return SystemInfo.getCurrentPlatform() == PlatformEnum.LINUX
+               && LinuxProbes.isSupported( LinuxProbes.DEFAULT_PROC_ROOT )
+               ? new LinuxProbes( systemInfo, LinuxProbes.DEFAULT_PROC_ROOT )
+               : new OshiProbes( systemInfo );
+    }
+
+    int getProcessId();
+
+    int getBitness();
+
+    String getFamily();
+
+    String getProcessorIdentifier();
+
+    int getLogicalProcessorCount();
+
+    int getPhysicalProcessorCount();
+
+    int getPhysicalPackageCount();
+
+    TcpStats getTcpV4Stats();
+
+    TcpStats getTcpV6Stats();
+
+    UdpStats getUdpV4Stats();
+
+    UdpStats getUdpV6Stats();
+
+    MemoryReading getMemory();
+
+    VirtualMemoryReading getVirtualMemory();
+
+    CpuCountersReading getCpuCounters();
+
+    /**
+     * Stores the cumulative CPU ticks, in order of {@link oshi.hardware.CentralProcessor.TickType}, of the whole system
+     * in the first row and of each logical processor in the following rows. Missing values are set to -1.
+     */
+    @SuppressWarnings( "PMD.UseVarargs" ) // Fills a buffer allocated up front, so sampling need not allocate
+    void readCpuTicks( long[][] into );
+
+    LoadAverageReading getLoadAverage();
+
+    /** Current frequency of each logical processor, in Hz */
+    long[] getCurrentFrequencies();
+
+    FileDescriptorsReading getFileDescriptors();
+
+    /** Counters of all disks, read in a single pass */
+    DiskStoresReading getDiskStores();
+
+    ProcessCountsReading getProcessCounts();
+
+    /** Counters of all processes, read in a single enumeration */
+    ProcessesReading getProcesses();
+
+    /** Counters of the process this library runs in, or null if they could not be read */
+    ProcessReading getCurrentProcess();
+
+    /**
+     * Counters of the control group this library runs in, or null if it does not run in one that can be read. Control
+     * groups are specific to Linux, hence none by default.
+     */
+    default CgroupReading getCgroup() {
+        return null;
+    }
+
+    /**
+     * Mount points of the file systems present at the moment, listed without touching the file systems themselves - so
+     * that a dead network mount cannot hang the listing. By default the root directories, which is all the JDK can list
+     * that way.
+     */
+    default List<String> getMountPoints() {
+        final List<String> product = new ArrayList<>();
+
+        for ( final Path root : FileSystems.getDefault().getRootDirectories() ) {
+            product.add( root.toString() );
+        }
+
+        return product;
+    }
+
+    /**
+     * Usage of the file system mounted at given point. Blocks for as long as the file system does - which, for a dead
+     * network mount, can be minutes. By default read through the JDK, which knows nothing about the inodes.
+     */
+    default FileSystemReading getFileSystem( final String mountPoint ) {
+        try {
+            final FileStore store = Files.getFileStore( Paths.get( mountPoint ) );
+            final FileSystemReading reading = new FileSystemReading();
+
+            reading.set( FileSystemCounter.SPACE_TOTAL, store.getTotalSpace() );
+            reading.set( FileSystemCounter.SPACE_FREE, store.getUnallocatedSpace() );
+            reading.set( FileSystemCounter.SPACE_USABLE, store.getUsableSpace() );
+
+            return reading;
+        }
+        catch ( IOException e ) {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    NetworkParamsReading getNetworkParams();
+
+    /** Counters of all network interfaces, including the ones that appeared since the previous call */
+    NetworkInterfacesReading getNetworkInterfaces();
+
+    long getUptime();
+
+    long getCpuMaxFrequency();
+
+    /** In degrees Celsius, null if there is no sensor that could be read */
+    Double getCpuTemperature();
+
+}
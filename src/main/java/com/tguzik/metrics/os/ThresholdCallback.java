@@ -0,0 +1,20 @@
+package com.tguzik.metrics.os;
+
+/**
+ * Gets notified whenever a {@link ThresholdListener} changes its state. The callback runs on the thread that refreshed
+ * the snapshot, after the value that crossed the threshold has already been published to the gauges - so an alerting
+ * hook that blocks holds up the next refreshes, not the readers.
+ */
+@FunctionalInterface
+public interface ThresholdCallback {
+
+    /**
+     * Called once per transition, never twice in a row with the same state.
+     *
+     * @param name of the threshold, as given on construction
+     * @param breached true when the threshold got crossed, false when the value got back past the clearing level
+     * @param value that caused the transition
+     */
+    void onTransition( String name, boolean breached, double value );
+
+}
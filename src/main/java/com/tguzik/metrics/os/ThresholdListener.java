@@ -0,0 +1,164 @@
+package com.tguzik.metrics.os;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * This class is meant to push a notification the moment a value read by a snapshot crosses a threshold, instead of
+ * having the consumers poll the gauges. It gets evaluated on every refresh of the snapshot it listens to, and calls
+ * the {@link ThresholdCallback} only on transitions - once when the threshold gets breached, and once when the value
+ * gets back past the clearing level. The gap between the two levels is the hysteresis, which keeps a value hovering
+ * around the threshold from firing on every refresh.
+ * <p>
+ * Negative values - the unavailable markers - neither breach nor clear the threshold. Exceptions thrown by the callback
+ * are counted and passed on to the snapshot, which reports them to its {@link LoadListener} without letting them get
+ * in the way of the other listeners.
+ * <p>
+ * The listener reacts only as often as the snapshot gets refreshed - to react within one sample period without anyone
+ * reading the gauges, refresh the snapshots in background (see {@link OperatingEnvironmentGaugeSet#sampleInBackground}).
+ */
+public final class ThresholdListener<T> implements SnapshotListener<T> {
+    private final SnapshotListener<? super T> precedingListener;
+    private final ToDoubleFunction<? super T> extractor;
+    private final Predicate<? super T> breachCondition;
+    private final Predicate<? super T> clearCondition;
+    private final ThresholdCallback callback;
+    private final AtomicLong callbackFailures;
+    private final AtomicBoolean breached;
+    private final String name;
+
+    /**
+     * @param breachCondition evaluated while the threshold is not breached, true breaches it
+     * @param clearCondition evaluated while the threshold is breached, true clears it
+     * @param extractor value passed on to the callback
+     */
+    public ThresholdListener( final String name,
+                              final Predicate<? super T> breachCondition,
+                              final Predicate<? super T> clearCondition,
+                              final ToDoubleFunction<? super T> extractor,
+                              final ThresholdCallback callback ) {
+        this( name, breachCondition, clearCondition, extractor, callback, ( value, tick ) -> {
+        } );
+    }
+
+    private ThresholdListener( final String name,
+                               final Predicate<? super T> breachCondition,
+                               final Predicate<? super T> clearCondition,
+                               final ToDoubleFunction<? super T> extractor,
+                               final ThresholdCallback callback,
+                               final SnapshotListener<? super T> precedingListener ) {
+        this.name = Objects.requireNonNull( name );
+        this.breachCondition = Objects.requireNonNull( breachCondition );
+        this.clearCondition = Objects.requireNonNull( clearCondition );
+        this.extractor = Objects.requireNonNull( extractor );
+        this.callback = Objects.requireNonNull( callback );
+        this.precedingListener = precedingListener;
+        this.callbackFailures = new AtomicLong();
+        this.breached = new AtomicBoolean();
+    }
+
+    /** Breached once the value reaches {@code breachAt}, cleared once it drops to {@code clearAt} */
+    public static <T> ThresholdListener<T> above( final String name,
+                                                  final ToDoubleFunction<? super T> extractor,
+                                                  final double breachAt,
+                                                  final double clearAt,
+                                                  final ThresholdCallback callback ) {
+        checkLevels( clearAt, breachAt );
+
+        return new ThresholdListener<>( name,
+                                        value -> isAtLeast( extractor.applyAsDouble( value ), breachAt ),
+                                        value -> isAtMost( extractor.applyAsDouble( value ), clearAt ),
+                                        extractor,
+                                        callback );
+    }
+
+    /** Breached once the value drops to {@code breachAt}, cleared once it reaches {@code clearAt} */
+    public static <T> ThresholdListener<T> below( final String name,
+                                                  final ToDoubleFunction<? super T> extractor,
+                                                  final double breachAt,
+                                                  final double clearAt,
+                                                  final ThresholdCallback callback ) {
+        checkLevels( breachAt, clearAt );
+
+        return new ThresholdListener<>( name,
+                                        value -> isAtMost( extractor.applyAsDouble( value ), breachAt ),
+                                        value -> isAtLeast( extractor.applyAsDouble( value ), clearAt ),
+                                        extractor,
+                                        callback );
+    }
+
+    /**
+     * Same as {@link #above}, for the per-second rate of a monotonic counter between two successive refreshes (see
+     * {@link CounterRate#getInstantRate()}). The rate is unavailable until the second refresh.
+     */
+    public static <T> ThresholdListener<T> rateAbove( final String name,
+                                                      final ToLongFunction<? super T> counter,
+                                                      final double breachAt,
+                                                      final double clearAt,
+                                                      final ThresholdCallback callback ) {
+        checkLevels( clearAt, breachAt );
+
+        final CounterRate<T> rate = new CounterRate<>( counter );
+
+        return new ThresholdListener<>( name,
+                                        value -> isAtLeast( rate.getInstantRate(), breachAt ),
+                                        value -> isAtMost( rate.getInstantRate(), clearAt ),
+                                        value -> rate.getInstantRate(),
+                                        callback,
+                                        rate );
+    }
+
+    private static void checkLevels( final double lower, final double higher ) {
+        if ( lower > higher ) {
+            throw new IllegalArgumentException( "The clearing level must not be past the breaching level" );
+        }
+    }
+
+    private static boolean isAtLeast( final double value, final double level ) {
+        return value >= 0 && value >= level;
+    }
+
+    private static boolean isAtMost( final double value, final double level ) {
+        return value >= 0 && value <= level;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isBreached() {
+        return breached.get();
+    }
+
+    /** Number of exceptions thrown by the callback */
+    public long getCallbackFailures() {
+        return callbackFailures.get();
+    }
+
+    @Override
+    public void onRefresh( final T value, final long tick ) {
+        precedingListener.onRefresh( value, tick );
+
+        final boolean wasBreached = breached.get();
+        final Predicate<? super T> transition = wasBreached ? clearCondition : breachCondition;
+
+        if ( transition.test( value ) && breached.compareAndSet( wasBreached, !wasBreached ) ) {
+            notifyCallback( !wasBreached, extractor.applyAsDouble( value ) );
+        }
+    }
+
+    private void notifyCallback( final boolean nowBreached, final double value ) {
+        try {
+            callback.onTransition( name, nowBreached, value );
+        }
+        catch ( RuntimeException e ) {
+            callbackFailures.incrementAndGet();
+            throw e;
+        }
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.tguzik.metrics.os;
+
+/**
+ * This class is meant to pick the N largest values out of a stream without sorting the whole stream - a min-heap of
+ * at most N entries, held in primitive arrays, where each entry is a value and the index of the item it belongs to.
+ * Offering a value costs O(log N), and nothing gets allocated after construction. Not thread safe.
+ */
+public final class TopNHeap {
+    private final long[] values;
+    private final int[] items;
+    private int count;
+
+    public TopNHeap( final int capacity ) {
+        if ( capacity <= 0 ) {
+            throw new IllegalArgumentException( "Capacity must be positive, got " + capacity );
+        }
+
+        this.values = new long[capacity];
+        this.items = new int[capacity];
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    /** Keeps given item if its value is among the N largest offered since the last {@link #clear()} */
+    public void offer( final long value, final int item ) {
+        if ( count < values.length ) {
+            values[count] = value;
+            items[count] = item;
+            siftUp( count++ );
+        }
+        else if ( value > values[0] ) {
+            values[0] = value;
+            items[0] = item;
+            siftDown( 0 );
+        }
+    }
+
+    /**
+     * Empties the heap into given arrays, largest value first.
+     *
+     * @return number of entries written
+     */
+    @SuppressWarnings( "PMD.UseVarargs" ) // Fills the buffers of the caller
+    public int drainDescending( final int[] intoItems, final long[] intoValues ) {
+        final int drained = count;
+
+        while ( count > 0 ) {
+            count--;
+            intoItems[count] = items[0];
+            intoValues[count] = values[0];
+            values[0] = values[count];
+            items[0] = items[count];
+            siftDown( 0 );
+        }
+
+        return drained;
+    }
+
+    private void siftUp( final int start ) {
+        int child = start;
+
+        while ( child > 0 ) {
+            final int parent = ( child - 1 ) >> 1;
+
+            if ( values[parent] <= values[child] ) {
+                return;
+            }
+
+            swap( parent, child );
+            child = parent;
+        }
+    }
+
+    private void siftDown( final int start ) {
+        int parent = start;
+
+        for ( int child = smallerChild( parent ); child < count && values[child] < values[parent];
+              child = smallerChild( parent ) ) {
+            swap( parent, child );
+            parent = child;
+        }
+    }
+
+    private int smallerChild( final int parent ) {
+        final int left = 2 * parent + 1;
+
+        return left + 1 < count && values[left + 1] < values[left] ? left + 1 : left;
+    }
+
+    private void swap( final int first, final int second ) {
+        final long value = values[first];
+        final int item = items[first];
+
+        values[first] = values[second];
+        items[first] = items[second];
+        values[second] = value;
+        items[second] = item;
+    }
+
+}
@@ -0,0 +1,94 @@
+package com.tguzik.metrics.os;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * Gauges of the processes that consume the most, as a stable set of ranks - the names of the gauges stay the same
+ * while the processes behind them change:
+ * <ul>
+ * <li>{@code proc.top.cpu.<rank>.name}, {@code .pid}, {@code .value} - CPU utilization between the last two
+ * enumerations, where 1 means a single processor kept busy</li>
+ * <li>{@code proc.top.memory.<rank>.name}, {@code .pid}, {@code .value} - resident set size in bytes</li>
+ * </ul>
+ * Rank 1 is the largest consumer. All gauges are fed by a single enumeration of the processes per cache timeout (see
+ * {@link TopProcessTracker}).
+ * <p>
+ * The tracker is attached to the snapshot on construction and ranks every enumeration, so a second set over the same
+ * snapshot ranks each of them twice - the gauge sets of a {@link SamplingEngine} share the one from
+ * {@link SharedGaugeSets#getTopProcesses()}.
+ */
+public class TopProcessGaugeSet implements MetricSet {
+    public static final String PREFIX = "proc.top";
+
+    private final CachedSnapshot<ProcessesReading> snapshot;
+    private final TopProcessTracker tracker;
+    private final int ranks;
+
+    @SuppressFBWarnings( value = "EI_EXPOSE_REP2",
+                         justification = "The snapshot is shared with the other gauges of its source group" )
+    public TopProcessGaugeSet( final CachedSnapshot<ProcessesReading> snapshot, final int ranks ) {
+        this.snapshot = Objects.requireNonNull( snapshot );
+        this.tracker = new TopProcessTracker( ranks );
+        this.ranks = ranks;
+
+        snapshot.addListener( tracker );
+    }
+
+    public TopProcessTracker getTracker() {
+        return tracker;
+    }
+
+    @Override
+    public Map<String, Metric> getMetrics() {
+        final Map<String, Metric> product = new ConcurrentHashMap<>();
+
+        // Reading the snapshot first is what triggers the refresh that updates the rankings
+        final Supplier<RankedProcesses> byCpu = () -> snapshot.get() == null ? null : tracker.getByCpu();
+        final Supplier<RankedProcesses> byMemory = () -> snapshot.get() == null ? null : tracker.getByMemory();
+
+        for ( int rank = 1; rank <= ranks; rank++ ) {
+            final String cpu = name( PREFIX, "cpu", String.valueOf( rank ) );
+            final String memory = name( PREFIX, "memory", String.valueOf( rank ) );
+
+            rankGauges( product, cpu, byCpu, rank );
+            rankGauges( product, memory, byMemory, rank );
+
+            product.put( name( cpu, "value" ), utilizationGauge( byCpu, rank ) );
+            product.put( name( memory, "value" ), valueGauge( byMemory, rank ) );
+        }
+
+        return product;
+    }
+
+    /** Gauges identifying the process at given rank */
+    private static void rankGauges( final Map<String, Metric> into,
+                                    final String prefix,
+                                    final Supplier<RankedProcesses> ranking,
+                                    final int rank ) {
+        into.put( name( prefix, "name" ), new DerivedStringGauge<>( ranking, ranked -> ranked.getName( rank ) ) );
+        into.put( name( prefix, "pid" ), new DerivedLongGauge<>( ranking, ranked -> ranked.getPid( rank ) ) );
+    }
+
+    private static Metric valueGauge( final Supplier<RankedProcesses> ranking, final int rank ) {
+        return new DerivedLongGauge<>( ranking, ranked -> ranked.getValue( rank ) );
+    }
+
+    private static Metric utilizationGauge( final Supplier<RankedProcesses> ranking, final int rank ) {
+        return new DerivedDoubleGauge<>( ranking, ranked -> {
+            final long cpuTime = ranked.getValue( rank );
+            final long elapsed = ranked.getElapsedMillis();
+
+            return cpuTime < 0 || elapsed <= 0 ? DerivedDoubleGauge.UNAVAILABLE : (double) cpuTime / elapsed;
+        } );
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.tguzik.metrics.os;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class is meant to rank the processes that consume the most CPU and memory, out of successive enumerations of
+ * all processes. The CPU ranking is based on the CPU time each process consumed between two enumerations, hence it
+ * is not available until the second one.
+ * <p>
+ * The memory used by this class stays flat no matter how many processes come and go: the CPU times of the previous
+ * enumeration live in a primitive-keyed map that gets refilled on every refresh - so the processes that exited are
+ * evicted right away - and the selection uses a heap bounded by the number of ranks.
+ */
+public class TopProcessTracker implements SnapshotListener<ProcessesReading> {
+    private static final long UNSEEN = Long.MIN_VALUE;
+
+    private final AtomicReference<RankedProcesses> byMemory;
+    private final AtomicReference<RankedProcesses> byCpu;
+    private final long[] rankedValues;
+    private final int[] rankedItems;
+    private final TopNHeap heap;
+    private final Object lock;
+    private IntLongHashMap previousCpuTimes;
+    private IntLongHashMap currentCpuTimes;
+    private boolean hasPrevious;
+    private long previousTick;
+
+    public TopProcessTracker( final int ranks ) {
+        this.heap = new TopNHeap( ranks );
+        this.rankedValues = new long[ranks];
+        this.rankedItems = new int[ranks];
+        this.byMemory = new AtomicReference<>( new RankedProcesses( ranks, RankedProcesses.UNAVAILABLE ) );
+        this.byCpu = new AtomicReference<>( new RankedProcesses( ranks, RankedProcesses.UNAVAILABLE ) );
+        this.previousCpuTimes = new IntLongHashMap();
+        this.currentCpuTimes = new IntLongHashMap();
+        this.lock = new Object();
+    }
+
+    /** Processes ranked by the CPU time, in milliseconds, consumed between the last two enumerations */
+    public RankedProcesses getByCpu() {
+        return byCpu.get();
+    }
+
+    /** Processes ranked by the resident set size, in bytes */
+    public RankedProcesses getByMemory() {
+        return byMemory.get();
+    }
+
+    @Override
+    public void onRefresh( final ProcessesReading value, final long tick ) {
+        synchronized ( lock ) {
+            // The ticks may be negative and may wrap around, only their difference is meaningful
+            final boolean comparable = hasPrevious && tick - previousTick > 0;
+
+            heap.clear();
+            currentCpuTimes.clear();
+
+            for ( int i = 0; i < value.getCount(); i++ ) {
+                final long cpuTime = value.getCpuTime( i );
+                final long previous = previousCpuTimes.get( value.getPid( i ), UNSEEN );
+
+                currentCpuTimes.put( value.getPid( i ), cpuTime );
+
+                // Process that was not there before, or whose PID got reused, consumed all of its time in between
+                heap.offer( previous == UNSEEN || previous > cpuTime ? cpuTime : cpuTime - previous, i );
+            }
+
+            if ( comparable ) {
+                byCpu.set( rank( value, TimeUnit.NANOSECONDS.toMillis( tick - previousTick ) ) );
+            }
+
+            heap.clear();
+
+            for ( int i = 0; i < value.getCount(); i++ ) {
+                heap.offer( value.getResidentSize( i ), i );
+            }
+
+            byMemory.set( rank( value, RankedProcesses.UNAVAILABLE ) );
+
+            final IntLongHashMap swapped = previousCpuTimes;
+            previousCpuTimes = currentCpuTimes;
+            currentCpuTimes = swapped;
+            previousTick = tick;
+            hasPrevious = true;
+        }
+    }
+
+    /** Drains the heap */
+    private RankedProcesses rank( final ProcessesReading reading, final long elapsedMillis ) {
+        final RankedProcesses product = new RankedProcesses( rankedItems.length, elapsedMillis );
+        final int count = heap.drainDescending( rankedItems, rankedValues );
+
+        for ( int rank = 1; rank <= count; rank++ ) {
+            final int process = rankedItems[rank - 1];
+
+            product.set( rank, reading.getPid( process ), reading.getName( process ), rankedValues[rank - 1] );
+        }
+
+        return product;
+    }
+
+}
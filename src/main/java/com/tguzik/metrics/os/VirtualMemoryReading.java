@@ -0,0 +1,39 @@
+package com.tguzik.metrics.os;
+
+/**
+ * Point-in-time copy of the swap and virtual memory details, all values in bytes.
+ */
+@SuppressWarnings( "PMD.DataClass" ) // Point-in-time reading, a plain value holder by design
+public final class VirtualMemoryReading {
+    private final long swapTotal;
+    private final long swapUsed;
+    private final long virtualMax;
+    private final long virtualInUse;
+
+    public VirtualMemoryReading( final long swapTotal,
+                                 final long swapUsed,
+                                 final long virtualMax,
+                                 final long virtualInUse ) {
+        this.swapTotal = swapTotal;
+        this.swapUsed = swapUsed;
+        this.virtualMax = virtualMax;
+        this.virtualInUse = virtualInUse;
+    }
+
+    public long getSwapTotal() {
+        return swapTotal;
+    }
+
+    public long getSwapUsed() {
+        return swapUsed;
+    }
+
+    public long getVirtualMax() {
+        return virtualMax;
+    }
+
+    public long getVirtualInUse() {
+        return virtualInUse;
+    }
+
+}
@@ -0,0 +1,168 @@
+package com.tguzik.metrics.os.linux;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class is meant to package a reusable direct buffer holding the contents of a text file, together with a cursor
+ * that tokenizes its lines and parses numbers in place - without creating any strings.
+ * <p>
+ * Tokens are separated by spaces, tabs and colons. None of the methods moves the cursor past the end of the current
+ * line, except for {@link #skipLine()}.
+ * <p>
+ * Not thread safe.
+ */
+public final class AsciiBuffer {
+    public static final long UNAVAILABLE = -1L;
+
+    private static final int INITIAL_CAPACITY = 4096;
+
+    private ByteBuffer buffer;
+    private int position;
+
+    public AsciiBuffer() {
+        this.buffer = ByteBuffer.allocateDirect( INITIAL_CAPACITY );
+    }
+
+    /** Replaces the contents of this buffer with given file, growing the buffer if needed, and rewinds the cursor */
+    public void readFrom( final Path path ) throws IOException {
+        buffer.clear();
+
+        try ( FileChannel channel = FileChannel.open( path, StandardOpenOption.READ ) ) {
+            while ( channel.read( buffer ) >= 0 ) {
+                if ( !buffer.hasRemaining() ) {
+                    final ByteBuffer larger = ByteBuffer.allocateDirect( buffer.capacity() * 2 );
+
+                    buffer.flip();
+                    larger.put( buffer );
+                    buffer = larger;
+                }
+            }
+        }
+
+        buffer.flip();
+        position = 0;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public void setPosition( final int position ) {
+        this.position = position;
+    }
+
+    public boolean hasRemaining() {
+        return position < buffer.limit();
+    }
+
+    public boolean isEndOfLine() {
+        return position >= buffer.limit() || buffer.get( position ) == '\n';
+    }
+
+    /**
+     * Skips to the end of the next token on the current line.
+     *
+     * @return position where the token starts - equal to the current position if there are no more tokens
+     */
+    public int nextToken() {
+        while ( position < buffer.limit() && isSeparator( buffer.get( position ) ) ) {
+            position++;
+        }
+
+        final int start = position;
+
+        while ( !isEndOfLine() && !isSeparator( buffer.get( position ) ) ) {
+            position++;
+        }
+
+        return start;
+    }
+
+    /** Moves the cursor to the beginning of the next line */
+    public void skipLine() {
+        while ( position < buffer.limit() && buffer.get( position ) != '\n' ) {
+            position++;
+        }
+
+        position++;
+    }
+
+    /** Tells whether the bytes between given positions are the same as the key */
+    public boolean matches( final byte[] key, final int start, final int end ) {
+        if ( key.length != end - start ) {
+            return false;
+        }
+
+        for ( int i = 0; i < key.length; i++ ) {
+            if ( key[i] != buffer.get( start + i ) ) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /** Index of the key matching the bytes between given positions, -1 if none of them does */
+    public int indexOf( final byte[][] keys, final int start, final int end ) {
+        for ( int i = 0; i < keys.length; i++ ) {
+            if ( matches( keys[i], start, end ) ) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Parses the next number on the current line, leaving the cursor just after it.
+     *
+     * @return parsed number or {@link #UNAVAILABLE} if the next token is not a number or there are no more tokens
+     */
+    public long parseLong() {
+        while ( position < buffer.limit() && isSeparator( buffer.get( position ) ) ) {
+            position++;
+        }
+
+        final boolean negative = !isEndOfLine() && buffer.get( position ) == '-';
+        if ( negative ) {
+            position++;
+        }
+
+        long product = 0;
+        int digits = 0;
+
+        while ( position < buffer.limit() && isDigit( buffer.get( position ) ) ) {
+            product = product * 10 + buffer.get( position ) - '0';
+            position++;
+            digits++;
+        }
+
+        if ( digits == 0 ) {
+            nextToken();
+            return UNAVAILABLE;
+        }
+
+        return negative ? -product : product;
+    }
+
+    /** Parses the following numbers on the current line, {@link #UNAVAILABLE} for each one missing */
+    @SuppressWarnings( "PMD.UseVarargs" ) // Fills the buffer of the caller
+    public void parseLongs( final long[] into ) {
+        for ( int i = 0; i < into.length; i++ ) {
+            into[i] = parseLong();
+        }
+    }
+
+    private static boolean isSeparator( final byte value ) {
+        return value == ' ' || value == '\t' || value == ':';
+    }
+
+    private static boolean isDigit( final byte value ) {
+        return value >= '0' && value <= '9';
+    }
+
+}
@@ -0,0 +1,109 @@
+package com.tguzik.metrics.os.linux;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import com.tguzik.metrics.os.CgroupReading;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * This class is meant to read the counters of the control group this library runs in, straight from the cgroup
+ * filesystem - with the same reusable buffers as {@link ProcFile}. The group is the one listed for this process in
+ * {@code /proc/self/cgroup}, looked up under the root the filesystem is mounted at (see {@link CgroupPaths}).
+ * <p>
+ * A file that is missing - because the controller is not enabled, or the kernel is too old to provide it - leaves its
+ * counters unavailable, without affecting the others.
+ * <p>
+ * Not thread safe - callers are expected to synchronize on the instance.
+ */
+@SuppressWarnings( "PMD.UseVarargs" ) // Same buffers as in ProcFile, allocated up front by the caller
+@SuppressFBWarnings( value = "DMI_HARDCODED_ABSOLUTE_FILENAME",
+                     justification = "The default root is where the cgroup filesystem is mounted by convention" )
+public abstract class CgroupFiles {
+    public static final Path DEFAULT_ROOT = Paths.get( "/sys/fs/cgroup" );
+
+    protected CgroupFiles() {
+        // Each version knows its own files
+    }
+
+    /** Same as {@link #detect(Path, Path)} for a process that sits in the root group of each hierarchy */
+    public static CgroupFiles detect( final Path root ) {
+        return detect( root, new CgroupPaths() );
+    }
+
+    /**
+     * Picks the layout of the cgroup filesystem mounted at given root: the unified hierarchy of cgroup v2, or the
+     * separate {@code memory} and {@code cpu} hierarchies of cgroup v1.
+     *
+     * @param selfCgroup the {@code /proc/self/cgroup} file, the root groups are used if it cannot be read
+     * @return files of the detected layout, or null if neither is mounted there
+     */
+    public static CgroupFiles detect( final Path root, final Path selfCgroup ) {
+        return detect( root, CgroupPaths.read( selfCgroup ) );
+    }
+
+    private static CgroupFiles detect( final Path root, final CgroupPaths paths ) {
+        if ( Files.isReadable( root.resolve( "cgroup.controllers" ) ) ) {
+            return new CgroupV2Files( paths.groupOf( root, CgroupPaths.UNIFIED_HIERARCHY ) );
+        }
+
+        if ( Files.isDirectory( root.resolve( "memory" ) ) ) {
+            final Path cpu = root.resolve( "cpu" );
+            final Path cpuHierarchy = Files.isDirectory( cpu ) ? cpu : root.resolve( "cpu,cpuacct" );
+
+            return new CgroupV1Files( paths.groupOf( root.resolve( "memory" ), "memory" ),
+                                      paths.groupOf( cpuHierarchy, "cpu" ) );
+        }
+
+        return null;
+    }
+
+    /** Reads all counters of the group at once */
+    public abstract CgroupReading read();
+
+    /** Encodes the key the same way the kernel writes it */
+    protected static byte[] key( final String key ) {
+        return key.getBytes( StandardCharsets.US_ASCII );
+    }
+
+    protected static void readValues( final ProcFile file, final long[] into ) {
+        try {
+            file.readValues( into );
+        }
+        catch ( IOException e ) {
+            Arrays.fill( into, ProcFile.UNAVAILABLE );
+        }
+    }
+
+    protected static void readKeyedValues( final ProcFile file, final byte[][] keys, final long[] into ) {
+        try {
+            file.readKeyedValues( keys, into );
+        }
+        catch ( IOException e ) {
+            Arrays.fill( into, ProcFile.UNAVAILABLE );
+        }
+    }
+
+    protected static void readFields( final ProcFile file, final byte[][] rows, final byte[] field, final long[] into ) {
+        try {
+            file.readFields( rows, field, into );
+        }
+        catch ( IOException e ) {
+            Arrays.fill( into, ProcFile.UNAVAILABLE );
+        }
+    }
+
+    /** Memory in use, not counting the page cache that can be dropped right away - same as the kubelet computes it */
+    protected static long workingSet( final long usage, final long inactiveFile ) {
+        if ( usage < 0 || inactiveFile < 0 ) {
+            return usage;
+        }
+
+        return Math.max( 0, usage - inactiveFile );
+    }
+
+}
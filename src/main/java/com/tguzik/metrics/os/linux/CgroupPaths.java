@@ -0,0 +1,72 @@
+package com.tguzik.metrics.os.linux;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Paths of the groups this process belongs to, one per controller, as listed in the
+ * {@code hierarchy-id:controllers:path} lines of {@code /proc/self/cgroup}. The paths are relative to the root of
+ * each hierarchy as the host sees it.
+ */
+public final class CgroupPaths {
+    /** Controllers listed for the unified hierarchy of cgroup v2 - none */
+    public static final String UNIFIED_HIERARCHY = "";
+
+    private static final int FIELDS = 3;
+
+    private final Map<String, String> paths;
+
+    /** Paths of a process that sits in the root group of each hierarchy */
+    public CgroupPaths() {
+        this.paths = new ConcurrentHashMap<>();
+    }
+
+    /** Reads the paths from given file, the root groups are assumed if it cannot be read */
+    public static CgroupPaths read( final Path selfCgroup ) {
+        final CgroupPaths product = new CgroupPaths();
+
+        try {
+            for ( final String line : Files.readAllLines( selfCgroup, StandardCharsets.US_ASCII ) ) {
+                product.add( line.split( ":", FIELDS ) );
+            }
+        }
+        catch ( IOException e ) {
+            // Not running on Linux, or procfs is not mounted - the root groups are the best guess left
+            product.paths.clear();
+        }
+
+        return product;
+    }
+
+    private void add( final String... fields ) {
+        if ( fields.length == FIELDS ) {
+            for ( final String controller : fields[1].split( ",", -1 ) ) {
+                paths.put( controller, fields[2] );
+            }
+        }
+    }
+
+    /**
+     * Finds the group of given controller under the hierarchy, falling back to the root of the hierarchy if there is
+     * no such directory - inside a container without its own cgroup namespace the listed path is that of the host,
+     * while the group of the container is mounted as the root.
+     *
+     * @param hierarchy where the hierarchy of the controller is mounted
+     */
+    public Path groupOf( final Path hierarchy, final String controller ) {
+        final String path = paths.get( controller );
+
+        if ( path == null ) {
+            return hierarchy;
+        }
+
+        final Path group = hierarchy.resolve( !path.isEmpty() && path.charAt( 0 ) == '/' ? path.substring( 1 ) : path );
+
+        return Files.isDirectory( group ) ? group : hierarchy;
+    }
+
+}
@@ -0,0 +1,85 @@
+package com.tguzik.metrics.os.linux;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import com.tguzik.metrics.os.CgroupCounter;
+import com.tguzik.metrics.os.CgroupReading;
+
+/**
+ * Files of the cgroup v1 {@code memory} and {@code cpu} hierarchies. Version 1 has no pressure stall information and
+ * no count of the times the limit was hit, so those counters are always unavailable.
+ */
+public final class CgroupV1Files extends CgroupFiles {
+    /** The kernel reports "no limit" as the largest page-aligned long, anything this large is not a real limit */
+    private static final long NO_LIMIT = Long.MAX_VALUE / 2;
+
+    private static final byte[][] MEMORY_STAT_KEYS = { key( "total_inactive_file" ) };
+    private static final byte[][] OOM_CONTROL_KEYS = { key( "oom_kill" ) };
+    private static final byte[][] CPU_STAT_KEYS = { key( "nr_periods" ),
+                                                    key( "nr_throttled" ),
+                                                    key( "throttled_time" ) };
+
+    private final ProcFile memoryLimit;
+    private final ProcFile memoryUsage;
+    private final ProcFile memoryStat;
+    private final ProcFile oomControl;
+    private final ProcFile cpuQuota;
+    private final ProcFile cpuPeriod;
+    private final ProcFile cpuStat;
+    private final long[] values;
+
+    public CgroupV1Files( final Path memoryGroup, final Path cpuGroup ) {
+        super();
+
+        this.memoryLimit = new ProcFile( memoryGroup.resolve( "memory.limit_in_bytes" ) );
+        this.memoryUsage = new ProcFile( memoryGroup.resolve( "memory.usage_in_bytes" ) );
+        this.memoryStat = new ProcFile( memoryGroup.resolve( "memory.stat" ) );
+        this.oomControl = new ProcFile( memoryGroup.resolve( "memory.oom_control" ) );
+        this.cpuQuota = new ProcFile( cpuGroup.resolve( "cpu.cfs_quota_us" ) );
+        this.cpuPeriod = new ProcFile( cpuGroup.resolve( "cpu.cfs_period_us" ) );
+        this.cpuStat = new ProcFile( cpuGroup.resolve( "cpu.stat" ) );
+        this.values = new long[CPU_STAT_KEYS.length];
+    }
+
+    @Override
+    public CgroupReading read() {
+        final CgroupReading reading = new CgroupReading( 1 );
+
+        readMemory( reading );
+        readCpu( reading );
+
+        return reading;
+    }
+
+    private void readMemory( final CgroupReading reading ) {
+        readValues( memoryLimit, values );
+        reading.set( CgroupCounter.MEMORY_LIMIT, values[0] >= NO_LIMIT ? CgroupReading.UNAVAILABLE : values[0] );
+
+        readValues( memoryUsage, values );
+        final long usage = values[0];
+        reading.set( CgroupCounter.MEMORY_USAGE, usage );
+
+        readKeyedValues( memoryStat, MEMORY_STAT_KEYS, values );
+        reading.set( CgroupCounter.MEMORY_WORKING_SET, workingSet( usage, values[0] ) );
+
+        readKeyedValues( oomControl, OOM_CONTROL_KEYS, values );
+        reading.set( CgroupCounter.OOM_KILLS, values[0] );
+    }
+
+    /** The quota is -1 when there is none, and the throttled time is in nanoseconds rather than microseconds */
+    private void readCpu( final CgroupReading reading ) {
+        readValues( cpuQuota, values );
+        reading.set( CgroupCounter.CPU_QUOTA, values[0] );
+
+        readValues( cpuPeriod, values );
+        reading.set( CgroupCounter.CPU_PERIOD, values[0] );
+
+        readKeyedValues( cpuStat, CPU_STAT_KEYS, values );
+        reading.set( CgroupCounter.CPU_PERIODS, values[0] );
+        reading.set( CgroupCounter.CPU_THROTTLED_PERIODS, values[1] );
+        reading.set( CgroupCounter.CPU_THROTTLED_TIME,
+                     values[2] < 0 ? CgroupReading.UNAVAILABLE : TimeUnit.NANOSECONDS.toMicros( values[2] ) );
+    }
+
+}
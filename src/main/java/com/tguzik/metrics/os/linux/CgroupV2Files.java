@@ -0,0 +1,99 @@
+package com.tguzik.metrics.os.linux;
+
+import java.nio.file.Path;
+
+import com.tguzik.metrics.os.CgroupCounter;
+import com.tguzik.metrics.os.CgroupReading;
+
+/** Files of the unified cgroup v2 hierarchy, where all controllers share a single directory */
+public final class CgroupV2Files extends CgroupFiles {
+    private static final byte[][] MEMORY_STAT_KEYS = { key( "inactive_file" ) };
+    private static final byte[][] MEMORY_EVENTS_KEYS = { key( "oom" ), key( "oom_kill" ) };
+    private static final byte[][] CPU_STAT_KEYS = { key( "nr_periods" ),
+                                                    key( "nr_throttled" ),
+                                                    key( "throttled_usec" ) };
+    private static final byte[][] PRESSURE_ROWS = { key( "some" ), key( "full" ) };
+    private static final byte[] PRESSURE_TOTAL = key( "total=" );
+
+    private final ProcFile memoryMax;
+    private final ProcFile memoryCurrent;
+    private final ProcFile memoryStat;
+    private final ProcFile memoryEvents;
+    private final ProcFile cpuMax;
+    private final ProcFile cpuStat;
+    private final ProcFile cpuPressure;
+    private final ProcFile memoryPressure;
+    private final ProcFile ioPressure;
+    private final long[] values;
+
+    public CgroupV2Files( final Path group ) {
+        super();
+
+        this.memoryMax = new ProcFile( group.resolve( "memory.max" ) );
+        this.memoryCurrent = new ProcFile( group.resolve( "memory.current" ) );
+        this.memoryStat = new ProcFile( group.resolve( "memory.stat" ) );
+        this.memoryEvents = new ProcFile( group.resolve( "memory.events" ) );
+        this.cpuMax = new ProcFile( group.resolve( "cpu.max" ) );
+        this.cpuStat = new ProcFile( group.resolve( "cpu.stat" ) );
+        this.cpuPressure = new ProcFile( group.resolve( "cpu.pressure" ) );
+        this.memoryPressure = new ProcFile( group.resolve( "memory.pressure" ) );
+        this.ioPressure = new ProcFile( group.resolve( "io.pressure" ) );
+        this.values = new long[CPU_STAT_KEYS.length];
+    }
+
+    @Override
+    public CgroupReading read() {
+        final CgroupReading reading = new CgroupReading( 2 );
+
+        readMemory( reading );
+        readCpu( reading );
+
+        readPressure( cpuPressure, reading, CgroupCounter.CPU_PRESSURE_SOME, CgroupCounter.CPU_PRESSURE_FULL );
+        readPressure( memoryPressure,
+                      reading,
+                      CgroupCounter.MEMORY_PRESSURE_SOME,
+                      CgroupCounter.MEMORY_PRESSURE_FULL );
+        readPressure( ioPressure, reading, CgroupCounter.IO_PRESSURE_SOME, CgroupCounter.IO_PRESSURE_FULL );
+
+        return reading;
+    }
+
+    /** {@code memory.max} says {@code max} when there is no limit, which parses as unavailable */
+    private void readMemory( final CgroupReading reading ) {
+        readValues( memoryMax, values );
+        reading.set( CgroupCounter.MEMORY_LIMIT, values[0] );
+
+        readValues( memoryCurrent, values );
+        final long usage = values[0];
+        reading.set( CgroupCounter.MEMORY_USAGE, usage );
+
+        readKeyedValues( memoryStat, MEMORY_STAT_KEYS, values );
+        reading.set( CgroupCounter.MEMORY_WORKING_SET, workingSet( usage, values[0] ) );
+
+        readKeyedValues( memoryEvents, MEMORY_EVENTS_KEYS, values );
+        reading.set( CgroupCounter.OOM_EVENTS, values[0] );
+        reading.set( CgroupCounter.OOM_KILLS, values[1] );
+    }
+
+    /** {@code cpu.max} holds the quota and the period, with {@code max} in place of the quota when there is none */
+    private void readCpu( final CgroupReading reading ) {
+        readValues( cpuMax, values );
+        reading.set( CgroupCounter.CPU_QUOTA, values[0] );
+        reading.set( CgroupCounter.CPU_PERIOD, values[1] );
+
+        readKeyedValues( cpuStat, CPU_STAT_KEYS, values );
+        reading.set( CgroupCounter.CPU_PERIODS, values[0] );
+        reading.set( CgroupCounter.CPU_THROTTLED_PERIODS, values[1] );
+        reading.set( CgroupCounter.CPU_THROTTLED_TIME, values[2] );
+    }
+
+    private void readPressure( final ProcFile file,
+                               final CgroupReading reading,
+                               final CgroupCounter some,
+                               final CgroupCounter full ) {
+        readFields( file, PRESSURE_ROWS, PRESSURE_TOTAL, values );
+        reading.set( some, values[0] );
+        reading.set( full, values[1] );
+    }
+
+}
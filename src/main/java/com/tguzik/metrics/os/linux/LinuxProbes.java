@@ -0,0 +1,377 @@
+package com.tguzik.metrics.os.linux;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.function.Supplier;
+
+import com.sun.jna.Native;
+import com.sun.jna.platform.linux.LibC;
+import com.tguzik.metrics.os.CgroupReading;
+import com.tguzik.metrics.os.CpuCountersReading;
+import com.tguzik.metrics.os.FileDescriptorsReading;
+import com.tguzik.metrics.os.FileSystemCounter;
+import com.tguzik.metrics.os.FileSystemReading;
+import com.tguzik.metrics.os.MemoryReading;
+import com.tguzik.metrics.os.OshiProbes;
+import com.tguzik.metrics.os.VirtualMemoryReading;
+import io.vavr.Lazy;
+import oshi.SystemInfo;
+import oshi.software.os.InternetProtocolStats.TcpStats;
+import oshi.software.os.InternetProtocolStats.UdpStats;
+
+/**
+ * Reads the counters that get refreshed on every scrape straight from {@code /proc}, parsing the numbers in place
+ * instead of going through oshi's line splitting and regular expressions (or, in case of TCP and UDP statistics,
+ * running {@code netstat}). Everything else, as well as any file that cannot be read, falls back to oshi.
+ * <p>
+ * The counters of the control group this library runs in are read from the cgroup filesystem (see
+ * {@link CgroupFiles}), which oshi does not cover at all.
+ * <p>
+ * The mount points are listed from the kernel's mount table (see {@link MountTable}), and the usage of each mount is
+ * read with a single {@code statvfs(3)} call - oshi can only read all of the mounts at once.
+ * <p>
+ * There are no IPv6 TCP counters to read: the kernel keeps a single TCP MIB for both protocol versions, counted in the
+ * {@code Tcp} row of {@code /proc/net/snmp}, and {@code /proc/net/snmp6} has no {@code Tcp6} lines. The IPv6 TCP
+ * statistics are left to oshi, which reports them as zeros on Linux.
+ * <p>
+ * The proc and cgroup roots are configurable, so that this class can be pointed at a copy of the files.
+ */
+public class LinuxProbes extends OshiProbes {
+    public static final Path DEFAULT_PROC_ROOT = Paths.get( "/proc" );
+
+    private static final long KIBIBYTE = 1024L;
+
+    private static final byte[][] STAT_KEYS = { key( "intr" ), key( "ctxt" ) };
+    private static final int STAT_INTERRUPTS = 0;
+    private static final int STAT_CONTEXT_SWITCHES = 1;
+
+    private static final byte[] CPU = key( "cpu" );
+
+    private static final byte[][] MEMINFO_KEYS = { key( "MemTotal" ),
+                                                   key( "MemAvailable" ),
+                                                   key( "MemFree" ),
+                                                   key( "Active(file)" ),
+                                                   key( "Inactive(file)" ),
+                                                   key( "SReclaimable" ),
+                                                   key( "SwapTotal" ),
+                                                   key( "SwapFree" ),
+                                                   key( "CommitLimit" ) };
+    private static final int MEMINFO_TOTAL = 0;
+    private static final int MEMINFO_AVAILABLE = 1;
+    private static final int MEMINFO_FREE = 2;
+    private static final int MEMINFO_ACTIVE_FILE = 3;
+    private static final int MEMINFO_INACTIVE_FILE = 4;
+    private static final int MEMINFO_RECLAIMABLE = 5;
+    private static final int MEMINFO_SWAP_TOTAL = 6;
+    private static final int MEMINFO_SWAP_FREE = 7;
+    private static final int MEMINFO_COMMIT_LIMIT = 8;
+    private static final int[] MEMINFO_AVAILABLE_ESTIMATE = { MEMINFO_FREE,
+                                                               MEMINFO_ACTIVE_FILE,
+                                                               MEMINFO_INACTIVE_FILE,
+                                                               MEMINFO_RECLAIMABLE };
+
+    // Same order as the arguments of the TcpStats constructor
+    private static final byte[] TCP = key( "Tcp" );
+    private static final byte[][] TCP_COLUMNS = { key( "CurrEstab" ),
+                                                  key( "ActiveOpens" ),
+                                                  key( "PassiveOpens" ),
+                                                  key( "AttemptFails" ),
+                                                  key( "EstabResets" ),
+                                                  key( "OutSegs" ),
+                                                  key( "InSegs" ),
+                                                  key( "RetransSegs" ),
+                                                  key( "InErrs" ),
+                                                  key( "OutRsts" ) };
+
+    // Same order as the arguments of the UdpStats constructor
+    private static final byte[] UDP = key( "Udp" );
+    private static final byte[][] UDP_COLUMNS = { key( "OutDatagrams" ),
+                                                  key( "InDatagrams" ),
+                                                  key( "NoPorts" ),
+                                                  key( "InErrors" ) };
+    private static final byte[][] UDP6_KEYS = { key( "Udp6OutDatagrams" ),
+                                                key( "Udp6InDatagrams" ),
+                                                key( "Udp6NoPorts" ),
+                                                key( "Udp6InErrors" ) };
+
+    private static final int FILE_NR_OPEN = 0;
+    private static final int FILE_NR_MAX = 2;
+
+    private final Lazy<CgroupFiles> cgroup;
+    private final Lazy<Long> pageSize;
+    private final ProcFile stat;
+    private final ProcFile meminfo;
+    private final ProcFile snmp;
+    private final ProcFile snmp6;
+    private final ProcFile fileNr;
+    private final MountTable mountTable;
+
+    public LinuxProbes( final SystemInfo systemInfo, final Path procRoot ) {
+        this( () -> systemInfo, procRoot );
+    }
+
+    /** @param systemInfo called at most once, on first read of a value that is not available in {@code /proc} */
+    public LinuxProbes( final Supplier<SystemInfo> systemInfo, final Path procRoot ) {
+        this( systemInfo, procRoot, CgroupFiles.DEFAULT_ROOT );
+    }
+
+    /**
+     * @param cgroupRoot where the cgroup filesystem is mounted, its layout and the group of this process (listed in
+     *     {@code self/cgroup} of the proc root) are detected on first read
+     */
+    public LinuxProbes( final Supplier<SystemInfo> systemInfo, final Path procRoot, final Path cgroupRoot ) {
+        super( systemInfo );
+
+        this.cgroup = Lazy.of( () -> CgroupFiles.detect( cgroupRoot, procRoot.resolve( "self/cgroup" ) ) );
+        this.pageSize = Lazy.of( () -> getHardware().getMemory().getPageSize() );
+        this.stat = new ProcFile( procRoot.resolve( "stat" ) );
+        this.meminfo = new ProcFile( procRoot.resolve( "meminfo" ) );
+        this.snmp = new ProcFile( procRoot.resolve( "net/snmp" ) );
+        this.snmp6 = new ProcFile( procRoot.resolve( "net/snmp6" ) );
+        this.fileNr = new ProcFile( procRoot.resolve( "sys/fs/file-nr" ) );
+        this.mountTable = new MountTable( procRoot.resolve( "self/mounts" ) );
+    }
+
+    /** Checks whether given directory looks like a mounted procfs */
+    public static boolean isSupported( final Path procRoot ) {
+        return Files.isReadable( procRoot.resolve( "stat" ) ) && Files.isReadable( procRoot.resolve( "meminfo" ) );
+    }
+
+    @Override
+    public TcpStats getTcpV4Stats() {
+        final long[] values = new long[TCP_COLUMNS.length];
+
+        try {
+            synchronized ( snmp ) {
+                snmp.readTableRow( TCP, TCP_COLUMNS, values );
+            }
+        }
+        catch ( IOException e ) {
+            return super.getTcpV4Stats();
+        }
+
+        return new TcpStats( values[0],
+                             values[1],
+                             values[2],
+                             values[3],
+                             values[4],
+                             values[5],
+                             values[6],
+                             values[7],
+                             values[8],
+                             values[9] );
+    }
+
+    @Override
+    public UdpStats getUdpV4Stats() {
+        final long[] values = new long[UDP_COLUMNS.length];
+
+        try {
+            synchronized ( snmp ) {
+                snmp.readTableRow( UDP, UDP_COLUMNS, values );
+            }
+        }
+        catch ( IOException e ) {
+            return super.getUdpV4Stats();
+        }
+
+        return new UdpStats( values[0], values[1], values[2], values[3] );
+    }
+
+    @Override
+    public UdpStats getUdpV6Stats() {
+        final long[] values = new long[UDP6_KEYS.length];
+
+        try {
+            synchronized ( snmp6 ) {
+                snmp6.readKeyedValues( UDP6_KEYS, values );
+            }
+        }
+        catch ( IOException e ) {
+            return super.getUdpV6Stats();
+        }
+
+        return new UdpStats( values[0], values[1], values[2], values[3] );
+    }
+
+    @Override
+    public MemoryReading getMemory() {
+        final long[] values = new long[MEMINFO_KEYS.length];
+
+        try {
+            synchronized ( meminfo ) {
+                meminfo.readKeyedValues( MEMINFO_KEYS, values );
+            }
+        }
+        catch ( IOException e ) {
+            return super.getMemory();
+        }
+
+        return new MemoryReading( kibibytes( values[MEMINFO_TOTAL] ), available( values ), pageSize.get() );
+    }
+
+    /**
+     * Reads {@code /proc/meminfo} again instead of sharing the read of {@link #getMemory()}: the two readings back
+     * separate snapshots, which are refreshed (and backed off) on their own, and the probes keep no readings between
+     * calls to tell whether the previous read is still recent enough.
+     */
+    @Override
+    public VirtualMemoryReading getVirtualMemory() {
+        final long[] values = new long[MEMINFO_KEYS.length];
+
+        try {
+            synchronized ( meminfo ) {
+                meminfo.readKeyedValues( MEMINFO_KEYS, values );
+            }
+        }
+        catch ( IOException e ) {
+            return super.getVirtualMemory();
+        }
+
+        final long swapTotal = kibibytes( values[MEMINFO_SWAP_TOTAL] );
+        final long swapUsed = difference( swapTotal, kibibytes( values[MEMINFO_SWAP_FREE] ) );
+        final long inUse = difference( kibibytes( values[MEMINFO_TOTAL] ), available( values ) );
+        final long virtualInUse = inUse < 0 || swapUsed < 0 ? ProcFile.UNAVAILABLE : inUse + swapUsed;
+
+        return new VirtualMemoryReading( swapTotal, swapUsed, kibibytes( values[MEMINFO_COMMIT_LIMIT] ), virtualInUse );
+    }
+
+    @Override
+    public CpuCountersReading getCpuCounters() {
+        final long[] values = new long[STAT_KEYS.length];
+
+        try {
+            synchronized ( stat ) {
+                stat.readKeyedValues( STAT_KEYS, values );
+            }
+        }
+        catch ( IOException e ) {
+            return super.getCpuCounters();
+        }
+
+        return new CpuCountersReading( values[STAT_INTERRUPTS], values[STAT_CONTEXT_SWITCHES] );
+    }
+
+    /** Counted from {@code /proc/stat}, so that sizing the per-processor gauges does not initialize oshi */
+    @Override
+    public int getLogicalProcessorCount() {
+        try {
+            synchronized ( stat ) {
+                return stat.countIndexedRows( CPU );
+            }
+        }
+        catch ( IOException e ) {
+            return super.getLogicalProcessorCount();
+        }
+    }
+
+    /** The tick columns in /proc/stat are in the same order as oshi's TickType */
+    @Override
+    public void readCpuTicks( final long[][] into ) {
+        try {
+            synchronized ( stat ) {
+                stat.readIndexedRows( CPU, into );
+            }
+        }
+        catch ( IOException e ) {
+            super.readCpuTicks( into );
+        }
+    }
+
+    @Override
+    public FileDescriptorsReading getFileDescriptors() {
+        final long[] values = new long[FILE_NR_MAX + 1];
+
+        try {
+            synchronized ( fileNr ) {
+                fileNr.readValues( values );
+            }
+        }
+        catch ( IOException e ) {
+            return super.getFileDescriptors();
+        }
+
+        return new FileDescriptorsReading( values[FILE_NR_OPEN], values[FILE_NR_MAX] );
+    }
+
+    @Override
+    public CgroupReading getCgroup() {
+        final CgroupFiles files = cgroup.get();
+
+        if ( files == null ) {
+            return null;
+        }
+
+        synchronized ( files ) {
+            return files.read();
+        }
+    }
+
+    @Override
+    public List<String> getMountPoints() {
+        try {
+            return mountTable.read();
+        }
+        catch ( IOException e ) {
+            return super.getMountPoints();
+        }
+    }
+
+    @Override
+    public FileSystemReading getFileSystem( final String mountPoint ) {
+        final LibC.Statvfs stats = new LibC.Statvfs();
+
+        if ( LibC.INSTANCE.statvfs( mountPoint, stats ) != 0 ) {
+            throw new IllegalStateException( "statvfs of " + mountPoint + " failed, errno " + Native.getLastError() );
+        }
+
+        final long fragmentSize = stats.f_frsize.longValue();
+        final FileSystemReading reading = new FileSystemReading();
+
+        reading.set( FileSystemCounter.SPACE_TOTAL, stats.f_blocks.longValue() * fragmentSize );
+        reading.set( FileSystemCounter.SPACE_FREE, stats.f_bfree.longValue() * fragmentSize );
+        reading.set( FileSystemCounter.SPACE_USABLE, stats.f_bavail.longValue() * fragmentSize );
+        reading.set( FileSystemCounter.INODES_TOTAL, stats.f_files.longValue() );
+        reading.set( FileSystemCounter.INODES_FREE, stats.f_ffree.longValue() );
+
+        return reading;
+    }
+
+    /** Encodes the key the same way the kernel writes it */
+    private static byte[] key( final String key ) {
+        return key.getBytes( StandardCharsets.US_ASCII );
+    }
+
+    /** Same fallback as oshi uses on kernels older than 3.14, which do not report MemAvailable */
+    @SuppressWarnings( "PMD.UseVarargs" ) // Reads the parsed meminfo, not a list of values
+    private static long available( final long[] meminfo ) {
+        if ( meminfo[MEMINFO_AVAILABLE] >= 0 ) {
+            return kibibytes( meminfo[MEMINFO_AVAILABLE] );
+        }
+
+        long available = 0;
+
+        for ( final int addend : MEMINFO_AVAILABLE_ESTIMATE ) {
+            if ( meminfo[addend] < 0 ) {
+                return ProcFile.UNAVAILABLE;
+            }
+
+            available += kibibytes( meminfo[addend] );
+        }
+
+        return available;
+    }
+
+    private static long difference( final long minuend, final long subtrahend ) {
+        return minuend < 0 || subtrahend < 0 ? ProcFile.UNAVAILABLE : minuend - subtrahend;
+    }
+
+    private static long kibibytes( final long value ) {
+        return value < 0 ? ProcFile.UNAVAILABLE : value * KIBIBYTE;
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.tguzik.metrics.os.linux;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This class is meant to list the mount points from {@code /proc/self/mounts}. The file is generated by the kernel
+ * from its own mount table, so reading it never touches the mounted file systems - unlike oshi's file store listing,
+ * which queries the usage of every mount along the way and hangs along with the first dead one.
+ * <p>
+ * Kernel interfaces and other pseudo file systems, which do not take any space, are left out. A mount point mounted
+ * over more than once is listed once.
+ */
+public final class MountTable {
+    private static final Set<String> PSEUDO_TYPES = Collections.unmodifiableSet( new HashSet<>( Arrays.asList(
+        "autofs", "binfmt_misc", "bpf", "cgroup", "cgroup2", "configfs", "debugfs", "devpts", "efivarfs", "fusectl",
+        "hugetlbfs", "mqueue", "nsfs", "proc", "pstore", "rpc_pipefs", "securityfs", "selinuxfs", "sysfs",
+        "tracefs" ) ) );
+
+    private static final int OCTAL_ESCAPE_LENGTH = 4;
+    private static final int OCTAL = 8;
+
+    private final Path file;
+
+    public MountTable( final Path file ) {
+        this.file = file;
+    }
+
+    /** Mount points in the order they were mounted in */
+    public List<String> read() throws IOException {
+        final Set<String> product = new LinkedHashSet<>();
+
+        for ( final String line : Files.readAllLines( file, StandardCharsets.UTF_8 ) ) {
+            final int mountPointStart = line.indexOf( ' ' ) + 1;
+            final int typeStart = mountPointStart > 0 ? line.indexOf( ' ', mountPointStart ) + 1 : 0;
+
+            if ( typeStart > 0 && !PSEUDO_TYPES.contains( field( line, typeStart ) ) ) {
+                product.add( unescape( field( line, mountPointStart ) ) );
+            }
+        }
+
+        return new ArrayList<>( product );
+    }
+
+    /** Field starting at given index - the fields are separated by single spaces, the spaces within are escaped */
+    private static String field( final String line, final int start ) {
+        final int end = line.indexOf( ' ', start );
+
+        return end < 0 ? line.substring( start ) : line.substring( start, end );
+    }
+
+    /** The kernel writes spaces, tabs, newlines and backslashes as octal escapes, like {@code \040} */
+    private static String unescape( final String field ) {
+        if ( field.indexOf( '\\' ) < 0 ) {
+            return field;
+        }
+
+        final StringBuilder product = new StringBuilder( field.length() );
+        int i = 0;
+
+        while ( i < field.length() ) {
+            if ( isOctalEscape( field, i ) ) {
+                product.append( (char) Integer.parseInt( field.substring( i + 1, i + OCTAL_ESCAPE_LENGTH ), OCTAL ) );
+                i += OCTAL_ESCAPE_LENGTH;
+            }
+            else {
+                product.append( field.charAt( i ) );
+                i++;
+            }
+        }
+
+        return product.toString();
+    }
+
+    private static boolean isOctalEscape( final String field, final int index ) {
+        if ( field.charAt( index ) != '\\' || index + OCTAL_ESCAPE_LENGTH > field.length() ) {
+            return false;
+        }
+
+        for ( int i = index + 1; i < index + OCTAL_ESCAPE_LENGTH; i++ ) {
+            if ( field.charAt( i ) < '0' || field.charAt( i ) > '7' ) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+}
@@ -0,0 +1,220 @@
+package com.tguzik.metrics.os.linux;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * This class is meant to package a single file from {@code /proc} together with the buffer it is read into, and the
+ * knowledge of the few layouts used by the kernel. Re-reading the file does not create any strings or lines - the
+ * only allocation left is the file channel itself.
+ * <p>
+ * Whenever a requested value cannot be found in the file, {@link #UNAVAILABLE} is stored in its place.
+ * <p>
+ * Not thread safe - callers are expected to synchronize on the instance.
+ */
+@SuppressWarnings( "PMD.UseVarargs" ) // Every reader fills a buffer allocated up front by the caller
+public final class ProcFile {
+    public static final long UNAVAILABLE = AsciiBuffer.UNAVAILABLE;
+
+    private final AsciiBuffer text;
+    private final Path path;
+
+    public ProcFile( final Path path ) {
+        this.path = Objects.requireNonNull( path );
+        this.text = new AsciiBuffer();
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Reads files consisting of {@code key value} lines, like {@code /proc/meminfo} or {@code /proc/stat}. The key
+     * ends at the first whitespace or colon, the value is the first number after it.
+     *
+     * @param keys keys to look for
+     * @param into where to store the values, at the same indexes as the keys
+     */
+    public void readKeyedValues( final byte[][] keys, final long[] into ) throws IOException {
+        text.readFrom( path );
+        Arrays.fill( into, UNAVAILABLE );
+
+        while ( text.hasRemaining() ) {
+            final int start = text.nextToken();
+            final int key = text.indexOf( keys, start, text.getPosition() );
+            if ( key >= 0 ) {
+                into[key] = text.parseLong();
+            }
+
+            text.skipLine();
+        }
+    }
+
+    /**
+     * Reads files consisting of pairs of lines - header followed by values - sharing the same prefix, like
+     * {@code /proc/net/snmp}.
+     *
+     * @param prefix first token of both lines, without the colon
+     * @param columns header columns to look for
+     * @param into where to store the values, at the same indexes as the columns
+     */
+    public void readTableRow( final byte[] prefix, final byte[][] columns, final long[] into ) throws IOException {
+        text.readFrom( path );
+        Arrays.fill( into, UNAVAILABLE );
+
+        int header = -1;
+        int values = -1;
+
+        while ( values < 0 && text.hasRemaining() ) {
+            final int start = text.nextToken();
+
+            if ( text.matches( prefix, start, text.getPosition() ) ) {
+                if ( header < 0 ) {
+                    header = text.getPosition();
+                }
+                else {
+                    values = text.getPosition();
+                }
+            }
+
+            text.skipLine();
+        }
+
+        if ( values < 0 ) {
+            return;
+        }
+
+        for ( ; ; ) {
+            text.setPosition( header );
+            final int start = text.nextToken();
+            header = text.getPosition();
+
+            if ( start == header ) {
+                return;
+            }
+
+            text.setPosition( values );
+            final long value = text.parseLong();
+            values = text.getPosition();
+
+            final int column = text.indexOf( columns, start, header );
+            if ( column >= 0 ) {
+                into[column] = value;
+            }
+        }
+    }
+
+    /**
+     * Reads files consisting of rows of numbers, identified by a prefix followed by an optional index - like the
+     * {@code cpu}, {@code cpu0}, {@code cpu1}... lines in {@code /proc/stat}. The row without an index is stored first,
+     * the indexed rows after it. Rows which do not fit in the array are skipped.
+     *
+     * @param prefix the part of the first token that is common to all rows
+     * @param into where to store the values, one array per row
+     */
+    public void readIndexedRows( final byte[] prefix, final long[][] into ) throws IOException {
+        text.readFrom( path );
+
+        for ( final long[] row : into ) {
+            Arrays.fill( row, UNAVAILABLE );
+        }
+
+        while ( text.hasRemaining() ) {
+            final int row = rowOf( prefix, text.nextToken(), text.getPosition() );
+            if ( row >= 0 && row < into.length ) {
+                text.parseLongs( into[row] );
+            }
+
+            text.skipLine();
+        }
+    }
+
+    /**
+     * Counts the indexed rows in the same kind of files as {@link #readIndexedRows} does.
+     *
+     * @param prefix the part of the first token that is common to all rows
+     * @return highest index found plus one, so that every indexed row fits in an array of that size
+     */
+    public int countIndexedRows( final byte[] prefix ) throws IOException {
+        text.readFrom( path );
+
+        int count = 0;
+
+        while ( text.hasRemaining() ) {
+            count = Math.max( count, rowOf( prefix, text.nextToken(), text.getPosition() ) );
+            text.skipLine();
+        }
+
+        return count;
+    }
+
+    /**
+     * Reads files consisting of rows of {@code name=value} fields, identified by their first token - like the
+     * {@code some} and {@code full} rows of the pressure stall information ({@code cpu.pressure}, {@code io.pressure}).
+     *
+     * @param rows first tokens of the rows to look for
+     * @param field name of the field including the equals sign, like {@code total=}
+     * @param into where to store the values of the field, at the same indexes as the rows
+     */
+    public void readFields( final byte[][] rows, final byte[] field, final long[] into ) throws IOException {
+        text.readFrom( path );
+        Arrays.fill( into, UNAVAILABLE );
+
+        while ( text.hasRemaining() ) {
+            final int row = text.indexOf( rows, text.nextToken(), text.getPosition() );
+            if ( row >= 0 ) {
+                into[row] = parseField( field );
+            }
+
+            text.skipLine();
+        }
+    }
+
+    /**
+     * Reads files consisting of a single line of numbers, like {@code /proc/sys/fs/file-nr}.
+     *
+     * @param into where to store the values, in order of appearance
+     */
+    public void readValues( final long[] into ) throws IOException {
+        text.readFrom( path );
+        text.parseLongs( into );
+    }
+
+    /** @return value of the first field on the current line with given name, {@link #UNAVAILABLE} if there is none */
+    private long parseField( final byte[] field ) {
+        while ( !text.isEndOfLine() ) {
+            final int start = text.nextToken();
+
+            if ( text.getPosition() - start > field.length && text.matches( field, start, start + field.length ) ) {
+                text.setPosition( start + field.length );
+                return text.parseLong();
+            }
+        }
+
+        return UNAVAILABLE;
+    }
+
+    /**
+     * @return 0 if the token is exactly the prefix, index + 1 if the token is the prefix followed by an index, -1
+     *         otherwise. The cursor is left at the end of the token.
+     */
+    private int rowOf( final byte[] prefix, final int start, final int end ) {
+        if ( end - start < prefix.length || !text.matches( prefix, start, start + prefix.length ) ) {
+            return -1;
+        }
+
+        if ( end - start == prefix.length ) {
+            return 0;
+        }
+
+        text.setPosition( start + prefix.length );
+        final long index = text.parseLong();
+        final boolean wholeToken = text.getPosition() == end;
+        text.setPosition( end );
+
+        return wholeToken && index >= 0 && index < Integer.MAX_VALUE ? (int) index + 1 : -1;
+    }
+
+}
@@ -0,0 +1,4 @@
+@ParametersAreNonnullByDefault
+package com.tguzik.metrics.os.linux;
+
+import javax.annotation.ParametersAreNonnullByDefault;
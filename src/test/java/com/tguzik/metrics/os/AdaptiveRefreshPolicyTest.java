@@ -0,0 +1,77 @@
+package com.tguzik.metrics.os;
+
+import static com.tguzik.metrics.os.LoadListener.Outcome.FAILED;
+import static com.tguzik.metrics.os.LoadListener.Outcome.LOADED;
+import static com.tguzik.metrics.os.LoadListener.Outcome.NULL;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class AdaptiveRefreshPolicyTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos( 1 );
+    private static final long MILLISECOND = TimeUnit.MILLISECONDS.toNanos( 1 );
+
+    @Test
+    void cheap_successful_loads_keep_the_base_timeout() {
+        final AdaptiveRefreshPolicy policy = new AdaptiveRefreshPolicy( SECOND, 60 * SECOND, 0.01, 3, 10 );
+
+        assertThat( policy.nextTimeoutNanos( LOADED, MILLISECOND ) ).isEqualTo( SECOND );
+        assertThat( policy.nextTimeoutNanos( LOADED, 10 * MILLISECOND ) ).isEqualTo( SECOND );
+    }
+
+    @Test
+    void expensive_loads_stretch_the_timeout_to_fit_the_budget() {
+        final AdaptiveRefreshPolicy policy = new AdaptiveRefreshPolicy( SECOND, 60 * SECOND, 0.01, 3, 10 );
+
+        assertThat( policy.nextTimeoutNanos( LOADED, 50 * MILLISECOND ) ).isEqualTo( 5 * SECOND );
+        assertThat( policy.nextTimeoutNanos( LOADED, SECOND ) ).isEqualTo( 60 * SECOND );
+        assertThat( policy.nextTimeoutNanos( LOADED, MILLISECOND ) ).isEqualTo( SECOND );
+    }
+
+    @Test
+    void backs_off_exponentially_after_consecutive_misses() {
+        final AdaptiveRefreshPolicy policy = new AdaptiveRefreshPolicy( SECOND, 60 * SECOND, 0, 2, 0 );
+
+        assertThat( policy.nextTimeoutNanos( FAILED, 0 ) ).isEqualTo( SECOND );
+        assertThat( policy.nextTimeoutNanos( NULL, 0 ) ).isEqualTo( 2 * SECOND );
+        assertThat( policy.nextTimeoutNanos( FAILED, 0 ) ).isEqualTo( 4 * SECOND );
+        assertThat( policy.nextTimeoutNanos( FAILED, 0 ) ).isEqualTo( 8 * SECOND );
+
+        for ( int i = 0; i < 100; i++ ) {
+            policy.nextTimeoutNanos( FAILED, 0 );
+        }
+
+        assertThat( policy.nextTimeoutNanos( FAILED, 0 ) ).isEqualTo( 60 * SECOND );
+    }
+
+    @Test
+    void successful_load_resets_the_backoff() {
+        final AdaptiveRefreshPolicy policy = new AdaptiveRefreshPolicy( SECOND, 60 * SECOND, 0, 1, 0 );
+
+        policy.nextTimeoutNanos( FAILED, 0 );
+        policy.nextTimeoutNanos( FAILED, 0 );
+
+        assertThat( policy.nextTimeoutNanos( LOADED, 0 ) ).isEqualTo( SECOND );
+        assertThat( policy.getConsecutiveMisses() ).isZero();
+        assertThat( policy.nextTimeoutNanos( FAILED, 0 ) ).isEqualTo( 2 * SECOND );
+    }
+
+    @Test
+    void disables_the_source_after_too_many_misses() {
+        final AdaptiveRefreshPolicy policy = new AdaptiveRefreshPolicy( SECOND, 60 * SECOND, 0, 0, 3 );
+
+        assertThat( policy.nextTimeoutNanos( NULL, 0 ) ).isEqualTo( SECOND );
+        assertThat( policy.nextTimeoutNanos( NULL, 0 ) ).isEqualTo( SECOND );
+        assertThat( policy.nextTimeoutNanos( NULL, 0 ) ).isEqualTo( RefreshPolicy.NEVER );
+    }
+
+    @Test
+    void rejects_max_timeout_below_the_base_one() {
+        assertThatThrownBy( () -> new AdaptiveRefreshPolicy( SECOND, MILLISECOND, 0, 0, 0 ) )
+            .isInstanceOf( IllegalArgumentException.class );
+    }
+
+}
@@ -0,0 +1,181 @@
+package com.tguzik.metrics.os;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class BackgroundSamplerTest {
+    private ScheduledExecutorService executor;
+    private ScheduledFuture<?> future;
+    private AtomicInteger invocations;
+    private CachedSnapshot<Integer> snapshot;
+    private ManualClock clock;
+    private BackgroundSampler sampler;
+
+    @BeforeEach
+    void setUp() {
+        this.executor = mock( ScheduledExecutorService.class );
+        this.future = mock( ScheduledFuture.class );
+        this.invocations = new AtomicInteger();
+        this.clock = new ManualClock();
+        this.snapshot = new CachedSnapshot<>( "test", clock, 1, TimeUnit.SECONDS, invocations::incrementAndGet );
+        this.sampler = new BackgroundSampler( ImmutableList.of( snapshot ), executor, 1, TimeUnit.SECONDS );
+
+        doReturn( future ).when( executor ).scheduleWithFixedDelay( any(), anyLong(), anyLong(), any() );
+    }
+
+    @AfterEach
+    void tearDown() {
+        sampler.close();
+    }
+
+    @Test
+    void start_schedules_sampling_and_takes_over_the_refreshes() {
+        sampler.start();
+
+        verify( executor ).scheduleWithFixedDelay( any(), eq( 0L ), eq( 1L ), eq( TimeUnit.SECONDS ) );
+        assertThat( sampler.isRunning() ).isTrue();
+        assertThat( snapshot.isRefreshedInBackground() ).isTrue();
+    }
+
+    @Test
+    void reading_never_calls_the_supplier_while_sampled_in_background() {
+        sampler.start();
+
+        assertThat( snapshot.get() ).isNull();
+        clock.advance( 1, TimeUnit.HOURS );
+        assertThat( snapshot.get() ).isNull();
+
+        assertThat( invocations ).hasValue( 0 );
+    }
+
+    @Test
+    void scheduled_task_refreshes_expired_snapshots_once_they_get_read() {
+        final ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass( Runnable.class );
+        sampler.start();
+        verify( executor ).scheduleWithFixedDelay( task.capture(), anyLong(), anyLong(), any() );
+
+        task.getValue().run();
+        assertThat( snapshot.get() ).isNull();
+        assertThat( invocations ).hasValue( 0 );
+
+        task.getValue().run();
+        assertThat( snapshot.get() ).isEqualTo( 1 );
+
+        task.getValue().run();
+        assertThat( snapshot.get() ).isEqualTo( 1 );
+
+        clock.advance( 1, TimeUnit.SECONDS );
+        task.getValue().run();
+        assertThat( snapshot.get() ).isEqualTo( 2 );
+    }
+
+    @Test
+    void keeps_sampling_when_a_listener_or_a_snapshot_throws() {
+        final CachedSnapshot<Integer> broken = new CachedSnapshot<>( "broken", clock, 1, TimeUnit.SECONDS, () -> 1 );
+        final BackgroundSampler both = new BackgroundSampler( ImmutableList.of( broken, snapshot ),
+                                                              executor,
+                                                              1,
+                                                              TimeUnit.SECONDS );
+        final AtomicInteger notifications = new AtomicInteger();
+
+        broken.setRefreshPolicy( ( outcome, loadNanos ) -> {
+            throw new IllegalStateException( "broken policy" );
+        } );
+        broken.addListener( ( value, tick ) -> {
+        } );
+        snapshot.addListener( ( value, tick ) -> {
+            throw new IllegalArgumentException( "metric already exists" );
+        } );
+        snapshot.addListener( ( value, tick ) -> notifications.incrementAndGet() );
+
+        both.sample();
+        clock.advance( 1, TimeUnit.SECONDS );
+        both.sample();
+
+        assertThat( snapshot.get() ).isEqualTo( 2 );
+        assertThat( notifications ).hasValue( 2 );
+    }
+
+    @Test
+    void close_cancels_sampling_and_reverts_to_refreshing_on_read() {
+        sampler.start();
+        sampler.close();
+
+        verify( future ).cancel( false );
+        assertThat( sampler.isRunning() ).isFalse();
+        assertThat( snapshot.isRefreshedInBackground() ).isFalse();
+        assertThat( snapshot.get() ).isEqualTo( 1 );
+    }
+
+    @Test
+    void readers_get_the_previous_value_while_a_slow_refresh_is_in_progress() throws Exception {
+        final CountDownLatch loading = new CountDownLatch( 1 );
+        final CountDownLatch release = new CountDownLatch( 1 );
+        final AtomicInteger slowInvocations = new AtomicInteger();
+        final CachedSnapshot<Integer> slow = new CachedSnapshot<>( "slow", clock, 1, TimeUnit.SECONDS, () -> {
+            if ( slowInvocations.incrementAndGet() > 1 ) {
+                loading.countDown();
+                awaitQuietly( release );
+            }
+            return slowInvocations.get();
+        } );
+        final BackgroundSampler slowSampler = new BackgroundSampler( ImmutableList.of( slow ),
+                                                                     executor,
+                                                                     1,
+                                                                     TimeUnit.SECONDS );
+        final ExecutorService samplerThread = Executors.newSingleThreadExecutor();
+
+        try {
+            slowSampler.start();
+            slow.get();
+            slowSampler.sample();
+            assertThat( slow.get() ).isEqualTo( 1 );
+
+            clock.advance( 1, TimeUnit.SECONDS );
+            final Future<?> refresh = samplerThread.submit( slowSampler::sample );
+            assertThat( loading.await( 5, TimeUnit.SECONDS ) ).isTrue();
+
+            // The refresh is stuck in the "OS call", yet reading does not block
+            assertThat( slow.get() ).isEqualTo( 1 );
+
+            release.countDown();
+            refresh.get( 5, TimeUnit.SECONDS );
+            assertThat( slow.get() ).isEqualTo( 2 );
+        }
+        finally {
+            release.countDown();
+            slowSampler.close();
+            samplerThread.shutdownNow();
+        }
+    }
+
+    private static void awaitQuietly( final CountDownLatch latch ) {
+        try {
+            latch.await( 5, TimeUnit.SECONDS );
+        }
+        catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,143 @@
+package com.tguzik.metrics.os;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CachedSnapshotTest {
+    private AtomicInteger invocations;
+    private ManualClock clock;
+
+    @BeforeEach
+    void setUp() {
+        this.invocations = new AtomicInteger();
+        this.clock = new ManualClock();
+    }
+
+    private CachedSnapshot<Integer> snapshotOf( final Runnable sideEffect ) {
+        return new CachedSnapshot<>( "test", clock, 1, TimeUnit.SECONDS, () -> {
+            sideEffect.run();
+            return invocations.incrementAndGet();
+        } );
+    }
+
+    @Test
+    void calls_the_supplier_once_per_cache_timeout() {
+        final CachedSnapshot<Integer> snapshot = snapshotOf( () -> {} );
+
+        assertThat( snapshot.get() ).isEqualTo( 1 );
+        assertThat( snapshot.get() ).isEqualTo( 1 );
+
+        clock.advance( 999, TimeUnit.MILLISECONDS );
+        assertThat( snapshot.get() ).isEqualTo( 1 );
+
+        clock.advance( 1, TimeUnit.MILLISECONDS );
+        assertThat( snapshot.get() ).isEqualTo( 2 );
+        assertThat( snapshot.get() ).isEqualTo( 2 );
+
+        assertThat( invocations ).hasValue( 2 );
+    }
+
+    @Test
+    void loads_when_the_ticks_are_negative() {
+        this.clock = new ManualClock( -TimeUnit.DAYS.toNanos( 1 ) );
+        final CachedSnapshot<Integer> snapshot = snapshotOf( () -> {} );
+
+        assertThat( snapshot.get() ).isEqualTo( 1 );
+    }
+
+    @Test
+    void holds_a_null_when_the_supplier_throws() {
+        final CachedSnapshot<Integer> snapshot = snapshotOf( () -> {
+            throw new IllegalStateException( "not on this OS" );
+        } );
+
+        assertThat( snapshot.get() ).isNull();
+        assertThat( snapshot.get() ).isNull();
+
+        assertThat( invocations ).hasValue( 0 );
+    }
+
+    @Test
+    void exposes_the_name() {
+        assertThat( snapshotOf( () -> {} ).getName() ).isEqualTo( "test" );
+    }
+
+    @Test
+    void notifies_listeners_about_successful_refreshes_only() {
+        final List<String> notifications = new ArrayList<>();
+        final AtomicInteger failures = new AtomicInteger( 1 );
+        final CachedSnapshot<Integer> snapshot = snapshotOf( () -> {
+            if ( failures.getAndDecrement() > 0 ) {
+                throw new IllegalStateException( "first one fails" );
+            }
+        } );
+
+        snapshot.addListener( ( value, tick ) -> notifications.add( value + "@" + tick ) );
+
+        snapshot.get();
+        clock.advance( 1, TimeUnit.SECONDS );
+        snapshot.get();
+        snapshot.get();
+
+        assertThat( notifications ).containsExactly( "1@" + clock.getTick() );
+    }
+
+    @Test
+    void the_refresh_policy_decides_when_to_load_again() {
+        final CachedSnapshot<Integer> snapshot = snapshotOf( () -> clock.advance( 100, TimeUnit.MILLISECONDS ) );
+        snapshot.setRefreshPolicy( ( outcome, loadNanos ) -> loadNanos * 30 );
+
+        snapshot.get();
+        clock.advance( 2, TimeUnit.SECONDS );
+        assertThat( snapshot.get() ).isEqualTo( 1 );
+
+        clock.advance( 1, TimeUnit.SECONDS );
+        assertThat( snapshot.get() ).isEqualTo( 2 );
+    }
+
+    @Test
+    void keeps_to_the_policy_when_the_ticks_are_negative() {
+        this.clock = new ManualClock( -TimeUnit.DAYS.toNanos( 1 ) );
+        final CachedSnapshot<Integer> snapshot = snapshotOf( () -> {} );
+
+        assertThat( snapshot.get() ).isEqualTo( 1 );
+        assertThat( snapshot.get() ).isEqualTo( 1 );
+
+        clock.advance( 1, TimeUnit.SECONDS );
+        assertThat( snapshot.get() ).isEqualTo( 2 );
+
+        snapshot.setRefreshPolicy( ( outcome, loadNanos ) -> RefreshPolicy.NEVER );
+        clock.advance( 1, TimeUnit.SECONDS );
+        assertThat( snapshot.get() ).isEqualTo( 3 );
+
+        clock.advance( 1, TimeUnit.DAYS );
+        assertThat( snapshot.get() ).isEqualTo( 3 );
+    }
+
+    @Test
+    void stops_loading_sources_disabled_by_the_policy() {
+        final CachedSnapshot<Integer> snapshot = snapshotOf( () -> {
+            throw new IllegalStateException( "no sensors in a VM" );
+        } );
+        new RefreshPolicies().withFailureBackoff( 1, 3 ).applyTo( Collections.singletonList( snapshot ) );
+
+        final AtomicInteger loads = new AtomicInteger();
+        snapshot.setLoadListener( ( outcome, startTick, endTick ) -> loads.incrementAndGet() );
+
+        for ( int i = 0; i < 100; i++ ) {
+            clock.advance( 1, TimeUnit.HOURS );
+            snapshot.get();
+        }
+
+        assertThat( loads ).hasValue( 3 );
+    }
+
+}
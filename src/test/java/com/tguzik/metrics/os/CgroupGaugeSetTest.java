@@ -0,0 +1,70 @@
+package com.tguzik.metrics.os;
+
+import static com.tguzik.metrics.os.ManualSnapshot.gaugeValue;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.Metric;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CgroupGaugeSetTest {
+    private ManualSnapshot<CgroupReading> cgroup;
+    private CgroupGaugeSet gaugeSet;
+
+    @BeforeEach
+    void setUp() {
+        this.cgroup = new ManualSnapshot<>( "cgroup", reading( 1_000, 0 ) );
+        this.gaugeSet = new CgroupGaugeSet( cgroup.getSnapshot() );
+    }
+
+    private static CgroupReading reading( final long periods, final long throttledMicros ) {
+        final CgroupReading reading = new CgroupReading( 2 );
+
+        reading.set( CgroupCounter.MEMORY_LIMIT, 1L << 30 );
+        reading.set( CgroupCounter.CPU_QUOTA, 50_000 );
+        reading.set( CgroupCounter.CPU_PERIOD, 100_000 );
+        reading.set( CgroupCounter.CPU_PERIODS, periods );
+        reading.set( CgroupCounter.CPU_THROTTLED_TIME, throttledMicros );
+
+        return reading;
+    }
+
+    @Test
+    void provides_limits_of_the_group() {
+        final Map<String, Metric> metrics = gaugeSet.getMetrics();
+
+        assertThat( gaugeValue( metrics, "cgroup.version" ) ).isEqualTo( 2L );
+        assertThat( gaugeValue( metrics, "cgroup.memory.limit" ) ).isEqualTo( 1L << 30 );
+        assertThat( gaugeValue( metrics, "cgroup.cpu.limit" ) ).isEqualTo( 0.5 );
+        assertThat( gaugeValue( metrics, "cgroup.memory.usage" ) ).isEqualTo( CgroupReading.UNAVAILABLE );
+        assertThat( metrics ).doesNotContainKey( "cgroup.memory.limit.rate" );
+    }
+
+    @Test
+    void derives_throttling_rates_from_the_difference_between_refreshes() {
+        final Map<String, Metric> metrics = gaugeSet.getMetrics();
+
+        gaugeValue( metrics, "cgroup.cpu.periods" );
+        cgroup.set( reading( 1_020, 500_000 ) );
+        cgroup.getClock().advance( 2, TimeUnit.SECONDS );
+
+        assertThat( (Double) gaugeValue( metrics, "cgroup.cpu.periods.rate" ) ).isCloseTo( 10.0, within( 1e-9 ) );
+        assertThat( (Double) gaugeValue( metrics, "cgroup.cpu.throttled.time.rate" ) ).isCloseTo( 250_000.0,
+                                                                                               within( 1e-9 ) );
+    }
+
+    @Test
+    void gauges_are_unavailable_outside_of_a_control_group() {
+        final ManualSnapshot<CgroupReading> missing = new ManualSnapshot<>( "cgroup", null );
+        final Map<String, Metric> metrics = new CgroupGaugeSet( missing.getSnapshot() ).getMetrics();
+
+        assertThat( gaugeValue( metrics, "cgroup.memory.limit" ) ).isEqualTo( CgroupReading.UNAVAILABLE );
+        assertThat( gaugeValue( metrics, "cgroup.cpu.limit" ) ).isEqualTo( DerivedDoubleGauge.UNAVAILABLE );
+        assertThat( gaugeValue( metrics, "cgroup.cpu.throttled.time.rate" ) ).isEqualTo( CounterRate.UNAVAILABLE );
+    }
+
+}
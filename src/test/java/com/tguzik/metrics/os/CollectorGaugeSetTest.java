@@ -0,0 +1,107 @@
+package com.tguzik.metrics.os;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CollectorGaugeSetTest {
+    private AtomicReference<Supplier<Long>> probe;
+    private CachedSnapshot<Long> snapshot;
+    private CollectorGaugeSet gaugeSet;
+    private ManualClock clock;
+
+    @BeforeEach
+    void setUp() {
+        this.probe = new AtomicReference<>( () -> 42L );
+        this.clock = new ManualClock();
+        this.snapshot = new CachedSnapshot<>( "uptime", clock, 1, TimeUnit.SECONDS, () -> probe.get().get() );
+        this.gaugeSet = new CollectorGaugeSet( Arrays.asList( snapshot ), clock );
+    }
+
+    private void loadAfterOneSecond( final Supplier<Long> nextProbe ) {
+        probe.set( nextProbe );
+        clock.advance( 1, TimeUnit.SECONDS );
+        snapshot.get();
+    }
+
+    @Test
+    void provides_metrics_for_each_source_group() {
+        final Map<String, Metric> metrics = gaugeSet.getMetrics();
+
+        assertThat( metrics ).containsOnlyKeys( "metrics-os.collector.uptime.load",
+                                                "metrics-os.collector.uptime.failures",
+                                                "metrics-os.collector.uptime.nulls",
+                                                "metrics-os.collector.uptime.age",
+                                                "metrics-os.collector.uptime.listener.failures" );
+        assertThat( metrics.get( "metrics-os.collector.uptime.load" ) ).isInstanceOf( Timer.class );
+        assertThat( metrics.get( "metrics-os.collector.uptime.failures" ) ).isInstanceOf( Counter.class );
+    }
+
+    @Test
+    void times_each_load() {
+        loadAfterOneSecond( () -> {
+            clock.advance( 25, TimeUnit.MILLISECONDS );
+            return 1L;
+        } );
+
+        final Timer loadTime = gaugeSet.getStatistics( "uptime" ).getLoadTime();
+
+        assertThat( loadTime.getCount() ).isEqualTo( 1 );
+        assertThat( loadTime.getSnapshot().getMax() ).isEqualTo( TimeUnit.MILLISECONDS.toNanos( 25 ) );
+    }
+
+    @Test
+    void counts_failures_and_nulls_separately() {
+        loadAfterOneSecond( () -> {
+            throw new IllegalStateException( "not on this kernel" );
+        } );
+        loadAfterOneSecond( () -> null );
+        loadAfterOneSecond( () -> null );
+
+        final CollectorStatistics statistics = gaugeSet.getStatistics( "uptime" );
+
+        assertThat( statistics.getFailures().getCount() ).isEqualTo( 1 );
+        assertThat( statistics.getNulls().getCount() ).isEqualTo( 2 );
+        assertThat( statistics.getLoadTime().getCount() ).isEqualTo( 3 );
+    }
+
+    @Test
+    void counts_listener_failures_without_failing_the_load() {
+        snapshot.addListener( ( value, tick ) -> {
+            throw new IllegalStateException( "broken callback" );
+        } );
+
+        loadAfterOneSecond( () -> 7L );
+
+        final CollectorStatistics statistics = gaugeSet.getStatistics( "uptime" );
+
+        assertThat( snapshot.get() ).isEqualTo( 7L );
+        assertThat( statistics.getListenerFailures().getCount() ).isEqualTo( 1 );
+        assertThat( statistics.getFailures().getCount() ).isZero();
+    }
+
+    @Test
+    void age_counts_from_the_last_successful_load() {
+        final Gauge<Long> age = gaugeSet.getStatistics( "uptime" ).getAge();
+
+        assertThat( age.getValue() ).isEqualTo( CollectorStatistics.UNAVAILABLE );
+
+        loadAfterOneSecond( () -> 1L );
+        loadAfterOneSecond( () -> null );
+        clock.advance( 500, TimeUnit.MILLISECONDS );
+
+        assertThat( age.getValue() ).isEqualTo( 1500L );
+    }
+
+}
@@ -0,0 +1,124 @@
+package com.tguzik.metrics.os;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CounterRateTest {
+    private CounterRate<Long> rate;
+    private long tick;
+
+    @BeforeEach
+    void setUp() {
+        this.rate = new CounterRate<>( Long::longValue );
+        this.tick = TimeUnit.HOURS.toNanos( 1 );
+    }
+
+    private void sampleAfter( final long seconds, final long value ) {
+        tick += TimeUnit.SECONDS.toNanos( seconds );
+        rate.onRefresh( value, tick );
+    }
+
+    @Test
+    void is_unavailable_until_there_are_two_samples() {
+        sampleAfter( 0, 100 );
+
+        assertThat( rate.getInstantRate() ).isEqualTo( CounterRate.UNAVAILABLE );
+        assertThat( rate.getOneMinuteRate() ).isEqualTo( CounterRate.UNAVAILABLE );
+        assertThat( rate.getFiveMinuteRate() ).isEqualTo( CounterRate.UNAVAILABLE );
+        assertThat( rate.getFifteenMinuteRate() ).isEqualTo( CounterRate.UNAVAILABLE );
+    }
+
+    @Test
+    void computes_per_second_rate_from_the_clock_ticks() {
+        sampleAfter( 0, 100 );
+        sampleAfter( 4, 300 );
+
+        assertThat( rate.getInstantRate() ).isCloseTo( 50.0, within( 1e-9 ) );
+        assertThat( rate.getOneMinuteRate() ).isCloseTo( 50.0, within( 1e-9 ) );
+        assertThat( rate.getFifteenMinuteRate() ).isCloseTo( 50.0, within( 1e-9 ) );
+    }
+
+    @Test
+    void smooths_spikes_in_the_moving_averages() {
+        sampleAfter( 0, 0 );
+        sampleAfter( 1, 10 );
+        sampleAfter( 1, 1010 );
+
+        assertThat( rate.getInstantRate() ).isCloseTo( 1000.0, within( 1e-9 ) );
+        assertThat( rate.getOneMinuteRate() ).isBetween( 10.0, 100.0 );
+        assertThat( rate.getFiveMinuteRate() ).isBetween( 10.0, rate.getOneMinuteRate() );
+        assertThat( rate.getFifteenMinuteRate() ).isBetween( 10.0, rate.getFiveMinuteRate() );
+    }
+
+    @Test
+    void moving_averages_converge_to_a_steady_rate() {
+        sampleAfter( 0, 0 );
+        sampleAfter( 1, 1000 );
+
+        for ( int i = 1; i <= 3 * 3600; i++ ) {
+            sampleAfter( 1, 1000 + i * 10L );
+        }
+
+        assertThat( rate.getOneMinuteRate() ).isCloseTo( 10.0, within( 1e-6 ) );
+        assertThat( rate.getFifteenMinuteRate() ).isCloseTo( 10.0, within( 0.01 ) );
+    }
+
+    @Test
+    void handles_32_bit_wraparound_of_counters_declared_as_32_bit() {
+        this.rate = CounterRate.of32BitCounter( Long::longValue );
+
+        sampleAfter( 0, 0xFFFF_FFF0L );
+        sampleAfter( 1, 0x10L );
+
+        assertThat( rate.getInstantRate() ).isCloseTo( 32.0, within( 1e-9 ) );
+    }
+
+    @Test
+    void treats_a_decrease_of_a_64_bit_counter_as_a_reset_even_in_the_upper_32_bit_range() {
+        sampleAfter( 0, 0xFFFF_FFF0L );
+        sampleAfter( 1, 0x10L );
+
+        assertThat( rate.getInstantRate() ).isCloseTo( 16.0, within( 1e-9 ) );
+    }
+
+    @Test
+    void treats_other_decreases_as_a_counter_reset() {
+        sampleAfter( 0, 5_000 );
+        sampleAfter( 2, 20 );
+
+        assertThat( rate.getInstantRate() ).isCloseTo( 10.0, within( 1e-9 ) );
+    }
+
+    @Test
+    void skips_unavailable_samples() {
+        sampleAfter( 0, 100 );
+        sampleAfter( 1, -1 );
+        sampleAfter( 1, 120 );
+
+        assertThat( rate.getInstantRate() ).isCloseTo( 10.0, within( 1e-9 ) );
+    }
+
+    @Test
+    void computes_the_rate_across_a_wrap_around_of_the_ticks() {
+        this.tick = Long.MAX_VALUE - TimeUnit.SECONDS.toNanos( 1 );
+
+        sampleAfter( 0, 100 );
+        sampleAfter( 2, 300 );
+
+        assertThat( rate.getInstantRate() ).isCloseTo( 100.0, within( 1e-9 ) );
+    }
+
+    @Test
+    void ignores_samples_from_the_same_tick() {
+        sampleAfter( 0, 100 );
+        sampleAfter( 0, 200 );
+
+        assertThat( rate.getInstantRate() ).isEqualTo( CounterRate.UNAVAILABLE );
+    }
+
+}
@@ -0,0 +1,114 @@
+package com.tguzik.metrics.os;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CpuUtilizationTest {
+    private Deque<long[][]> ticks;
+    private CpuUtilization utilization;
+
+    @BeforeEach
+    void setUp() {
+        final SystemProbes probes = mock( SystemProbes.class );
+        this.ticks = new ArrayDeque<>();
+        this.utilization = new CpuUtilization( probes );
+
+        when( probes.getLogicalProcessorCount() ).thenReturn( 2 );
+        doAnswer( invocation -> {
+            final long[][] into = invocation.getArgument( 0 );
+            final long[][] next = ticks.remove();
+
+            for ( int i = 0; i < into.length; i++ ) {
+                System.arraycopy( next[i], 0, into[i], 0, into[i].length );
+            }
+
+            return null;
+        } ).when( probes ).readCpuTicks( any() );
+    }
+
+    // Columns: user, nice, system, idle, iowait, irq, softirq, steal
+    private void nextTicks( final long[] system, final long[] first, final long[] second ) {
+        ticks.add( new long[][] { system, first, second } );
+    }
+
+    @Test
+    void is_unavailable_until_there_are_two_readings() {
+        nextTicks( new long[] { 1, 1, 1, 1, 1, 1, 1, 1 },
+                   new long[] { 1, 1, 1, 1, 1, 1, 1, 1 },
+                   new long[] { 1, 1, 1, 1, 1, 1, 1, 1 } );
+
+        final CpuUtilizationReading reading = utilization.get();
+
+        assertThat( reading.getProcessorCount() ).isEqualTo( 2 );
+        assertThat( reading.getSystem( CpuTime.USER ) ).isEqualTo( CpuUtilizationReading.UNAVAILABLE );
+        assertThat( reading.getProcessor( 1, CpuTime.IDLE ) ).isEqualTo( CpuUtilizationReading.UNAVAILABLE );
+    }
+
+    @Test
+    void computes_utilization_from_tick_deltas() {
+        nextTicks( new long[] { 0, 0, 0, 0, 0, 0, 0, 0 },
+                   new long[] { 0, 0, 0, 0, 0, 0, 0, 0 },
+                   new long[] { 0, 0, 0, 0, 0, 0, 0, 0 } );
+        nextTicks( new long[] { 30, 10, 20, 100, 10, 5, 5, 20 },
+                   new long[] { 30, 10, 20, 0, 10, 5, 5, 20 },
+                   new long[] { 0, 0, 0, 100, 0, 0, 0, 0 } );
+
+        utilization.get();
+        final CpuUtilizationReading reading = utilization.get();
+
+        assertThat( reading.getSystem( CpuTime.USER ) ).isCloseTo( 0.2, within( 1e-9 ) );
+        assertThat( reading.getSystem( CpuTime.SYSTEM ) ).isCloseTo( 0.1, within( 1e-9 ) );
+        assertThat( reading.getSystem( CpuTime.IDLE ) ).isCloseTo( 0.5, within( 1e-9 ) );
+        assertThat( reading.getSystem( CpuTime.IOWAIT ) ).isCloseTo( 0.05, within( 1e-9 ) );
+        assertThat( reading.getSystem( CpuTime.IRQ ) ).isCloseTo( 0.05, within( 1e-9 ) );
+        assertThat( reading.getSystem( CpuTime.STEAL ) ).isCloseTo( 0.1, within( 1e-9 ) );
+
+        assertThat( reading.getProcessor( 0, CpuTime.USER ) ).isCloseTo( 0.4, within( 1e-9 ) );
+        assertThat( reading.getProcessor( 0, CpuTime.IDLE ) ).isCloseTo( 0.0, within( 1e-9 ) );
+        assertThat( reading.getProcessor( 1, CpuTime.IDLE ) ).isCloseTo( 1.0, within( 1e-9 ) );
+        assertThat( reading.getProcessor( 2, CpuTime.IDLE ) ).isEqualTo( CpuUtilizationReading.UNAVAILABLE );
+    }
+
+    @Test
+    void is_unavailable_when_counters_go_backwards() {
+        nextTicks( new long[] { 9, 9, 9, 9, 9, 9, 9, 9 },
+                   new long[] { 9, 9, 9, 9, 9, 9, 9, 9 },
+                   new long[] { 0, 0, 0, 0, 0, 0, 0, 0 } );
+        nextTicks( new long[] { 10, 10, 10, 10, 10, 10, 10, 10 },
+                   new long[] { 1, 1, 1, 1, 1, 1, 1, 1 },
+                   new long[] { 1, 1, 1, 1, 1, 1, 1, 1 } );
+
+        utilization.get();
+        final CpuUtilizationReading reading = utilization.get();
+
+        assertThat( reading.getSystem( CpuTime.USER ) ).isCloseTo( 0.25, within( 1e-9 ) );
+        assertThat( reading.getProcessor( 0, CpuTime.USER ) ).isEqualTo( CpuUtilizationReading.UNAVAILABLE );
+        assertThat( reading.getProcessor( 1, CpuTime.USER ) ).isCloseTo( 0.25, within( 1e-9 ) );
+    }
+
+    @Test
+    void alternates_between_two_readings() {
+        for ( int i = 0; i < 3; i++ ) {
+            nextTicks( new long[] { i, i, i, i, i, i, i, i },
+                       new long[] { i, i, i, i, i, i, i, i },
+                       new long[] { i, i, i, i, i, i, i, i } );
+        }
+
+        final CpuUtilizationReading first = utilization.get();
+        final CpuUtilizationReading second = utilization.get();
+
+        assertThat( second ).isNotSameAs( first );
+        assertThat( utilization.get() ).isSameAs( first );
+    }
+
+}
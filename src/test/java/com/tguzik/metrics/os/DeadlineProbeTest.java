@@ -0,0 +1,122 @@
+package com.tguzik.metrics.os;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DeadlineProbeTest {
+    private ExecutorService executor;
+    private CountDownLatch release;
+
+    @BeforeEach
+    void setUp() {
+        this.executor = Executors.newSingleThreadExecutor();
+        this.release = new CountDownLatch( 1 );
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    /** The executor has a single thread, so anything submitted after the hung probe runs only once the probe is done */
+    private void waitForProbesToComplete() throws Exception {
+        executor.submit( () -> {
+        } ).get( 5, TimeUnit.SECONDS );
+    }
+
+    @Test
+    void returns_the_result_of_a_probe_that_completes_in_time() {
+        final DeadlineProbe<String> probe = new DeadlineProbe<>( () -> "ok", executor, 5, TimeUnit.SECONDS );
+
+        assertThat( probe.get() ).isEqualTo( "ok" );
+        assertThat( probe.isStale() ).isFalse();
+    }
+
+    @Test
+    void skips_a_hung_probe_until_it_returns() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        final DeadlineProbe<Integer> probe = new DeadlineProbe<>( () -> {
+            calls.incrementAndGet();
+            awaitRelease();
+            return 42;
+        }, executor, 50, TimeUnit.MILLISECONDS );
+
+        assertThat( probe.get() ).isNull();
+        assertThat( probe.isStale() ).isTrue();
+        assertThat( probe.isSaturated() ).isFalse();
+
+        assertThat( probe.get() ).isNull();
+        assertThat( calls.get() ).isEqualTo( 1 );
+
+        release.countDown();
+        waitForProbesToComplete();
+
+        assertThat( probe.get() ).isEqualTo( 42 );
+        assertThat( probe.isStale() ).isFalse();
+    }
+
+    @Test
+    void a_probe_queued_behind_a_hung_one_is_saturated_rather_than_stale() throws Exception {
+        final DeadlineProbe<Integer> hung = new DeadlineProbe<>( () -> {
+            awaitRelease();
+            return 42;
+        }, executor, 50, TimeUnit.MILLISECONDS );
+        final DeadlineProbe<Integer> queued = new DeadlineProbe<>( () -> 7, executor, 50, TimeUnit.MILLISECONDS );
+
+        hung.get();
+
+        assertThat( queued.get() ).isNull();
+        assertThat( queued.isStale() ).isFalse();
+        assertThat( queued.isSaturated() ).isTrue();
+
+        release.countDown();
+        waitForProbesToComplete();
+
+        assertThat( queued.get() ).isEqualTo( 7 );
+        assertThat( queued.isSaturated() ).isFalse();
+    }
+
+    @Test
+    void starts_another_probe_once_the_previous_one_got_picked_up() {
+        final AtomicInteger calls = new AtomicInteger();
+        final DeadlineProbe<Integer> probe = new DeadlineProbe<>( calls::incrementAndGet,
+                                                                  executor,
+                                                                  5,
+                                                                  TimeUnit.SECONDS );
+
+        assertThat( probe.get() ).isEqualTo( 1 );
+        assertThat( probe.get() ).isEqualTo( 2 );
+    }
+
+    @Test
+    void passes_on_the_failures_of_the_probe() {
+        final DeadlineProbe<Integer> probe = new DeadlineProbe<>( () -> {
+            throw new IllegalArgumentException( "no such mount" );
+        }, executor, 5, TimeUnit.SECONDS );
+
+        assertThatThrownBy( probe::get ).isInstanceOf( IllegalStateException.class )
+                                        .hasRootCauseInstanceOf( IllegalArgumentException.class );
+        assertThat( probe.isStale() ).isFalse();
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        }
+        catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
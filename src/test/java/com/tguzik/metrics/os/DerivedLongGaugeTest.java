@@ -0,0 +1,96 @@
+package com.tguzik.metrics.os;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DerivedLongGaugeTest {
+    private AtomicLong source;
+    private ManualClock clock;
+    private CachedSnapshot<Long> snapshot;
+    private DerivedLongGauge<Long> gauge;
+
+    @BeforeEach
+    void setUp() {
+        this.source = new AtomicLong( 1_000_000L );
+        this.clock = new ManualClock();
+        this.snapshot = new CachedSnapshot<>( "test", clock, 1, TimeUnit.SECONDS, source::get );
+        this.gauge = new DerivedLongGauge<>( snapshot, Long::longValue );
+    }
+
+    @Test
+    void returns_the_extracted_value() {
+        assertThat( gauge.getValue() ).isEqualTo( 1_000_000L );
+        assertThat( gauge.getLongValue() ).isEqualTo( 1_000_000L );
+    }
+
+    @Test
+    void returns_the_same_box_while_the_value_does_not_change() {
+        final Long first = gauge.getValue();
+
+        clock.advance( 1, TimeUnit.SECONDS );
+
+        assertThat( gauge.getValue() ).isSameAs( first );
+    }
+
+    @Test
+    void picks_up_new_values_after_the_snapshot_is_refreshed() {
+        gauge.getValue();
+        source.set( 2_000_000L );
+
+        assertThat( gauge.getValue() ).isEqualTo( 1_000_000L );
+
+        clock.advance( 1, TimeUnit.SECONDS );
+
+        assertThat( gauge.getValue() ).isEqualTo( 2_000_000L );
+    }
+
+    @Test
+    void returns_unavailable_marker_when_snapshot_is_missing() {
+        final DerivedLongGauge<Long> broken = new DerivedLongGauge<>( () -> null, Long::longValue );
+
+        assertThat( broken.getValue() ).isEqualTo( DerivedLongGauge.UNAVAILABLE );
+    }
+
+    @Test
+    void returns_unavailable_marker_when_extraction_fails() {
+        final DerivedLongGauge<Long> broken = new DerivedLongGauge<>( snapshot, value -> {
+            throw new IllegalStateException( "not on this OS" );
+        } );
+
+        assertThat( broken.getValue() ).isEqualTo( DerivedLongGauge.UNAVAILABLE );
+    }
+
+    @Test
+    void reading_cached_value_does_not_allocate() {
+        final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue( bean instanceof com.sun.management.ThreadMXBean );
+
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue( threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled() );
+
+        final long threadId = Thread.currentThread().getId();
+        long checksum = 0;
+
+        for ( int i = 0; i < 10_000; i++ ) {
+            checksum += gauge.getValue();
+        }
+
+        final long before = threads.getThreadAllocatedBytes( threadId );
+        for ( int i = 0; i < 100_000; i++ ) {
+            checksum += gauge.getValue();
+        }
+        final long allocated = threads.getThreadAllocatedBytes( threadId ) - before;
+
+        assertThat( checksum ).isPositive();
+        // Leave a bit of room for the measurement itself, a single boxed Long per read would be over a megabyte
+        assertThat( allocated ).isLessThan( 1024L );
+    }
+
+}
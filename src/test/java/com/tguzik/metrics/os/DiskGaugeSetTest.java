@@ -0,0 +1,174 @@
+package com.tguzik.metrics.os;
+
+import static com.tguzik.metrics.os.ManualSnapshot.gaugeValue;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DiskGaugeSetTest {
+    private ManualSnapshot<DiskStoresReading> disks;
+    private DiskGaugeSet gaugeSet;
+
+    @BeforeEach
+    void setUp() {
+        this.disks = new ManualSnapshot<>( "disks", reading( "/dev/sda", 100, 1000, 50 ) );
+        this.gaugeSet = new DiskGaugeSet( disks.getSnapshot() );
+    }
+
+    private static DiskStoresReading reading( final String name,
+                                              final long operations,
+                                              final long bytes,
+                                              final long transferTime ) {
+        final DiskStoresReading reading = new DiskStoresReading( 1 );
+
+        reading.setName( 0, name );
+        reading.set( 0, DiskCounter.SIZE, 1L << 40 );
+        reading.set( 0, DiskCounter.READS, operations );
+        reading.set( 0, DiskCounter.WRITES, operations );
+        reading.set( 0, DiskCounter.READ_BYTES, bytes );
+        reading.set( 0, DiskCounter.WRITE_BYTES, bytes * 2 );
+        reading.set( 0, DiskCounter.TRANSFER_TIME, transferTime );
+        reading.set( 0, DiskCounter.QUEUE_LENGTH, 3 );
+
+        return reading;
+    }
+
+    private static DiskStoresReading twoDisks( final String first,
+                                               final long firstReads,
+                                               final String second,
+                                               final long secondReads ) {
+        final DiskStoresReading reading = new DiskStoresReading( 2 );
+
+        reading.setName( 0, first );
+        reading.set( 0, DiskCounter.READS, firstReads );
+        reading.setName( 1, second );
+        reading.set( 1, DiskCounter.READS, secondReads );
+
+        return reading;
+    }
+
+    /** Reading the disk count is what discovers the disks */
+    private Map<String, Metric> discoverDisks() {
+        gaugeValue( gaugeSet.getMetrics(), "hw.disk.count" );
+        return gaugeSet.getMetrics();
+    }
+
+    @Test
+    void provides_counters_of_each_disk_named_after_the_device() {
+        final Map<String, Metric> metrics = discoverDisks();
+
+        assertThat( gaugeValue( metrics, "hw.disk.sda.size" ) ).isEqualTo( 1L << 40 );
+        assertThat( gaugeValue( metrics, "hw.disk.sda.reads" ) ).isEqualTo( 100L );
+        assertThat( gaugeValue( metrics, "hw.disk.sda.bytes.written" ) ).isEqualTo( 2000L );
+        assertThat( gaugeValue( metrics, "hw.disk.sda.transfer-time" ) ).isEqualTo( 50L );
+        assertThat( gaugeValue( metrics, "hw.disk.sda.queue.length" ) ).isEqualTo( 3L );
+        assertThat( gaugeValue( metrics, "hw.disk.sda.partitions" ) ).isEqualTo( DiskStoresReading.UNAVAILABLE );
+    }
+
+    @Test
+    void rates_are_unavailable_until_there_are_two_readings() {
+        final Map<String, Metric> metrics = discoverDisks();
+
+        assertThat( gaugeValue( metrics, "hw.disk.sda.iops" ) ).isEqualTo( DiskActivityReading.UNAVAILABLE );
+        assertThat( gaugeValue( metrics, "hw.disk.sda.latency" ) ).isEqualTo( DiskActivityReading.UNAVAILABLE );
+    }
+
+    @Test
+    void derives_rates_from_the_difference_between_refreshes() {
+        final Map<String, Metric> metrics = discoverDisks();
+
+        disks.refreshAfter( 2, TimeUnit.SECONDS, reading( "/dev/sda", 300, 5000, 450 ) );
+
+        assertThat( (Double) gaugeValue( metrics, "hw.disk.sda.iops" ) ).isCloseTo( 200.0, within( 1e-9 ) );
+        assertThat( (Double) gaugeValue( metrics, "hw.disk.sda.throughput.read" ) ).isCloseTo( 2000.0, within( 1e-9 ) );
+        assertThat( (Double) gaugeValue( metrics, "hw.disk.sda.throughput.write" ) ).isCloseTo( 4000.0,
+                                                                                            within( 1e-9 ) );
+        assertThat( (Double) gaugeValue( metrics, "hw.disk.sda.latency" ) ).isCloseTo( 1.0, within( 1e-9 ) );
+        assertThat( (Double) gaugeValue( metrics, "hw.disk.sda.utilization" ) ).isCloseTo( 0.2, within( 1e-9 ) );
+    }
+
+    @Test
+    void rates_are_unavailable_when_the_counters_go_backwards() {
+        final Map<String, Metric> metrics = discoverDisks();
+
+        disks.refreshAfter( 2, TimeUnit.SECONDS, reading( "/dev/sda", 10, 5000, 450 ) );
+
+        assertThat( gaugeValue( metrics, "hw.disk.sda.iops" ) ).isEqualTo( DiskActivityReading.UNAVAILABLE );
+        assertThat( gaugeValue( metrics, "hw.disk.sda.throughput.read" ) ).isEqualTo( DiskActivityReading.UNAVAILABLE );
+    }
+
+    @Test
+    void gauges_of_a_missing_disk_become_unavailable() {
+        final Map<String, Metric> metrics = discoverDisks();
+
+        disks.refreshAfter( 2, TimeUnit.SECONDS, reading( "/dev/sdb", 300, 5000, 450 ) );
+
+        assertThat( gaugeValue( metrics, "hw.disk.sda.reads" ) ).isEqualTo( DiskStoresReading.UNAVAILABLE );
+        assertThat( gaugeValue( metrics, "hw.disk.sda.iops" ) ).isEqualTo( DiskActivityReading.UNAVAILABLE );
+    }
+
+    @Test
+    void disks_are_not_read_until_the_disk_count_is() {
+        assertThat( gaugeSet.getMetrics() ).containsOnlyKeys( "hw.disk.count" );
+        assertThat( disks.getLoads() ).isZero();
+    }
+
+    @Test
+    void discovery_registers_each_disk_once_it_appears() {
+        final MetricRegistry registry = new MetricRegistry();
+        gaugeSet.startDiscovery( registry, "host" );
+
+        gaugeValue( gaugeSet.getMetrics(), "hw.disk.count" );
+        disks.refreshAfter( 2, TimeUnit.SECONDS, twoDisks( "/dev/sda", 300, "/dev/sdb", 1000 ) );
+
+        assertThat( registry.getMetrics() ).containsOnlyKeys( gaugeSet.getMetrics()
+                                                                      .keySet()
+                                                                      .stream()
+                                                                      .filter( key -> !key.endsWith( ".count" ) )
+                                                                      .map( key -> "host." + key )
+                                                                      .toArray( String[]::new ) )
+                                           .containsKeys( "host.hw.disk.sda.reads", "host.hw.disk.sdb.iops" );
+
+        gaugeSet.stopDiscovery( registry, "host" );
+
+        assertThat( registry.getMetrics() ).isEmpty();
+    }
+
+    @Test
+    void gauges_stay_with_their_disk_when_the_disks_get_reordered() {
+        disks.set( twoDisks( "/dev/sda", 100, "/dev/sdb", 1000 ) );
+        final Map<String, Metric> metrics = discoverDisks();
+
+        disks.refreshAfter( 2, TimeUnit.SECONDS, twoDisks( "/dev/sdb", 3000, "/dev/sda", 500 ) );
+
+        assertThat( gaugeValue( metrics, "hw.disk.sda.reads" ) ).isEqualTo( 500L );
+        assertThat( gaugeValue( metrics, "hw.disk.sdb.reads" ) ).isEqualTo( 3000L );
+        assertThat( metrics ).containsKeys( "hw.disk.sda.iops", "hw.disk.sdb.iops" );
+    }
+
+    @Test
+    void published_readings_are_not_modified_by_later_refreshes() {
+        final DiskActivity activity = new DiskActivity();
+
+        activity.onRefresh( reading( "/dev/sda", 100, 1000, 50 ), 0 );
+        final DiskActivityReading first = activity.get();
+        activity.onRefresh( reading( "/dev/sda", 300, 5000, 450 ), TimeUnit.SECONDS.toNanos( 2 ) );
+        final DiskActivityReading second = activity.get();
+        activity.onRefresh( reading( "/dev/sda", 500, 9000, 850 ), TimeUnit.SECONDS.toNanos( 4 ) );
+        final int slot = activity.slotOf( "/dev/sda" );
+
+        assertThat( activity.get() ).isNotSameAs( first ).isNotSameAs( second );
+        assertThat( first.get( slot, DiskCounter.READS ) ).isEqualTo( 100L );
+        assertThat( first.get( slot, DiskRate.IOPS ) ).isEqualTo( DiskActivityReading.UNAVAILABLE );
+        assertThat( second.get( slot, DiskCounter.READS ) ).isEqualTo( 300L );
+        assertThat( activity.get().get( slot, DiskRate.IOPS ) ).isCloseTo( 200.0, within( 1e-9 ) );
+    }
+
+}
@@ -0,0 +1,141 @@
+package com.tguzik.metrics.os;
+
+import static com.tguzik.metrics.os.ManualSnapshot.gaugeValue;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class FileSystemGaugeSetTest {
+    private ManualSnapshot<List<String>> mountPoints;
+    private FileSystemGaugeSet gaugeSet;
+    private ExecutorService executor;
+    private CountDownLatch release;
+    private SystemProbes probes;
+
+    @BeforeEach
+    void setUp() {
+        this.mountPoints = new ManualSnapshot<>( "fs.mounts", Arrays.asList( "/", "/var/lib/docker" ) );
+        this.executor = Executors.newFixedThreadPool( 2 );
+        this.release = new CountDownLatch( 1 );
+        this.probes = mock( SystemProbes.class );
+        this.gaugeSet = new FileSystemGaugeSet( mountPoints.getSnapshot(),
+                                                probes,
+                                                mountPoints.getClock(),
+                                                1,
+                                                TimeUnit.SECONDS,
+                                                executor,
+                                                100,
+                                                TimeUnit.MILLISECONDS );
+
+        when( probes.getFileSystem( "/" ) ).thenReturn( reading( 1000, 400 ) );
+        when( probes.getFileSystem( "/var/lib/docker" ) ).thenReturn( reading( 5000, 2500 ) );
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    private static FileSystemReading reading( final long total, final long free ) {
+        final FileSystemReading reading = new FileSystemReading();
+
+        reading.set( FileSystemCounter.SPACE_TOTAL, total );
+        reading.set( FileSystemCounter.SPACE_FREE, free );
+        reading.set( FileSystemCounter.SPACE_USABLE, free / 2 );
+        reading.set( FileSystemCounter.INODES_TOTAL, total / 10 );
+        reading.set( FileSystemCounter.INODES_FREE, free / 10 );
+
+        return reading;
+    }
+
+    private void refreshAfterOneSecond( final String... nextMountPoints ) {
+        mountPoints.refreshAfter( 1, TimeUnit.SECONDS, Arrays.asList( nextMountPoints ) );
+    }
+
+    @Test
+    void provides_usage_of_each_mount_named_after_the_mount_point() {
+        final Map<String, Metric> metrics = gaugeSet.getMetrics();
+
+        assertThat( gaugeValue( metrics, "os.fs.mount.root.space.total" ) ).isEqualTo( 1000L );
+        assertThat( gaugeValue( metrics, "os.fs.mount.root.space.free" ) ).isEqualTo( 400L );
+        assertThat( gaugeValue( metrics, "os.fs.mount.root.space.usable" ) ).isEqualTo( 200L );
+        assertThat( gaugeValue( metrics, "os.fs.mount.root.inodes.total" ) ).isEqualTo( 100L );
+        assertThat( gaugeValue( metrics, "os.fs.mount.var-lib-docker.inodes.free" ) ).isEqualTo( 250L );
+        assertThat( gaugeValue( metrics, "os.fs.mount.var-lib-docker.stale" ) ).isEqualTo( 0L );
+    }
+
+    @Test
+    void keeps_a_registry_in_sync_with_the_mounts() {
+        final MetricRegistry registry = new MetricRegistry();
+        gaugeSet.startDiscovery( registry );
+
+        refreshAfterOneSecond( "/", "/mnt/backup" );
+
+        assertThat( registry.getNames() ).contains( "os.fs.mount.root.space.total", "os.fs.mount.mnt-backup.stale" )
+                                         .noneMatch( name -> name.startsWith( "os.fs.mount.var-lib-docker." ) );
+
+        gaugeSet.stopDiscovery( registry );
+
+        assertThat( registry.getNames() ).isEmpty();
+    }
+
+    @Test
+    void marks_a_hung_mount_stale_without_holding_up_the_others() {
+        when( probes.getFileSystem( "/var/lib/docker" ) ).thenAnswer( invocation -> {
+            release.await();
+            return reading( 5000, 2500 );
+        } );
+
+        final Map<String, Metric> metrics = gaugeSet.getMetrics();
+
+        assertThat( gaugeValue( metrics, "os.fs.mount.var-lib-docker.stale" ) ).isEqualTo( 1L );
+        assertThat( gaugeValue( metrics, "os.fs.mount.var-lib-docker.space.total" ) )
+            .isEqualTo( FileSystemReading.UNAVAILABLE );
+        assertThat( gaugeValue( metrics, "os.fs.mount.root.space.total" ) ).isEqualTo( 1000L );
+        assertThat( gaugeValue( metrics, "os.fs.mount.root.stale" ) ).isEqualTo( 0L );
+        assertThat( gaugeValue( metrics, "os.fs.mount.root.saturated" ) ).isEqualTo( 0L );
+    }
+
+    @Test
+    void does_not_mark_stale_a_mount_waiting_for_a_thread() {
+        final ExecutorService singleThread = Executors.newSingleThreadExecutor();
+        final Map<String, Metric> metrics = new FileSystemGaugeSet( mountPoints.getSnapshot(),
+                                                                    probes,
+                                                                    mountPoints.getClock(),
+                                                                    1,
+                                                                    TimeUnit.SECONDS,
+                                                                    singleThread,
+                                                                    100,
+                                                                    TimeUnit.MILLISECONDS ).getMetrics();
+        when( probes.getFileSystem( "/" ) ).thenAnswer( invocation -> {
+            release.await();
+            return reading( 1000, 400 );
+        } );
+
+        try {
+            assertThat( gaugeValue( metrics, "os.fs.mount.root.stale" ) ).isEqualTo( 1L );
+            assertThat( gaugeValue( metrics, "os.fs.mount.var-lib-docker.saturated" ) ).isEqualTo( 1L );
+            assertThat( gaugeValue( metrics, "os.fs.mount.var-lib-docker.stale" ) ).isEqualTo( 0L );
+        }
+        finally {
+            release.countDown();
+            singleThread.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,126 @@
+package com.tguzik.metrics.os;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FlightRecorderTest {
+    @TempDir
+    Path directory;
+
+    private ManualClock clock;
+    private Path file;
+
+    @BeforeEach
+    void setUp() {
+        this.clock = new ManualClock();
+        this.file = directory.resolve( "os.recording" );
+    }
+
+    private static List<Double> valuesOf( final List<RecordedSample> samples ) {
+        return samples.stream().map( RecordedSample::getValue ).collect( Collectors.toList() );
+    }
+
+    @Test
+    void reads_back_the_records_in_order_of_appending() throws IOException {
+        try ( FlightRecorder recorder = FlightRecorder.create( file, 16, clock ) ) {
+            recorder.append( RecordedChannel.MEMORY_AVAILABLE, 1024 );
+            clock.advance( 1, TimeUnit.SECONDS );
+            recorder.append( RecordedChannel.LOAD_AVERAGE_1M, 0.75 );
+        }
+
+        final List<RecordedSample> samples = FlightRecording.read( file ).getSamples( Long.MIN_VALUE, Long.MAX_VALUE );
+
+        assertThat( samples ).extracting( RecordedSample::getChannel )
+                             .containsExactly( RecordedChannel.MEMORY_AVAILABLE, RecordedChannel.LOAD_AVERAGE_1M );
+        assertThat( samples ).extracting( RecordedSample::getTime )
+                             .containsExactly( TimeUnit.HOURS.toMillis( 1 ), TimeUnit.HOURS.toMillis( 1 ) + 1000 );
+        assertThat( valuesOf( samples ) ).containsExactly( 1024.0, 0.75 );
+    }
+
+    @Test
+    void keeps_only_the_most_recent_records_once_the_file_is_full() throws IOException {
+        try ( FlightRecorder recorder = FlightRecorder.create( file, 3, clock ) ) {
+            for ( int i = 1; i <= 5; i++ ) {
+                recorder.append( RecordedChannel.UPTIME, i );
+                clock.advance( 1, TimeUnit.SECONDS );
+            }
+
+            assertThat( recorder.getAppended() ).isEqualTo( 5 );
+        }
+
+        final FlightRecording recording = FlightRecording.read( file );
+
+        assertThat( Files.size( file ) ).isEqualTo( FlightRecorder.HEADER_SIZE + 3 * FlightRecorder.RECORD_SIZE );
+        assertThat( recording.size() ).isEqualTo( 3 );
+        assertThat( valuesOf( recording.getSamples( Long.MIN_VALUE, Long.MAX_VALUE ) ) ).containsExactly( 3.0,
+                                                                                                         4.0,
+                                                                                                         5.0 );
+    }
+
+    @Test
+    void records_every_refresh_of_the_attached_snapshots_until_closed() throws IOException {
+        final SystemProbes probes = mock( SystemProbes.class );
+        final SharedSnapshots snapshots = new SharedSnapshots( probes, clock, 1, TimeUnit.SECONDS );
+        when( probes.getMemory() ).thenReturn( new MemoryReading( 4096, 1024, 4096 ) )
+                                  .thenReturn( new MemoryReading( 4096, 512, 4096 ) );
+
+        try ( FlightRecorder recorder = FlightRecorder.create( file, 16, clock ) ) {
+            recorder.attachTo( snapshots );
+            snapshots.getMemory().get();
+            clock.advance( 1, TimeUnit.SECONDS );
+            snapshots.getMemory().get();
+        }
+
+        clock.advance( 1, TimeUnit.SECONDS );
+        snapshots.getMemory().get();
+
+        final FlightRecording recording = FlightRecording.read( file );
+
+        assertThat( recording.size() ).isEqualTo( 4 );
+        assertThat( recording.getValue( RecordedChannel.MEMORY_TOTAL, clock.getTime() ) ).isEqualTo( 4096.0 );
+        assertThat( recording.getValue( RecordedChannel.MEMORY_AVAILABLE, clock.getTime() ) ).isEqualTo( 512.0 );
+    }
+
+    @Test
+    void dumps_a_time_window_as_csv() throws IOException {
+        try ( FlightRecorder recorder = FlightRecorder.create( file, 16, clock ) ) {
+            for ( int i = 1; i <= 3; i++ ) {
+                recorder.append( RecordedChannel.FD_OPEN, i * 100 );
+                recorder.append( RecordedChannel.LOAD_AVERAGE_1M, i / 4.0 );
+                clock.advance( 1, TimeUnit.MINUTES );
+            }
+        }
+
+        final long start = TimeUnit.HOURS.toMillis( 1 );
+        final StringBuilder out = new StringBuilder();
+        FlightRecording.read( file ).dump( start + 60_000, start + 60_000, out );
+
+        assertThat( out.toString() ).isEqualTo( String.join( System.lineSeparator(),
+                                                             "time,channel,value",
+                                                             "1970-01-01T01:01:00Z,os.fs.fd.open,200",
+                                                             "1970-01-01T01:01:00Z,hw.cpu.load-average.1m,0.5",
+                                                             "" ) );
+    }
+
+    @Test
+    void refuses_to_read_files_that_are_not_recordings() throws IOException {
+        Files.write( file, "not a recording, just some text".getBytes( StandardCharsets.UTF_8 ) );
+
+        assertThatThrownBy( () -> FlightRecording.read( file ) ).isInstanceOf( IOException.class );
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.tguzik.metrics.os;
+
+import static com.tguzik.metrics.os.ManualSnapshot.gaugeValue;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.codahale.metrics.Metric;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class HighFrequencySamplerTest {
+    private AtomicReference<Double> value;
+    private HighFrequencySampler sampler;
+    private ManualClock clock;
+
+    @BeforeEach
+    void setUp() {
+        this.value = new AtomicReference<>( 0.0 );
+        this.clock = new ManualClock();
+        this.sampler = new HighFrequencySampler( clock, 1, TimeUnit.SECONDS ).addSource( "hw.cpu.busy", value::get );
+    }
+
+    private void sample( final double... values ) {
+        for ( final double next : values ) {
+            value.set( next );
+            sampler.sample();
+        }
+    }
+
+    @Test
+    void provides_gauges_of_each_source() {
+        assertThat( sampler.getMetrics() ).containsOnlyKeys( "hw.cpu.busy.sampled.max",
+                                                             "hw.cpu.busy.sampled.p99",
+                                                             "hw.cpu.busy.sampled.mean" );
+    }
+
+    @Test
+    void reports_the_previous_interval_once_the_reporting_interval_passes() {
+        final Map<String, Metric> metrics = sampler.getMetrics();
+
+        // The first read summarizes what was sampled so far and starts the first full interval
+        gaugeValue( metrics, "hw.cpu.busy.sampled.max" );
+        sample( 0.2, 0.9, 0.1, 0.2 );
+
+        assertThat( gaugeValue( metrics, "hw.cpu.busy.sampled.max" ) ).isEqualTo( IntervalStatistics.UNAVAILABLE );
+
+        clock.advance( 1, TimeUnit.SECONDS );
+
+        assertThat( gaugeValue( metrics, "hw.cpu.busy.sampled.max" ) ).isEqualTo( 0.9 );
+        assertThat( (Double) gaugeValue( metrics, "hw.cpu.busy.sampled.mean" ) ).isCloseTo( 0.35, within( 1e-9 ) );
+    }
+
+    @Test
+    void a_report_that_fires_early_still_gets_an_interval_of_its_own() {
+        final Map<String, Metric> metrics = sampler.getMetrics();
+
+        gaugeValue( metrics, "hw.cpu.busy.sampled.max" );
+        sample( 0.3 );
+        clock.advance( 1, TimeUnit.SECONDS );
+        assertThat( gaugeValue( metrics, "hw.cpu.busy.sampled.max" ) ).isEqualTo( 0.3 );
+
+        sample( 0.97, 0.1 );
+        clock.advance( 990, TimeUnit.MILLISECONDS );
+
+        assertThat( gaugeValue( metrics, "hw.cpu.busy.sampled.max" ) ).isEqualTo( 0.97 );
+        assertThat( (Double) gaugeValue( metrics, "hw.cpu.busy.sampled.mean" ) ).isCloseTo( 0.535, within( 1e-9 ) );
+    }
+
+    @Test
+    void a_failing_source_does_not_stop_the_other_ones() {
+        final Map<String, Metric> metrics = sampler.addSource( "broken", () -> {
+            throw new IllegalStateException( "not on this kernel" );
+        } ).getMetrics();
+
+        gaugeValue( metrics, "hw.cpu.busy.sampled.max" );
+        sample( 0.5 );
+        clock.advance( 1, TimeUnit.SECONDS );
+
+        assertThat( gaugeValue( metrics, "hw.cpu.busy.sampled.max" ) ).isEqualTo( 0.5 );
+        assertThat( gaugeValue( metrics, "broken.sampled.max" ) ).isEqualTo( IntervalStatistics.UNAVAILABLE );
+    }
+
+    @Test
+    @SuppressWarnings( "unchecked" )
+    void schedules_the_sampling_once_and_cancels_it_on_close() {
+        final ScheduledExecutorService executor = mock( ScheduledExecutorService.class );
+        final ScheduledFuture<Object> future = mock( ScheduledFuture.class );
+        when( executor.scheduleAtFixedRate( any(), anyLong(), anyLong(), any() ) ).then( invocation -> future );
+
+        sampler.start( executor, 100, TimeUnit.MILLISECONDS );
+        sampler.start( executor, 100, TimeUnit.MILLISECONDS );
+
+        assertThat( sampler.isRunning() ).isTrue();
+        verify( executor, times( 1 ) ).scheduleAtFixedRate( any(), eq( 0L ), eq( 100L ), eq( TimeUnit.MILLISECONDS ) );
+
+        sampler.close();
+
+        assertThat( sampler.isRunning() ).isFalse();
+        verify( future ).cancel( false );
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.tguzik.metrics.os;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class IntLongHashMapTest {
+    private final IntLongHashMap map = new IntLongHashMap();
+
+    @Test
+    void returns_the_default_for_missing_keys() {
+        map.put( 1, 10 );
+
+        assertThat( map.get( 1, -1 ) ).isEqualTo( 10 );
+        assertThat( map.get( 2, -1 ) ).isEqualTo( -1 );
+    }
+
+    @Test
+    void keeps_all_entries_while_growing() {
+        for ( int pid = 0; pid < 100_000; pid++ ) {
+            map.put( pid, pid * 2L );
+        }
+
+        map.put( 7, 1 );
+
+        assertThat( map.size() ).isEqualTo( 100_000 );
+        assertThat( map.get( 7, -1 ) ).isEqualTo( 1 );
+        assertThat( map.get( 99_999, -1 ) ).isEqualTo( 199_998 );
+        assertThat( map.get( 100_000, -1 ) ).isEqualTo( -1 );
+    }
+
+    @Test
+    void clear_forgets_all_entries() {
+        map.put( 1, 10 );
+        map.put( -5, 20 );
+        map.clear();
+
+        assertThat( map.size() ).isZero();
+        assertThat( map.get( 1, -1 ) ).isEqualTo( -1 );
+        assertThat( map.get( -5, -1 ) ).isEqualTo( -1 );
+    }
+
+    @Test
+    void rejects_the_reserved_key() {
+        assertThatThrownBy( () -> map.put( Integer.MIN_VALUE, 1 ) ).isInstanceOf( IllegalArgumentException.class );
+    }
+
+}
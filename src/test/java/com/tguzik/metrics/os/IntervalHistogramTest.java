@@ -0,0 +1,92 @@
+package com.tguzik.metrics.os;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class IntervalHistogramTest {
+    private IntervalHistogram histogram;
+
+    @BeforeEach
+    void setUp() {
+        this.histogram = new IntervalHistogram();
+    }
+
+    @Test
+    void empty_interval_is_unavailable() {
+        final IntervalStatistics statistics = histogram.roll();
+
+        assertThat( statistics.getCount() ).isZero();
+        assertThat( statistics.getMean() ).isEqualTo( IntervalStatistics.UNAVAILABLE );
+        assertThat( statistics.getP99() ).isEqualTo( IntervalStatistics.UNAVAILABLE );
+        assertThat( statistics.getMax() ).isEqualTo( IntervalStatistics.UNAVAILABLE );
+    }
+
+    @Test
+    void summarizes_the_samples_of_an_interval() {
+        for ( int i = 1; i <= 1000; i++ ) {
+            histogram.record( i );
+        }
+
+        final IntervalStatistics statistics = histogram.roll();
+
+        assertThat( statistics.getCount() ).isEqualTo( 1000 );
+        assertThat( statistics.getMean() ).isCloseTo( 500.5, within( 1e-9 ) );
+        assertThat( statistics.getMax() ).isEqualTo( 1000.0 );
+        assertThat( statistics.getP99() ).isCloseTo( 990.0, within( 990.0 * 0.03 ) );
+    }
+
+    @Test
+    void keeps_a_short_spike_as_the_maximum() {
+        for ( int i = 0; i < 600; i++ ) {
+            histogram.record( 0.1 );
+        }
+        histogram.record( 0.97 );
+
+        final IntervalStatistics statistics = histogram.roll();
+
+        assertThat( statistics.getMax() ).isEqualTo( 0.97 );
+        assertThat( statistics.getP99() ).isCloseTo( 0.1, within( 0.1 * 0.03 ) );
+    }
+
+    @Test
+    void each_interval_starts_from_scratch() {
+        histogram.record( 100 );
+        histogram.roll();
+        histogram.record( 2 );
+        histogram.record( 4 );
+
+        final IntervalStatistics statistics = histogram.roll();
+
+        assertThat( statistics.getCount() ).isEqualTo( 2 );
+        assertThat( statistics.getMean() ).isCloseTo( 3.0, within( 1e-9 ) );
+        assertThat( statistics.getMax() ).isEqualTo( 4.0 );
+        assertThat( statistics.getP99() ).isLessThanOrEqualTo( 4.0 );
+    }
+
+    @Test
+    void ignores_unavailable_values() {
+        histogram.record( -1 );
+        histogram.record( Double.NaN );
+        histogram.record( 5 );
+
+        final IntervalStatistics statistics = histogram.roll();
+
+        assertThat( statistics.getCount() ).isEqualTo( 1 );
+        assertThat( statistics.getMax() ).isEqualTo( 5.0 );
+    }
+
+    @Test
+    void values_out_of_range_are_clamped_into_the_extreme_buckets() {
+        histogram.record( 0 );
+        histogram.record( 1e18 );
+
+        final IntervalStatistics statistics = histogram.roll();
+
+        assertThat( statistics.getMax() ).isEqualTo( 1e18 );
+        assertThat( statistics.getP99() ).isGreaterThan( 0x1p47 ).isLessThanOrEqualTo( 1e18 );
+    }
+
+}
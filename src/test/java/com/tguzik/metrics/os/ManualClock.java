@@ -0,0 +1,35 @@
+package com.tguzik.metrics.os;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.codahale.metrics.Clock;
+
+/** Clock that only moves when the test tells it to */
+class ManualClock extends Clock {
+    private final AtomicLong tick;
+
+    ManualClock() {
+        this( TimeUnit.HOURS.toNanos( 1 ) );
+    }
+
+    /** System.nanoTime() may just as well start below zero */
+    ManualClock( final long tick ) {
+        this.tick = new AtomicLong( tick );
+    }
+
+    @Override
+    public long getTick() {
+        return tick.get();
+    }
+
+    @Override
+    public long getTime() {
+        return TimeUnit.NANOSECONDS.toMillis( tick.get() );
+    }
+
+    void advance( final long amount, final TimeUnit unit ) {
+        tick.addAndGet( unit.toNanos( amount ) );
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.tguzik.metrics.os;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+
+/** Snapshot of whatever reading the test sets, expiring after a second of its {@link ManualClock} */
+class ManualSnapshot<T> {
+    private final AtomicReference<T> reading;
+    private final CachedSnapshot<T> snapshot;
+    private final AtomicInteger loads;
+    private final ManualClock clock;
+
+    ManualSnapshot( final String name, final T reading ) {
+        this.reading = new AtomicReference<>( reading );
+        this.loads = new AtomicInteger();
+        this.clock = new ManualClock();
+        this.snapshot = new CachedSnapshot<>( name, clock, 1, TimeUnit.SECONDS, () -> {
+            loads.incrementAndGet();
+            return this.reading.get();
+        } );
+    }
+
+    CachedSnapshot<T> getSnapshot() {
+        return snapshot;
+    }
+
+    ManualClock getClock() {
+        return clock;
+    }
+
+    /** How many times the snapshot read the reading */
+    int getLoads() {
+        return loads.get();
+    }
+
+    /** Sets the reading returned by the next refresh */
+    void set( final T next ) {
+        reading.set( next );
+    }
+
+    /** Sets the reading, lets given time pass and refreshes the snapshot */
+    void refreshAfter( final long amount, final TimeUnit unit, final T next ) {
+        reading.set( next );
+        clock.advance( amount, unit );
+        snapshot.get();
+    }
+
+    static Object gaugeValue( final Map<String, ? extends Metric> metrics, final String name ) {
+        return ( (Gauge<?>) metrics.get( name ) ).getValue();
+    }
+
+}
@@ -0,0 +1,125 @@
+package com.tguzik.metrics.os;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class NetworkInterfaceGaugeSetTest {
+    private AtomicReference<NetworkInterfacesReading> interfaces;
+    private CachedSnapshot<NetworkInterfacesReading> snapshot;
+    private NetworkInterfaceGaugeSet gaugeSet;
+    private ManualClock clock;
+
+    @BeforeEach
+    void setUp() {
+        this.interfaces = new AtomicReference<>( reading( eth( "eth0", 1000 ), eth( "lo", 0 ) ) );
+        this.clock = new ManualClock();
+        this.snapshot = new CachedSnapshot<>( "net.interfaces", clock, 1, TimeUnit.SECONDS, interfaces::get );
+        this.gaugeSet = new NetworkInterfaceGaugeSet( snapshot );
+    }
+
+    private static NetworkInterfaceReading eth( final String name, final long bytesReceived ) {
+        return new NetworkInterfaceReading( name, bytesReceived, 2, 3, 4, 5, 6, 7, 1_000_000_000L );
+    }
+
+    private static NetworkInterfacesReading reading( final NetworkInterfaceReading... interfaces ) {
+        return new NetworkInterfacesReading( Arrays.asList( interfaces ) );
+    }
+
+    private void refreshAfterOneSecond( final NetworkInterfacesReading reading ) {
+        interfaces.set( reading );
+        clock.advance( 1, TimeUnit.SECONDS );
+        snapshot.get();
+    }
+
+    @Test
+    void provides_gauges_for_each_interface() {
+        final Map<String, Metric> metrics = gaugeSet.getMetrics();
+
+        assertThat( metrics ).containsKeys( "hw.net.eth0.bytes.received",
+                                            "hw.net.eth0.bytes.sent",
+                                            "hw.net.eth0.packets.received",
+                                            "hw.net.eth0.packets.sent",
+                                            "hw.net.eth0.errors.received",
+                                            "hw.net.eth0.errors.sent",
+                                            "hw.net.eth0.drops.received",
+                                            "hw.net.eth0.speed",
+                                            "hw.net.eth0.bytes.received.rate",
+                                            "hw.net.eth0.bytes.sent.rate.15m",
+                                            "hw.net.lo.bytes.received" );
+
+        assertThat( ( (Gauge<?>) metrics.get( "hw.net.eth0.bytes.received" ) ).getValue() ).isEqualTo( 1000L );
+        assertThat( ( (Gauge<?>) metrics.get( "hw.net.eth0.drops.received" ) ).getValue() ).isEqualTo( 7L );
+        assertThat( ( (Gauge<?>) metrics.get( "hw.net.eth0.speed" ) ).getValue() ).isEqualTo( 1_000_000_000L );
+    }
+
+    @Test
+    void computes_byte_rates_from_the_shared_reads() {
+        final Gauge<?> rate = (Gauge<?>) gaugeSet.getMetrics().get( "hw.net.eth0.bytes.received.rate" );
+
+        refreshAfterOneSecond( reading( eth( "eth0", 1500 ), eth( "lo", 0 ) ) );
+        refreshAfterOneSecond( reading( eth( "eth0", 2500 ), eth( "lo", 0 ) ) );
+
+        assertThat( (Double) rate.getValue() ).isCloseTo( 1000.0, within( 1e-9 ) );
+    }
+
+    @Test
+    void gauges_of_a_missing_interface_become_unavailable() {
+        final Gauge<?> bytes = (Gauge<?>) gaugeSet.getMetrics().get( "hw.net.eth0.bytes.received" );
+
+        refreshAfterOneSecond( reading( eth( "lo", 0 ) ) );
+
+        assertThat( bytes.getValue() ).isEqualTo( DerivedLongGauge.UNAVAILABLE );
+        assertThat( gaugeSet.getMetrics() ).doesNotContainKey( "hw.net.eth0.bytes.received" );
+    }
+
+    @Test
+    void discovery_follows_the_interfaces_in_the_registry() {
+        final MetricRegistry registry = new MetricRegistry();
+
+        gaugeSet.startDiscovery( registry );
+        final Metric lo = registry.getMetrics().get( "hw.net.lo.bytes.received" );
+
+        refreshAfterOneSecond( reading( eth( "lo", 0 ), eth( "veth1234", 10 ) ) );
+
+        assertThat( registry.getNames() ).contains( "hw.net.veth1234.bytes.received", "hw.net.lo.speed" )
+                                         .noneMatch( name -> name.startsWith( "hw.net.eth0." ) );
+        assertThat( registry.getMetrics().get( "hw.net.lo.bytes.received" ) ).isSameAs( lo );
+    }
+
+    @Test
+    void rates_of_discovered_interfaces_start_with_the_refresh_that_discovered_them() {
+        final MetricRegistry registry = new MetricRegistry();
+        gaugeSet.startDiscovery( registry );
+
+        refreshAfterOneSecond( reading( eth( "veth1234", 100 ) ) );
+        refreshAfterOneSecond( reading( eth( "veth1234", 400 ) ) );
+
+        final Gauge<?> rate = (Gauge<?>) registry.getMetrics().get( "hw.net.veth1234.bytes.received.rate" );
+
+        assertThat( (Double) rate.getValue() ).isCloseTo( 300.0, within( 1e-9 ) );
+    }
+
+    @Test
+    void stopping_discovery_removes_only_own_gauges() {
+        final MetricRegistry registry = new MetricRegistry();
+        registry.counter( "hw.net.eth0.something.else" );
+
+        gaugeSet.startDiscovery( registry );
+        gaugeSet.stopDiscovery( registry );
+        refreshAfterOneSecond( reading( eth( "veth1234", 10 ) ) );
+
+        assertThat( registry.getNames() ).containsExactly( "hw.net.eth0.something.else" );
+    }
+
+}
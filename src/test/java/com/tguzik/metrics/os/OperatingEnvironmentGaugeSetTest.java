@@ -1,27 +1,46 @@
 package com.tguzik.metrics.os;
 
+import static com.tguzik.metrics.os.ManualSnapshot.gaugeValue;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 
 import com.codahale.metrics.*;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import oshi.SystemInfo;
+import oshi.hardware.CentralProcessor;
+import oshi.hardware.GlobalMemory;
+import oshi.hardware.Sensors;
+import oshi.software.os.FileSystem;
+import oshi.software.os.InternetProtocolStats;
 
 class OperatingEnvironmentGaugeSetTest {
 
     private SystemInfo shallowStubbedSystemInfo;
     private SystemInfo deeplyStubbedSystemInfo;
     private ImmutableSet<String> expectedKeys;
+    private ImmutableSet<String> textualKeys;
     private MetricRegistry registry;
 
     @BeforeEach
@@ -32,6 +51,19 @@ class OperatingEnvironmentGaugeSetTest {
         this.registry = new MetricRegistry();
 
         this.expectedKeys = ImmutableSet.of( "self.pid",
+                                             "self.memory.resident",
+                                             "self.memory.virtual",
+                                             "self.cpu.time.user",
+                                             "self.cpu.time.kernel",
+                                             "self.cpu.utilization",
+                                             "self.uptime",
+                                             "self.faults.major",
+                                             "self.faults.minor",
+                                             "self.io.bytes.read",
+                                             "self.io.bytes.written",
+                                             "self.fd.open",
+                                             "self.thread.count",
+                                             "self.context-switches",
                                              "os.uptime",
                                              "os.proc.thread.count",
                                              "os.proc.process.count",
@@ -66,6 +98,7 @@ class OperatingEnvironmentGaugeSetTest {
                                              "os.net.ipv6.tcp.segments.sent",
                                              "os.fs.fd.open",
                                              "os.fs.fd.max",
+                                             "hw.disk.count",
                                              "os.family",
                                              "os.bits",
                                              "hw.sensors.cpu.temperature",
@@ -82,7 +115,42 @@ class OperatingEnvironmentGaugeSetTest {
                                              "hw.cpu.interrupts",
                                              "hw.cpu.id",
                                              "hw.cpu.freq.max",
-                                             "hw.cpu.context-switches" );
+                                             "hw.cpu.context-switches",
+                                             "hw.cpu.load-average.1m",
+                                             "hw.cpu.load-average.5m",
+                                             "hw.cpu.load-average.15m",
+                                             "hw.cpu.utilization.user",
+                                             "hw.cpu.utilization.system",
+                                             "hw.cpu.utilization.iowait",
+                                             "hw.cpu.utilization.irq",
+                                             "hw.cpu.utilization.steal",
+                                             "hw.cpu.utilization.idle" );
+        this.expectedKeys = Sets.union( expectedKeys, cgroupKeys() ).immutableCopy();
+
+        this.textualKeys = ImmutableSet.of( "os.family",
+                                            "os.net.hostname",
+                                            "os.net.domainname",
+                                            "os.net.dnsservers",
+                                            "os.net.ipv4.gateway.default",
+                                            "os.net.ipv6.gateway.default",
+                                            "hw.cpu.id" );
+    }
+
+    /** Every counter, the rates of the monotonic ones, and the two derived gauges */
+    private static ImmutableSet<String> cgroupKeys() {
+        final ImmutableSet.Builder<String> product = ImmutableSet.builder();
+
+        for ( final CgroupCounter counter : CgroupCounter.values() ) {
+            final String name = "cgroup." + counter.getName();
+
+            product.add( name );
+
+            if ( counter.isMonotonic() ) {
+                product.add( name + ".rate", name + ".rate.1m", name + ".rate.5m", name + ".rate.15m" );
+            }
+        }
+
+        return product.add( "cgroup.version", "cgroup.cpu.limit" ).build();
     }
 
     @Nested
@@ -125,12 +193,28 @@ class OperatingEnvironmentGaugeSetTest {
             assertThat( registry.getTimers() ).isEmpty();
         }
 
+        @Test
+        void only_textual_values_are_stringified() {
+            final Map<String, Metric> actual = gaugeSet.getMetrics();
+
+            assertThat( actual ).allSatisfy( ( k, v ) -> {
+                final Object value = ( (Gauge<?>) v ).getValue();
+
+                if ( textualKeys.contains( k ) ) {
+                    assertThat( value ).describedAs( "%s is textual", k ).isInstanceOf( String.class );
+                }
+                else {
+                    assertThat( value ).describedAs( "%s is numeric", k ).isInstanceOf( Number.class );
+                }
+            } );
+        }
+
     }
 
     @Nested
     class UsingMockedSystemInfo {
 
-        private BiConsumer<String, Metric> gaugeReturnsOneOf( final String... acceptedValues ) {
+        private BiConsumer<String, Metric> gaugeReturnsOneOf( final Object... acceptedValues ) {
             return ( name, metric ) -> {
                 assertThat( metric ).describedAs( "%s is not a gauge", name ).isInstanceOf( Gauge.class );
 
@@ -139,7 +223,6 @@ class OperatingEnvironmentGaugeSetTest {
 
                 assertThat( returnedValue ).describedAs( "%s one of desired values", name )
                                            .isNotNull()
-                                           .isInstanceOf( String.class )
                                            .isIn( ImmutableList.copyOf( acceptedValues ) );
             };
         }
@@ -157,10 +240,39 @@ class OperatingEnvironmentGaugeSetTest {
             }
 
             @Test
-            void each_metric_returns_empty_string() {
+            void each_metric_returns_empty_string_or_unavailable_marker() {
                 final Map<String, Metric> actual = gaugeSet.getMetrics();
 
-                assertThat( actual ).isNotNull().containsOnlyKeys( expectedKeys ).allSatisfy( gaugeReturnsOneOf( "" ) );
+                assertThat( actual ).isNotNull()
+                                    .containsOnlyKeys( expectedKeys )
+                                    .allSatisfy( gaugeReturnsOneOf( "",
+                                                                    DerivedLongGauge.UNAVAILABLE,
+                                                                    DerivedDoubleGauge.UNAVAILABLE ) );
+            }
+
+            @Test
+            void backs_off_from_a_cpu_temperature_sensor_that_oshi_cannot_read() {
+                final ManualClock clock = new ManualClock();
+                final Sensors sensors = deeplyStubbedSystemInfo.getHardware().getSensors();
+                when( sensors.getCpuTemperature() ).thenReturn( 0.0, Double.NaN );
+
+                final RefreshPolicies policies = new RefreshPolicies().withFailureBackoff( 1, 3 );
+                final Map<String, Metric> metrics = OperatingEnvironmentGaugeSet.builder()
+                                                                                 .withProbes( new OshiProbes(
+                                                                                     deeplyStubbedSystemInfo ) )
+                                                                                 .withClock( clock )
+                                                                                 .withFamilies( GaugeFamily.MISC )
+                                                                                 .withRefreshPolicies( policies )
+                                                                                 .build()
+                                                                                 .getMetrics();
+
+                for ( int i = 0; i < 10; i++ ) {
+                    assertThat( gaugeValue( metrics, "hw.sensors.cpu.temperature" ) )
+                        .isEqualTo( DerivedDoubleGauge.UNAVAILABLE );
+                    clock.advance( 1, TimeUnit.HOURS );
+                }
+
+                verify( sensors, times( 3 ) ).getCpuTemperature();
             }
 
             @Test
@@ -187,16 +299,20 @@ class OperatingEnvironmentGaugeSetTest {
             }
 
             /**
-             * Some SystemInfo values return an {@code int} or a {@code double}, so we can't easily recognize
-             * whether it was a failure or the underlying is really at zero.
+             * Deep stubs return zero for every primitive, but they can't stub final classes like TCP statistics or
+             * arrays like CPU ticks - those come back as nulls, so the related gauges report the unavailable marker.
              */
             @Test
-            void each_metric_returns_zero_or_an_empty_string() {
+            void each_metric_returns_zero_unavailable_marker_or_an_empty_string() {
                 final Map<String, Metric> actual = gaugeSet.getMetrics();
 
                 assertThat( actual ).isNotNull()
                                     .containsOnlyKeys( expectedKeys )
-                                    .allSatisfy( gaugeReturnsOneOf( "", "0", "0.0" ) );
+                                    .allSatisfy( gaugeReturnsOneOf( "",
+                                                                    0L,
+                                                                    0.0,
+                                                                    DerivedLongGauge.UNAVAILABLE,
+                                                                    DerivedDoubleGauge.UNAVAILABLE ) );
             }
 
             @Test
@@ -212,6 +328,363 @@ class OperatingEnvironmentGaugeSetTest {
 
     }
 
+    @Nested
+    class SharingSnapshots {
+        private OperatingEnvironmentGaugeSet gaugeSet;
+        private ManualClock clock;
+
+        @BeforeEach
+        void setUp() {
+            this.clock = new ManualClock();
+            this.gaugeSet = new OperatingEnvironmentGaugeSet( deeplyStubbedSystemInfo, clock, 1, TimeUnit.SECONDS );
+        }
+
+        private void scrape( final Map<String, Metric> metrics ) {
+            metrics.values().forEach( metric -> ( (Gauge<?>) metric ).getValue() );
+        }
+
+        private void verifyOsReads( final int expectedPerGroup ) {
+            final InternetProtocolStats ip = deeplyStubbedSystemInfo.getOperatingSystem().getInternetProtocolStats();
+            final FileSystem fileSystem = deeplyStubbedSystemInfo.getOperatingSystem().getFileSystem();
+            final CentralProcessor cpu = deeplyStubbedSystemInfo.getHardware().getProcessor();
+            final GlobalMemory memory = deeplyStubbedSystemInfo.getHardware().getMemory();
+
+            verify( ip, times( expectedPerGroup ) ).getTCPv4Stats();
+            verify( ip, times( expectedPerGroup ) ).getTCPv6Stats();
+            verify( ip, times( expectedPerGroup ) ).getUDPv4Stats();
+            verify( ip, times( expectedPerGroup ) ).getUDPv6Stats();
+            verify( memory, times( expectedPerGroup ) ).getAvailable();
+            verify( memory, times( expectedPerGroup ) ).getVirtualMemory();
+            verify( cpu, times( expectedPerGroup ) ).getInterrupts();
+            verify( cpu, times( expectedPerGroup ) ).getContextSwitches();
+            verify( cpu, times( expectedPerGroup ) ).getSystemCpuLoadTicks();
+            verify( cpu, times( expectedPerGroup ) ).getSystemLoadAverage( 3 );
+            verify( fileSystem, times( expectedPerGroup ) ).getOpenFileDescriptors();
+            verify( deeplyStubbedSystemInfo.getOperatingSystem(), times( expectedPerGroup ) ).getNetworkParams();
+        }
+
+        @Test
+        void one_scrape_results_in_one_os_read_per_group() {
+            scrape( gaugeSet.getMetrics() );
+
+            verifyOsReads( 1 );
+        }
+
+        @Test
+        void per_processor_gauges_are_discovered_on_first_scrape_and_share_one_read() {
+            final CentralProcessor cpu = deeplyStubbedSystemInfo.getHardware().getProcessor();
+            when( cpu.getLogicalProcessorCount() ).thenReturn( 8 );
+            when( cpu.getSystemCpuLoadTicks() ).thenReturn( new long[8] );
+            when( cpu.getProcessorCpuLoadTicks() ).thenReturn( new long[8][8] );
+
+            new OperatingEnvironmentGaugeSet( deeplyStubbedSystemInfo, clock, 1, TimeUnit.SECONDS ).startDiscovery(
+                registry );
+
+            assertThat( registry.getMetrics() ).doesNotContainKey( "hw.cpu.0.utilization.user" );
+
+            scrape( registry.getMetrics() );
+            scrape( registry.getMetrics() );
+
+            assertThat( registry.getMetrics() ).containsKeys( "hw.cpu.0.utilization.user",
+                                                              "hw.cpu.7.utilization.steal",
+                                                              "hw.cpu.7.freq.current" );
+            verify( cpu, times( 1 ) ).getProcessorCpuLoadTicks();
+            verify( cpu, times( 1 ) ).getCurrentFreq();
+        }
+
+        @Test
+        void rates_are_computed_from_the_shared_reads() {
+            final CentralProcessor cpu = deeplyStubbedSystemInfo.getHardware().getProcessor();
+            when( cpu.getInterrupts() ).thenReturn( 1_000L, 1_500L );
+
+            gaugeSet.setRatesIncluded( true );
+            final Map<String, Metric> metrics = gaugeSet.getMetrics();
+
+            scrape( metrics );
+            clock.advance( 10, TimeUnit.SECONDS );
+            scrape( metrics );
+
+            assertThat( ( (Gauge<?>) metrics.get( "hw.cpu.interrupts.rate" ) ).getValue() ).isEqualTo( 50.0 );
+            assertThat( ( (Gauge<?>) metrics.get( "hw.cpu.interrupts.rate.1m" ) ).getValue() ).isEqualTo( 50.0 );
+            assertThat( metrics ).containsKeys( "os.net.ipv4.tcp.segments.retransmitted.rate.5m",
+                                                "os.net.ipv6.udp.datagrams.received.errors.rate.15m" );
+            verifyOsReads( 2 );
+        }
+
+        @Test
+        void rates_are_not_included_by_default() {
+            assertThat( gaugeSet.getMetrics() ).doesNotContainKey( "hw.cpu.interrupts.rate" );
+            assertThat( gaugeSet.getRates().getMetrics() ).containsKey( "hw.cpu.interrupts.rate" );
+        }
+
+        @Test
+        void repeated_scrapes_within_cache_timeout_do_not_read_again() {
+            final Map<String, Metric> metrics = gaugeSet.getMetrics();
+
+            scrape( metrics );
+            scrape( metrics );
+            scrape( gaugeSet.getMetrics() );
+
+            verifyOsReads( 1 );
+        }
+
+        @Test
+        void scrapes_do_not_read_at_all_when_sampled_in_background() {
+            final ScheduledExecutorService executor = mock( ScheduledExecutorService.class );
+            doReturn( mock( ScheduledFuture.class ) ).when( executor )
+                                                     .scheduleWithFixedDelay( any(), anyLong(), anyLong(), any() );
+
+            final ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass( Runnable.class );
+
+            try ( SamplingEngine.Lease sampling = gaugeSet.sampleInBackground( executor ) ) {
+                verify( executor ).scheduleWithFixedDelay( task.capture(), anyLong(), anyLong(), any() );
+
+                scrape( gaugeSet.getMetrics() );
+                verifyOsReads( 0 );
+
+                task.getValue().run();
+                scrape( gaugeSet.getMetrics() );
+                verifyOsReads( 1 );
+            }
+        }
+
+        @Test
+        void gauge_sets_of_one_engine_share_the_background_sampler() {
+            final SamplingEngine engine = new SamplingEngine( () -> new OshiProbes( deeplyStubbedSystemInfo ), clock );
+            final ScheduledExecutorService executor = mock( ScheduledExecutorService.class );
+            final ScheduledFuture<?> future = mock( ScheduledFuture.class );
+            doReturn( future ).when( executor ).scheduleWithFixedDelay( any(), anyLong(), anyLong(), any() );
+
+            try ( OperatingEnvironmentGaugeSet first = OperatingEnvironmentGaugeSet.builder()
+                                                                                    .withEngine( engine )
+                                                                                    .build();
+                  OperatingEnvironmentGaugeSet second = OperatingEnvironmentGaugeSet.builder()
+                                                                                     .withEngine( engine )
+                                                                                     .build() ) {
+                final SamplingEngine.Lease firstSampling = first.sampleInBackground( executor );
+                final SamplingEngine.Lease secondSampling = second.sampleInBackground( executor );
+
+                verify( executor, times( 1 ) ).scheduleWithFixedDelay( any(), anyLong(), anyLong(), any() );
+
+                firstSampling.close();
+                first.close();
+
+                assertThat( engine.isSampledInBackground( 1, TimeUnit.SECONDS ) ).isTrue();
+                verify( future, never() ).cancel( anyBoolean() );
+
+                secondSampling.close();
+
+                assertThat( engine.isSampledInBackground( 1, TimeUnit.SECONDS ) ).isFalse();
+                verify( future ).cancel( false );
+            }
+        }
+
+        @Test
+        void gauge_sets_of_one_engine_attach_their_listeners_once() {
+            final SamplingEngine engine = new SamplingEngine( () -> new OshiProbes( deeplyStubbedSystemInfo ), clock );
+
+            try ( OperatingEnvironmentGaugeSet reporter = OperatingEnvironmentGaugeSet.builder()
+                                                                                       .withEngine( engine )
+                                                                                       .build() ) {
+                openAndClose( engine, reporter, 1 );
+                final int listeners = countListeners( reporter.getSnapshots() );
+                openAndClose( engine, reporter, 10 );
+
+                assertThat( listeners ).isPositive();
+                assertThat( countListeners( reporter.getSnapshots() ) ).isEqualTo( listeners );
+            }
+        }
+
+        private void openAndClose( final SamplingEngine engine,
+                                   final OperatingEnvironmentGaugeSet reporter,
+                                   final int times ) {
+            for ( int i = 0; i < times; i++ ) {
+                try ( OperatingEnvironmentGaugeSet tenant = OperatingEnvironmentGaugeSet.builder()
+                                                                                         .withEngine( engine )
+                                                                                         .withRates( true )
+                                                                                         .build() ) {
+                    useEverything( tenant );
+                    assertThat( tenant.getCollectorMetrics() ).isSameAs( reporter.getCollectorMetrics() );
+                }
+            }
+        }
+
+        private void useEverything( final OperatingEnvironmentGaugeSet gaugeSet ) {
+            gaugeSet.getMetrics();
+            gaugeSet.getSelf().getMetrics();
+            gaugeSet.getCgroup().getMetrics();
+            gaugeSet.getDisks().getMetrics();
+            gaugeSet.getTopProcesses().getMetrics();
+            gaugeSet.getCollectorMetrics().getMetrics();
+            gaugeSet.getNetworkInterfaces().getMetrics();
+        }
+
+        private int countListeners( final SharedSnapshots snapshots ) {
+            return snapshots.getAll().stream().mapToInt( CachedSnapshot::getListenerCount ).sum();
+        }
+
+        @Test
+        void gauge_sets_of_one_engine_read_once_for_all_of_them() {
+            final SamplingEngine engine = new SamplingEngine( () -> new OshiProbes( deeplyStubbedSystemInfo ), clock );
+
+            try ( OperatingEnvironmentGaugeSet tenant = OperatingEnvironmentGaugeSet.builder()
+                                                                                     .withEngine( engine )
+                                                                                     .withPrefix( "tenant" )
+                                                                                     .build();
+                  OperatingEnvironmentGaugeSet reporter = OperatingEnvironmentGaugeSet.builder()
+                                                                                       .withEngine( engine )
+                                                                                       .withFamilies( GaugeFamily.CORE )
+                                                                                       .build() ) {
+                final Map<String, Metric> tenantMetrics = tenant.getMetrics();
+                final Map<String, Metric> reporterMetrics = reporter.getMetrics();
+
+                scrape( tenantMetrics );
+                scrape( reporterMetrics );
+
+                assertThat( tenantMetrics ).containsKeys( "tenant.hw.mem.available", "tenant.os.net.hostname" );
+                assertThat( reporterMetrics ).containsKey( "hw.mem.available" ).doesNotContainKey( "os.net.hostname" );
+                assertThat( engine.getReferences( 1, TimeUnit.SECONDS ) ).isEqualTo( 2 );
+                verifyOsReads( 1 );
+            }
+
+            assertThat( engine.getReferences( 1, TimeUnit.SECONDS ) ).isZero();
+        }
+
+        @Test
+        void scrapes_after_cache_timeout_read_once_more_per_group() {
+            final Map<String, Metric> metrics = gaugeSet.getMetrics();
+
+            scrape( metrics );
+            clock.advance( 1, TimeUnit.SECONDS );
+            scrape( metrics );
+            scrape( metrics );
+
+            verifyOsReads( 2 );
+        }
+
+    }
+
+    @Nested
+    class SelectingFamilies {
+        private int systemInfoRequests;
+
+        private SystemProbes countingProbes() {
+            return new OshiProbes( () -> {
+                systemInfoRequests++;
+                return deeplyStubbedSystemInfo;
+            } );
+        }
+
+        @Test
+        void builder_includes_only_selected_families() {
+            final ImmutableSet<String> miscKeys = ImmutableSet.of( "self.pid",
+                                                                   "os.bits",
+                                                                   "os.family",
+                                                                   "hw.cpu.id",
+                                                                   "hw.cpu.logical.count",
+                                                                   "hw.cpu.physical.count",
+                                                                   "hw.cpu.physical.packages",
+                                                                   "hw.sensors.cpu.temperature" );
+            final OperatingEnvironmentGaugeSet gaugeSet = OperatingEnvironmentGaugeSet.builder()
+                                                                                      .withProbes( countingProbes() )
+                                                                                      .withFamilies( GaugeFamily.NETWORK,
+                                                                                                     GaugeFamily.MISC )
+                                                                                      .build();
+
+            assertThat( gaugeSet.getMetrics() ).containsOnlyKeys( Sets.filter( expectedKeys,
+                                                                               key -> key.startsWith( "os.net." )
+                                                                                      || miscKeys.contains( key ) ) );
+        }
+
+        @Test
+        void builder_includes_all_families_by_default() {
+            final OperatingEnvironmentGaugeSet gaugeSet = OperatingEnvironmentGaugeSet.builder()
+                                                                                      .withProbes( countingProbes() )
+                                                                                      .withRates( true )
+                                                                                      .build();
+
+            assertThat( gaugeSet.getFamilies() ).containsExactlyInAnyOrder( GaugeFamily.values() );
+            assertThat( gaugeSet.getMetrics() ).containsKeys( expectedKeys.toArray( new String[0] ) )
+                                               .containsKey( "hw.cpu.interrupts.rate" );
+        }
+
+        @Test
+        void background_sampling_reads_only_the_sources_of_the_selected_families() {
+            final SystemProbes probes = mock( SystemProbes.class );
+            final ScheduledExecutorService executor = mock( ScheduledExecutorService.class );
+            final ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass( Runnable.class );
+            final ManualClock clock = new ManualClock();
+            doReturn( mock( ScheduledFuture.class ) ).when( executor )
+                                                     .scheduleWithFixedDelay( any(), anyLong(), anyLong(), any() );
+
+            try ( OperatingEnvironmentGaugeSet gaugeSet = OperatingEnvironmentGaugeSet.builder()
+                                                                                       .withProbes( probes )
+                                                                                       .withClock( clock )
+                                                                                       .withFamilies( GaugeFamily.CORE )
+                                                                                       .build();
+                  SamplingEngine.Lease sampling = gaugeSet.sampleInBackground( executor ) ) {
+                verify( executor ).scheduleWithFixedDelay( task.capture(), anyLong(), anyLong(), any() );
+
+                gaugeSet.getMetrics().values().forEach( metric -> ( (Gauge<?>) metric ).getValue() );
+
+                for ( int i = 0; i < 3; i++ ) {
+                    task.getValue().run();
+                    clock.advance( 1, TimeUnit.MINUTES );
+                }
+
+                verify( probes, times( 3 ) ).getMemory();
+                verify( probes, never() ).getProcesses();
+                verify( probes, never() ).getCurrentProcess();
+                verify( probes, never() ).getCgroup();
+                verify( probes, never() ).getDiskStores();
+            }
+        }
+
+        @Test
+        void identity_is_read_once_and_accounted_for_by_the_collector() {
+            final SystemProbes probes = mock( SystemProbes.class );
+            final ManualClock clock = new ManualClock();
+            when( probes.getProcessId() ).thenReturn( 42 );
+            when( probes.getFamily() ).thenThrow( new IllegalStateException( "no oshi here" ) );
+
+            final OperatingEnvironmentGaugeSet gaugeSet = OperatingEnvironmentGaugeSet.builder()
+                                                                                      .withProbes( probes )
+                                                                                      .withClock( clock )
+                                                                                      .withFamilies( GaugeFamily.MISC )
+                                                                                      .build();
+            final Map<String, Metric> metrics = gaugeSet.getMetrics();
+            final CollectorStatistics statistics = gaugeSet.getCollectorMetrics()
+                                                           .getStatistics( IdentitySnapshots.GROUP );
+
+            for ( int i = 0; i < 3; i++ ) {
+                assertThat( gaugeValue( metrics, "self.pid" ) ).isEqualTo( 42L );
+                assertThat( gaugeValue( metrics, "os.family" ) ).isEqualTo( "" );
+                clock.advance( 1, TimeUnit.DAYS );
+            }
+
+            verify( probes ).getProcessId();
+            verify( probes ).getFamily();
+            assertThat( statistics.getLoadTime().getCount() ).isEqualTo( 2 );
+            assertThat( statistics.getFailures().getCount() ).isEqualTo( 1 );
+        }
+
+        @Test
+        void system_info_is_not_initialized_until_first_read() {
+            final Map<String, Metric> metrics = OperatingEnvironmentGaugeSet.builder()
+                                                                            .withProbes( countingProbes() )
+                                                                            .withRates( true )
+                                                                            .build()
+                                                                            .getMetrics();
+
+            assertThat( systemInfoRequests ).isZero();
+
+            ( (Gauge<?>) metrics.get( "os.net.hostname" ) ).getValue();
+
+            assertThat( systemInfoRequests ).isEqualTo( 1 );
+        }
+
+    }
+
     @Nested
     class UsingRealSystemInfo {
         private OperatingEnvironmentGaugeSet gaugeSet;
@@ -224,23 +697,29 @@ class OperatingEnvironmentGaugeSetTest {
                                                                    TimeUnit.SECONDS ) );
         }
 
-        private void returnsString( final String name, final Metric metric ) {
+        private void returnsStringOrNumber( final String name, final Metric metric ) {
             assertThat( metric ).describedAs( "%s is not a gauge", name ).isInstanceOf( Gauge.class );
 
             final Gauge<?> gauge = (Gauge<?>) metric;
             final Object returnedValue = gauge.getValue();
 
-            assertThat( returnedValue ).describedAs( "%s returns a string, any string", name )
+            assertThat( returnedValue ).describedAs( "%s returns a string or a number, any of those", name )
                                        .isNotNull()
-                                       .isInstanceOf( String.class );
+                                       .isInstanceOfAny( String.class, Number.class );
         }
 
-        /** We can't assume that we will have access to all metrics each time we run these tests */
+        /**
+         * We can't assume that we will have access to all metrics each time we run these tests, nor how many processors
+         * there are
+         */
         @Test
-        void each_metric_returns_a_string() {
+        void each_metric_returns_a_string_or_a_number() {
             final Map<String, Metric> actual = gaugeSet.getMetrics();
 
-            assertThat( actual ).isNotNull().containsOnlyKeys( expectedKeys ).allSatisfy( this::returnsString );
+            assertThat( actual ).isNotNull().containsKeys( expectedKeys.toArray( new String[0] ) );
+            assertThat( Sets.difference( actual.keySet(), expectedKeys ) )
+                .allMatch( key -> key.matches( "hw\\.cpu\\.\\d+\\..+" ) || key.startsWith( "hw.disk." ) );
+            assertThat( actual ).allSatisfy( this::returnsStringOrNumber );
         }
 
         @Test
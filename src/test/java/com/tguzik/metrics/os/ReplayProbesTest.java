@@ -0,0 +1,118 @@
+package com.tguzik.metrics.os;
+
+import static com.tguzik.metrics.os.ManualSnapshot.gaugeValue;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.Metric;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ReplayProbesTest {
+    @TempDir
+    Path directory;
+
+    private ManualClock clock;
+    private ReplayProbes probes;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        final Path file = directory.resolve( "os.recording" );
+        this.clock = new ManualClock();
+
+        try ( FlightRecorder recorder = FlightRecorder.create( file, 64, clock ) ) {
+            recorder.append( RecordedChannel.MEMORY_TOTAL, 8192 );
+            recorder.append( RecordedChannel.MEMORY_AVAILABLE, 4096 );
+            clock.advance( 10, TimeUnit.SECONDS );
+            recorder.append( RecordedChannel.MEMORY_AVAILABLE, 2048 );
+            recorder.append( RecordedChannel.LOAD_AVERAGE_1M, 1.5 );
+        }
+
+        this.probes = new ReplayProbes( FlightRecording.read( file ), clock );
+    }
+
+    @Test
+    void returns_the_values_recorded_last_at_or_before_the_current_time() {
+        clock.advance( -5, TimeUnit.SECONDS );
+
+        assertThat( probes.getMemory().getTotal() ).isEqualTo( 8192 );
+        assertThat( probes.getMemory().getAvailable() ).isEqualTo( 4096 );
+
+        clock.advance( 5, TimeUnit.SECONDS );
+
+        assertThat( probes.getMemory().getAvailable() ).isEqualTo( 2048 );
+        assertThat( probes.getLoadAverage().getOneMinute() ).isEqualTo( 1.5 );
+    }
+
+    @Test
+    void values_not_recorded_yet_are_unavailable() {
+        clock.advance( -1, TimeUnit.MINUTES );
+
+        assertThat( probes.getMemory().getTotal() ).isEqualTo( -1 );
+        assertThat( probes.getUptime() ).isEqualTo( -1 );
+    }
+
+    @Test
+    void stands_in_for_the_operating_system_behind_the_gauges() {
+        final Map<String, Metric> metrics = new OperatingEnvironmentGaugeSet( probes,
+                                                                              clock,
+                                                                              1,
+                                                                              TimeUnit.SECONDS ).getMetrics();
+
+        assertThat( gaugeValue( metrics, "hw.mem.total" ) ).isEqualTo( 8192L );
+        assertThat( gaugeValue( metrics, "hw.mem.available" ) ).isEqualTo( 2048L );
+        assertThat( gaugeValue( metrics, "hw.cpu.load-average.1m" ) ).isEqualTo( 1.5 );
+    }
+
+    @Test
+    void replays_the_cpu_ticks_of_the_whole_system() throws IOException {
+        final Path file = directory.resolve( "cpu.recording" );
+        final ManualClock recordingClock = new ManualClock();
+        final SystemProbes system = mock( SystemProbes.class );
+        // Columns: user, nice, system, idle, iowait, irq, softirq, steal
+        final Deque<long[]> ticks = new ArrayDeque<>( Arrays.asList( new long[] { 100, 0, 0, 900, 0, 0, 0, 0 },
+                                                                     new long[] { 400, 0, 0, 1600, 0, 0, 0, 0 } ) );
+
+        when( system.getLogicalProcessorCount() ).thenReturn( 2 );
+        doAnswer( invocation -> {
+            final long[][] into = invocation.getArgument( 0 );
+            System.arraycopy( ticks.remove(), 0, into[0], 0, into[0].length );
+            return null;
+        } ).when( system ).readCpuTicks( any() );
+
+        final SharedSnapshots snapshots = new SharedSnapshots( system, recordingClock, 1, TimeUnit.SECONDS );
+
+        try ( FlightRecorder recorder = FlightRecorder.create( file, 64, recordingClock ) ) {
+            recorder.attachTo( snapshots );
+            snapshots.getCpu().getUtilization().get();
+            recordingClock.advance( 1, TimeUnit.SECONDS );
+            snapshots.getCpu().getUtilization().get();
+        }
+
+        final ManualClock replayClock = new ManualClock();
+        final ReplayProbes replay = new ReplayProbes( FlightRecording.read( file ), replayClock );
+        final SharedSnapshots replayed = new SharedSnapshots( replay, replayClock, 1, TimeUnit.SECONDS );
+        final CachedSnapshot<CpuUtilizationReading> utilization = replayed.getCpu().getUtilization();
+
+        utilization.get();
+        replayClock.advance( 1, TimeUnit.SECONDS );
+
+        assertThat( replay.getLogicalProcessorCount() ).isEqualTo( 2 );
+        assertThat( utilization.get().getSystem( CpuTime.USER ) ).isCloseTo( 0.3, within( 1e-9 ) );
+        assertThat( utilization.get().getProcessor( 0, CpuTime.USER ) ).isEqualTo( CpuUtilizationReading.UNAVAILABLE );
+    }
+
+}
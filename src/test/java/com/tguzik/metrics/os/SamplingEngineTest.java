@@ -0,0 +1,70 @@
+package com.tguzik.metrics.os;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SamplingEngineTest {
+    private SamplingEngine engine;
+    private int probeRequests;
+
+    @BeforeEach
+    void setUp() {
+        this.engine = new SamplingEngine( () -> {
+            probeRequests++;
+            return mock( SystemProbes.class );
+        }, new ManualClock() );
+    }
+
+    @Test
+    void leases_of_the_same_timeout_share_the_snapshots() {
+        try ( SamplingEngine.Lease first = engine.acquire( 1, TimeUnit.SECONDS );
+              SamplingEngine.Lease second = engine.acquire( 1000, TimeUnit.MILLISECONDS ) ) {
+
+            assertThat( second.getSnapshots() ).isSameAs( first.getSnapshots() );
+            assertThat( second.getGaugeSets() ).isSameAs( first.getGaugeSets() );
+            assertThat( engine.getReferences( 1, TimeUnit.SECONDS ) ).isEqualTo( 2 );
+        }
+
+        assertThat( probeRequests ).isEqualTo( 1 );
+    }
+
+    @Test
+    void leases_of_different_timeouts_do_not_share_the_snapshots() {
+        try ( SamplingEngine.Lease first = engine.acquire( 1, TimeUnit.SECONDS );
+              SamplingEngine.Lease second = engine.acquire( 5, TimeUnit.SECONDS ) ) {
+
+            assertThat( second.getSnapshots() ).isNotSameAs( first.getSnapshots() );
+            assertThat( second.getSnapshots().getCacheTimeoutNanos() ).isEqualTo( TimeUnit.SECONDS.toNanos( 5 ) );
+        }
+    }
+
+    @Test
+    void snapshots_are_dropped_once_the_last_lease_is_closed() {
+        final SamplingEngine.Lease first = engine.acquire( 1, TimeUnit.SECONDS );
+        final SamplingEngine.Lease second = engine.acquire( 1, TimeUnit.SECONDS );
+
+        first.close();
+        first.close();
+
+        assertThat( engine.getReferences( 1, TimeUnit.SECONDS ) ).isEqualTo( 1 );
+
+        second.close();
+
+        assertThat( engine.getReferences( 1, TimeUnit.SECONDS ) ).isZero();
+
+        try ( SamplingEngine.Lease third = engine.acquire( 1, TimeUnit.SECONDS ) ) {
+            assertThat( third.getSnapshots() ).isNotSameAs( first.getSnapshots() );
+        }
+    }
+
+    @Test
+    void jvm_wide_engine_is_a_single_instance() {
+        assertThat( SamplingEngine.jvmWide() ).isSameAs( SamplingEngine.jvmWide() );
+    }
+
+}
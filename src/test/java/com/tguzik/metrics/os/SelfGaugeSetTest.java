@@ -0,0 +1,86 @@
+package com.tguzik.metrics.os;
+
+import static com.tguzik.metrics.os.ManualSnapshot.gaugeValue;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import oshi.SystemInfo;
+import oshi.software.os.OSProcess;
+
+class SelfGaugeSetTest {
+    private ManualSnapshot<ProcessReading> process;
+    private SelfGaugeSet gaugeSet;
+
+    @BeforeEach
+    void setUp() {
+        this.process = new ManualSnapshot<>( "self", reading( 1000, 500, 10_000 ) );
+        this.gaugeSet = new SelfGaugeSet( process.getSnapshot() );
+    }
+
+    private static ProcessReading reading( final long userTime, final long kernelTime, final long upTime ) {
+        final ProcessReading reading = new ProcessReading();
+
+        reading.set( ProcessCounter.RESIDENT_SIZE, 256L << 20 );
+        reading.set( ProcessCounter.USER_TIME, userTime );
+        reading.set( ProcessCounter.KERNEL_TIME, kernelTime );
+        reading.set( ProcessCounter.UP_TIME, upTime );
+        reading.set( ProcessCounter.THREADS, 42 );
+
+        return reading;
+    }
+
+    @Test
+    void provides_counters_of_the_process() {
+        final Map<String, Metric> metrics = gaugeSet.getMetrics();
+
+        assertThat( gaugeValue( metrics, "self.memory.resident" ) ).isEqualTo( 256L << 20 );
+        assertThat( gaugeValue( metrics, "self.cpu.time.kernel" ) ).isEqualTo( 500L );
+        assertThat( gaugeValue( metrics, "self.thread.count" ) ).isEqualTo( 42L );
+        assertThat( gaugeValue( metrics, "self.faults.major" ) ).isEqualTo( ProcessReading.UNAVAILABLE );
+    }
+
+    @Test
+    void derives_cpu_utilization_from_the_difference_between_refreshes() {
+        final Map<String, Metric> metrics = gaugeSet.getMetrics();
+
+        assertThat( gaugeValue( metrics, "self.cpu.utilization" ) ).isEqualTo( ProcessCpuUtilization.UNAVAILABLE );
+
+        process.refreshAfter( 2, TimeUnit.SECONDS, reading( 3000, 1500, 12_000 ) );
+
+        assertThat( (Double) gaugeValue( metrics, "self.cpu.utilization" ) ).isCloseTo( 1.5, within( 1e-9 ) );
+    }
+
+    @Test
+    void all_gauges_share_one_update_of_the_process() {
+        final SystemInfo systemInfo = mock( SystemInfo.class, Mockito.RETURNS_DEEP_STUBS );
+        final OSProcess osProcess = mock( OSProcess.class );
+        when( systemInfo.getOperatingSystem().getProcessId() ).thenReturn( 1234 );
+        when( systemInfo.getOperatingSystem().getProcess( 1234 ) ).thenReturn( osProcess );
+        when( osProcess.updateAttributes() ).thenReturn( true );
+        when( osProcess.getResidentSetSize() ).thenReturn( 1024L );
+
+        final SharedSnapshots snapshots = new SharedSnapshots( new OshiProbes( systemInfo ),
+                                                               process.getClock(),
+                                                               1,
+                                                               TimeUnit.SECONDS );
+        final Map<String, Metric> metrics = new SelfGaugeSet( snapshots.getCurrentProcess() ).getMetrics();
+
+        metrics.values().forEach( metric -> ( (Gauge<?>) metric ).getValue() );
+
+        assertThat( gaugeValue( metrics, "self.memory.resident" ) ).isEqualTo( 1024L );
+        verify( osProcess, times( 1 ) ).updateAttributes();
+    }
+
+}
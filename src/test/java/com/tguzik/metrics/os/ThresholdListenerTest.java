@@ -0,0 +1,119 @@
+package com.tguzik.metrics.os;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ThresholdListenerTest {
+    private AtomicReference<FileDescriptorsReading> descriptors;
+    private CachedSnapshot<FileDescriptorsReading> snapshot;
+    private List<String> transitions;
+    private ManualClock clock;
+
+    @BeforeEach
+    void setUp() {
+        this.descriptors = new AtomicReference<>();
+        this.clock = new ManualClock();
+        this.snapshot = new CachedSnapshot<>( "fs.fd", clock, 1, TimeUnit.SECONDS, descriptors::get );
+        this.transitions = new ArrayList<>();
+    }
+
+    private void refreshWith( final long open, final long max ) {
+        descriptors.set( new FileDescriptorsReading( open, max ) );
+        clock.advance( 1, TimeUnit.SECONDS );
+        snapshot.get();
+    }
+
+    private void record( final String name, final boolean breached, final double value ) {
+        transitions.add( String.format( "%s %s %.2f", name, breached ? "breached" : "cleared", value ) );
+    }
+
+    private static double usage( final FileDescriptorsReading reading ) {
+        return reading.getMax() <= 0 ? DerivedDoubleGauge.UNAVAILABLE : (double) reading.getOpen() / reading.getMax();
+    }
+
+    @Test
+    void fires_only_on_transitions_with_hysteresis() {
+        final ThresholdListener<FileDescriptorsReading> listener =
+            ThresholdListener.above( "fd", ThresholdListenerTest::usage, 0.9, 0.8, this::record );
+        snapshot.addListener( listener );
+
+        refreshWith( 50, 100 );
+        refreshWith( 95, 100 );
+        refreshWith( 97, 100 );
+        refreshWith( 85, 100 );
+        refreshWith( 91, 100 );
+        refreshWith( 80, 100 );
+        refreshWith( 99, 100 );
+
+        assertThat( transitions ).containsExactly( "fd breached 0.95", "fd cleared 0.80", "fd breached 0.99" );
+        assertThat( listener.isBreached() ).isTrue();
+    }
+
+    @Test
+    void unavailable_values_neither_breach_nor_clear() {
+        final ThresholdListener<FileDescriptorsReading> listener =
+            ThresholdListener.below( "fd.free", reading -> reading.getMax() - reading.getOpen(), 10, 100, this::record );
+        snapshot.addListener( listener );
+
+        refreshWith( 0, -1 );
+        refreshWith( 995, 1000 );
+        refreshWith( -1, -1 );
+
+        assertThat( transitions ).containsExactly( "fd.free breached 5.00" );
+    }
+
+    @Test
+    void evaluates_the_rate_of_a_counter() {
+        snapshot.addListener( ThresholdListener.rateAbove( "fd.opened", FileDescriptorsReading::getOpen, 50, 10,
+                                                           this::record ) );
+
+        refreshWith( 100, 1000 );
+        refreshWith( 200, 1000 );
+        refreshWith( 205, 1000 );
+
+        assertThat( transitions ).containsExactly( "fd.opened breached 100.00", "fd.opened cleared 5.00" );
+    }
+
+    @Test
+    void failing_callbacks_are_counted_reported_to_the_snapshot_and_do_not_stop_the_refresh() {
+        final List<RuntimeException> failures = new ArrayList<>();
+        final ThresholdListener<FileDescriptorsReading> listener =
+            ThresholdListener.above( "fd", ThresholdListenerTest::usage, 0.9, 0.8, ( name, breached, value ) -> {
+                throw new IllegalStateException( "admission control is down" );
+            } );
+        snapshot.addListener( listener );
+        snapshot.setLoadListener( new LoadListener() {
+            @Override
+            public void onLoad( final Outcome outcome, final long startTick, final long endTick ) {
+                // Only the listener failures matter here
+            }
+
+            @Override
+            public void onListenerFailure( final RuntimeException failure ) {
+                failures.add( failure );
+            }
+        } );
+
+        refreshWith( 95, 100 );
+
+        assertThat( listener.getCallbackFailures() ).isEqualTo( 1 );
+        assertThat( failures ).extracting( Throwable::getMessage ).containsExactly( "admission control is down" );
+        assertThat( listener.isBreached() ).isTrue();
+        assertThat( snapshot.get().getOpen() ).isEqualTo( 95 );
+    }
+
+    @Test
+    void rejects_a_clearing_level_past_the_breaching_one() {
+        assertThatThrownBy( () -> ThresholdListener.above( "fd", ThresholdListenerTest::usage, 0.8, 0.9, this::record ) )
+            .isInstanceOf( IllegalArgumentException.class );
+    }
+
+}
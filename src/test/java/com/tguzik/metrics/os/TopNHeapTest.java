@@ -0,0 +1,39 @@
+package com.tguzik.metrics.os;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class TopNHeapTest {
+
+    @Test
+    void keeps_the_largest_values_in_descending_order() {
+        final TopNHeap heap = new TopNHeap( 3 );
+        final long[] values = { 5, 1, 9, 3, 7, 9, 2 };
+
+        for ( int i = 0; i < values.length; i++ ) {
+            heap.offer( values[i], i );
+        }
+
+        final int[] items = new int[3];
+        final long[] ranked = new long[3];
+
+        assertThat( heap.drainDescending( items, ranked ) ).isEqualTo( 3 );
+        assertThat( ranked ).containsExactly( 9, 9, 7 );
+        assertThat( items ).contains( 2, 5, 4 ).endsWith( 4 );
+        assertThat( heap.size() ).isZero();
+    }
+
+    @Test
+    void holds_fewer_items_than_capacity_when_offered_fewer() {
+        final TopNHeap heap = new TopNHeap( 5 );
+        heap.offer( 1, 0 );
+        heap.offer( 2, 1 );
+
+        final int[] items = new int[5];
+
+        assertThat( heap.drainDescending( items, new long[5] ) ).isEqualTo( 2 );
+        assertThat( items ).startsWith( 1, 0 );
+    }
+
+}
@@ -0,0 +1,138 @@
+package com.tguzik.metrics.os;
+
+import static com.tguzik.metrics.os.ManualSnapshot.gaugeValue;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.Metric;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TopProcessGaugeSetTest {
+    private ManualSnapshot<ProcessesReading> processes;
+    private TopProcessGaugeSet gaugeSet;
+
+    @BeforeEach
+    void setUp() {
+        this.processes = new ManualSnapshot<>( "proc.all", reading( process( 1, "init", 100, 10 ),
+                                                                    process( 200, "java", 5_000, 4_000 ),
+                                                                    process( 300, "postgres", 1_000, 8_000 ),
+                                                                    process( 400, "cron", 10, 20 ) ) );
+        this.gaugeSet = new TopProcessGaugeSet( processes.getSnapshot(), 2 );
+    }
+
+    private static ProcessesReading reading( final ProcessRow... processes ) {
+        final ProcessesReading reading = new ProcessesReading( processes.length );
+
+        for ( final ProcessRow process : processes ) {
+            reading.add( process.pid, process.name, process.cpuTime, process.residentSize );
+        }
+
+        return reading;
+    }
+
+    private static ProcessRow process( final int pid, final String name, final long cpuTime, final long residentSize ) {
+        return new ProcessRow( pid, name, cpuTime, residentSize );
+    }
+
+    @Test
+    void provides_a_stable_set_of_ranks() {
+        assertThat( gaugeSet.getMetrics() ).containsOnlyKeys( "proc.top.cpu.1.name",
+                                                              "proc.top.cpu.1.pid",
+                                                              "proc.top.cpu.1.value",
+                                                              "proc.top.cpu.2.name",
+                                                              "proc.top.cpu.2.pid",
+                                                              "proc.top.cpu.2.value",
+                                                              "proc.top.memory.1.name",
+                                                              "proc.top.memory.1.pid",
+                                                              "proc.top.memory.1.value",
+                                                              "proc.top.memory.2.name",
+                                                              "proc.top.memory.2.pid",
+                                                              "proc.top.memory.2.value" );
+    }
+
+    @Test
+    void ranks_by_resident_size_right_away() {
+        final Map<String, Metric> metrics = gaugeSet.getMetrics();
+
+        assertThat( gaugeValue( metrics, "proc.top.memory.1.name" ) ).isEqualTo( "postgres" );
+        assertThat( gaugeValue( metrics, "proc.top.memory.1.value" ) ).isEqualTo( 8_000L );
+        assertThat( gaugeValue( metrics, "proc.top.memory.2.name" ) ).isEqualTo( "java" );
+        assertThat( gaugeValue( metrics, "proc.top.memory.2.pid" ) ).isEqualTo( 200L );
+    }
+
+    @Test
+    void ranks_by_cpu_time_consumed_since_the_previous_enumeration() {
+        final Map<String, Metric> metrics = gaugeSet.getMetrics();
+
+        assertThat( gaugeValue( metrics, "proc.top.cpu.1.name" ) ).isEqualTo( "" );
+        assertThat( gaugeValue( metrics, "proc.top.cpu.1.value" ) ).isEqualTo( DerivedDoubleGauge.UNAVAILABLE );
+
+        processes.refreshAfter( 2,
+                                TimeUnit.SECONDS,
+                                reading( process( 1, "init", 100, 10 ),
+                                         process( 200, "java", 5_500, 4_000 ),
+                                         process( 300, "postgres", 3_000, 8_000 ) ) );
+
+        assertThat( gaugeValue( metrics, "proc.top.cpu.1.name" ) ).isEqualTo( "postgres" );
+        assertThat( (Double) gaugeValue( metrics, "proc.top.cpu.1.value" ) ).isCloseTo( 1.0, within( 1e-9 ) );
+        assertThat( gaugeValue( metrics, "proc.top.cpu.2.name" ) ).isEqualTo( "java" );
+        assertThat( (Double) gaugeValue( metrics, "proc.top.cpu.2.value" ) ).isCloseTo( 0.25, within( 1e-9 ) );
+    }
+
+    @Test
+    void new_and_reused_pids_count_all_of_their_cpu_time() {
+        final Map<String, Metric> metrics = gaugeSet.getMetrics();
+        processes.getSnapshot().get();
+
+        processes.refreshAfter( 2,
+                                TimeUnit.SECONDS,
+                                reading( process( 200, "backup", 600, 10 ), process( 500, "cron", 1_000, 10 ) ) );
+
+        assertThat( gaugeValue( metrics, "proc.top.cpu.1.pid" ) ).isEqualTo( 500L );
+        assertThat( gaugeValue( metrics, "proc.top.cpu.2.name" ) ).isEqualTo( "backup" );
+        assertThat( (Double) gaugeValue( metrics, "proc.top.cpu.2.value" ) ).isCloseTo( 0.3, within( 1e-9 ) );
+    }
+
+    @Test
+    void ranks_without_a_process_are_unavailable() {
+        final Map<String, Metric> metrics = gaugeSet.getMetrics();
+
+        processes.refreshAfter( 2, TimeUnit.SECONDS, reading( process( 1, "init", 100, 10 ) ) );
+
+        assertThat( gaugeValue( metrics, "proc.top.memory.1.name" ) ).isEqualTo( "init" );
+        assertThat( gaugeValue( metrics, "proc.top.memory.2.name" ) ).isEqualTo( "" );
+        assertThat( gaugeValue( metrics, "proc.top.memory.2.pid" ) ).isEqualTo( RankedProcesses.UNAVAILABLE );
+        assertThat( gaugeValue( metrics, "proc.top.memory.2.value" ) ).isEqualTo( RankedProcesses.UNAVAILABLE );
+    }
+
+    @Test
+    void ranks_by_cpu_time_across_a_wrap_around_of_the_ticks() {
+        final TopProcessTracker tracker = new TopProcessTracker( 1 );
+        final long tick = Long.MAX_VALUE - TimeUnit.SECONDS.toNanos( 1 );
+
+        tracker.onRefresh( reading( process( 200, "java", 5_000, 4_000 ) ), tick );
+        tracker.onRefresh( reading( process( 200, "java", 5_500, 4_000 ) ), tick + TimeUnit.SECONDS.toNanos( 2 ) );
+
+        assertThat( tracker.getByCpu().getName( 1 ) ).isEqualTo( "java" );
+        assertThat( tracker.getByCpu().getValue( 1 ) ).isEqualTo( 500L );
+    }
+
+    private static final class ProcessRow {
+        private final String name;
+        private final long residentSize;
+        private final long cpuTime;
+        private final int pid;
+
+        private ProcessRow( final int pid, final String name, final long cpuTime, final long residentSize ) {
+            this.name = name;
+            this.residentSize = residentSize;
+            this.cpuTime = cpuTime;
+            this.pid = pid;
+        }
+    }
+
+}
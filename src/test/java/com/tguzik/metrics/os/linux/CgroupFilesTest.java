@@ -0,0 +1,169 @@
+package com.tguzik.metrics.os.linux;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import com.tguzik.metrics.os.CgroupCounter;
+import com.tguzik.metrics.os.CgroupReading;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CgroupFilesTest {
+    @TempDir
+    Path directory;
+
+    private Path fixture( final String name ) throws URISyntaxException {
+        return Paths.get( CgroupFilesTest.class.getResource( "/cgroup/" + name ).toURI() );
+    }
+
+    private Path write( final String path, final String... lines ) throws IOException {
+        final Path file = directory.resolve( path );
+
+        Files.createDirectories( file.getParent() );
+        return Files.write( file, Arrays.asList( lines ), StandardCharsets.US_ASCII );
+    }
+
+    @Test
+    void detects_the_layout_of_the_filesystem() throws Exception {
+        assertThat( CgroupFiles.detect( fixture( "v2" ) ) ).isInstanceOf( CgroupV2Files.class );
+        assertThat( CgroupFiles.detect( fixture( "v1" ) ) ).isInstanceOf( CgroupV1Files.class );
+        assertThat( CgroupFiles.detect( fixture( "none" ) ) ).isNull();
+    }
+
+    @Test
+    void linux_probes_read_the_cgroup_from_given_root() throws Exception {
+        final LinuxProbes probes = new LinuxProbes( () -> {
+            throw new AssertionError( "oshi should not be needed" );
+        }, fixture( "none" ), fixture( "v2" ) );
+
+        assertThat( probes.getCgroup().get( CgroupCounter.MEMORY_LIMIT ) ).isEqualTo( 536_870_912L );
+        assertThat( new LinuxProbes( () -> null, fixture( "none" ), fixture( "none" ) ).getCgroup() ).isNull();
+    }
+
+    @Test
+    void reads_the_unified_group_listed_for_this_process() throws Exception {
+        write( "sys/fs/cgroup/cgroup.controllers", "cpu memory" );
+        write( "sys/fs/cgroup/memory.max", "max" );
+        write( "sys/fs/cgroup/system.slice/app.service/memory.max", "1048576" );
+        final Path self = write( "proc/self/cgroup", "0::/system.slice/app.service" );
+
+        final CgroupReading reading = CgroupFiles.detect( directory.resolve( "sys/fs/cgroup" ), self ).read();
+
+        assertThat( reading.get( CgroupCounter.MEMORY_LIMIT ) ).isEqualTo( 1_048_576L );
+    }
+
+    @Test
+    void reads_the_group_of_each_v1_controller_listed_for_this_process() throws Exception {
+        write( "sys/fs/cgroup/memory/memory.limit_in_bytes", "9223372036854771712" );
+        write( "sys/fs/cgroup/memory/user.slice/memory.limit_in_bytes", "2097152" );
+        write( "sys/fs/cgroup/cpu,cpuacct/batch/cpu.cfs_quota_us", "50000" );
+        write( "sys/fs/cgroup/cpu,cpuacct/batch/cpu.cfs_period_us", "100000" );
+        final Path self = write( "proc/self/cgroup",
+                                 "12:pids:/user.slice",
+                                 "7:memory:/user.slice",
+                                 "3:cpu,cpuacct:/batch",
+                                 "0::/user.slice" );
+
+        final CgroupReading reading = CgroupFiles.detect( directory.resolve( "sys/fs/cgroup" ), self ).read();
+
+        assertThat( reading.get( CgroupCounter.MEMORY_LIMIT ) ).isEqualTo( 2_097_152L );
+        assertThat( reading.getCpuLimit() ).isEqualTo( 0.5 );
+    }
+
+    @Test
+    void falls_back_to_the_root_when_the_listed_group_is_not_mounted_there() throws Exception {
+        write( "sys/fs/cgroup/cgroup.controllers", "cpu memory" );
+        write( "sys/fs/cgroup/memory.max", "4194304" );
+        final Path self = write( "proc/self/cgroup", "0::/kubepods/pod1234/container" );
+
+        final CgroupReading reading = CgroupFiles.detect( directory.resolve( "sys/fs/cgroup" ), self ).read();
+
+        assertThat( reading.get( CgroupCounter.MEMORY_LIMIT ) ).isEqualTo( 4_194_304L );
+        assertThat( CgroupFiles.detect( directory.resolve( "sys/fs/cgroup" ), directory.resolve( "missing" ) ).read()
+                               .get( CgroupCounter.MEMORY_LIMIT ) ).isEqualTo( 4_194_304L );
+    }
+
+    @Nested
+    class Version2 {
+        private CgroupReading reading;
+
+        @BeforeEach
+        void setUp() throws Exception {
+            this.reading = CgroupFiles.detect( fixture( "v2" ) ).read();
+        }
+
+        @Test
+        void reads_memory() {
+            assertThat( reading.getVersion() ).isEqualTo( 2 );
+            assertThat( reading.get( CgroupCounter.MEMORY_LIMIT ) ).isEqualTo( 536_870_912L );
+            assertThat( reading.get( CgroupCounter.MEMORY_USAGE ) ).isEqualTo( 314_572_800L );
+            assertThat( reading.get( CgroupCounter.MEMORY_WORKING_SET ) ).isEqualTo( 314_572_800L - 41_943_040L );
+            assertThat( reading.get( CgroupCounter.OOM_EVENTS ) ).isEqualTo( 3 );
+            assertThat( reading.get( CgroupCounter.OOM_KILLS ) ).isEqualTo( 2 );
+        }
+
+        @Test
+        void reads_cpu_quota_and_throttling() {
+            assertThat( reading.get( CgroupCounter.CPU_QUOTA ) ).isEqualTo( 150_000L );
+            assertThat( reading.get( CgroupCounter.CPU_PERIOD ) ).isEqualTo( 100_000L );
+            assertThat( reading.getCpuLimit() ).isEqualTo( 1.5 );
+            assertThat( reading.get( CgroupCounter.CPU_PERIODS ) ).isEqualTo( 4200 );
+            assertThat( reading.get( CgroupCounter.CPU_THROTTLED_PERIODS ) ).isEqualTo( 420 );
+            assertThat( reading.get( CgroupCounter.CPU_THROTTLED_TIME ) ).isEqualTo( 8_400_000L );
+        }
+
+        @Test
+        void reads_pressure_totals_and_leaves_missing_files_unavailable() {
+            assertThat( reading.get( CgroupCounter.CPU_PRESSURE_SOME ) ).isEqualTo( 1_200_000L );
+            assertThat( reading.get( CgroupCounter.CPU_PRESSURE_FULL ) ).isZero();
+            assertThat( reading.get( CgroupCounter.MEMORY_PRESSURE_SOME ) ).isEqualTo( 3400 );
+            assertThat( reading.get( CgroupCounter.MEMORY_PRESSURE_FULL ) ).isEqualTo( 1700 );
+            assertThat( reading.get( CgroupCounter.IO_PRESSURE_SOME ) ).isEqualTo( CgroupReading.UNAVAILABLE );
+            assertThat( reading.get( CgroupCounter.IO_PRESSURE_FULL ) ).isEqualTo( CgroupReading.UNAVAILABLE );
+        }
+    }
+
+    @Nested
+    class Version1 {
+        private CgroupReading reading;
+
+        @BeforeEach
+        void setUp() throws Exception {
+            this.reading = CgroupFiles.detect( fixture( "v1" ) ).read();
+        }
+
+        @Test
+        void reads_memory_and_treats_the_huge_limit_as_none() {
+            assertThat( reading.getVersion() ).isEqualTo( 1 );
+            assertThat( reading.get( CgroupCounter.MEMORY_LIMIT ) ).isEqualTo( CgroupReading.UNAVAILABLE );
+            assertThat( reading.get( CgroupCounter.MEMORY_USAGE ) ).isEqualTo( 209_715_200L );
+            assertThat( reading.get( CgroupCounter.MEMORY_WORKING_SET ) ).isEqualTo( 209_715_200L - 52_428_800L );
+            assertThat( reading.get( CgroupCounter.OOM_KILLS ) ).isEqualTo( 1 );
+            assertThat( reading.get( CgroupCounter.OOM_EVENTS ) ).isEqualTo( CgroupReading.UNAVAILABLE );
+        }
+
+        @Test
+        void reads_cpu_quota_and_converts_throttled_time_to_microseconds() {
+            assertThat( reading.getCpuLimit() ).isEqualTo( 2.0 );
+            assertThat( reading.get( CgroupCounter.CPU_PERIODS ) ).isEqualTo( 1000 );
+            assertThat( reading.get( CgroupCounter.CPU_THROTTLED_PERIODS ) ).isEqualTo( 100 );
+            assertThat( reading.get( CgroupCounter.CPU_THROTTLED_TIME ) ).isEqualTo( TimeUnit.SECONDS.toMicros( 5 ) );
+        }
+
+        @Test
+        void has_no_pressure_information() {
+            assertThat( reading.get( CgroupCounter.CPU_PRESSURE_SOME ) ).isEqualTo( CgroupReading.UNAVAILABLE );
+        }
+    }
+
+}
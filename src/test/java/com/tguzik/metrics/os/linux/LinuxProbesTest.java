@@ -0,0 +1,232 @@
+package com.tguzik.metrics.os.linux;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import com.tguzik.metrics.os.CpuCountersReading;
+import com.tguzik.metrics.os.FileDescriptorsReading;
+import com.tguzik.metrics.os.FileSystemCounter;
+import com.tguzik.metrics.os.FileSystemReading;
+import com.tguzik.metrics.os.MemoryReading;
+import com.tguzik.metrics.os.VirtualMemoryReading;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+import oshi.SystemInfo;
+import oshi.software.os.InternetProtocolStats.TcpStats;
+import oshi.software.os.InternetProtocolStats.UdpStats;
+
+class LinuxProbesTest {
+    private SystemInfo systemInfo;
+
+    @BeforeEach
+    void setUp() {
+        this.systemInfo = mock( SystemInfo.class, RETURNS_DEEP_STUBS );
+        when( systemInfo.getHardware().getMemory().getPageSize() ).thenReturn( 4096L );
+    }
+
+    private static Path fixture( final String name ) throws URISyntaxException {
+        return Paths.get( LinuxProbesTest.class.getResource( "/proc/" + name ).toURI() );
+    }
+
+    @Test
+    void recognizes_directories_that_look_like_procfs() throws Exception {
+        assertThat( LinuxProbes.isSupported( fixture( "modern" ) ) ).isTrue();
+        assertThat( LinuxProbes.isSupported( fixture( "modern" ).resolve( "net" ) ) ).isFalse();
+    }
+
+    @Nested
+    class ModernKernel {
+        private LinuxProbes probes;
+
+        @BeforeEach
+        void setUp() throws Exception {
+            this.probes = new LinuxProbes( systemInfo, fixture( "modern" ) );
+        }
+
+        @Test
+        void reads_tcp_statistics() {
+            final TcpStats stats = probes.getTcpV4Stats();
+
+            assertThat( stats.getConnectionsEstablished() ).isEqualTo( 6 );
+            assertThat( stats.getConnectionsActive() ).isEqualTo( 24 );
+            assertThat( stats.getConnectionsPassive() ).isEqualTo( 8 );
+            assertThat( stats.getConnectionFailures() ).isEqualTo( 3 );
+            assertThat( stats.getConnectionsReset() ).isEqualTo( 2 );
+            assertThat( stats.getSegmentsSent() ).isEqualTo( 8649 );
+            assertThat( stats.getSegmentsReceived() ).isEqualTo( 10217 );
+            assertThat( stats.getSegmentsRetransmitted() ).isEqualTo( 11 );
+            assertThat( stats.getInErrors() ).isEqualTo( 5 );
+            assertThat( stats.getOutResets() ).isEqualTo( 32 );
+        }
+
+        @Test
+        void reads_udp_statistics_without_mixing_them_up_with_udp_lite() {
+            final UdpStats stats = probes.getUdpV4Stats();
+
+            assertThat( stats.getDatagramsSent() ).isEqualTo( 130 );
+            assertThat( stats.getDatagramsReceived() ).isEqualTo( 120 );
+            assertThat( stats.getDatagramsNoPort() ).isEqualTo( 7 );
+            assertThat( stats.getDatagramsReceivedErrors() ).isEqualTo( 4 );
+        }
+
+        @Test
+        void reads_udp6_statistics() {
+            final UdpStats stats = probes.getUdpV6Stats();
+
+            assertThat( stats.getDatagramsSent() ).isEqualTo( 24 );
+            assertThat( stats.getDatagramsReceived() ).isEqualTo( 21 );
+            assertThat( stats.getDatagramsNoPort() ).isEqualTo( 22 );
+            assertThat( stats.getDatagramsReceivedErrors() ).isEqualTo( 23 );
+        }
+
+        @Test
+        void reads_memory() {
+            final MemoryReading memory = probes.getMemory();
+
+            assertThat( memory.getTotal() ).isEqualTo( 6158152L * 1024 );
+            assertThat( memory.getAvailable() ).isEqualTo( 4000000L * 1024 );
+            assertThat( memory.getPageSize() ).isEqualTo( 4096L );
+        }
+
+        @Test
+        void reads_virtual_memory() {
+            final VirtualMemoryReading memory = probes.getVirtualMemory();
+
+            assertThat( memory.getSwapTotal() ).isEqualTo( 2097148L * 1024 );
+            assertThat( memory.getSwapUsed() ).isEqualTo( 97148L * 1024 );
+            assertThat( memory.getVirtualMax() ).isEqualTo( 5176224L * 1024 );
+            assertThat( memory.getVirtualInUse() ).isEqualTo( ( 6158152L - 4000000L + 97148L ) * 1024 );
+        }
+
+        @Test
+        void reads_cpu_counters() {
+            final CpuCountersReading counters = probes.getCpuCounters();
+
+            assertThat( counters.getInterrupts() ).isEqualTo( 216661 );
+            assertThat( counters.getContextSwitches() ).isEqualTo( 785134 );
+        }
+
+        @Test
+        void counts_logical_processors_without_asking_oshi() throws Exception {
+            final LinuxProbes withoutOshi = new LinuxProbes( () -> {
+                throw new AssertionError( "oshi should not be initialized" );
+            }, fixture( "modern" ) );
+
+            assertThat( withoutOshi.getLogicalProcessorCount() ).isEqualTo( 2 );
+        }
+
+        @Test
+        void reads_cpu_ticks_of_the_system_and_each_processor() {
+            final long[][] ticks = new long[4][8];
+
+            probes.readCpuTicks( ticks );
+
+            assertThat( ticks[0] ).containsExactly( 44005, 10, 1898, 92542, 224, 5, 15, 752 );
+            assertThat( ticks[1] ).containsExactly( 22000, 10, 900, 46000, 200, 5, 10, 700 );
+            assertThat( ticks[2] ).containsExactly( 22005, 0, 998, 46542, 24, 0, 5, 52 );
+            assertThat( ticks[3] ).containsOnly( ProcFile.UNAVAILABLE );
+        }
+
+        @Test
+        void reads_file_descriptors() {
+            final FileDescriptorsReading descriptors = probes.getFileDescriptors();
+
+            assertThat( descriptors.getOpen() ).isEqualTo( 282 );
+            assertThat( descriptors.getMax() ).isEqualTo( 613820 );
+        }
+
+        @Test
+        void lists_mount_points_without_the_pseudo_file_systems() {
+            assertThat( probes.getMountPoints() ).containsExactly( "/",
+                                                                   "/run",
+                                                                   "/boot/efi",
+                                                                   "/mnt/home of users",
+                                                                   "/var/lib/docker/overlay2/merged" );
+        }
+
+        @Test
+        @EnabledOnOs( OS.LINUX )
+        void reads_the_usage_of_a_single_mount() {
+            final FileSystemReading reading = probes.getFileSystem( "/" );
+            final long total = reading.get( FileSystemCounter.SPACE_TOTAL );
+            final long free = reading.get( FileSystemCounter.SPACE_FREE );
+
+            assertThat( total ).isPositive();
+            assertThat( free ).isBetween( 0L, total );
+            assertThat( reading.get( FileSystemCounter.SPACE_USABLE ) ).isBetween( 0L, free );
+            assertThat( reading.get( FileSystemCounter.INODES_FREE ) ).isNotNegative();
+        }
+
+        @Test
+        void returns_the_same_values_when_read_again() {
+            probes.getMemory();
+            probes.getCpuCounters();
+
+            assertThat( probes.getMemory().getAvailable() ).isEqualTo( 4000000L * 1024 );
+            assertThat( probes.getCpuCounters().getContextSwitches() ).isEqualTo( 785134 );
+        }
+    }
+
+    @Nested
+    class OldKernel {
+        private LinuxProbes probes;
+
+        @BeforeEach
+        void setUp() throws Exception {
+            this.probes = new LinuxProbes( systemInfo, fixture( "old-kernel" ) );
+        }
+
+        @Test
+        void estimates_available_memory_when_the_kernel_does_not_report_it() {
+            assertThat( probes.getMemory().getAvailable() ).isEqualTo( ( 100000L + 10000L + 20000L + 5000L ) * 1024 );
+        }
+
+        @Test
+        void does_not_estimate_available_memory_from_missing_values( @TempDir final Path procRoot ) throws Exception {
+            Files.write( procRoot.resolve( "meminfo" ),
+                         Arrays.asList( "MemTotal:        2000000 kB",
+                                        "MemFree:          100000 kB",
+                                        "Active(file):      10000 kB",
+                                        "Inactive(file):    20000 kB",
+                                        "SwapTotal:             0 kB",
+                                        "SwapFree:              0 kB" ),
+                         StandardCharsets.US_ASCII );
+
+            final LinuxProbes incomplete = new LinuxProbes( systemInfo, procRoot );
+
+            assertThat( incomplete.getMemory().getAvailable() ).isEqualTo( ProcFile.UNAVAILABLE );
+            assertThat( incomplete.getVirtualMemory().getVirtualInUse() ).isEqualTo( ProcFile.UNAVAILABLE );
+            assertThat( incomplete.getVirtualMemory().getSwapUsed() ).isZero();
+        }
+
+        @Test
+        void marks_missing_values_as_unavailable() {
+            assertThat( probes.getCpuCounters().getInterrupts() ).isEqualTo( 1 );
+            assertThat( probes.getCpuCounters().getContextSwitches() ).isEqualTo( ProcFile.UNAVAILABLE );
+        }
+
+        @Test
+        void falls_back_to_oshi_when_a_file_is_missing() {
+            probes.getFileDescriptors();
+            probes.getTcpV4Stats();
+
+            verify( systemInfo.getOperatingSystem().getFileSystem() ).getOpenFileDescriptors();
+            verify( systemInfo.getOperatingSystem().getInternetProtocolStats() ).getTCPv4Stats();
+        }
+    }
+
+}
@@ -0,0 +1,116 @@
+package com.tguzik.metrics.os.linux;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ProcFileTest {
+    @TempDir
+    Path directory;
+
+    private static byte[] key( final String key ) {
+        return key.getBytes( StandardCharsets.US_ASCII );
+    }
+
+    private ProcFile fileWith( final String content ) throws IOException {
+        final Path path = directory.resolve( "file" );
+        Files.write( path, content.getBytes( StandardCharsets.US_ASCII ) );
+        return new ProcFile( path );
+    }
+
+    @Test
+    void reads_keyed_values() throws IOException {
+        final long[] values = new long[3];
+
+        fileWith( "first: 1 kB\nsecond\t-22\nfirst_not: 7\n\nthird:\n" ).readKeyedValues( new byte[][] { key( "first" ),
+                                                                                                       key( "second" ),
+                                                                                                       key( "third" ) },
+                                                                                        values );
+
+        assertThat( values ).containsExactly( 1, -22, ProcFile.UNAVAILABLE );
+    }
+
+    @Test
+    void reads_table_rows() throws IOException {
+        final long[] values = new long[3];
+
+        fileWith( "Other: A B\nOther: 8 9\nRow: A B C\nRow: 1 2\n" ).readTableRow( key( "Row" ),
+                                                                                   new byte[][] { key( "B" ),
+                                                                                                  key( "A" ),
+                                                                                                  key( "C" ) },
+                                                                                   values );
+
+        assertThat( values ).containsExactly( 2, 1, ProcFile.UNAVAILABLE );
+    }
+
+    @Test
+    void reads_named_fields_of_rows() throws IOException {
+        final long[] values = new long[3];
+
+        fileWith( "some avg10=1.50 total=123\nfull avg10=0.00 totals=9 total=45\nnone total=7\n" )
+            .readFields( new byte[][] { key( "some" ), key( "full" ), key( "other" ) }, key( "total=" ), values );
+
+        assertThat( values ).containsExactly( 123, 45, ProcFile.UNAVAILABLE );
+    }
+
+    @Test
+    void reads_indexed_rows() throws IOException {
+        final long[][] values = new long[3][2];
+
+        fileWith( "cpu 1 2 3\ncpu1 5 6\ncpux 9 9\ncpu0 3\ncpu2 8 8\nintr 7 7\n" ).readIndexedRows( key( "cpu" ), values );
+
+        assertThat( values[0] ).containsExactly( 1, 2 );
+        assertThat( values[1] ).containsExactly( 3, ProcFile.UNAVAILABLE );
+        assertThat( values[2] ).containsExactly( 5, 6 );
+    }
+
+    @Test
+    void counts_indexed_rows_up_to_the_highest_index() throws IOException {
+        final ProcFile file = fileWith( "cpu 1 2 3\ncpu0 3\ncpu2 8 8\ncpux 9 9\nintr 7 7\n" );
+
+        assertThat( file.countIndexedRows( key( "cpu" ) ) ).isEqualTo( 3 );
+        assertThat( file.countIndexedRows( key( "intr" ) ) ).isEqualTo( 0 );
+    }
+
+    @Test
+    void reads_plain_values() throws IOException {
+        final long[] values = new long[4];
+
+        fileWith( "1\t2 3\n4\n" ).readValues( values );
+
+        assertThat( values ).containsExactly( 1, 2, 3, ProcFile.UNAVAILABLE );
+    }
+
+    @Test
+    void grows_the_buffer_for_large_files() throws IOException {
+        final StringBuilder content = new StringBuilder();
+        for ( int i = 0; i < 1000; i++ ) {
+            content.append( "filler" ).append( i ).append( ' ' ).append( i ).append( '\n' );
+        }
+        content.append( "last 42\n" );
+
+        final ProcFile file = fileWith( content.toString() );
+        final long[] values = new long[2];
+
+        file.readKeyedValues( new byte[][] { key( "filler5" ), key( "last" ) }, values );
+        file.readKeyedValues( new byte[][] { key( "filler5" ), key( "last" ) }, values );
+
+        assertThat( values ).containsExactly( 5, 42 );
+    }
+
+    @Test
+    void propagates_missing_files() {
+        final ProcFile file = new ProcFile( directory.resolve( "missing" ) );
+
+        assertThatThrownBy( () -> file.readValues( new long[1] ) ).isInstanceOf( NoSuchFileException.class );
+    }
+
+}